@@ -99,6 +99,12 @@ public interface MessageBus extends Closeable {
 
     MPSequence getQueryCacheEventPubSeq();
 
+    Sequence getSortPubSeq();
+
+    RingQueue<SortTask> getSortQueue();
+
+    Sequence getSortSubSeq();
+
     FanOut getTableWriterEventFanOut();
 
     MPSequence getTableWriterEventPubSeq();
@@ -68,6 +68,9 @@ public class MessageBusImpl implements MessageBus {
     private final MCSequence[] pageFrameReduceSubSeq;
     private final MPSequence queryCacheEventPubSeq;
     private final FanOut queryCacheEventSubSeq;
+    private final MPSequence sortPubSeq;
+    private final RingQueue<SortTask> sortQueue;
+    private final MCSequence sortSubSeq;
     private final MPSequence tableWriterEventPubSeq;
     private final RingQueue<TableWriterTask> tableWriterEventQueue;
     private final FanOut tableWriterEventSubSeq;
@@ -127,6 +130,11 @@ public class MessageBusImpl implements MessageBus {
         this.latestBySubSeq = new MCSequence(latestByQueue.getCycle());
         latestByPubSeq.then(latestBySubSeq).then(latestByPubSeq);
 
+        this.sortQueue = new RingQueue<>(SortTask::new, configuration.getSortQueueCapacity());
+        this.sortPubSeq = new MPSequence(sortQueue.getCycle());
+        this.sortSubSeq = new MCSequence(sortQueue.getCycle());
+        sortPubSeq.then(sortSubSeq).then(sortPubSeq);
+
         this.tableWriterEventQueue = new RingQueue<>(
                 TableWriterTask::new,
                 configuration.getWriterCommandQueueSlotSize(),
@@ -357,6 +365,21 @@ public class MessageBusImpl implements MessageBus {
         return queryCacheEventPubSeq;
     }
 
+    @Override
+    public Sequence getSortPubSeq() {
+        return sortPubSeq;
+    }
+
+    @Override
+    public RingQueue<SortTask> getSortQueue() {
+        return sortQueue;
+    }
+
+    @Override
+    public Sequence getSortSubSeq() {
+        return sortSubSeq;
+    }
+
     @Override
     public FanOut getTableWriterEventFanOut() {
         return tableWriterEventSubSeq;
@@ -26,6 +26,7 @@ package io.questdb;
 
 import io.questdb.cairo.TableWriterMetrics;
 import io.questdb.cutlass.http.processors.JsonQueryMetrics;
+import io.questdb.cutlass.line.tcp.LineTcpMetrics;
 import io.questdb.cutlass.pgwire.PGWireMetrics;
 import io.questdb.metrics.*;
 import io.questdb.std.MemoryTag;
@@ -37,6 +38,7 @@ public class Metrics implements Scrapable {
     private final GCMetrics gcMetrics;
     private final HealthMetricsImpl healthCheck;
     private final JsonQueryMetrics jsonQuery;
+    private final LineTcpMetrics lineTcp;
     private final MetricsRegistry metricsRegistry;
     private final PGWireMetrics pgWire;
     private final Runtime runtime = Runtime.getRuntime();
@@ -50,6 +52,7 @@ public class Metrics implements Scrapable {
         this.gcMetrics = new GCMetrics();
         this.jsonQuery = new JsonQueryMetrics(metricsRegistry);
         this.pgWire = new PGWireMetrics(metricsRegistry);
+        this.lineTcp = new LineTcpMetrics(metricsRegistry);
         this.healthCheck = new HealthMetricsImpl(metricsRegistry);
         this.tableWriter = new TableWriterMetrics(metricsRegistry);
         createMemoryGauges(metricsRegistry);
@@ -76,6 +79,10 @@ public class Metrics implements Scrapable {
         return jsonQuery;
     }
 
+    public LineTcpMetrics lineTcp() {
+        return lineTcp;
+    }
+
     public PGWireMetrics pgWire() {
         return pgWire;
     }
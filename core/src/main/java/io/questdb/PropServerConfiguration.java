@@ -131,6 +131,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean isWalSupported;
     private final JsonQueryProcessorConfiguration jsonQueryProcessorConfiguration = new PropJsonQueryProcessorConfiguration();
     private final int latestByQueueCapacity;
+    private final boolean lineHttpEnabled;
     private final boolean lineTcpEnabled;
     private final WorkerPoolConfiguration lineTcpIOWorkerPoolConfiguration = new PropLineTcpIOWorkerPoolConfiguration();
     private final LineTcpReceiverConfiguration lineTcpReceiverConfiguration = new PropLineTcpReceiverConfiguration();
@@ -167,6 +168,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean o3QuickSortEnabled;
     private final int parallelIndexThreshold;
     private final boolean parallelIndexingEnabled;
+    private final boolean partitionZoneMapsEnabled;
     private final boolean pgEnabled;
     private final PGWireConfiguration pgWireConfiguration = new PropPGWireConfiguration();
     private final PropPGWireDispatcherConfiguration propPGWireDispatcherConfiguration = new PropPGWireDispatcherConfiguration();
@@ -190,6 +192,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final String snapshotInstanceId;
     private final boolean snapshotRecoveryEnabled;
     private final String snapshotRoot;
+    private final int sortQueueCapacity;
     private final long spinLockTimeout;
     private final int sqlAnalyticColumnPoolCapacity;
     private final int sqlAnalyticRowIdMaxPages;
@@ -217,6 +220,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlGroupByPoolCapacity;
     private final int sqlHashJoinLightValueMaxPages;
     private final int sqlHashJoinLightValuePageSize;
+    private final int sqlHashJoinSpillPartitions;
     private final int sqlHashJoinValueMaxPages;
     private final int sqlHashJoinValuePageSize;
     private final int sqlInsertModelPoolCapacity;
@@ -244,6 +248,9 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlPageFrameMinRows;
     private final boolean sqlParallelFilterEnabled;
     private final boolean sqlParallelFilterPreTouchEnabled;
+    private final boolean sqlParallelGroupByEnabled;
+    private final boolean sqlParallelSortEnabled;
+    private final long sqlQueryMemoryBudget;
     private final int sqlRenameTableModelPoolCapacity;
     private final int sqlSmallMapKeyCapacity;
     private final int sqlSortKeyMaxPages;
@@ -265,6 +272,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final TextConfiguration textConfiguration = new PropTextConfiguration();
     private final int vectorAggregateQueueCapacity;
     private final WorkerPoolConfiguration walApplyPoolConfiguration = new PropWalApplyPoolConfiguration();
+    private final long walApplyCoalesceRowCount;
     private final long walApplySleepTimeout;
     private final int[] walApplyWorkerAffinity;
     private final int walApplyWorkerCount;
@@ -315,6 +323,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int httpNetConnectionRcvBuf;
     private int httpNetConnectionSndBuf;
     private long httpNetConnectionTimeout;
+    private boolean httpNetIOURingEnabled;
     private boolean httpReadOnlySecurityContext;
     private boolean httpServerKeepAlive;
     private String httpVersion;
@@ -335,6 +344,9 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int jsonQueryFloatScale;
     private String keepAliveHeader;
     private String lineTcpAuthDbPath;
+    private double lineTcpBackpressureQueueRatio;
+    private long lineTcpBackpressureWalLag;
+    private boolean lineTcpBinaryFormatSupported;
     private long lineTcpCommitIntervalDefault;
     private double lineTcpCommitIntervalFraction;
     private int lineTcpConnectionPoolInitialCapacity;
@@ -355,8 +367,10 @@ public class PropServerConfiguration implements ServerConfiguration {
     private long lineTcpNetConnectionQueueTimeout;
     private int lineTcpNetConnectionRcvBuf;
     private long lineTcpNetConnectionTimeout;
+    private boolean lineTcpNetIOURingEnabled;
     private LineProtoTimestampAdapter lineTcpTimestampAdapter;
     private int lineTcpWriterQueueCapacity;
+    private double lineTcpWriterRebalanceLoadRatio;
     private int[] lineTcpWriterWorkerAffinity;
     private int lineTcpWriterWorkerCount;
     private boolean lineTcpWriterWorkerPoolHaltOnError;
@@ -419,6 +433,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int sendBufferSize;
     private boolean stringToCharCastAllowed;
     private boolean symbolAsFieldSupported;
+    private int symbolCacheLocalCapacity;
+    private int symbolCacheSharedCapacity;
     private long symbolCacheWaitUsBeforeReload;
     private int textAnalysisMaxLines;
     private int textLexerStringPoolCapacity;
@@ -446,6 +462,7 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.walRecreateDistressedSequencerAttempts = getInt(properties, env, PropertyKey.CAIRO_WAL_RECREATE_DISTRESSED_SEQUENCER_ATTEMPTS, 3);
         this.isWalSupported = getBoolean(properties, env, PropertyKey.CAIRO_WAL_SUPPORTED, false);
         this.walSegmentRolloverRowCount = getLong(properties, env, PropertyKey.CAIRO_WAL_SEGMENT_ROLLOVER_ROW_COUNT, 200_000);
+            this.walApplyCoalesceRowCount = getLong(properties, env, PropertyKey.CAIRO_WAL_APPLY_COALESCE_ROW_COUNT, 100_000);
 
         this.dbDirectory = getString(properties, env, PropertyKey.CAIRO_ROOT, DB_DIRECTORY);
         String tmpRoot;
@@ -583,6 +600,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.httpNetConnectionLimit = getInt(properties, env, PropertyKey.HTTP_NET_ACTIVE_CONNECTION_LIMIT, 64);
                 this.httpNetConnectionLimit = getInt(properties, env, PropertyKey.HTTP_NET_CONNECTION_LIMIT, this.httpNetConnectionLimit);
                 this.httpNetConnectionHint = getBoolean(properties, env, PropertyKey.HTTP_NET_CONNECTION_HINT, false);
+                this.httpNetIOURingEnabled = getBoolean(properties, env, PropertyKey.HTTP_NET_IOURING_ENABLED, false);
                 // deprecated
                 this.httpNetConnectionTimeout = getLong(properties, env, PropertyKey.HTTP_NET_IDLE_CONNECTION_TIMEOUT, 5 * 60 * 1000L);
                 this.httpNetConnectionTimeout = getLong(properties, env, PropertyKey.HTTP_NET_CONNECTION_TIMEOUT, this.httpNetConnectionTimeout);
@@ -726,6 +744,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.httpSqlCacheEnabled = getBoolean(properties, env, PropertyKey.HTTP_QUERY_CACHE_ENABLED, true);
             this.httpSqlCacheBlockCount = getInt(properties, env, PropertyKey.HTTP_QUERY_CACHE_BLOCK_COUNT, 4);
             this.httpSqlCacheRowCount = getInt(properties, env, PropertyKey.HTTP_QUERY_CACHE_ROW_COUNT, 4);
+            this.lineHttpEnabled = getBoolean(properties, env, PropertyKey.LINE_HTTP_ENABLED, true);
             this.sqlCharacterStoreCapacity = getInt(properties, env, PropertyKey.CAIRO_CHARACTER_STORE_CAPACITY, 1024);
             this.sqlCharacterStoreSequencePoolCapacity = getInt(properties, env, PropertyKey.CAIRO_CHARACTER_STORE_SEQUENCE_POOL_CAPACITY, 64);
             this.sqlColumnPoolCapacity = getInt(properties, env, PropertyKey.CAIRO_COLUMN_POOL_CAPACITY, 4096);
@@ -747,6 +766,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlSortLightValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_LIGHT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
             this.sqlHashJoinValuePageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_VALUE_PAGE_SIZE, 16777216);
             this.sqlHashJoinValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_VALUE_MAX_PAGES, Integer.MAX_VALUE);
+            this.sqlQueryMemoryBudget = getLongSize(properties, env, PropertyKey.CAIRO_SQL_QUERY_MEMORY_BUDGET, 0);
+            this.sqlHashJoinSpillPartitions = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_SPILL_PARTITIONS, 16));
             this.sqlLatestByRowCount = getInt(properties, env, PropertyKey.CAIRO_SQL_LATEST_BY_ROW_COUNT, 1000);
             this.sqlHashJoinLightValuePageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_LIGHT_VALUE_PAGE_SIZE, 1048576);
             this.sqlHashJoinLightValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_LIGHT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
@@ -754,6 +775,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlSortValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
             this.workStealTimeoutNanos = getLong(properties, env, PropertyKey.CAIRO_WORK_STEAL_TIMEOUT_NANOS, 10_000);
             this.parallelIndexingEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARALLEL_INDEXING_ENABLED, true);
+            this.partitionZoneMapsEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARTITION_ZONE_MAPS_ENABLED, true);
             this.sqlJoinMetadataPageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JOIN_METADATA_PAGE_SIZE, 16384);
             this.sqlJoinMetadataMaxResizes = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JOIN_METADATA_MAX_RESIZES, Integer.MAX_VALUE);
             this.sqlAnalyticColumnPoolCapacity = getInt(properties, env, PropertyKey.CAIRO_SQL_ANALYTIC_COLUMN_POOL_CAPACITY, 64);
@@ -776,6 +798,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.cairoPageFrameReduceColumnListCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_COLUMN_LIST_CAPACITY, 16));
             this.sqlParallelFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_ENABLED, true);
             this.sqlParallelFilterPreTouchEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_PRETOUCH_ENABLED, true);
+            this.sqlParallelGroupByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ENABLED, true);
+            this.sqlParallelSortEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_SORT_ENABLED, true);
             this.cairoPageFrameReduceShardCount = getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 4);
             this.cairoPageFrameReduceTaskPoolCapacity = getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_TASK_POOL_CAPACITY, 4);
 
@@ -883,6 +907,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlAnalyticTreeKeyMaxPages = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SQL_ANALYTIC_TREE_MAX_PAGES, 2048));
             this.sqlTxnScoreboardEntryCount = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_O3_TXN_SCOREBOARD_ENTRY_COUNT, 16384));
             this.latestByQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_LATESTBY_QUEUE_CAPACITY, 32));
+            this.sortQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SORT_QUEUE_CAPACITY, 32));
             this.telemetryEnabled = getBoolean(properties, env, PropertyKey.TELEMETRY_ENABLED, true);
             this.telemetryDisableCompletely = getBoolean(properties, env, PropertyKey.TELEMETRY_DISABLE_COMPLETELY, false);
             this.telemetryQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.TELEMETRY_QUEUE_CAPACITY, 512));
@@ -920,6 +945,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 lineTcpNetConnectionLimit = getInt(properties, env, PropertyKey.LINE_TCP_NET_ACTIVE_CONNECTION_LIMIT, 256);
                 lineTcpNetConnectionLimit = getInt(properties, env, PropertyKey.LINE_TCP_NET_CONNECTION_LIMIT, lineTcpNetConnectionLimit);
                 lineTcpNetConnectionHint = getBoolean(properties, env, PropertyKey.LINE_TCP_NET_CONNECTION_HINT, false);
+                lineTcpNetIOURingEnabled = getBoolean(properties, env, PropertyKey.LINE_TCP_NET_IOURING_ENABLED, false);
                 parseBindTo(properties, env, PropertyKey.LINE_TCP_NET_BIND_TO, "0.0.0.0:9009", (a, p) -> {
                     lineTcpNetBindIPv4Address = a;
                     lineTcpNetBindPort = p;
@@ -946,6 +972,9 @@ public class PropServerConfiguration implements ServerConfiguration {
                             PropertyKey.LINE_TCP_MAX_MEASUREMENT_SIZE.getPropertyPath() + " (" + this.lineTcpMaxMeasurementSize + ") cannot be more than line.tcp.msg.buffer.size (" + this.lineTcpMsgBufferSize + ")");
                 }
                 this.lineTcpWriterQueueCapacity = getQueueCapacity(properties, env, PropertyKey.LINE_TCP_WRITER_QUEUE_CAPACITY, 128);
+                this.lineTcpWriterRebalanceLoadRatio = getDouble(properties, env, PropertyKey.LINE_TCP_WRITER_REBALANCE_LOAD_RATIO, 1.5);
+                this.lineTcpBackpressureQueueRatio = getDouble(properties, env, PropertyKey.LINE_TCP_BACKPRESSURE_QUEUE_RATIO, 0.5);
+                this.lineTcpBackpressureWalLag = getLong(properties, env, PropertyKey.LINE_TCP_BACKPRESSURE_WAL_LAG, 1000);
                 this.lineTcpWriterWorkerCount = getInt(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_COUNT, 1);
                 cpuUsed += this.lineTcpWriterWorkerCount;
                 this.lineTcpWriterWorkerAffinity = getAffinity(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_AFFINITY, lineTcpWriterWorkerCount);
@@ -953,6 +982,10 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.lineTcpWriterWorkerYieldThreshold = getLong(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_YIELD_THRESHOLD, 10);
                 this.lineTcpWriterWorkerSleepThreshold = getLong(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_SLEEP_THRESHOLD, 10_000);
                 this.symbolCacheWaitUsBeforeReload = getLong(properties, env, PropertyKey.LINE_TCP_SYMBOL_CACHE_WAIT_US_BEFORE_RELOAD, 500_000);
+                this.symbolCacheLocalCapacity = getInt(properties, env, PropertyKey.LINE_TCP_SYMBOL_CACHE_LOCAL_CAPACITY, 4096);
+                final int sharedCapacity = getInt(properties, env, PropertyKey.LINE_TCP_SYMBOL_CACHE_SHARED_CAPACITY, 16384);
+                // zero disables shared cache, set associative cache needs at least two entries
+                this.symbolCacheSharedCapacity = sharedCapacity > 0 ? Numbers.ceilPow2(Math.max(sharedCapacity, 2)) : 0;
 
                 int ilpTcpWorkerCount;
                 if (cpuAvailable < 9) {
@@ -989,6 +1022,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 }
                 this.minIdleMsBeforeWriterRelease = getLong(properties, env, PropertyKey.LINE_TCP_MIN_IDLE_MS_BEFORE_WRITER_RELEASE, 500);
                 this.lineTcpDisconnectOnError = getBoolean(properties, env, PropertyKey.LINE_TCP_DISCONNECT_ON_ERROR, true);
+                this.lineTcpBinaryFormatSupported = getBoolean(properties, env, PropertyKey.LINE_TCP_BINARY_FORMAT_SUPPORTED, true);
                 this.stringToCharCastAllowed = getBoolean(properties, env, PropertyKey.LINE_TCP_UNDOCUMENTED_STRING_TO_CHAR_CAST_ALLOWED, false);
                 this.symbolAsFieldSupported = getBoolean(properties, env, PropertyKey.LINE_TCP_UNDOCUMENTED_SYMBOL_AS_FIELD_SUPPORTED, false);
                 this.isStringAsTagSupported = getBoolean(properties, env, PropertyKey.LINE_TCP_UNDOCUMENTED_STRING_AS_TAG_SUPPORTED, false);
@@ -1865,6 +1899,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return snapshotRoot;
         }
 
+        @Override
+        public int getSortQueueCapacity() {
+            return sortQueueCapacity;
+        }
+
         @Override
         public long getSpinLockTimeout() {
             return spinLockTimeout;
@@ -1980,6 +2019,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlHashJoinLightValuePageSize;
         }
 
+        @Override
+        public int getSqlHashJoinSpillPartitions() {
+            return sqlHashJoinSpillPartitions;
+        }
+
         @Override
         public int getSqlHashJoinValueMaxPages() {
             return sqlHashJoinValueMaxPages;
@@ -2090,6 +2134,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlPageFrameMinRows;
         }
 
+        @Override
+        public long getSqlQueryMemoryBudget() {
+            return sqlQueryMemoryBudget;
+        }
+
         @Override
         public int getSqlSmallMapKeyCapacity() {
             return sqlSmallMapKeyCapacity;
@@ -2154,6 +2203,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return vectorAggregateQueueCapacity;
         }
 
+        @Override
+        public long getWalApplyCoalesceRowCount() {
+            return walApplyCoalesceRowCount;
+        }
+
         @Override
         public boolean getWalEnabledDefault() {
             return walEnabledDefault;
@@ -2234,6 +2288,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return parallelIndexingEnabled;
         }
 
+        @Override
+        public boolean isPartitionZoneMapsEnabled() {
+            return partitionZoneMapsEnabled;
+        }
+
         @Override
         public boolean isSnapshotRecoveryEnabled() {
             return snapshotRecoveryEnabled;
@@ -2254,6 +2313,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlParallelFilterPreTouchEnabled;
         }
 
+        @Override
+        public boolean isSqlParallelGroupByEnabled() {
+            return sqlParallelGroupByEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelSortEnabled() {
+            return sqlParallelSortEnabled;
+        }
+
         public boolean isWalSupported() {
             return isWalSupported;
         }
@@ -2402,6 +2471,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getTimeout() {
             return httpNetConnectionTimeout;
         }
+
+        @Override
+        public boolean isIOURingEnabled() {
+            return httpNetIOURingEnabled;
+        }
     }
 
     private class PropHttpMinIODispatcherConfiguration implements IODispatcherConfiguration {
@@ -2545,6 +2619,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return jsonQueryProcessorConfiguration;
         }
 
+        @Override
+        public LineTcpReceiverConfiguration getLineTcpReceiverConfiguration() {
+            return lineTcpReceiverConfiguration;
+        }
+
         @Override
         public String getPoolName() {
             return "http";
@@ -2605,6 +2684,12 @@ public class PropServerConfiguration implements ServerConfiguration {
             return httpServerEnabled;
         }
 
+        @Override
+        public boolean isLineHttpEnabled() {
+            // line protocol settings are read only when TCP receiver is enabled
+            return lineHttpEnabled && lineTcpEnabled;
+        }
+
         @Override
         public boolean isQueryCacheEnabled() {
             return httpSqlCacheEnabled;
@@ -2698,6 +2783,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return ilpAutoCreateNewTables;
         }
 
+        @Override
+        public double getBackpressureQueueRatio() {
+            return lineTcpBackpressureQueueRatio;
+        }
+
+        @Override
+        public long getBackpressureWalLag() {
+            return lineTcpBackpressureWalLag;
+        }
+
         @Override
         public CairoSecurityContext getCairoSecurityContext() {
             return AllowAllCairoSecurityContext.INSTANCE;
@@ -2783,6 +2878,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return NetworkFacadeImpl.INSTANCE;
         }
 
+        @Override
+        public int getSymbolCacheLocalCapacity() {
+            return symbolCacheLocalCapacity;
+        }
+
+        @Override
+        public int getSymbolCacheSharedCapacity() {
+            return symbolCacheSharedCapacity;
+        }
+
         @Override
         public long getSymbolCacheWaitUsBeforeReload() {
             return symbolCacheWaitUsBeforeReload;
@@ -2803,11 +2908,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineTcpWriterQueueCapacity;
         }
 
+        @Override
+        public double getWriterRebalanceLoadRatio() {
+            return lineTcpWriterRebalanceLoadRatio;
+        }
+
         @Override
         public WorkerPoolConfiguration getWriterWorkerPoolConfiguration() {
             return lineTcpWriterWorkerPoolConfiguration;
         }
 
+        @Override
+        public boolean isBinaryFormatSupported() {
+            return lineTcpBinaryFormatSupported;
+        }
+
         @Override
         public boolean isEnabled() {
             return lineTcpEnabled;
@@ -2899,6 +3014,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getTimeout() {
             return lineTcpNetConnectionTimeout;
         }
+
+        @Override
+        public boolean isIOURingEnabled() {
+            return lineTcpNetIOURingEnabled;
+        }
     }
 
     private class PropLineTcpWriterWorkerPoolConfiguration implements WorkerPoolConfiguration {
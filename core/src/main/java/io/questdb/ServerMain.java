@@ -38,6 +38,7 @@ import io.questdb.griffin.DatabaseSnapshotAgent;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.FunctionFactoryCache;
 import io.questdb.griffin.engine.groupby.vect.GroupByJob;
+import io.questdb.griffin.engine.orderby.SortJob;
 import io.questdb.griffin.engine.table.AsyncFilterAtom;
 import io.questdb.griffin.engine.table.LatestByAllIndexedJob;
 import io.questdb.log.Log;
@@ -103,6 +104,7 @@ public class ServerMain implements Closeable {
                     sharedPool.assign(new ColumnIndexerJob(messageBus));
                     sharedPool.assign(new GroupByJob(messageBus));
                     sharedPool.assign(new LatestByAllIndexedJob(messageBus));
+                    sharedPool.assign(new SortJob(messageBus));
 
                     if (walSupported) {
                         sharedPool.assign(new CheckWalTransactionsJob(engine));
@@ -149,7 +151,7 @@ public class ServerMain implements Closeable {
                     metrics.health(),
                     WorkerPoolManager.Requester.WAL_APPLY
             );
-            WalUtils.setupWorkerPool(walApplyWorkerPool, engine, workerPoolManager.getSharedWorkerCount());
+            WalUtils.setupWalApplyWorkerPool(walApplyWorkerPool, engine, workerPoolManager.getSharedWorkerCount());
         }
 
         // snapshots
@@ -253,6 +253,8 @@ public interface CairoConfiguration {
 
     CharSequence getSnapshotRoot(); // same as root/../snapshot
 
+    int getSortQueueCapacity();
+
     long getSpinLockTimeout();
 
     int getSqlAnalyticRowIdMaxPages();
@@ -300,6 +302,8 @@ public interface CairoConfiguration {
 
     int getSqlHashJoinLightValuePageSize();
 
+    int getSqlHashJoinSpillPartitions();
+
     int getSqlHashJoinValueMaxPages();
 
     int getSqlHashJoinValuePageSize();
@@ -349,6 +353,8 @@ public interface CairoConfiguration {
 
     int getSqlPageFrameMinRows();
 
+    long getSqlQueryMemoryBudget();
+
     int getSqlSmallMapKeyCapacity();
 
     int getSqlSortKeyMaxPages();
@@ -375,6 +381,8 @@ public interface CairoConfiguration {
 
     int getVectorAggregateQueueCapacity();
 
+    long getWalApplyCoalesceRowCount();
+
     boolean getWalEnabledDefault();
 
     long getWalPurgeInterval();
@@ -407,6 +415,8 @@ public interface CairoConfiguration {
 
     boolean isParallelIndexingEnabled();
 
+    boolean isPartitionZoneMapsEnabled();
+
     /**
      * A flag to enable/disable snapshot recovery mechanism. Defaults to {@code true}.
      *
@@ -420,5 +430,9 @@ public interface CairoConfiguration {
 
     boolean isSqlParallelFilterPreTouchEnabled();
 
+    boolean isSqlParallelGroupByEnabled();
+
+    boolean isSqlParallelSortEnabled();
+
     boolean isWalSupported();
 }
@@ -0,0 +1,355 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+
+/**
+ * Block based column file compression. Column file is split into fixed size blocks, each block is
+ * deflated independently, which keeps compression memory bounded and lets readers inflate any block
+ * without touching the rest of the file. Blocks that do not shrink are stored as is.
+ * <p>
+ * File layout:
+ * <pre>
+ * 0  long  uncompressed size
+ * 8  int   block size msb
+ * 12 int   block count
+ * 16 long  offset of block 0 in the file
+ * ...
+ * 16 + 8 * blockCount  long  end offset of the last block
+ * block data
+ * </pre>
+ */
+public final class ColumnCompressor {
+    public static final int BLOCK_SIZE_MSB = 20;
+    private static final int HEADER_SIZE = 16;
+    private static final Log LOG = LogFactory.getLog(ColumnCompressor.class);
+    private static final int MAX_BLOCK_SIZE_MSB = 30;
+    private static final int MIN_BLOCK_SIZE_MSB = 10;
+    private static final int OFFSET_BLOCK_COUNT = 12;
+    private static final int OFFSET_BLOCK_SIZE_MSB = 8;
+    private static final int OFFSET_SIZE = 0;
+
+    private ColumnCompressor() {
+    }
+
+    /**
+     * Compresses first <i>size</i> bytes of the column file.
+     *
+     * @param ff      files facade
+     * @param srcFile raw column file
+     * @param dstFile compressed file to create, existing file is overwritten
+     * @param size    number of bytes to compress, the source file must not be shorter
+     * @param opts    file open options
+     * @return size of the compressed file
+     */
+    public static long compress(FilesFacade ff, LPSZ srcFile, LPSZ dstFile, long size, long opts) {
+        final int blockCount = (int) ((size + (1L << BLOCK_SIZE_MSB) - 1) >>> BLOCK_SIZE_MSB);
+        final long headerSize = HEADER_SIZE + (blockCount + 1L) * Long.BYTES;
+        final long blockBound = (1L << BLOCK_SIZE_MSB) + (1L << (BLOCK_SIZE_MSB - 3)) + 64;
+        long srcFd = -1;
+        long srcAddr = 0;
+        long dstFd = -1;
+        long headerAddr = 0;
+        long blockAddr = 0;
+        long z = 0;
+        try {
+            srcFd = TableUtils.openRO(ff, srcFile, LOG);
+            if (ff.length(srcFd) < size) {
+                throw CairoException.critical(0).put("column file is too short [file=").put(srcFile)
+                        .put(", expected=").put(size)
+                        .put(", actual=").put(ff.length(srcFd))
+                        .put(']');
+            }
+            if (size > 0) {
+                srcAddr = TableUtils.mapRO(ff, srcFd, size, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            dstFd = TableUtils.openRW(ff, dstFile, LOG, opts);
+            if (!ff.truncate(dstFd, 0)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate [file=").put(dstFile).put(']');
+            }
+            headerAddr = Unsafe.malloc(headerSize, MemoryTag.NATIVE_TABLE_WRITER);
+            blockAddr = Unsafe.malloc(blockBound, MemoryTag.NATIVE_TABLE_WRITER);
+            z = Zip.deflateInit();
+            if (z <= 0) {
+                z = 0;
+                throw CairoException.critical(0).put("could not initialise deflater [file=").put(dstFile).put(']');
+            }
+
+            long offset = headerSize;
+            for (int i = 0; i < blockCount; i++) {
+                final long lo = (long) i << BLOCK_SIZE_MSB;
+                final long len = Math.min(1L << BLOCK_SIZE_MSB, size - lo);
+                Zip.deflateReset(z);
+                Zip.setInput(z, srcAddr + lo, (int) len);
+                final int ret = Zip.deflate(z, blockAddr, (int) blockBound, true);
+                final long compressedLen = blockBound - Zip.availOut(z);
+                Unsafe.getUnsafe().putLong(headerAddr + HEADER_SIZE + (long) i * Long.BYTES, offset);
+                if (ret == Zip.Z_STREAM_END && compressedLen < len) {
+                    write(ff, dstFd, blockAddr, compressedLen, offset, dstFile);
+                    offset += compressedLen;
+                } else {
+                    write(ff, dstFd, srcAddr + lo, len, offset, dstFile);
+                    offset += len;
+                }
+            }
+            Unsafe.getUnsafe().putLong(headerAddr + HEADER_SIZE + (long) blockCount * Long.BYTES, offset);
+            Unsafe.getUnsafe().putLong(headerAddr + OFFSET_SIZE, size);
+            Unsafe.getUnsafe().putInt(headerAddr + OFFSET_BLOCK_SIZE_MSB, BLOCK_SIZE_MSB);
+            Unsafe.getUnsafe().putInt(headerAddr + OFFSET_BLOCK_COUNT, blockCount);
+            write(ff, dstFd, headerAddr, headerSize, 0, dstFile);
+            return offset;
+        } finally {
+            if (z != 0) {
+                Zip.deflateEnd(z);
+            }
+            Unsafe.free(blockAddr, blockBound, MemoryTag.NATIVE_TABLE_WRITER);
+            Unsafe.free(headerAddr, headerSize, MemoryTag.NATIVE_TABLE_WRITER);
+            if (srcAddr != 0) {
+                ff.munmap(srcAddr, size, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            if (srcFd != -1) {
+                ff.close(srcFd);
+            }
+            if (dstFd != -1) {
+                ff.close(dstFd);
+            }
+        }
+    }
+
+    /**
+     * Restores raw column file from compressed one.
+     *
+     * @param ff      files facade
+     * @param srcFile compressed column file
+     * @param dstFile raw file to create
+     * @param opts    file open options
+     * @return size of the raw file
+     */
+    public static long decompress(FilesFacade ff, LPSZ srcFile, LPSZ dstFile, long opts) {
+        long srcFd = -1;
+        long srcAddr = 0;
+        long srcLen = 0;
+        long dstFd = -1;
+        long dstAddr = 0;
+        long size = 0;
+        try {
+            srcFd = TableUtils.openRO(ff, srcFile, LOG);
+            srcLen = ff.length(srcFd);
+            if (srcLen < HEADER_SIZE) {
+                throw corruptFile(srcFile);
+            }
+            srcAddr = TableUtils.mapRO(ff, srcFd, srcLen, MemoryTag.MMAP_TABLE_WRITER);
+            size = getUncompressedSize(srcAddr, srcLen, srcFile);
+            dstFd = TableUtils.openRW(ff, dstFile, LOG, opts);
+            if (!ff.truncate(dstFd, size)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate [file=").put(dstFile).put(", size=").put(size).put(']');
+            }
+            if (size > 0) {
+                dstAddr = TableUtils.mapRW(ff, dstFd, size, MemoryTag.MMAP_TABLE_WRITER);
+                inflate(srcAddr, srcLen, dstAddr, size, srcFile);
+            }
+            return size;
+        } finally {
+            if (dstAddr != 0) {
+                ff.munmap(dstAddr, size, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            if (srcAddr != 0) {
+                ff.munmap(srcAddr, srcLen, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            if (srcFd != -1) {
+                ff.close(srcFd);
+            }
+            if (dstFd != -1) {
+                ff.close(dstFd);
+            }
+        }
+    }
+
+    /**
+     * Validates header of compressed file and returns size of the data once inflated.
+     *
+     * @param address address of compressed file
+     * @param len     length of compressed file
+     * @param name    file name used in error messages
+     * @return uncompressed size
+     */
+    public static long getUncompressedSize(long address, long len, CharSequence name) {
+        if (len < HEADER_SIZE) {
+            throw corruptFile(name);
+        }
+        final long size = Unsafe.getUnsafe().getLong(address + OFFSET_SIZE);
+        final int msb = Unsafe.getUnsafe().getInt(address + OFFSET_BLOCK_SIZE_MSB);
+        final int blockCount = Unsafe.getUnsafe().getInt(address + OFFSET_BLOCK_COUNT);
+        if (size < 0
+                || msb < MIN_BLOCK_SIZE_MSB
+                || msb > MAX_BLOCK_SIZE_MSB
+                || blockCount != (size + (1L << msb) - 1) >>> msb
+                || HEADER_SIZE + (blockCount + 1L) * Long.BYTES > len
+        ) {
+            throw corruptFile(name);
+        }
+        return size;
+    }
+
+    /**
+     * Inflates compressed file into contiguous memory. Only blocks covering <i>dstLen</i> bytes
+     * are inflated, the last of them must fit in its entirety.
+     *
+     * @param address address of compressed file
+     * @param len     length of compressed file
+     * @param dst     memory to inflate into
+     * @param dstLen  size of the memory, must be either uncompressed size or a multiple of block size
+     * @param name    file name used in error messages
+     */
+    public static void inflate(long address, long len, long dst, long dstLen, CharSequence name) {
+        final long size = getUncompressedSize(address, len, name);
+        final int msb = Unsafe.getUnsafe().getInt(address + OFFSET_BLOCK_SIZE_MSB);
+        assert dstLen <= size && (dstLen == size || (dstLen & ((1L << msb) - 1)) == 0);
+        final long z = inflateInit(name);
+        try {
+            for (long lo = 0; lo < dstLen; lo += 1L << msb) {
+                inflateBlock(z, address, len, (int) (lo >>> msb), dst + lo, name);
+            }
+        } finally {
+            Zip.inflateEnd(z);
+        }
+    }
+
+    /**
+     * Returns number of bytes that have to be inflated to read first <i>size</i> bytes
+     * of the compressed file, e.g. <i>size</i> rounded up to the block size.
+     *
+     * @param address address of compressed file, the header must have been validated
+     * @param size    number of bytes to read
+     * @return number of bytes to inflate
+     */
+    public static long inflatedSize(long address, long size) {
+        final long mask = (1L << Unsafe.getUnsafe().getInt(address + OFFSET_BLOCK_SIZE_MSB)) - 1;
+        return Math.min(Unsafe.getUnsafe().getLong(address + OFFSET_SIZE), (size + mask) & ~mask);
+    }
+
+    /**
+     * Reads single long value from compressed file inflating only the block that contains it.
+     *
+     * @param ff     files facade
+     * @param file   compressed column file
+     * @param offset offset of the value in uncompressed data
+     * @return long value
+     */
+    public static long readLong(FilesFacade ff, LPSZ file, long offset) {
+        long fd = -1;
+        long addr = 0;
+        long len = 0;
+        long blockAddr = 0;
+        long blockSize = 0;
+        try {
+            fd = TableUtils.openRO(ff, file, LOG);
+            len = ff.length(fd);
+            if (len < HEADER_SIZE) {
+                throw corruptFile(file);
+            }
+            addr = TableUtils.mapRO(ff, fd, len, MemoryTag.MMAP_TABLE_WRITER);
+            final long size = getUncompressedSize(addr, len, file);
+            if (offset < 0 || offset + Long.BYTES > size) {
+                throw CairoException.critical(0).put("offset is outside of compressed file [file=").put(file)
+                        .put(", offset=").put(offset)
+                        .put(", size=").put(size)
+                        .put(']');
+            }
+            final int msb = Unsafe.getUnsafe().getInt(addr + OFFSET_BLOCK_SIZE_MSB);
+            final int block = (int) (offset >>> msb);
+            blockSize = 1L << msb;
+            blockAddr = Unsafe.malloc(blockSize, MemoryTag.NATIVE_TABLE_WRITER);
+            final long z = inflateInit(file);
+            try {
+                inflateBlock(z, addr, len, block, blockAddr, file);
+            } finally {
+                Zip.inflateEnd(z);
+            }
+            // long values are aligned and never span blocks
+            return Unsafe.getUnsafe().getLong(blockAddr + (offset & (blockSize - 1)));
+        } finally {
+            Unsafe.free(blockAddr, blockSize, MemoryTag.NATIVE_TABLE_WRITER);
+            if (addr != 0) {
+                ff.munmap(addr, len, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            if (fd != -1) {
+                ff.close(fd);
+            }
+        }
+    }
+
+    private static CairoException corruptFile(CharSequence name) {
+        return CairoException.critical(0).put("corrupt compressed column file [file=").put(name).put(']');
+    }
+
+    private static void inflateBlock(long z, long address, long len, int block, long dst, CharSequence name) {
+        final long size = Unsafe.getUnsafe().getLong(address + OFFSET_SIZE);
+        final int msb = Unsafe.getUnsafe().getInt(address + OFFSET_BLOCK_SIZE_MSB);
+        final int blockCount = Unsafe.getUnsafe().getInt(address + OFFSET_BLOCK_COUNT);
+        final long lo = Unsafe.getUnsafe().getLong(address + HEADER_SIZE + (long) block * Long.BYTES);
+        final long hi = Unsafe.getUnsafe().getLong(address + HEADER_SIZE + (block + 1L) * Long.BYTES);
+        final long blockLen = Math.min(1L << msb, size - ((long) block << msb));
+        if (lo < HEADER_SIZE + (blockCount + 1L) * Long.BYTES || hi < lo || hi > len || hi - lo > blockLen) {
+            throw corruptFile(name);
+        }
+
+        if (hi - lo == blockLen) {
+            // block did not compress and is stored as is
+            Vect.memcpy(dst, address + lo, blockLen);
+        } else {
+            Zip.inflateReset(z);
+            Zip.setInput(z, address + lo, (int) (hi - lo));
+            final int n = Zip.inflate(z, dst, (int) blockLen, true);
+            if (n != blockLen) {
+                throw CairoException.critical(0).put("could not inflate column block [file=").put(name)
+                        .put(", block=").put(block)
+                        .put(", ret=").put(n)
+                        .put(']');
+            }
+        }
+    }
+
+    private static long inflateInit(CharSequence name) {
+        final long z = Zip.inflateInit(true);
+        if (z <= 0) {
+            throw CairoException.critical(0).put("could not initialise inflater [file=").put(name).put(']');
+        }
+        return z;
+    }
+
+    private static void write(FilesFacade ff, long fd, long address, long len, long offset, LPSZ file) {
+        if (ff.write(fd, address, len, offset) != len) {
+            throw CairoException.critical(ff.errno()).put("could not write [file=").put(file)
+                    .put(", offset=").put(offset)
+                    .put(", len=").put(len)
+                    .put(']');
+        }
+    }
+}
@@ -295,6 +295,16 @@ public class ColumnPurgeOperator implements Closeable {
                         continue;
                     }
                 }
+
+                // Zone map is written alongside the column file, it has the same version
+                if (ZoneMap.isSupported(task.getColumnType())) {
+                    path.trimTo(pathTrimToPartition);
+                    TableUtils.zmFile(path, task.getColumnName(), columnVersion);
+                    if (couldNotRemove(ff, path)) {
+                        allDone = false;
+                        continue;
+                    }
+                }
                 completedRowIds.add(updateRowId);
             }
         } finally {
@@ -465,6 +465,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return snapshotRoot;
     }
 
+    @Override
+    public int getSortQueueCapacity() {
+        return 32;
+    }
+
     @Override
     public long getSpinLockTimeout() {
         return 5000;
@@ -582,6 +587,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return Numbers.SIZE_1MB;
     }
 
+    @Override
+    public int getSqlHashJoinSpillPartitions() {
+        return 16;
+    }
+
     @Override
     public int getSqlHashJoinValueMaxPages() {
         return 1024;
@@ -692,6 +702,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1_000;
     }
 
+    @Override
+    public long getSqlQueryMemoryBudget() {
+        return 0;
+    }
+
     @Override
     public int getSqlSmallMapKeyCapacity() {
         return 64;
@@ -757,6 +772,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public long getWalApplyCoalesceRowCount() {
+        return 100_000;
+    }
+
     @Override
     public boolean getWalEnabledDefault() {
         return false;
@@ -841,6 +861,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isPartitionZoneMapsEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isSnapshotRecoveryEnabled() {
         return true;
@@ -861,6 +886,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelGroupByEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelSortEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isWalSupported() {
         return false;
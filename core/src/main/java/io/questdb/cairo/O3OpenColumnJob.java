@@ -312,7 +312,10 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int columnIndex,
             long columnNameTxn
     ) {
-        final long mergeLen = mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1;
+        // deduplication can shrink merge index below combined length of merged blocks
+        final long mergeLen = timestampMergeIndexAddr != 0
+                ? timestampMergeIndexSize / TIMESTAMP_MERGE_ENTRY_BYTES
+                : mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1;
         final Path pathToPartition = Path.getThreadLocal(pathToTable);
         TableUtils.setPathForPartition(pathToPartition, tableWriter.getPartitionBy(), oooTimestampLo, false);
         final int pplen = pathToPartition.length();
@@ -1188,6 +1191,13 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
         }
     }
 
+    private static long getDedupRowCount(long mergeOOOLo, long mergeOOOHi, long mergeDataLo, long mergeDataHi, long mergeLen) {
+        if (mergeDataLo > -1 && mergeOOOLo > -1) {
+            return mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1 - mergeLen;
+        }
+        return 0;
+    }
+
     private static void mergeFixColumn(
             Path pathToPartition,
             int pplen,
@@ -1284,7 +1294,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
 
             dFile(pathToPartition.trimTo(pDirNameLen), columnName, columnNameTxn);
             dstFixFd = openRW(ff, pathToPartition, LOG, tableWriter.getConfiguration().getWriterFileOpenOpts());
-            dstFixSize = ((srcOooHi - srcOooLo + 1) + srcDataMax - srcDataTop) << shl;
+            dstFixSize = ((srcOooHi - srcOooLo + 1) + srcDataMax - srcDataTop - getDedupRowCount(mergeOOOLo, mergeOOOHi, mergeDataLo, mergeDataHi, mergeLen)) << shl;
             dstFixAddr = mapRW(ff, dstFixFd, dstFixSize, MemoryTag.MMAP_O3);
             if (directIoFlag) {
                 ff.fadvise(dstFixFd, 0, dstFixSize, Files.POSIX_FADV_RANDOM);
@@ -1942,7 +1952,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
 
             iFile(pathToPartition.trimTo(pDirNameLen), columnName, columnNameTxn);
             dstFixFd = openRW(ff, pathToPartition, LOG, tableWriter.getConfiguration().getWriterFileOpenOpts());
-            dstFixSize = (srcOooHi - srcOooLo + 1 + srcDataMax - srcDataTop + 1) * Long.BYTES;
+            dstFixSize = (srcOooHi - srcOooLo + 1 + srcDataMax - srcDataTop + 1 - getDedupRowCount(mergeOOOLo, mergeOOOHi, mergeDataLo, mergeDataHi, mergeLen)) * Long.BYTES;
             dstFixAddr = mapRW(ff, dstFixFd, dstFixSize, MemoryTag.MMAP_O3);
             if (directIoFlag) {
                 ff.fadvise(dstFixFd, 0, dstFixSize, Files.POSIX_FADV_RANDOM);
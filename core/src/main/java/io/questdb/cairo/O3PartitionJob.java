@@ -217,7 +217,87 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
 
                 int branch;
 
-                if (o3TimestampLo > dataTimestampLo) {
+                final long o3TimestampHi = getTimestampIndexValue(sortedTimestampsAddr, srcOooHi);
+                if (tableWriter.isDedupEnabled() && o3TimestampLo <= dataTimestampHi && o3TimestampHi >= dataTimestampLo) {
+
+                    // Rows with equal timestamps must meet in the merge index to be deduplicated, hence
+                    // the merge includes both boundaries of the overlap between data and OOO.
+                    //
+                    //   +------+
+                    //   | data | +-----+
+                    //   |      | | OOO |
+                    //   +------+ |     |
+                    //            +-----+
+
+                    branch = 9;
+                    if (o3TimestampLo < dataTimestampLo) {
+                        prefixType = O3_BLOCK_O3;
+                        prefixLo = srcOooLo;
+                        prefixHi = Vect.boundedBinarySearchIndexT(
+                                sortedTimestampsAddr,
+                                dataTimestampLo - 1,
+                                srcOooLo,
+                                srcOooHi,
+                                BinarySearch.SCAN_DOWN
+                        );
+                        mergeO3Lo = prefixHi + 1;
+                        mergeDataLo = 0;
+                    } else if (o3TimestampLo > dataTimestampLo) {
+                        prefixType = O3_BLOCK_DATA;
+                        prefixLo = 0;
+                        prefixHi = Vect.boundedBinarySearch64Bit(
+                                srcTimestampAddr,
+                                o3TimestampLo - 1,
+                                0,
+                                srcDataMax - 1,
+                                BinarySearch.SCAN_DOWN
+                        );
+                        mergeO3Lo = srcOooLo;
+                        mergeDataLo = prefixHi + 1;
+                    } else {
+                        // empty prefix, merge jobs derive append offsets from prefix boundaries
+                        prefixLo = 0;
+                        mergeO3Lo = srcOooLo;
+                        mergeDataLo = 0;
+                    }
+
+                    if (o3TimestampHi > dataTimestampHi) {
+                        mergeO3Hi = Vect.boundedBinarySearchIndexT(
+                                sortedTimestampsAddr,
+                                dataTimestampHi,
+                                mergeO3Lo,
+                                srcOooHi,
+                                BinarySearch.SCAN_DOWN
+                        );
+                        mergeDataHi = srcDataMax - 1;
+                        suffixType = O3_BLOCK_O3;
+                        suffixLo = mergeO3Hi + 1;
+                        suffixHi = srcOooHi;
+                    } else if (o3TimestampHi < dataTimestampHi) {
+                        mergeO3Hi = srcOooHi;
+                        mergeDataHi = Vect.boundedBinarySearch64Bit(
+                                srcTimestampAddr,
+                                o3TimestampHi,
+                                mergeDataLo,
+                                srcDataMax - 1,
+                                BinarySearch.SCAN_DOWN
+                        );
+                        suffixType = O3_BLOCK_DATA;
+                        suffixLo = mergeDataHi + 1;
+                        suffixHi = srcDataMax - 1;
+                    } else {
+                        mergeO3Hi = srcOooHi;
+                        mergeDataHi = srcDataMax - 1;
+                    }
+
+                    if (mergeDataLo > mergeDataHi) {
+                        mergeType = O3_BLOCK_O3;
+                    } else if (mergeO3Lo > mergeO3Hi) {
+                        mergeType = O3_BLOCK_DATA;
+                    } else {
+                        mergeType = O3_BLOCK_MERGE;
+                    }
+                } else if (o3TimestampLo > dataTimestampLo) {
                     //   +------+
                     //   | data |  +-----+
                     //   |      |  | OOO |
@@ -463,7 +543,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                         .$(", table=").$(pathToTable)
                         .I$();
 
-                if (prefixType == O3_BLOCK_NONE) {
+                if (prefixType == O3_BLOCK_NONE && mergeType == O3_BLOCK_NONE) {
                     // We do not need to create a copy of partition when we simply need to append
                     // existing the one.
                     openColumnMode = OPEN_MID_PARTITION_FOR_APPEND;
@@ -594,10 +674,12 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
             long mergeDataHi,
             long mergeOOOLo,
             long mergeOOOHi,
-            long indexSize
+            long mergeIndexSize
     ) {
         // Create "index" for existing timestamp column. When we reshuffle timestamps during merge we will
         // have to go back and find data rows we need to move accordingly
+        final long indexSize = (mergeDataHi - mergeDataLo + 1) * TIMESTAMP_MERGE_ENTRY_BYTES;
+        assert indexSize > 0; // avoid SIGSEGV
         final long index = Unsafe.malloc(indexSize, MemoryTag.NATIVE_O3);
         try {
             Vect.makeTimestampIndex(srcDataTimestampAddr, mergeDataLo, mergeDataHi, index);
@@ -607,13 +689,78 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                     sortedTimestampsAddr + mergeOOOLo * 16,
                     mergeOOOHi - mergeOOOLo + 1
             );
-            Unsafe.recordMemAlloc(indexSize, MemoryTag.NATIVE_O3);
+            Unsafe.recordMemAlloc(mergeIndexSize, MemoryTag.NATIVE_O3);
             return ptr;
         } finally {
             Unsafe.free(index, indexSize, MemoryTag.NATIVE_O3);
         }
     }
 
+    private static long dedupMergeIndex(
+            Path pathToTable,
+            ObjList<MemoryMA> columns,
+            ReadOnlyObjList<? extends MemoryCR> oooColumns,
+            long timestampMergeIndexAddr,
+            long mergeRowCount,
+            long partitionTimestamp,
+            long srcDataMax,
+            long srcDataTxn,
+            boolean last,
+            TableWriter tableWriter
+    ) {
+        final IntList dedupKeyIndexes = tableWriter.getDedupKeyIndexes();
+        final TableRecordMetadata metadata = tableWriter.getMetadata();
+        final int timestampIndex = metadata.getTimestampIndex();
+        final FilesFacade ff = tableWriter.getFilesFacade();
+        // designated timestamp is compared by the merge itself
+        final int keyCount = dedupKeyIndexes.size() - 1;
+        final long keysSize = (long) keyCount * O3Utils.DEDUP_KEY_ENTRY_BYTES;
+        final long keysAddr = keyCount > 0 ? Unsafe.malloc(keysSize, MemoryTag.NATIVE_O3) : 0;
+        if (keysAddr != 0) {
+            Vect.memset(keysAddr, keysSize, 0);
+        }
+        try {
+            final Path path = Path.getThreadLocal(pathToTable);
+            TableUtils.setPathForPartition(path, tableWriter.getPartitionBy(), partitionTimestamp, false);
+            TableUtils.txnPartitionConditionally(path, srcDataTxn);
+            final int plen = path.length();
+            int keyIndex = 0;
+            for (int i = 0, n = dedupKeyIndexes.size(); i < n; i++) {
+                final int columnIndex = dedupKeyIndexes.getQuick(i);
+                if (columnIndex == timestampIndex) {
+                    continue;
+                }
+                final int columnType = metadata.getColumnType(columnIndex);
+                final int primaryIndex = getPrimaryColumnIndex(columnIndex);
+                final long columnTop = last
+                        ? tableWriter.getColumnTop(columnIndex)
+                        : tableWriter.getColumnTop(partitionTimestamp, columnIndex, srcDataMax);
+                final long dataSize = (srcDataMax - columnTop) << ColumnType.pow2SizeOf(columnType);
+                long dataAddr = 0;
+                if (dataSize > 0) {
+                    if (last) {
+                        dataAddr = mapRO(ff, columns.getQuick(primaryIndex).getFd(), dataSize, MemoryTag.MMAP_O3);
+                    } else {
+                        dFile(path.trimTo(plen), metadata.getColumnName(columnIndex), tableWriter.getColumnNameTxn(partitionTimestamp, columnIndex));
+                        final long fd = openRO(ff, path, LOG);
+                        try {
+                            dataAddr = mapRO(ff, fd, dataSize, MemoryTag.MMAP_O3);
+                        } finally {
+                            ff.close(fd);
+                        }
+                    }
+                }
+                O3Utils.setDedupKey(keysAddr, keyIndex++, columnType, dataAddr, columnTop, oooColumns.getQuick(primaryIndex).addressOf(0));
+            }
+            return O3Utils.dedupTimestampIndex(timestampMergeIndexAddr, mergeRowCount, keysAddr, keyCount, Long.MAX_VALUE, 0);
+        } finally {
+            if (keysAddr != 0) {
+                O3Utils.unmapDedupKeys(ff, keysAddr, keyCount, srcDataMax);
+                Unsafe.free(keysAddr, keysSize, MemoryTag.NATIVE_O3);
+            }
+        }
+    }
+
     private static void publishOpenColumnTaskContended(
             long cursor,
             int openColumnMode,
@@ -904,9 +1051,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
         final long timestampMergeIndexAddr;
         final long timestampMergeIndexSize;
         if (mergeType == O3_BLOCK_MERGE) {
-            timestampMergeIndexSize = (mergeDataHi - mergeDataLo + 1) * TIMESTAMP_MERGE_ENTRY_BYTES;
-            assert timestampMergeIndexSize > 0; // avoid SIGSEGV
-
+            final long mergeRowCount = mergeDataHi - mergeDataLo + 1 + mergeOOOHi - mergeOOOLo + 1;
             timestampMergeIndexAddr = createMergeIndex(
                     srcTimestampAddr,
                     sortedTimestampsAddr,
@@ -914,8 +1059,46 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                     mergeDataHi,
                     mergeOOOLo,
                     mergeOOOHi,
-                    timestampMergeIndexSize
+                    mergeRowCount * TIMESTAMP_MERGE_ENTRY_BYTES
             );
+
+            if (tableWriter.isDedupEnabled()) {
+                final long dedupRowCount;
+                try {
+                    dedupRowCount = mergeRowCount - dedupMergeIndex(
+                            pathToTable,
+                            columns,
+                            oooColumns,
+                            timestampMergeIndexAddr,
+                            mergeRowCount,
+                            partitionTimestamp,
+                            srcDataMax,
+                            srcDataTxn,
+                            openColumnMode == OPEN_LAST_PARTITION_FOR_MERGE,
+                            tableWriter
+                    );
+                } catch (Throwable e) {
+                    LOG.error().$("dedup error [table=").$(tableWriter.getTableName())
+                            .$(", e=").$(e)
+                            .I$();
+                    Vect.freeMergedIndex(timestampMergeIndexAddr, mergeRowCount * TIMESTAMP_MERGE_ENTRY_BYTES);
+                    O3Utils.unmap(tableWriter.getFilesFacade(), srcTimestampAddr, srcTimestampSize);
+                    O3Utils.close(tableWriter.getFilesFacade(), srcTimestampFd);
+                    tableWriter.o3BumpErrorCount();
+                    tableWriter.o3ClockDownPartitionUpdateCount();
+                    tableWriter.o3CountDownDoneLatch();
+                    throw e;
+                }
+
+                if (dedupRowCount > 0) {
+                    // merge index is not reallocated, account for the entries it no longer holds
+                    Unsafe.recordMemAlloc(-dedupRowCount * TIMESTAMP_MERGE_ENTRY_BYTES, MemoryTag.NATIVE_O3);
+                    tableWriter.o3NotifyPartitionDedup(partitionTimestamp, dedupRowCount);
+                }
+                timestampMergeIndexSize = (mergeRowCount - dedupRowCount) * TIMESTAMP_MERGE_ENTRY_BYTES;
+            } else {
+                timestampMergeIndexSize = mergeRowCount * TIMESTAMP_MERGE_ENTRY_BYTES;
+            }
         } else {
             timestampMergeIndexAddr = 0;
             timestampMergeIndexSize = 0;
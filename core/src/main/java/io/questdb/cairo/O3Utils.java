@@ -36,10 +36,29 @@ import io.questdb.std.*;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import org.jetbrains.annotations.Nullable;
 
+import static io.questdb.cairo.TableWriter.TIMESTAMP_MERGE_ENTRY_BYTES;
+
 public class O3Utils {
 
+    static final int DEDUP_KEY_ENTRY_BYTES = 64;
+    private static final int DEDUP_KEY_DATA_ADDR_OFFSET = 8;
+    private static final int DEDUP_KEY_DATA_TOP_OFFSET = 16;
+    private static final int DEDUP_KEY_NULL_OFFSET = 32;
+    private static final int DEDUP_KEY_O3_ADDR_OFFSET = 24;
     private static final Log LOG = LogFactory.getLog(O3Utils.class);
 
+    /**
+     * Assigns jobs of the O3 commit pipeline to the pool. Writers publish partition, open column and copy
+     * tasks to the message bus queues, so that workers of every pool these jobs are assigned to
+     * merge partitions of a single commit in parallel.
+     */
+    public static void setupO3Jobs(WorkerPool workerPool, MessageBus messageBus) {
+        workerPool.assign(new O3PartitionJob(messageBus));
+        workerPool.assign(new O3OpenColumnJob(messageBus));
+        workerPool.assign(new O3CopyJob(messageBus));
+        workerPool.assign(new O3CallbackJob(messageBus));
+    }
+
     public static void setupWorkerPool(
             WorkerPool workerPool,
             CairoEngine cairoEngine,
@@ -53,10 +72,7 @@ public class O3Utils {
 
         workerPool.assign(purgeDiscoveryJob);
         workerPool.assign(columnPurgeJob);
-        workerPool.assign(new O3PartitionJob(messageBus));
-        workerPool.assign(new O3OpenColumnJob(messageBus));
-        workerPool.assign(new O3CopyJob(messageBus));
-        workerPool.assign(new O3CallbackJob(messageBus));
+        setupO3Jobs(workerPool, messageBus);
         workerPool.freeOnExit(purgeDiscoveryJob);
         workerPool.freeOnExit(columnPurgeJob);
 
@@ -92,6 +108,66 @@ public class O3Utils {
         Vect.copyFromTimestampIndex(src, srcLo, srcHi, dstAddr);
     }
 
+    /**
+     * Removes entries of sorted timestamp index, which are superseded by a newer entry with the same
+     * timestamp and the same values of all deduplication keys. Data entries, flagged by bit 63 of the
+     * row index, are older than any O3 entry. O3 entries are ordered by row, except for uncommitted
+     * rows moved to the end of O3 memory, at [movedRowLo, movedRowLo + movedRowCount), which arrived
+     * before all the other rows.
+     *
+     * @return number of entries kept, kept entries are compacted to the start of the index
+     */
+    static long dedupTimestampIndex(
+            long indexAddr,
+            long indexCount,
+            long keysAddr,
+            int keyCount,
+            long movedRowLo,
+            long movedRowCount
+    ) {
+        long removed = 0;
+        long lo = 0;
+        while (lo < indexCount) {
+            final long timestamp = TableWriter.getTimestampIndexValue(indexAddr, lo);
+            long hi = lo + 1;
+            while (hi < indexCount && TableWriter.getTimestampIndexValue(indexAddr, hi) == timestamp) {
+                hi++;
+            }
+
+            for (long k = lo; hi - lo > 1 && k < hi; k++) {
+                final long rowK = getTimestampIndexRow(indexAddr, k);
+                final long rankK = getDedupRank(rowK, movedRowLo, movedRowCount);
+                for (long m = lo; m < hi; m++) {
+                    final long rowM = getTimestampIndexRow(indexAddr, m);
+                    if (getDedupRank(rowM, movedRowLo, movedRowCount) > rankK && isSameDedupKey(keysAddr, keyCount, rowK, rowM)) {
+                        // timestamps before 1970 are not allowed for O3, MIN_VALUE marks the removed entry
+                        Unsafe.getUnsafe().putLong(indexAddr + k * TIMESTAMP_MERGE_ENTRY_BYTES, Long.MIN_VALUE);
+                        removed++;
+                        break;
+                    }
+                }
+            }
+            lo = hi;
+        }
+
+        if (removed > 0) {
+            long dst = 0;
+            for (long i = 0; i < indexCount; i++) {
+                if (TableWriter.getTimestampIndexValue(indexAddr, i) != Long.MIN_VALUE) {
+                    if (dst < i) {
+                        Vect.memcpy(
+                                indexAddr + dst * TIMESTAMP_MERGE_ENTRY_BYTES,
+                                indexAddr + i * TIMESTAMP_MERGE_ENTRY_BYTES,
+                                TIMESTAMP_MERGE_ENTRY_BYTES
+                        );
+                    }
+                    dst++;
+                }
+            }
+        }
+        return indexCount - removed;
+    }
+
     static long findVarOffset(long srcFixAddr, long srcLo) {
         return Unsafe.getUnsafe().getLong(srcFixAddr + srcLo * Long.BYTES);
     }
@@ -100,6 +176,15 @@ public class O3Utils {
         return findVarOffset(srcFixAddr, srcHi + 1) - findVarOffset(srcFixAddr, srcLo);
     }
 
+    static void setDedupKey(long keysAddr, int keyIndex, int columnType, long dataAddr, long dataTop, long o3Addr) {
+        final long keyAddr = keysAddr + (long) keyIndex * DEDUP_KEY_ENTRY_BYTES;
+        Unsafe.getUnsafe().putLong(keyAddr, ColumnType.pow2SizeOf(columnType));
+        Unsafe.getUnsafe().putLong(keyAddr + DEDUP_KEY_DATA_ADDR_OFFSET, dataAddr);
+        Unsafe.getUnsafe().putLong(keyAddr + DEDUP_KEY_DATA_TOP_OFFSET, dataTop);
+        Unsafe.getUnsafe().putLong(keyAddr + DEDUP_KEY_O3_ADDR_OFFSET, o3Addr);
+        TableUtils.setNull(columnType, keyAddr + DEDUP_KEY_NULL_OFFSET, 1);
+    }
+
     static void shiftCopyFixedSizeColumnData(
             long shift,
             long src,
@@ -120,4 +205,76 @@ public class O3Utils {
         unmap(ff, dstFixAddr, dstFixSize);
         close(ff, dstFixFd);
     }
+
+    static void unmapDedupKeys(FilesFacade ff, long keysAddr, int keyCount, long srcDataMax) {
+        for (int i = 0; i < keyCount; i++) {
+            final long keyAddr = keysAddr + (long) i * DEDUP_KEY_ENTRY_BYTES;
+            final long dataTop = Unsafe.getUnsafe().getLong(keyAddr + DEDUP_KEY_DATA_TOP_OFFSET);
+            final int shl = (int) Unsafe.getUnsafe().getLong(keyAddr);
+            unmap(ff, Unsafe.getUnsafe().getLong(keyAddr + DEDUP_KEY_DATA_ADDR_OFFSET), (srcDataMax - dataTop) << shl);
+        }
+    }
+
+    private static long getDedupKeyValueAddr(long keyAddr, int shl, long row) {
+        if (row < 0) {
+            // data row
+            final long dataRow = row & ~(1L << 63);
+            final long dataTop = Unsafe.getUnsafe().getLong(keyAddr + DEDUP_KEY_DATA_TOP_OFFSET);
+            if (dataRow < dataTop) {
+                return keyAddr + DEDUP_KEY_NULL_OFFSET;
+            }
+            return Unsafe.getUnsafe().getLong(keyAddr + DEDUP_KEY_DATA_ADDR_OFFSET) + ((dataRow - dataTop) << shl);
+        }
+        return Unsafe.getUnsafe().getLong(keyAddr + DEDUP_KEY_O3_ADDR_OFFSET) + (row << shl);
+    }
+
+    private static long getDedupRank(long row, long movedRowLo, long movedRowCount) {
+        if (row < 0) {
+            // data rows rank below any O3 row
+            return (row & ~(1L << 63)) + Long.MIN_VALUE;
+        }
+        if (row >= movedRowLo) {
+            return row - movedRowLo;
+        }
+        return row + movedRowCount;
+    }
+
+    private static long getTimestampIndexRow(long indexAddr, long indexRow) {
+        return Unsafe.getUnsafe().getLong(indexAddr + indexRow * TIMESTAMP_MERGE_ENTRY_BYTES + Long.BYTES);
+    }
+
+    private static boolean isSameDedupKey(long keysAddr, int keyCount, long row1, long row2) {
+        for (int i = 0; i < keyCount; i++) {
+            final long keyAddr = keysAddr + (long) i * DEDUP_KEY_ENTRY_BYTES;
+            final int shl = (int) Unsafe.getUnsafe().getLong(keyAddr);
+            final long addr1 = getDedupKeyValueAddr(keyAddr, shl, row1);
+            final long addr2 = getDedupKeyValueAddr(keyAddr, shl, row2);
+            switch (shl) {
+                case 0:
+                    if (Unsafe.getUnsafe().getByte(addr1) != Unsafe.getUnsafe().getByte(addr2)) {
+                        return false;
+                    }
+                    break;
+                case 1:
+                    if (Unsafe.getUnsafe().getShort(addr1) != Unsafe.getUnsafe().getShort(addr2)) {
+                        return false;
+                    }
+                    break;
+                case 2:
+                    if (Unsafe.getUnsafe().getInt(addr1) != Unsafe.getUnsafe().getInt(addr2)) {
+                        return false;
+                    }
+                    break;
+                default:
+                    // 64, 128 and 256-bit values are compared long by long
+                    for (long offset = 0, n = 1L << shl; offset < n; offset += Long.BYTES) {
+                        if (Unsafe.getUnsafe().getLong(addr1 + offset) != Unsafe.getUnsafe().getLong(addr2 + offset)) {
+                            return false;
+                        }
+                    }
+                    break;
+            }
+        }
+        return true;
+    }
 }
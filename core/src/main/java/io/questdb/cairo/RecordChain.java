@@ -57,7 +57,19 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
             long pageSize,
             int maxPages
     ) {
-        this.mem = Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN);
+        this(columnTypes, recordSink, Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN));
+    }
+
+    /**
+     * Creates chain on top of externally provided memory, for example file backed memory. The chain
+     * takes ownership of the memory and closes it on {@link #clear()} and {@link #close()}.
+     */
+    public RecordChain(
+            @Transient @NotNull ColumnTypes columnTypes,
+            @NotNull RecordSink recordSink,
+            @NotNull MemoryARW mem
+    ) {
+        this.mem = mem;
         this.recordSink = recordSink;
         int count = columnTypes.getColumnCount();
         long varOffset = 0L;
@@ -116,6 +128,13 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         return rowToDataOffset(recordOffset) + varOffset + columnOffsets[columnIndex];
     }
 
+    /**
+     * @return number of bytes taken by records appended to the chain so far
+     */
+    public long getMemorySize() {
+        return varAppendOffset;
+    }
+
     @Override
     public Record getRecord() {
         return recordA;
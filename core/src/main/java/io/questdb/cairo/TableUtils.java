@@ -60,6 +60,7 @@ public final class TableUtils {
     public static final String EVENT_FILE_NAME = "_event";
     public static final String FILE_SUFFIX_D = ".d";
     public static final String FILE_SUFFIX_I = ".i";
+    public static final String FILE_SUFFIX_ZM = ".zm";
     public static final int INITIAL_TXN = 0;
     public static final int LONGS_PER_TX_ATTACHED_PARTITION = 4;
     public static final int LONGS_PER_TX_ATTACHED_PARTITION_MSB = Numbers.msb(LONGS_PER_TX_ATTACHED_PARTITION);
@@ -75,6 +76,8 @@ public final class TableUtils {
     public static final long META_OFFSET_VERSION = 12;
     public static final long META_OFFSET_WAL_ENABLED = 40; // INT
     public static final int NULL_LEN = -1;
+    // marker file, presence of which in the partition directory means that column files are compressed
+    public static final String PARTITION_COMPRESSED_MARKER = "_compressed";
     public static final String SNAPSHOT_META_FILE_NAME = "_snapshot";
     public static final String SYMBOL_KEY_REMAP_FILE_SUFFIX = ".r";
     public static final int TABLE_DOES_NOT_EXIST = 1;
@@ -111,6 +114,7 @@ public final class TableUtils {
     public static final int TX_RECORD_HEADER_SIZE = (int) TX_OFFSET_MAP_WRITER_COUNT_32 + Integer.BYTES;
     public static final String UPGRADE_FILE_NAME = "_upgrade.d";
     static final int COLUMN_VERSION_FILE_HEADER_SIZE = 40;
+    static final int META_FLAG_BIT_DEDUP_KEY = 1 << 2;
     static final int META_FLAG_BIT_INDEXED = 1;
     static final int META_FLAG_BIT_NOT_INDEXED = 0;
     static final int META_FLAG_BIT_SEQUENTIAL = 1 << 1;
@@ -288,6 +292,10 @@ public final class TableUtils {
                     flags |= META_FLAG_BIT_SEQUENTIAL;
                 }
 
+                if (structure.isDedupKey(i)) {
+                    flags |= META_FLAG_BIT_DEDUP_KEY;
+                }
+
                 mem.putLong(flags);
                 mem.putInt(structure.getIndexBlockCapacity(i));
                 // reserved
@@ -544,6 +552,22 @@ public final class TableUtils {
         return iFile(path, columnName, COLUMN_NAME_TXN_NONE);
     }
 
+    /**
+     * Checks if partition column files are compressed by {@link ColumnCompressor}.
+     *
+     * @param ff   files facade
+     * @param path partition directory path, its length is preserved
+     * @return true when partition directory contains compression marker file
+     */
+    public static boolean isPartitionCompressed(FilesFacade ff, Path path) {
+        final int plen = path.length();
+        try {
+            return ff.exists(path.chop$().concat(PARTITION_COMPRESSED_MARKER).$());
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
     public static boolean isValidColumnName(CharSequence seq, int fsFileNameLimit) {
         int l = seq.length();
         if (l > fsFileNameLimit) {
@@ -1181,6 +1205,14 @@ public final class TableUtils {
         }
     }
 
+    public static LPSZ zmFile(Path path, CharSequence columnName, long columnTxn) {
+        path.concat(columnName).put(FILE_SUFFIX_ZM);
+        if (columnTxn > COLUMN_NAME_TXN_NONE) {
+            path.put('.').put(columnTxn);
+        }
+        return path.$();
+    }
+
     private static CharSequence getCharSequence(MemoryMR metaMem, long memSize, long offset, int strLength) {
         if (strLength < 1 || strLength > 255) {
             // EXT4 and many others do not allow file name length > 255 bytes
@@ -1223,6 +1255,10 @@ public final class TableUtils {
         return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_INDEXED) != 0;
     }
 
+    static boolean isDedupKey(MemoryR metaMem, int columnIndex) {
+        return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_DEDUP_KEY) != 0;
+    }
+
     static boolean isSequential(MemoryR metaMem, int columnIndex) {
         return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_SEQUENTIAL) != 0;
     }
@@ -78,7 +78,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
     private static final Log LOG = LogFactory.getLog(TableWriter.class);
     private static final Runnable NOOP = () -> {
     };
-    private static final int PARTITION_UPDATE_SINK_ENTRY_SIZE = 8;
+    private static final int PARTITION_UPDATE_SINK_ENTRY_SIZE = 9;
     private static final int ROW_ACTION_NO_PARTITION = 1;
     private static final int ROW_ACTION_NO_TIMESTAMP = 2;
     private static final int ROW_ACTION_O3 = 3;
@@ -135,6 +135,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
     private final PartitionBy.PartitionCeilMethod partitionCeilMethod;
     private final DateFormat partitionDirFmt;
     private final PartitionBy.PartitionFloorMethod partitionFloorMethod;
+    private final boolean partitionZoneMapsEnabled;
     private final Path path;
     private final int rootLen;
     private final FragileCode RECOVER_FROM_META_RENAME_FAILURE = this::recoverFromMetaRenameFailure;
@@ -230,6 +231,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         this.defaultCommitMode = configuration.getCommitMode();
         this.lifecycleManager = lifecycleManager;
         this.parallelIndexerEnabled = configuration.isParallelIndexingEnabled();
+        this.partitionZoneMapsEnabled = configuration.isPartitionZoneMapsEnabled();
         this.ff = configuration.getFilesFacade();
         this.mkDirMode = configuration.getMkDirMode();
         this.fileOperationRetryCount = configuration.getFileOperationRetryCount();
@@ -825,6 +827,16 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         return commit(commitMode, metadata.getCommitLag());
     }
 
+    @Override
+    public boolean compressPartition(long timestamp) {
+        return convertPartition(timestamp, true);
+    }
+
+    @Override
+    public boolean decompressPartition(long timestamp) {
+        return convertPartition(timestamp, false);
+    }
+
     @Override
     public AttachDetachStatus detachPartition(long timestamp) {
         // Should be checked by SQL compiler
@@ -1215,8 +1227,9 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
 
             default: // switch partition
                 bumpMasterRef();
-                if (timestamp > partitionTimestampHi || timestamp < txWriter.getMaxTimestamp()) {
-                    if (timestamp < txWriter.getMaxTimestamp()) {
+                if (timestamp > partitionTimestampHi || timestamp <= txWriter.getMaxTimestamp()) {
+                    // repeated timestamp may be a duplicate, deduplication happens in O3 merge
+                    if (timestamp < txWriter.getMaxTimestamp() || (timestamp == txWriter.getMaxTimestamp() && metadata.isDedupEnabled())) {
                         return newRowO3(timestamp);
                     }
 
@@ -1315,31 +1328,37 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
                 long o3Lo = rowLo;
                 long o3Hi = rowHi;
 
-                if (!ordered) {
+                // ordered WAL block can still repeat rows, deduplication needs the sorted copy
+                final boolean dedup = metadata.isDedupEnabled();
+                if (!ordered || dedup) {
                     final long timestampMemorySize = (rowHi - rowLo) << 4;
                     o3TimestampMem.jumpTo(timestampMemorySize);
                     long destTimestampAddr = o3TimestampMem.getAddress();
                     Vect.memcpy(destTimestampAddr, walTimestampColumn.addressOf(rowLo << 4), timestampMemorySize);
-                    if (rowHi - rowLo > 600 || !o3QuickSortEnabled) {
+                    if (rowHi - rowLo > 600 || !o3QuickSortEnabled || dedup) {
                         o3TimestampMemCpy.jumpTo(timestampMemorySize);
                         Vect.radixSortLongIndexAscInPlace(destTimestampAddr, o3RowCount, o3TimestampMemCpy.addressOf(0));
                     } else {
                         Vect.quickSortLongIndexAscInPlace(destTimestampAddr, o3RowCount);
                     }
 
-                    o3Sort(destTimestampAddr, timestampIndex, rowHi - rowLo);
+                    long sortedRowCount = rowHi - rowLo;
+                    if (dedup) {
+                        sortedRowCount = o3Dedup(destTimestampAddr, sortedRowCount, Long.MAX_VALUE, 0);
+                    }
+                    o3Sort(destTimestampAddr, timestampIndex, sortedRowCount);
                     timestampAddr = destTimestampAddr;
 
                     // Sorted data is now sorted in memory copy of the data from mmap files
                     // Row indexes start from 0, not rowLo
-                    o3Hi = rowHi - rowLo;
+                    o3Hi = sortedRowCount;
                     o3Lo = 0L;
                 } else {
                     timestampAddr = walTimestampColumn.addressOf(0);
                 }
 
                 o3Columns = remapWalSymbols(mapDiffCursor, o3Lo, o3Hi, walPath);
-                processO3Block(0L, timestampIndex, timestampAddr, o3Hi, o3TimestampMin, o3TimestampMax, !ordered, o3Lo);
+                processO3Block(0L, timestampIndex, timestampAddr, o3Hi, o3TimestampMin, o3TimestampMax, !ordered || dedup, o3Lo);
             } finally {
                 finishO3Append(0L);
                 o3Columns = o3MemColumns;
@@ -1522,6 +1541,8 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
             } else {
                 final int prevIndex = index - 1;
                 prevTimestamp = txWriter.getPartitionTimestamp(prevIndex);
+                // previous partition becomes active, it has to be writable
+                convertPartition(prevTimestamp, false);
                 newTransientRowCount = txWriter.getPartitionSize(prevIndex);
                 try {
                     setPathForPartition(path.trimTo(rootLen), partitionBy, prevTimestamp, false);
@@ -2628,6 +2649,150 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         }
     }
 
+    // Rewrites partition into the new partition version (directory name txn), same as O3 merge
+    // does. Data and offset files are compressed or decompressed, the rest is hard linked.
+    // Readers switch to the new version on reload and the old version is purged once released.
+    private boolean convertPartition(long timestamp, boolean compress) {
+        // Should be checked by SQL compiler
+        assert metadata.getTimestampIndex() > -1;
+        assert PartitionBy.isPartitioned(partitionBy);
+
+        if (inTransaction()) {
+            LOG.info()
+                    .$("committing open transaction before applying ").$(compress ? "compress" : "decompress")
+                    .$(" partition command [table=").utf8(tableName)
+                    .$(", partition=").$ts(timestamp)
+                    .I$();
+            commit();
+        }
+
+        final int partitionIndex = txWriter.getPartitionIndex(timestamp);
+        if (partitionIndex < 0) {
+            return false;
+        }
+        timestamp = txWriter.getPartitionTimestamp(partitionIndex);
+
+        if (timestamp == getPartitionLo(txWriter.getMaxTimestamp())) {
+            if (compress) {
+                throw CairoException.nonCritical()
+                        .put("cannot compress active partition [table=").put(tableName)
+                        .put(", partition=").ts(timestamp)
+                        .put(']');
+            }
+            // active partition is never compressed
+            return true;
+        }
+
+        final long partitionSize = txWriter.getPartitionSize(partitionIndex);
+        final long srcNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
+        final long dstNameTxn = txWriter.getTxn();
+        final long opts = configuration.getWriterFileOpenOpts();
+        boolean success = false;
+        try {
+            setPathForPartition(path, rootLen, partitionBy, timestamp, srcNameTxn);
+            final int srcLen = path.length();
+            if (TableUtils.isPartitionCompressed(ff, path) == compress) {
+                return true;
+            }
+
+            setPathForPartition(other, rootLen, partitionBy, timestamp, dstNameTxn);
+            final int dstLen = other.length();
+            if (ff.exists(other.$()) || ff.mkdirs(other.chop$().slash$(), mkDirMode) != 0) {
+                throw CairoException.critical(ff.errno()).put("could not create partition directory [path=").put(other).put(']');
+            }
+
+            try {
+                for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+                    final int columnType = metadata.getColumnType(columnIndex);
+                    if (columnType < 0) {
+                        continue;
+                    }
+                    final long columnTop = columnVersionWriter.getColumnTop(timestamp, columnIndex);
+                    if (columnTop < 0) {
+                        // column does not exist in the partition
+                        continue;
+                    }
+                    final CharSequence columnName = metadata.getColumnName(columnIndex);
+                    final long columnNameTxn = columnVersionWriter.getColumnNameTxn(timestamp, columnIndex);
+                    final long columnRowCount = Math.max(0, partitionSize - columnTop);
+
+                    TableUtils.dFile(path.trimTo(srcLen), columnName, columnNameTxn);
+                    if (!ff.exists(path)) {
+                        continue;
+                    }
+
+                    if (ColumnType.isVariableLength(columnType)) {
+                        final long dataSize;
+                        TableUtils.iFile(path.trimTo(srcLen), columnName, columnNameTxn);
+                        TableUtils.iFile(other.trimTo(dstLen), columnName, columnNameTxn);
+                        if (compress) {
+                            dataSize = TableUtils.readLongAtOffset(ff, path, tempMem16b, columnRowCount * Long.BYTES);
+                            ColumnCompressor.compress(ff, path, other, (columnRowCount + 1) * Long.BYTES, opts);
+                        } else {
+                            dataSize = 0;
+                            ColumnCompressor.decompress(ff, path, other, opts);
+                        }
+                        TableUtils.dFile(path.trimTo(srcLen), columnName, columnNameTxn);
+                        TableUtils.dFile(other.trimTo(dstLen), columnName, columnNameTxn);
+                        if (compress) {
+                            ColumnCompressor.compress(ff, path, other, dataSize, opts);
+                        } else {
+                            ColumnCompressor.decompress(ff, path, other, opts);
+                        }
+                    } else {
+                        TableUtils.dFile(other.trimTo(dstLen), columnName, columnNameTxn);
+                        if (compress) {
+                            ColumnCompressor.compress(ff, path, other, columnRowCount << ColumnType.pow2SizeOf(columnType), opts);
+                        } else {
+                            ColumnCompressor.decompress(ff, path, other, opts);
+                        }
+                    }
+
+                    // index and zone map files are small and stay raw
+                    if (metadata.isColumnIndexed(columnIndex)) {
+                        keyFileName(path.trimTo(srcLen), columnName, columnNameTxn);
+                        keyFileName(other.trimTo(dstLen), columnName, columnNameTxn);
+                        hardLinkPartitionFile();
+                        valueFileName(path.trimTo(srcLen), columnName, columnNameTxn);
+                        valueFileName(other.trimTo(dstLen), columnName, columnNameTxn);
+                        hardLinkPartitionFile();
+                    }
+                    TableUtils.zmFile(path.trimTo(srcLen), columnName, columnNameTxn);
+                    TableUtils.zmFile(other.trimTo(dstLen), columnName, columnNameTxn);
+                    hardLinkPartitionFile();
+                }
+
+                if (compress && !ff.touch(other.trimTo(dstLen).concat(PARTITION_COMPRESSED_MARKER).$())) {
+                    throw CairoException.critical(ff.errno()).put("could not create file [path=").put(other).put(']');
+                }
+                success = true;
+            } finally {
+                if (!success) {
+                    other.trimTo(dstLen).slash$();
+                    if (ff.rmdir(other) != 0) {
+                        LOG.error().$("could not remove partition version [path=").$(other).$(", errno=").$(ff.errno()).I$();
+                    }
+                }
+            }
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+
+        txWriter.updatePartitionSizeAndTxnByIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, partitionSize);
+        txWriter.bumpPartitionTableVersion();
+        txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
+
+        LOG.info().$(compress ? "compressed" : "decompressed")
+                .$(" partition [table=").utf8(tableName)
+                .$(", partition=").$ts(timestamp)
+                .$(", nameTxn=").$(dstNameTxn)
+                .I$();
+
+        safeDeletePartitionDir(timestamp, srcNameTxn);
+        return true;
+    }
+
     private int copyMetadataAndSetIndexAttrs(int columnIndex, int indexedFlag, int indexValueBlockSize) {
         try {
             int index = openMetaSwapFile(ff, ddlMem, path, rootLen, configuration.getMaxSwapFileCount());
@@ -2646,6 +2811,9 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
                     if (isSequential(metaMem, i)) {
                         flags |= META_FLAG_BIT_SEQUENTIAL;
                     }
+                    if (isDedupKey(metaMem, i)) {
+                        flags |= META_FLAG_BIT_DEDUP_KEY;
+                    }
                     ddlMem.putLong(flags);
                     ddlMem.putInt(indexValueBlockSize);
                     ddlMem.skip(16);
@@ -2886,6 +3054,9 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
     private void finishO3Commit(long partitionTimestampHiLimit) {
         if (!o3InError) {
             updateO3ColumnTops();
+            if (partitionZoneMapsEnabled) {
+                writeO3ZoneMaps();
+            }
         }
         if (!isLastPartitionColumnsOpen() || partitionTimestampHi > partitionTimestampHiLimit) {
             openPartition(txWriter.getMaxTimestamp());
@@ -2970,6 +3141,15 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         return columns.getQuick(getSecondaryColumnIndex(column));
     }
 
+    // links file at "path" to "other", the file is optional
+    private void hardLinkPartitionFile() {
+        if (ff.exists(path) && ff.hardLink(path, other) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create hard link [src=").put(path)
+                    .put(", dst=").put(other)
+                    .put(']');
+        }
+    }
+
     private boolean hasO3() {
         return o3MasterRef > -1;
     }
@@ -2995,6 +3175,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
                         if (ff.exists(path)) {
 
                             path.trimTo(plen);
+                            final boolean compressed = isPartitionCompressed(ff, path);
                             LOG.info().$("indexing [path=").$(path).I$();
 
                             createIndexFiles(columnName, columnNameTxn, indexValueBlockSize, plen, true);
@@ -3004,9 +3185,16 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
                             if (columnTop > -1L && partitionSize > columnTop) {
                                 TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn);
                                 final long columnSize = (partitionSize - columnTop) << ColumnType.pow2SizeOf(ColumnType.INT);
-                                roMem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_WRITER);
-                                indexer.configureWriter(configuration, path.trimTo(plen), columnName, columnNameTxn, columnTop);
-                                indexer.index(roMem, columnTop, partitionSize);
+                                if (compressed) {
+                                    try (MemoryMR zipMem = Vm.getMRZipInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_WRITER)) {
+                                        indexer.configureWriter(configuration, path.trimTo(plen), columnName, columnNameTxn, columnTop);
+                                        indexer.index(zipMem, columnTop, partitionSize);
+                                    }
+                                } else {
+                                    roMem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_WRITER);
+                                    indexer.configureWriter(configuration, path.trimTo(plen), columnName, columnNameTxn, columnTop);
+                                    indexer.index(roMem, columnTop, partitionSize);
+                                }
                             }
                         }
                     }
@@ -3148,6 +3336,32 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
      *            microseconds before this timestamp.
      * @return <i>true</i> when commit has is a NOOP, e.g. no data has been committed to disk. <i>false</i> otherwise.
      */
+    // compressed partitions are read-only, O3 data cannot be merged into them
+    private void o3CheckCompressedPartitions(long o3TimestampMin, long o3TimestampMax) {
+        final long lastPartitionTimestamp = txWriter.getLastPartitionTimestamp();
+        final long partitionLo = partitionFloorMethod.floor(o3TimestampMin);
+        for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
+            final long partitionTimestamp = txWriter.getPartitionTimestamp(i);
+            if (partitionTimestamp > o3TimestampMax || partitionTimestamp >= lastPartitionTimestamp) {
+                break;
+            }
+            if (partitionTimestamp >= partitionLo) {
+                setPathForPartition(other, rootLen, partitionBy, partitionTimestamp, txWriter.getPartitionNameTxn(i));
+                try {
+                    if (isPartitionCompressed(ff, other)) {
+                        o3InError = true;
+                        throw CairoException.nonCritical()
+                                .put("cannot insert out-of-order data into compressed partition, decompress it first [table=").put(tableName)
+                                .put(", partition=").ts(partitionTimestamp)
+                                .put(']');
+                    }
+                } finally {
+                    other.trimTo(rootLen);
+                }
+            }
+        }
+    }
+
     private boolean o3Commit(long lag) {
         o3RowCount = getO3RowCount0();
 
@@ -3159,6 +3373,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         // will have to switch partition internally
         long partitionTimestampHiLimit = partitionCeilMethod.ceil(partitionTimestampHi) - 1;
         try {
+            final long movedRowLo = o3RowCount;
             o3RowCount += o3MoveUncommitted(timestampIndex);
 
             // we may need to re-use file descriptors when this partition is the "current" one
@@ -3172,13 +3387,20 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
 
             // ensure there is enough size
             assert o3TimestampMem.getAppendOffset() == o3RowCount * TIMESTAMP_MERGE_ENTRY_BYTES;
-            if (o3RowCount > 600 || !o3QuickSortEnabled) {
+            final boolean dedup = metadata.isDedupEnabled();
+            if (o3RowCount > 600 || !o3QuickSortEnabled || dedup) {
                 o3TimestampMemCpy.jumpTo(o3TimestampMem.getAppendOffset());
                 Vect.radixSortLongIndexAscInPlace(sortedTimestampsAddr, o3RowCount, o3TimestampMemCpy.addressOf(0));
             } else {
                 Vect.quickSortLongIndexAscInPlace(sortedTimestampsAddr, o3RowCount);
             }
 
+            if (dedup) {
+                // duplicates within the batch are dropped before columns are reshuffled
+                o3RowCount = o3Dedup(sortedTimestampsAddr, o3RowCount, movedRowLo, o3RowCount - movedRowLo);
+                o3TimestampMem.jumpTo(o3RowCount * TIMESTAMP_MERGE_ENTRY_BYTES);
+            }
+
             // we have three frames:
             // partition logical "lo" and "hi" - absolute bounds (partitionLo, partitionHi)
             // partition actual data "lo" and "hi" (dataLo, dataHi)
@@ -3356,6 +3578,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
                 boolean partitionMutates = o3PartitionUpdateSink.get(offset + 5) != 0;
                 long srcOooMax = o3PartitionUpdateSink.get(offset + 6);
                 long srcDataMax = o3PartitionUpdateSink.get(offset + 7);
+                long dedupRowCount = Math.max(o3PartitionUpdateSink.get(offset + 8), 0);
 
                 o3PartitionUpdate(
                         timestampMin,
@@ -3365,6 +3588,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
                         srcOooPartitionHi,
                         srcOooMax,
                         srcDataMax,
+                        dedupRowCount,
                         partitionMutates
                 );
 
@@ -3472,6 +3696,37 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         }
     }
 
+    private long o3Dedup(long sortedTimestampsAddr, long rowCount, long movedRowLo, long movedRowCount) {
+        final IntList dedupKeyIndexes = metadata.getDedupKeyIndexes();
+        final int timestampIndex = metadata.getTimestampIndex();
+        // designated timestamp is compared by the sorted index itself
+        final int keyCount = dedupKeyIndexes.size() - 1;
+        final long keysSize = (long) keyCount * O3Utils.DEDUP_KEY_ENTRY_BYTES;
+        final long keysAddr = keyCount > 0 ? Unsafe.malloc(keysSize, MemoryTag.NATIVE_O3) : 0;
+        try {
+            int keyIndex = 0;
+            for (int i = 0, n = dedupKeyIndexes.size(); i < n; i++) {
+                final int columnIndex = dedupKeyIndexes.getQuick(i);
+                if (columnIndex != timestampIndex) {
+                    final long o3Addr = o3Columns.getQuick(getPrimaryColumnIndex(columnIndex)).addressOf(0);
+                    O3Utils.setDedupKey(keysAddr, keyIndex++, metadata.getColumnType(columnIndex), 0, 0, o3Addr);
+                }
+            }
+            final long dedupRowCount = O3Utils.dedupTimestampIndex(sortedTimestampsAddr, rowCount, keysAddr, keyCount, movedRowLo, movedRowCount);
+            if (dedupRowCount < rowCount) {
+                LOG.info().$("o3 dedup [table=").utf8(tableName)
+                        .$(", rowCount=").$(rowCount)
+                        .$(", dedupRowCount=").$(dedupRowCount)
+                        .I$();
+            }
+            return dedupRowCount;
+        } finally {
+            if (keysAddr != 0) {
+                Unsafe.free(keysAddr, keysSize, MemoryTag.NATIVE_O3);
+            }
+        }
+    }
+
     private void o3MoveLag0(
             int columnIndex,
             final int columnType,
@@ -3703,10 +3958,19 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
             long srcOooPartitionHi,
             long srcOooMax,
             long srcDataMax,
+            long dedupRowCount,
             boolean partitionMutates
     ) {
         this.txWriter.minTimestamp = Math.min(timestampMin, this.txWriter.minTimestamp);
-        final long partitionSize = srcDataMax + srcOooPartitionHi - srcOooPartitionLo + 1;
+        final long partitionSize = srcDataMax + srcOooPartitionHi - srcOooPartitionLo + 1 - dedupRowCount;
+        if (dedupRowCount > 0) {
+            // row counts were advanced by the full O3 batch before the merge removed duplicates
+            if (partitionTimestamp == partitionFloorMethod.floor(partitionTimestampHi)) {
+                txWriter.transientRowCount -= dedupRowCount;
+            } else {
+                txWriter.fixedRowCount -= dedupRowCount;
+            }
+        }
         final long rowDelta = srcOooPartitionHi - srcOooMax;
         final int partitionIndex = txWriter.findAttachedPartitionIndexByLoTimestamp(partitionTimestamp);
         if (partitionTimestamp == lastPartitionTimestamp) {
@@ -4352,6 +4616,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
             boolean flattenTimestamp,
             long rowLo
     ) {
+        o3CheckCompressedPartitions(o3TimestampMin, o3TimestampMax);
         o3ErrorCount.set(0);
         o3PartitionRemoveCandidates.clear();
         o3ColumnCounters.clear();
@@ -4427,7 +4692,8 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
                     }
 
                     // We're appending onto the last partition.
-                    final boolean append = last && (srcDataMax == 0 || o3Timestamp >= maxTimestamp);
+                    // Rows repeating max timestamp of deduplicated table have to be merged.
+                    final boolean append = last && (srcDataMax == 0 || o3Timestamp > maxTimestamp || (o3Timestamp == maxTimestamp && !metadata.isDedupEnabled()));
 
                     // Number of rows to insert from the O3 segment into this partition.
                     final long srcOooBatchRowSize = srcOooHi - srcOooLo + 1;
@@ -4685,8 +4951,12 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
     private long readMinTimestamp(long partitionTimestamp) {
         setStateForTimestamp(other, partitionTimestamp, false);
         try {
+            final boolean compressed = isPartitionCompressed(ff, other);
             dFile(other, metadata.getColumnName(metadata.getTimestampIndex()), COLUMN_NAME_TXN_NONE);
             if (ff.exists(other)) {
+                if (compressed) {
+                    return ColumnCompressor.readLong(ff, other, 0);
+                }
                 // read min timestamp value
                 final long fd = TableUtils.openRO(ff, other, LOG);
                 try {
@@ -4709,26 +4979,33 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
     }
 
     private void readPartitionMinMax(FilesFacade ff, long partitionTimestamp, Path path, CharSequence columnName, long partitionSize) {
+        final boolean compressed = isPartitionCompressed(ff, path);
         dFile(path, columnName, COLUMN_NAME_TXN_NONE);
-        final long fd = TableUtils.openRO(ff, path, LOG);
-        try {
-            attachMinTimestamp = ff.readULong(fd, 0);
-            attachMaxTimestamp = ff.readULong(fd, (partitionSize - 1) * ColumnType.sizeOf(ColumnType.TIMESTAMP));
-            if (attachMinTimestamp < 0 || attachMaxTimestamp < 0) {
-                throw CairoException.critical(ff.errno())
-                        .put("cannot read min, max timestamp from the column [path=").put(path)
-                        .put(", partitionSizeRows=").put(partitionSize)
-                        .put(", errno=").put(ff.errno()).put(']');
-            }
-            if (partitionFloorMethod.floor(attachMinTimestamp) != partitionTimestamp
-                    || partitionFloorMethod.floor(attachMaxTimestamp) != partitionTimestamp) {
-                throw CairoException.critical(0)
-                        .put("invalid timestamp column data in detached partition, data does not match partition directory name [path=").put(path)
-                        .put(", minTimestamp=").ts(attachMinTimestamp)
-                        .put(", maxTimestamp=").ts(attachMaxTimestamp).put(']');
+        final long maxOffset = (partitionSize - 1) * ColumnType.sizeOf(ColumnType.TIMESTAMP);
+        if (compressed) {
+            attachMinTimestamp = ColumnCompressor.readLong(ff, path, 0);
+            attachMaxTimestamp = ColumnCompressor.readLong(ff, path, maxOffset);
+        } else {
+            final long fd = TableUtils.openRO(ff, path, LOG);
+            try {
+                attachMinTimestamp = ff.readULong(fd, 0);
+                attachMaxTimestamp = ff.readULong(fd, maxOffset);
+            } finally {
+                ff.close(fd);
             }
-        } finally {
-            ff.close(fd);
+        }
+        if (attachMinTimestamp < 0 || attachMaxTimestamp < 0) {
+            throw CairoException.critical(ff.errno())
+                    .put("cannot read min, max timestamp from the column [path=").put(path)
+                    .put(", partitionSizeRows=").put(partitionSize)
+                    .put(", errno=").put(ff.errno()).put(']');
+        }
+        if (partitionFloorMethod.floor(attachMinTimestamp) != partitionTimestamp
+                || partitionFloorMethod.floor(attachMaxTimestamp) != partitionTimestamp) {
+            throw CairoException.critical(0)
+                    .put("invalid timestamp column data in detached partition, data does not match partition directory name [path=").put(path)
+                    .put(", minTimestamp=").ts(attachMinTimestamp)
+                    .put(", maxTimestamp=").ts(attachMaxTimestamp).put(']');
         }
     }
 
@@ -4767,6 +5044,11 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
             // No txn file found, scan the file to get min, max timestamp
             // Scan forward while value increases
 
+            if (isPartitionCompressed(ff, path.trimTo(pathLen))) {
+                throw CairoException.nonCritical()
+                        .put("cannot attach compressed partition without txn file [path=")
+                        .put(path).put(']');
+            }
             dFile(path.trimTo(pathLen), columnName, COLUMN_NAME_TXN_NONE);
             final long fd = TableUtils.openRO(ff, path, LOG);
             try {
@@ -5645,6 +5927,9 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         // added so far. Index writers will start point to different
         // files after switch.
         updateIndexes();
+        if (partitionZoneMapsEnabled && txWriter.getTransientRowCount() > 0) {
+            writeZoneMaps(txWriter.getLastPartitionTimestamp(), txWriter.getTransientRowCount());
+        }
         txWriter.switchPartitions(timestamp);
         openPartition(timestamp);
         setAppendPosition(0, false);
@@ -5854,11 +6139,35 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         if (isSequential(metaMem, i)) {
             flags |= META_FLAG_BIT_SEQUENTIAL;
         }
+
+        if (isDedupKey(metaMem, i)) {
+            flags |= META_FLAG_BIT_DEDUP_KEY;
+        }
         ddlMem.putLong(flags);
         ddlMem.putInt(getIndexBlockCapacity(metaMem, i));
         ddlMem.skip(16);
     }
 
+    private void writeO3ZoneMaps() {
+        final long newLastPartitionTimestamp = txWriter.getLastPartitionTimestamp();
+        final int increment = metadata.getColumnCount() + 1;
+        for (int partitionOffset = 0, n = (int) o3ColumnTopSink.size(); partitionOffset < n; partitionOffset += increment) {
+            final long partitionTimestamp = o3ColumnTopSink.get(partitionOffset);
+            // the last partition is still open for appends, its zone maps are written when partition is switched
+            if (partitionTimestamp > -1 && partitionTimestamp < newLastPartitionTimestamp) {
+                writeZoneMaps(partitionTimestamp, txWriter.getPartitionSizeByPartitionTimestamp(partitionTimestamp));
+            }
+        }
+
+        // O3 data could have created new partitions after the one that was last before the commit
+        if (lastPartitionTimestamp < newLastPartitionTimestamp && txWriter.attachedPartitionsContains(lastPartitionTimestamp)) {
+            final long partitionSize = txWriter.getPartitionSizeByPartitionTimestamp(lastPartitionTimestamp);
+            if (partitionSize > 0) {
+                writeZoneMaps(lastPartitionTimestamp, partitionSize);
+            }
+        }
+    }
+
     private void writeRestoreMetaTodo(CharSequence columnName) {
         try {
             writeRestoreMetaTodo();
@@ -5881,6 +6190,47 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         todoMem.jumpTo(56);
     }
 
+    private void writeZoneMaps(long partitionTimestamp, long partitionSize) {
+        setStateForTimestamp(other, partitionTimestamp, false);
+        final int timestampIndex = metadata.getTimestampIndex();
+        try {
+            for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+                final int columnType = metadata.getColumnType(columnIndex);
+                if (columnIndex == timestampIndex || !ZoneMap.isSupported(columnType)) {
+                    continue;
+                }
+                final long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, columnIndex);
+                if (columnTop < 0 || columnTop > partitionSize) {
+                    continue;
+                }
+                final CharSequence columnName = metadata.getColumnName(columnIndex);
+                try {
+                    ZoneMap.write(
+                            ff,
+                            other,
+                            columnName,
+                            columnVersionWriter.getColumnNameTxn(partitionTimestamp, columnIndex),
+                            columnType,
+                            columnTop,
+                            partitionSize,
+                            configuration.getWriterFileOpenOpts()
+                    );
+                } catch (CairoException e) {
+                    // zone map is an optimisation, readers will scan the partition when it is missing
+                    LOG.error().$("could not write zone map [table=").utf8(tableName)
+                            .$(", column=").utf8(columnName)
+                            .$(", partition=").$ts(partitionTimestamp)
+                            .$(", errno=").$(e.getErrno())
+                            .$(", error=").$(e.getFlyweightMessage())
+                            .I$();
+                }
+            }
+        } finally {
+            other.trimTo(rootLen);
+            path.trimTo(rootLen);
+        }
+    }
+
     static void indexAndCountDown(ColumnIndexer indexer, long lo, long hi, SOCountDownLatch latch) {
         try {
             indexer.refreshSourceAndIndex(lo, hi);
@@ -5925,6 +6275,10 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         return configuration;
     }
 
+    IntList getDedupKeyIndexes() {
+        return metadata.getDedupKeyIndexes();
+    }
+
     Sequence getO3CopyPubSeq() {
         return messageBus.getO3CopyPubSeq();
     }
@@ -5953,6 +6307,10 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         return txWriter;
     }
 
+    boolean isDedupEnabled() {
+        return metadata.isDedupEnabled();
+    }
+
     boolean isSymbolMapWriterCached(int columnIndex) {
         return symbolMapWriters.getQuick(columnIndex).isCached();
     }
@@ -5965,6 +6323,12 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         o3DoneLatch.countDown();
     }
 
+    void o3NotifyPartitionDedup(long partitionTimestamp, long dedupRowCount) {
+        long basePartitionTs = o3PartitionUpdateSink.get(0);
+        int partitionSinkIndex = (int) ((partitionTimestamp - basePartitionTs) / PartitionBy.getPartitionTimeIntervalFloor(partitionBy));
+        o3PartitionUpdateSink.set(partitionSinkIndex * PARTITION_UPDATE_SINK_ENTRY_SIZE + 8, dedupRowCount);
+    }
+
     void o3NotifyPartitionUpdate(
             long timestampMin,
             long timestampMax,
@@ -28,8 +28,10 @@ import io.questdb.cairo.sql.TableRecordMetadata;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
 import io.questdb.std.Chars;
+import io.questdb.std.IntList;
 
 class TableWriterMetadata extends AbstractRecordMetadata implements TableRecordMetadata {
+    private final IntList dedupKeyIndexes = new IntList();
     private final String tableName;
     private long commitLag;
     private int maxUncommittedRows;
@@ -55,6 +57,10 @@ class TableWriterMetadata extends AbstractRecordMetadata implements TableRecordM
         return commitLag;
     }
 
+    public IntList getDedupKeyIndexes() {
+        return dedupKeyIndexes;
+    }
+
     public int getFileDataSize() {
         return metaFileSize;
     }
@@ -87,6 +93,10 @@ class TableWriterMetadata extends AbstractRecordMetadata implements TableRecordM
         return version;
     }
 
+    public boolean isDedupEnabled() {
+        return dedupKeyIndexes.size() > 0;
+    }
+
     @Override
     public boolean isWalEnabled() {
         return walEnabled;
@@ -107,6 +117,7 @@ class TableWriterMetadata extends AbstractRecordMetadata implements TableRecordM
 
         long offset = TableUtils.getColumnNameOffset(columnCount);
         this.symbolMapCount = 0;
+        this.dedupKeyIndexes.clear();
         columnNameIndexMap.clear();
         // don't create strings in this loop, we already have them in columnNameIndexMap
         for (int i = 0; i < columnCount; i++) {
@@ -129,6 +140,9 @@ class TableWriterMetadata extends AbstractRecordMetadata implements TableRecordM
             if (ColumnType.isSymbol(type)) {
                 symbolMapCount++;
             }
+            if (type > 0 && TableUtils.isDedupKey(metaMem, i)) {
+                dedupKeyIndexes.add(i);
+            }
             offset += Vm.getStorageLength(name);
         }
         metaFileSize = (int) offset;
@@ -181,6 +195,7 @@ class TableWriterMetadata extends AbstractRecordMetadata implements TableRecordM
         }
         deletedMeta.markDeleted();
         columnNameIndexMap.remove(deletedMeta.getName());
+        dedupKeyIndexes.remove(columnIndex);
     }
 
     void renameColumn(CharSequence name, CharSequence newName) {
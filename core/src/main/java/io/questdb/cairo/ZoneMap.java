@@ -0,0 +1,305 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Min/max/null count statistics of a fixed-size column within a partition, also known as zone map.
+ * Zone map is stored next to the column data, in the "column.zm[.txn]" file, which is versioned
+ * in the same way as the data file. The file layout is as follows:
+ * <pre>
+ * 0  long partition row count at the time the stats were calculated
+ * 8  long column top
+ * 16 long null count, column top rows included
+ * 24 long min value, IEEE754 bits for FLOAT and DOUBLE columns
+ * 32 long max value, IEEE754 bits for FLOAT and DOUBLE columns
+ * </pre>
+ * Row count and column top are stored for validation. Readers must disregard zone maps which
+ * do not match partition row count or column top they observe.
+ * <p>
+ * Memory to read zone map into is allocated on first read and released on close, the instance
+ * can be reused after close.
+ */
+public class ZoneMap implements Closeable {
+    public static final long SIZE = 5 * Long.BYTES;
+    private static final Log LOG = LogFactory.getLog(ZoneMap.class);
+    private static final long OFFSET_COLUMN_TOP = 8;
+    private static final long OFFSET_MAX = 32;
+    private static final long OFFSET_MIN = 24;
+    private static final long OFFSET_NULL_COUNT = 16;
+    private static final long OFFSET_ROW_COUNT = 0;
+    private long address;
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.SYMBOL:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                return columnType > 0;
+            default:
+                return false;
+        }
+    }
+
+    public static boolean isFloatingPoint(int columnType) {
+        final int tag = ColumnType.tagOf(columnType);
+        return tag == ColumnType.FLOAT || tag == ColumnType.DOUBLE;
+    }
+
+    /**
+     * Calculates zone map of the column and writes it to the partition directory. Row count is
+     * invalidated before the rest of the file is written and set last, so that readers disregard
+     * partially written file.
+     *
+     * @param ff                 files facade
+     * @param path               path to the partition directory, left unchanged on exit
+     * @param columnName         column name
+     * @param columnNameTxn      column version
+     * @param columnType         column type, must be one of the supported types
+     * @param columnTop          column top in the partition
+     * @param partitionRowCount  partition row count
+     * @param opts               file open options
+     */
+    public static void write(
+            FilesFacade ff,
+            Path path,
+            CharSequence columnName,
+            long columnNameTxn,
+            int columnType,
+            long columnTop,
+            long partitionRowCount,
+            long opts
+    ) {
+        assert isSupported(columnType);
+        final int plen = path.length();
+        final long tempMem = Unsafe.malloc(SIZE, MemoryTag.NATIVE_DEFAULT);
+        try {
+            Unsafe.getUnsafe().putLong(tempMem + OFFSET_COLUMN_TOP, columnTop);
+            calculate(ff, path, columnName, columnNameTxn, columnType, partitionRowCount - columnTop, tempMem);
+            Unsafe.getUnsafe().putLong(tempMem + OFFSET_NULL_COUNT, Unsafe.getUnsafe().getLong(tempMem + OFFSET_NULL_COUNT) + columnTop);
+
+            TableUtils.zmFile(path.trimTo(plen), columnName, columnNameTxn);
+            final long fd = TableUtils.openRW(ff, path, LOG, opts);
+            try {
+                Unsafe.getUnsafe().putLong(tempMem + OFFSET_ROW_COUNT, -1L);
+                if (ff.write(fd, tempMem, SIZE, 0) != SIZE) {
+                    throw CairoException.critical(ff.errno()).put("could not write zone map [path=").put(path).put(']');
+                }
+                Unsafe.getUnsafe().putLong(tempMem + OFFSET_ROW_COUNT, partitionRowCount);
+                if (ff.write(fd, tempMem + OFFSET_ROW_COUNT, Long.BYTES, OFFSET_ROW_COUNT) != Long.BYTES) {
+                    throw CairoException.critical(ff.errno()).put("could not write zone map [path=").put(path).put(']');
+                }
+            } finally {
+                ff.close(fd);
+            }
+        } finally {
+            Unsafe.free(tempMem, SIZE, MemoryTag.NATIVE_DEFAULT);
+            path.trimTo(plen);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (address != 0) {
+            address = Unsafe.free(address, SIZE, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    public long getColumnTop() {
+        return Unsafe.getUnsafe().getLong(address + OFFSET_COLUMN_TOP);
+    }
+
+    public double getMaxDouble() {
+        return Double.longBitsToDouble(getMaxLong());
+    }
+
+    public long getMaxLong() {
+        return Unsafe.getUnsafe().getLong(address + OFFSET_MAX);
+    }
+
+    public double getMinDouble() {
+        return Double.longBitsToDouble(getMinLong());
+    }
+
+    public long getMinLong() {
+        return Unsafe.getUnsafe().getLong(address + OFFSET_MIN);
+    }
+
+    public long getNullCount() {
+        return Unsafe.getUnsafe().getLong(address + OFFSET_NULL_COUNT);
+    }
+
+    public long getRowCount() {
+        return Unsafe.getUnsafe().getLong(address + OFFSET_ROW_COUNT);
+    }
+
+    /**
+     * Reads zone map file of the column.
+     *
+     * @param ff            files facade
+     * @param path          path to the partition directory, left unchanged on exit
+     * @param columnName    column name
+     * @param columnNameTxn column version
+     * @return false when zone map file does not exist or cannot be read
+     */
+    public boolean of(FilesFacade ff, Path path, CharSequence columnName, long columnNameTxn) {
+        if (address == 0) {
+            address = Unsafe.malloc(SIZE, MemoryTag.NATIVE_DEFAULT);
+        }
+        final int plen = path.length();
+        try {
+            final long fd = ff.openRO(TableUtils.zmFile(path, columnName, columnNameTxn));
+            if (fd < 0) {
+                return false;
+            }
+            try {
+                return ff.read(fd, address, SIZE, 0) == SIZE;
+            } finally {
+                ff.close(fd);
+            }
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    private static void calculate(
+            FilesFacade ff,
+            Path path,
+            CharSequence columnName,
+            long columnNameTxn,
+            int columnType,
+            long columnRowCount,
+            long tempMem
+    ) {
+        long nullCount = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        double minDouble = Double.POSITIVE_INFINITY;
+        double maxDouble = Double.NEGATIVE_INFINITY;
+
+        if (columnRowCount > 0) {
+            final int plen = path.length();
+            final long fd = TableUtils.openRO(ff, TableUtils.dFile(path, columnName, columnNameTxn), LOG);
+            path.trimTo(plen);
+            final long size = columnRowCount << ColumnType.pow2SizeOf(columnType);
+            long addr = 0;
+            try {
+                if (ff.length(fd) < size) {
+                    throw CairoException.critical(0).put("column file is too short for zone map [column=").put(columnName)
+                            .put(", expectedSize=").put(size)
+                            .put(']');
+                }
+                addr = TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_DEFAULT);
+                switch (ColumnType.tagOf(columnType)) {
+                    case ColumnType.BYTE:
+                        for (long p = addr, lim = addr + size; p < lim; p++) {
+                            final byte v = Unsafe.getUnsafe().getByte(p);
+                            min = Math.min(min, v);
+                            max = Math.max(max, v);
+                        }
+                        break;
+                    case ColumnType.SHORT:
+                        for (long p = addr, lim = addr + size; p < lim; p += Short.BYTES) {
+                            final short v = Unsafe.getUnsafe().getShort(p);
+                            min = Math.min(min, v);
+                            max = Math.max(max, v);
+                        }
+                        break;
+                    case ColumnType.INT:
+                    case ColumnType.SYMBOL:
+                        for (long p = addr, lim = addr + size; p < lim; p += Integer.BYTES) {
+                            final int v = Unsafe.getUnsafe().getInt(p);
+                            if (v != Numbers.INT_NaN) {
+                                min = Math.min(min, v);
+                                max = Math.max(max, v);
+                            } else {
+                                nullCount++;
+                            }
+                        }
+                        break;
+                    case ColumnType.FLOAT:
+                        for (long p = addr, lim = addr + size; p < lim; p += Float.BYTES) {
+                            final float v = Unsafe.getUnsafe().getFloat(p);
+                            if (v == v) {
+                                minDouble = Math.min(minDouble, v);
+                                maxDouble = Math.max(maxDouble, v);
+                            } else {
+                                nullCount++;
+                            }
+                        }
+                        break;
+                    case ColumnType.DOUBLE:
+                        for (long p = addr, lim = addr + size; p < lim; p += Double.BYTES) {
+                            final double v = Unsafe.getUnsafe().getDouble(p);
+                            if (v == v) {
+                                minDouble = Math.min(minDouble, v);
+                                maxDouble = Math.max(maxDouble, v);
+                            } else {
+                                nullCount++;
+                            }
+                        }
+                        break;
+                    default:
+                        for (long p = addr, lim = addr + size; p < lim; p += Long.BYTES) {
+                            final long v = Unsafe.getUnsafe().getLong(p);
+                            if (v != Numbers.LONG_NaN) {
+                                min = Math.min(min, v);
+                                max = Math.max(max, v);
+                            } else {
+                                nullCount++;
+                            }
+                        }
+                        break;
+                }
+            } finally {
+                if (addr != 0) {
+                    ff.munmap(addr, size, MemoryTag.MMAP_DEFAULT);
+                }
+                ff.close(fd);
+            }
+        }
+
+        Unsafe.getUnsafe().putLong(tempMem + OFFSET_NULL_COUNT, nullCount);
+        if (isFloatingPoint(columnType)) {
+            Unsafe.getUnsafe().putLong(tempMem + OFFSET_MIN, Double.doubleToRawLongBits(minDouble));
+            Unsafe.getUnsafe().putLong(tempMem + OFFSET_MAX, Double.doubleToRawLongBits(maxDouble));
+        } else {
+            Unsafe.getUnsafe().putLong(tempMem + OFFSET_MIN, min);
+            Unsafe.getUnsafe().putLong(tempMem + OFFSET_MAX, max);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.std.Misc;
+import org.jetbrains.annotations.Nullable;
+
+public class ZoneMapDataFrameCursor implements DataFrameCursor {
+    private final ZoneMapFilter filter;
+    private DataFrameCursor base;
+
+    public ZoneMapDataFrameCursor(ZoneMapFilter filter) {
+        this.filter = filter;
+    }
+
+    @Override
+    public void close() {
+        base = Misc.free(base);
+        filter.close();
+    }
+
+    @Override
+    public StaticSymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public TableReader getTableReader() {
+        return base.getTableReader();
+    }
+
+    @Override
+    public StaticSymbolTable newSymbolTable(int columnIndex) {
+        return base.newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public @Nullable DataFrame next() {
+        final TableReader reader = base.getTableReader();
+        final int lastPartitionIndex = reader.getPartitionCount() - 1;
+        DataFrame frame;
+        while ((frame = base.next()) != null) {
+            final int partitionIndex = frame.getPartitionIndex();
+            // the last partition is open for appends and has no zone maps
+            if (partitionIndex == lastPartitionIndex || filter.mayMatch(reader, partitionIndex)) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    public ZoneMapDataFrameCursor of(DataFrameCursor base) {
+        this.base = base;
+        filter.of(base.getTableReader());
+        return this;
+    }
+
+    @Override
+    public boolean reload() {
+        final boolean moreData = base.reload();
+        filter.of(base.getTableReader());
+        return moreData;
+    }
+
+    @Override
+    public long size() {
+        // pruned partitions are not known upfront
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        base.toTop();
+    }
+}
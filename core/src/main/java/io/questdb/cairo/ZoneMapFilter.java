@@ -0,0 +1,201 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.*;
+
+/**
+ * Conjunction of simple "column op constant" predicates evaluated against partition zone maps.
+ * Partition is only rejected when zone map proves that no row in the partition can satisfy
+ * at least one of the predicates. Predicates this filter cannot reason about are not added
+ * to it, and the original filter is still applied to rows of the partitions that pass.
+ */
+public class ZoneMapFilter implements QuietCloseable {
+    public static final int OP_EQ = 0;
+    public static final int OP_GE = 4;
+    public static final int OP_GT = 3;
+    public static final int OP_LE = 2;
+    public static final int OP_LT = 1;
+    private final IntList columnIndexes = new IntList();
+    private final ObjList<String> columnNames = new ObjList<>();
+    private final IntList columnTypes = new IntList();
+    private final IntList ops = new IntList();
+    private final LongList resolvedValues = new LongList();
+    private final ObjList<String> symbolValues = new ObjList<>();
+    private final LongList values = new LongList();
+    private final ZoneMap zoneMap = new ZoneMap();
+    private int activeCount;
+
+    public static int flip(int op) {
+        switch (op) {
+            case OP_LT:
+                return OP_GT;
+            case OP_LE:
+                return OP_GE;
+            case OP_GT:
+                return OP_LT;
+            case OP_GE:
+                return OP_LE;
+            default:
+                return op;
+        }
+    }
+
+    public void add(CharSequence columnName, int columnType, int op, long value) {
+        add0(columnName, columnType, op, value, null);
+    }
+
+    public void add(CharSequence columnName, int columnType, int op, double value) {
+        add0(columnName, columnType, op, Double.doubleToRawLongBits(value), null);
+    }
+
+    public void addSymbol(CharSequence columnName, int columnType, CharSequence value) {
+        add0(columnName, columnType, OP_EQ, 0, Chars.toString(value));
+    }
+
+    @Override
+    public void close() {
+        Misc.free(zoneMap);
+    }
+
+    public int getPredicateCount() {
+        return ops.size();
+    }
+
+    /**
+     * Checks zone maps of the partition against the predicates.
+     *
+     * @param reader         table reader the filter was prepared for via {@link #of(TableReader)}
+     * @param partitionIndex partition index
+     * @return false when partition definitely has no rows matching the predicates
+     */
+    public boolean mayMatch(TableReader reader, int partitionIndex) {
+        if (activeCount == 0) {
+            return true;
+        }
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            final int columnIndex = columnIndexes.getQuick(i);
+            if (columnIndex < 0 || !reader.readZoneMap(partitionIndex, columnIndex, zoneMap)) {
+                continue;
+            }
+            if (!mayMatch(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Resolves column names and symbol values against the reader. Predicates which cannot
+     * be resolved are disabled.
+     *
+     * @param reader table reader
+     * @return this filter
+     */
+    public ZoneMapFilter of(TableReader reader) {
+        final TableReaderMetadata metadata = reader.getMetadata();
+        activeCount = 0;
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            int columnIndex = metadata.getColumnIndexQuiet(columnNames.getQuick(i));
+            if (columnIndex > -1 && metadata.getColumnType(columnIndex) != columnTypes.getQuick(i)) {
+                columnIndex = -1;
+            }
+            long value = values.getQuick(i);
+            final String symbolValue = symbolValues.getQuick(i);
+            if (columnIndex > -1 && symbolValue != null) {
+                final int key = reader.getSymbolMapReader(columnIndex).keyOf(symbolValue);
+                if (key == SymbolTable.VALUE_NOT_FOUND) {
+                    columnIndex = -1;
+                } else {
+                    value = key;
+                }
+            }
+            columnIndexes.setQuick(i, columnIndex);
+            resolvedValues.setQuick(i, value);
+            if (columnIndex > -1) {
+                activeCount++;
+            }
+        }
+        return this;
+    }
+
+    private void add0(CharSequence columnName, int columnType, int op, long value, String symbolValue) {
+        columnNames.add(Chars.toString(columnName));
+        columnTypes.add(columnType);
+        ops.add(op);
+        values.add(value);
+        symbolValues.add(symbolValue);
+        columnIndexes.add(-1);
+        resolvedValues.add(value);
+    }
+
+    private boolean mayMatch(int predicateIndex) {
+        final int op = ops.getQuick(predicateIndex);
+        final boolean hasNonNulls = zoneMap.getNullCount() < zoneMap.getRowCount();
+        if (op == OP_EQ) {
+            if (!hasNonNulls) {
+                return false;
+            }
+        } else if (!hasNonNulls || zoneMap.getNullCount() > 0) {
+            // null semantics of range comparisons differ between types, be conservative
+            return true;
+        }
+
+        final long value = resolvedValues.getQuick(predicateIndex);
+        if (ZoneMap.isFloatingPoint(columnTypes.getQuick(predicateIndex))) {
+            final double v = Double.longBitsToDouble(value);
+            final double min = zoneMap.getMinDouble();
+            final double max = zoneMap.getMaxDouble();
+            switch (op) {
+                case OP_LT:
+                    return min < v;
+                case OP_LE:
+                    return min <= v;
+                case OP_GT:
+                    return max > v;
+                case OP_GE:
+                    return max >= v;
+                default:
+                    return min <= v && v <= max;
+            }
+        }
+
+        final long min = zoneMap.getMinLong();
+        final long max = zoneMap.getMaxLong();
+        switch (op) {
+            case OP_LT:
+                return min < value;
+            case OP_LE:
+                return min <= value;
+            case OP_GT:
+                return max > value;
+            case OP_GE:
+                return max >= value;
+            default:
+                return min <= value && value <= max;
+        }
+    }
+}
@@ -192,6 +192,11 @@ public class CompactMap implements Map, Reopenable {
         return keyCapacity;
     }
 
+    @Override
+    public long getMemorySize() {
+        return entries.size() + entrySlots.size();
+    }
+
     @Override
     public MapRecord getRecord() {
         return record;
@@ -238,6 +238,11 @@ public class FastMap implements Map, Reopenable {
         return keyCapacity;
     }
 
+    @Override
+    public long getMemorySize() {
+        return capacity + (long) keyCapacity * Long.BYTES;
+    }
+
     @Override
     public MapRecord getRecord() {
         return record;
@@ -275,6 +280,52 @@ public class FastMap implements Map, Reopenable {
         return valueOf(address, false, this.value);
     }
 
+    /**
+     * Merges all entries of the source map into this map. Both maps must be created
+     * with identical key and value types. Entries with keys missing in this map are
+     * copied as is, while values of the existing keys are combined using the merge function.
+     *
+     * @param srcMap        map to merge entries from; it is not modified
+     * @param mergeFunction function that combines source and destination values of the same key
+     */
+    public void merge(FastMap srcMap, MapValueMergeFunction mergeFunction) {
+        assert keyDataOffset == srcMap.keyDataOffset && valueColumnCount == srcMap.valueColumnCount;
+
+        long srcAddress = srcMap.kStart;
+        for (int i = 0, n = srcMap.size; i < n; i++) {
+            final int len = Unsafe.getUnsafe().getInt(srcAddress);
+            long index = hashFunction.hash(srcAddress + keyDataOffset, len - keyDataOffset) & mask;
+            long offset;
+            while ((offset = getOffset(index)) != -1) {
+                if (eq(srcAddress, len, offset)) {
+                    break;
+                }
+                index = (index + 1) & mask;
+            }
+
+            if (offset == -1) {
+                // new key, copy the whole entry including the value block
+                key.init();
+                if (kPos + len > kLimit) {
+                    resize(len);
+                }
+                Vect.memcpy(kPos, srcAddress, len);
+                setOffset(index, kPos - kStart);
+                kPos += len;
+                size++;
+                if (--free == 0) {
+                    rehash();
+                }
+            } else {
+                mergeFunction.merge(
+                        valueOf(kStart + offset, false, value),
+                        srcMap.valueOf(srcAddress, false, srcMap.value2)
+                );
+            }
+            srcAddress += len;
+        }
+    }
+
     @Override
     public MapKey withKey() {
         return key.init();
@@ -338,15 +389,19 @@ public class FastMap implements Map, Reopenable {
     }
 
     private boolean eq(Key keyWriter, long offset) {
+        return eq(keyWriter.startAddress, keyWriter.len, offset);
+    }
+
+    private boolean eq(long keyAddress, int keyLen, long offset) {
         long a = kStart + offset;
-        long b = keyWriter.startAddress;
+        long b = keyAddress;
 
         // check length first
-        if (Unsafe.getUnsafe().getInt(a) != Unsafe.getUnsafe().getInt(b)) {
+        if (Unsafe.getUnsafe().getInt(a) != keyLen) {
             return false;
         }
 
-        long lim = b + keyWriter.len;
+        long lim = b + keyLen;
 
         // skip to the data
         a += keyDataOffset;
@@ -36,6 +36,11 @@ public interface Map extends Mutable, Closeable, Reopenable {
 
     RecordCursor getCursor();
 
+    /**
+     * @return approximate number of bytes of native memory allocated by the map
+     */
+    long getMemorySize();
+
     MapRecord getRecord();
 
     void restoreInitialCapacity();
@@ -24,9 +24,10 @@
 
 package io.questdb.cairo.sql;
 
+import io.questdb.cairo.TableDescriptor;
 import io.questdb.std.QuietCloseable;
 
-public interface TableRecordMetadata extends RecordMetadata, QuietCloseable {
+public interface TableRecordMetadata extends RecordMetadata, TableDescriptor, QuietCloseable {
 
     default long getCommitLag() {
         return 0;
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnCompressor;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.StringSink;
+
+//contiguous readable over compressed file, inflated on first access
+public class MemoryCMRZipImpl extends AbstractMemoryCR implements MemoryCMR {
+    private static final Log LOG = LogFactory.getLog(MemoryCMRZipImpl.class);
+    private final StringSink fileName = new StringSink();
+    private long compressedAddress = 0;
+    private long compressedSize = 0;
+    private long inflatedSize = 0;
+    private int memoryTag = MemoryTag.MMAP_DEFAULT;
+    private long uncompressedSize = 0;
+
+    public MemoryCMRZipImpl(FilesFacade ff, LPSZ name, long size, int memoryTag) {
+        of(ff, name, 0, size, memoryTag, 0);
+    }
+
+    public MemoryCMRZipImpl() {
+        // intentionally left empty
+    }
+
+    @Override
+    public long addressOf(long offset) {
+        assert offset <= size : "offset=" + offset + ", size=" + size + ", fd=" + fd;
+        return inflate() + offset;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        if (pageAddress != 0) {
+            pageAddress = Unsafe.free(pageAddress, inflatedSize, MemoryTag.NATIVE_TABLE_READER);
+            inflatedSize = 0;
+        }
+        unmapCompressed();
+        if (fd != -1) {
+            ff.close(fd);
+            LOG.debug().$("closed [fd=").$(fd).I$();
+            fd = -1;
+        }
+        size = 0;
+        uncompressedSize = 0;
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size) {
+            if (newSize > uncompressedSize) {
+                throw CairoException.critical(0).put("compressed column cannot be extended [file=").put(fileName)
+                        .put(", size=").put(uncompressedSize)
+                        .put(", newSize=").put(newSize)
+                        .put(']');
+            }
+            if (pageAddress != 0 && inflatedSize < uncompressedSize && ColumnCompressor.inflatedSize(compressedAddress, newSize) > inflatedSize) {
+                // re-inflate to cover the new size
+                pageAddress = Unsafe.free(pageAddress, inflatedSize, MemoryTag.NATIVE_TABLE_READER);
+                inflatedSize = 0;
+            }
+            size = newSize;
+        }
+    }
+
+    @Override
+    public long getPageAddress(int pageIndex) {
+        return inflate();
+    }
+
+    @Override
+    public int getPageCount() {
+        return size == 0 ? 0 : 1;
+    }
+
+    @Override
+    public boolean isMapped(long offset, long len) {
+        return offset + len <= size();
+    }
+
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts, int madviseOpts) {
+        close();
+        this.ff = ff;
+        this.memoryTag = memoryTag;
+        fileName.clear();
+        fileName.put(name);
+        fd = TableUtils.openRO(ff, name, LOG);
+        try {
+            compressedSize = ff.length(fd);
+            if (compressedSize < 0) {
+                throw CairoException.critical(ff.errno()).put("could not get length: ").put(name);
+            }
+            if (compressedSize > 0) {
+                compressedAddress = TableUtils.mapRO(ff, fd, compressedSize, memoryTag);
+            }
+            uncompressedSize = ColumnCompressor.getUncompressedSize(compressedAddress, compressedSize, name);
+            if (size < 0) {
+                size = uncompressedSize;
+            } else if (size > uncompressedSize) {
+                throw CairoException.critical(0).put("compressed column is too short [file=").put(name)
+                        .put(", size=").put(uncompressedSize)
+                        .put(", expected=").put(size)
+                        .put(']');
+            }
+            this.size = size;
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+        LOG.debug().$("open compressed [file=").$(name).$(", fd=").$(fd).$(", compressedSize=").$(compressedSize).$(", size=").$(size).$(']').$();
+    }
+
+    @Override
+    public void smallFile(FilesFacade ff, LPSZ name, int memoryTag) {
+        of(ff, name, ff.getPageSize(), -1, memoryTag, CairoConfiguration.O_NONE, -1);
+    }
+
+    @Override
+    public void wholeFile(FilesFacade ff, LPSZ name, int memoryTag) {
+        of(ff, name, ff.getMapPageSize(), -1, memoryTag, CairoConfiguration.O_NONE, -1);
+    }
+
+    private long inflate() {
+        if (pageAddress == 0 && size > 0) {
+            final long len = ColumnCompressor.inflatedSize(compressedAddress, size);
+            final long address = Unsafe.malloc(len, MemoryTag.NATIVE_TABLE_READER);
+            try {
+                ColumnCompressor.inflate(compressedAddress, compressedSize, address, len, fileName);
+            } catch (Throwable e) {
+                Unsafe.free(address, len, MemoryTag.NATIVE_TABLE_READER);
+                throw e;
+            }
+            inflatedSize = len;
+            pageAddress = address;
+            if (len == uncompressedSize) {
+                // nothing else can be inflated from the file, release the mapping
+                unmapCompressed();
+            }
+        }
+        return pageAddress;
+    }
+
+    private void unmapCompressed() {
+        if (compressedAddress != 0) {
+            ff.munmap(compressedAddress, compressedSize, memoryTag);
+            compressedAddress = 0;
+            compressedSize = 0;
+        }
+    }
+}
@@ -119,6 +119,10 @@ public class Vm {
         return new MemoryCMRImpl(ff, name, size, memoryTag);
     }
 
+    public static MemoryMR getMRZipInstance(FilesFacade ff, LPSZ name, long size, int memoryTag) {
+        return new MemoryCMRZipImpl(ff, name, size, memoryTag);
+    }
+
     public static MemoryCMOR getMemoryCMOR() {
         return new MemoryCMORImpl();
     }
@@ -26,6 +26,7 @@ package io.questdb.cairo.wal;
 
 import io.questdb.cairo.*;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.TableRecordMetadata;
 import io.questdb.cairo.wal.seq.TableMetadataChangeLog;
 import io.questdb.cairo.wal.seq.TableSequencerAPI;
 import io.questdb.cairo.wal.seq.TableTransactionLog;
@@ -33,8 +34,13 @@ import io.questdb.cairo.wal.seq.TransactionLogCursor;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.AbstractQueueConsumerJob;
+import io.questdb.std.Chars;
+import io.questdb.std.IntList;
 import io.questdb.std.IntLongHashMap;
+import io.questdb.std.IntObjHashMap;
+import io.questdb.std.LongList;
 import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
 import io.questdb.std.Transient;
 import io.questdb.std.str.Path;
 import io.questdb.tasks.WalTxnNotificationTask;
@@ -48,13 +54,22 @@ import static io.questdb.tasks.TableWriterTask.CMD_ALTER_TABLE;
 import static io.questdb.tasks.TableWriterTask.CMD_UPDATE_TABLE;
 
 public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificationTask> implements Closeable {
+    // coalesced transactions are stored as blocks of walId, segmentId, segmentTxn, seqTxn, rowLo, rowHi
+    private static final int COALESCED_TXN_BLOCK_SIZE = 6;
     private static final Log LOG = LogFactory.getLog(ApplyWal2TableJob.class);
     private static final String WAL_2_TABLE_WRITE_REASON = "WAL Data Application";
     private static final int WAL_APPLY_FAILED = -2;
+    private final LongList coalescedTxns = new LongList();
     private final CairoEngine engine;
     private final IntLongHashMap lastAppliedSeqTxns = new IntLongHashMap();
     private final SqlToOperation sqlToOperation;
+    // per column count of symbols the WAL transaction shares with the table, keys below it are table symbol keys
+    private final IntList txnCleanSymbolCounts = new IntList();
+    // per column symbols added by the WAL transaction
+    private final ObjList<IntObjHashMap<CharSequence>> txnSymbolMaps = new ObjList<>();
     private final WalEventReader walEventReader;
+    // readers of the WAL segments coalesced transactions are copied from, indexed by walId
+    private final ObjList<WalReader> walReaders = new ObjList<>();
 
     public ApplyWal2TableJob(CairoEngine engine, int workerCount, int sharedWorkerCount) {
         super(engine.getMessageBus().getWalTxnNotificationQueue(), engine.getMessageBus().getWalTxnNotificationSubSequence());
@@ -67,6 +82,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
     public void close() {
         Misc.free(sqlToOperation);
         Misc.free(walEventReader);
+        Misc.freeObjListAndClear(walReaders);
     }
 
     public long processWalTxnNotification(
@@ -116,16 +132,117 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         return useful;
     }
 
+    private static void copyWalColumn(TableWriter.Row row, WalDataRecord record, int columnIndex, int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                row.putBool(columnIndex, record.getBool(columnIndex));
+                break;
+            case ColumnType.BYTE:
+                row.putByte(columnIndex, record.getByte(columnIndex));
+                break;
+            case ColumnType.SHORT:
+                row.putShort(columnIndex, record.getShort(columnIndex));
+                break;
+            case ColumnType.CHAR:
+                row.putChar(columnIndex, record.getChar(columnIndex));
+                break;
+            case ColumnType.INT:
+                row.putInt(columnIndex, record.getInt(columnIndex));
+                break;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                row.putLong(columnIndex, record.getLong(columnIndex));
+                break;
+            case ColumnType.FLOAT:
+                row.putFloat(columnIndex, record.getFloat(columnIndex));
+                break;
+            case ColumnType.DOUBLE:
+                row.putDouble(columnIndex, record.getDouble(columnIndex));
+                break;
+            case ColumnType.STRING:
+                row.putStr(columnIndex, record.getStr(columnIndex));
+                break;
+            case ColumnType.LONG256:
+                row.putLong256(columnIndex, record.getLong256A(columnIndex));
+                break;
+            case ColumnType.LONG128:
+                row.putLong128LittleEndian(columnIndex, record.getLong128Hi(columnIndex), record.getLong128Lo(columnIndex));
+                break;
+            case ColumnType.GEOBYTE:
+                row.putByte(columnIndex, record.getGeoByte(columnIndex));
+                break;
+            case ColumnType.GEOSHORT:
+                row.putShort(columnIndex, record.getGeoShort(columnIndex));
+                break;
+            case ColumnType.GEOINT:
+                row.putInt(columnIndex, record.getGeoInt(columnIndex));
+                break;
+            case ColumnType.GEOLONG:
+                row.putLong(columnIndex, record.getGeoLong(columnIndex));
+                break;
+            case ColumnType.BINARY:
+                row.putBin(columnIndex, record.getBin(columnIndex));
+                break;
+            default:
+                throw CairoException.critical(0).put("unsupported WAL column type [type=").put(ColumnType.nameOf(columnType)).put(']');
+        }
+    }
+
+    /**
+     * Applies data transactions collected by {@link #applyOutstandingWalTransactions} as a single table
+     * transaction. Rows of all the transactions are copied to the writer, which sorts and merges them
+     * into partitions in one O3 commit. A lone transaction is applied as is.
+     */
+    private void applyCoalescedWalTransactions(TableWriter writer, SqlToOperation sqlToOperation) {
+        final int n = coalescedTxns.size();
+        if (n == 0) {
+            return;
+        }
+
+        try {
+            // thread static PATH is in use by the caller
+            final Path walPath = Path.PATH2.get();
+            if (n == COALESCED_TXN_BLOCK_SIZE) {
+                setWalSegmentPath(walPath, writer.getTableName(), (int) coalescedTxns.getQuick(0), (int) coalescedTxns.getQuick(1));
+                processWalCommit(writer, walPath, coalescedTxns.getQuick(2), sqlToOperation, coalescedTxns.getQuick(3));
+            } else {
+                for (int i = 0; i < n; i += COALESCED_TXN_BLOCK_SIZE) {
+                    final WalReader walReader = getWalReader(writer, i);
+                    setWalSegmentPath(walPath, writer.getTableName(), (int) coalescedTxns.getQuick(i), (int) coalescedTxns.getQuick(i + 1));
+                    try (WalEventReader eventReader = walEventReader) {
+                        final WalEventCursor walEventCursor = eventReader.of(walPath, WAL_FORMAT_VERSION, coalescedTxns.getQuick(i + 2));
+                        readTxnSymbolMaps(walEventCursor.getDataInfo(), writer.getMetadata().getColumnCount());
+                    }
+                    copyWalRows(writer, walReader, coalescedTxns.getQuick(i + 4), coalescedTxns.getQuick(i + 5));
+                    writer.setSeqTxn(coalescedTxns.getQuick(i + 3));
+                }
+                writer.commit();
+                LOG.info().$("coalesced WAL transactions [table=").$(writer.getTableName())
+                        .$(", txnCount=").$(n / COALESCED_TXN_BLOCK_SIZE)
+                        .$(", seqTxn=").$(writer.getSeqTxn())
+                        .I$();
+            }
+        } finally {
+            coalescedTxns.clear();
+            Misc.freeObjListAndClear(walReaders);
+        }
+    }
+
     private void applyOutstandingWalTransactions(
             TableWriter writer,
             CairoEngine engine,
             SqlToOperation sqlToOperation
     ) {
         final TableSequencerAPI tableSequencerAPI = engine.getTableSequencerAPI();
+        final long coalesceRowCount = engine.getConfiguration().getWalApplyCoalesceRowCount();
         try (TransactionLogCursor transactionLogCursor = tableSequencerAPI.getCursor(writer.getTableName(), writer.getSeqTxn())) {
             final Path tempPath = Path.PATH.get();
 
             TableMetadataChangeLog structuralChangeCursor = null;
+            long coalescedRowCount = 0;
+            // writer's seqTxn lags behind while data transactions are being coalesced
+            long lastSeqTxn = writer.getSeqTxn();
             try {
                 while (transactionLogCursor.hasNext()) {
                     final int walId = transactionLogCursor.getWalId();
@@ -133,11 +250,12 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                     final long segmentTxn = transactionLogCursor.getSegmentTxn();
                     final long seqTxn = transactionLogCursor.getTxn();
 
-                    if (seqTxn != writer.getSeqTxn() + 1) {
+                    if (seqTxn != lastSeqTxn + 1) {
                         throw CairoException.critical(0)
-                                .put("unexpected sequencer transaction, expected ").put(writer.getSeqTxn() + 1)
+                                .put("unexpected sequencer transaction, expected ").put(lastSeqTxn + 1)
                                 .put(" but was ").put(seqTxn);
                     }
+                    lastSeqTxn = seqTxn;
 
                     if (walId == 0) {
                         throw CairoException.critical(0)
@@ -147,9 +265,24 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
 
                     if (walId != TableTransactionLog.STRUCTURAL_CHANGE_WAL_ID) {
                         // Always set full path when using thread static path
-                        tempPath.of(engine.getConfiguration().getRoot()).concat(writer.getTableName()).slash().put(WAL_NAME_BASE).put(walId).slash().put(segmentId);
+                        setWalSegmentPath(tempPath, writer.getTableName(), walId, segmentId);
+                        final long rowCount = coalesceRowCount > 0 ? tryCoalesceWalTxn(tempPath, walId, segmentId, segmentTxn, seqTxn, coalesceRowCount) : -1;
+                        if (rowCount > -1) {
+                            coalescedRowCount += rowCount;
+                            if (coalescedRowCount >= coalesceRowCount) {
+                                applyCoalescedWalTransactions(writer, sqlToOperation);
+                                coalescedRowCount = 0;
+                            }
+                            continue;
+                        }
+                        applyCoalescedWalTransactions(writer, sqlToOperation);
+                        coalescedRowCount = 0;
+                        // thread static path is not preserved by writer commit
+                        setWalSegmentPath(tempPath, writer.getTableName(), walId, segmentId);
                         processWalCommit(writer, tempPath, segmentTxn, sqlToOperation, seqTxn);
                     } else {
+                        applyCoalescedWalTransactions(writer, sqlToOperation);
+                        coalescedRowCount = 0;
                         // This is metadata change
                         // to be taken from TableSequencer directly
                         // This may look odd, but on metadata change record, segment ID means structure version.
@@ -183,12 +316,67 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                         }
                     }
                 }
+                applyCoalescedWalTransactions(writer, sqlToOperation);
             } finally {
                 Misc.free(structuralChangeCursor);
+                coalescedTxns.clear();
             }
         }
     }
 
+    private void copyWalRows(TableWriter writer, WalReader walReader, long rowLo, long rowHi) {
+        final TableRecordMetadata metadata = writer.getMetadata();
+        final int timestampIndex = metadata.getTimestampIndex();
+        final int columnCount = metadata.getColumnCount();
+        final WalDataRecord record = (WalDataRecord) walReader.getDataCursor().getRecord();
+        for (long r = rowLo; r < rowHi; r++) {
+            record.jumpTo(r);
+            final TableWriter.Row row = writer.newRow(record.getTimestamp(timestampIndex));
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                // skip designated timestamp and dropped columns
+                if (i != timestampIndex && columnType > 0) {
+                    if (ColumnType.isSymbol(columnType)) {
+                        copyWalSymbol(row, record, i);
+                    } else {
+                        copyWalColumn(row, record, i, columnType);
+                    }
+                }
+            }
+            row.append();
+        }
+    }
+
+    private void copyWalSymbol(TableWriter.Row row, WalDataRecord record, int columnIndex) {
+        final int key = record.getInt(columnIndex);
+        if (key > -1 && key < txnCleanSymbolCounts.getQuick(columnIndex)) {
+            // symbol existed in the table when the WAL transaction was written
+            row.putSymIndex(columnIndex, key);
+        } else {
+            final IntObjHashMap<CharSequence> symbolMap = txnSymbolMaps.getQuiet(columnIndex);
+            row.putSym(columnIndex, symbolMap != null ? symbolMap.get(key) : null);
+        }
+    }
+
+    private WalReader getWalReader(TableWriter writer, int txnIndex) {
+        final int walId = (int) coalescedTxns.getQuick(txnIndex);
+        final int segmentId = (int) coalescedTxns.getQuick(txnIndex + 1);
+        WalReader walReader = walReaders.getQuiet(walId);
+        if (walReader == null || walReader.getSegmentId() != segmentId) {
+            // map rows of all the coalesced transactions from the same segment at once
+            long rowHi = 0;
+            for (int i = txnIndex, n = coalescedTxns.size(); i < n; i += COALESCED_TXN_BLOCK_SIZE) {
+                if (coalescedTxns.getQuick(i) == walId && coalescedTxns.getQuick(i + 1) == segmentId) {
+                    rowHi = Math.max(rowHi, coalescedTxns.getQuick(i + 5));
+                }
+            }
+            Misc.free(walReader);
+            walReader = new WalReader(engine.getConfiguration(), writer.getTableName(), WAL_NAME_BASE + walId, segmentId, rowHi, writer.getMetadata());
+            walReaders.extendAndSet(walId, walReader);
+        }
+        return walReader;
+    }
+
     private void processWalCommit(TableWriter writer, @Transient Path walPath, long segmentTxn, SqlToOperation sqlToOperation, long seqTxn) {
         try (WalEventReader eventReader = walEventReader) {
             final WalEventCursor walEventCursor = eventReader.of(walPath, WAL_FORMAT_VERSION, segmentTxn);
@@ -249,6 +437,62 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         }
     }
 
+    /**
+     * Reads symbols added by the WAL transaction. Symbol keys of a transaction are only valid together
+     * with its own symbol map diff, the count of symbols shared with the table can differ between
+     * transactions of the same segment.
+     */
+    private void readTxnSymbolMaps(SymbolMapDiffCursor mapDiffCursor, int columnCount) {
+        txnCleanSymbolCounts.setAll(columnCount, 0);
+        for (int i = 0, n = txnSymbolMaps.size(); i < n; i++) {
+            final IntObjHashMap<CharSequence> symbolMap = txnSymbolMaps.getQuick(i);
+            if (symbolMap != null) {
+                symbolMap.clear();
+            }
+        }
+
+        SymbolMapDiff symbolMapDiff;
+        while ((symbolMapDiff = mapDiffCursor.nextSymbolMapDiff()) != null) {
+            final int columnIndex = symbolMapDiff.getColumnIndex();
+            txnCleanSymbolCounts.extendAndSet(columnIndex, symbolMapDiff.getCleanSymbolCount());
+            IntObjHashMap<CharSequence> symbolMap = txnSymbolMaps.getQuiet(columnIndex);
+            if (symbolMap == null) {
+                symbolMap = new IntObjHashMap<>();
+                txnSymbolMaps.extendAndSet(columnIndex, symbolMap);
+            }
+            SymbolMapDiffEntry entry;
+            while ((entry = symbolMapDiff.nextEntry()) != null) {
+                symbolMap.put(entry.getKey(), Chars.toString(entry.getSymbol()));
+            }
+        }
+    }
+
+    private void setWalSegmentPath(Path walPath, CharSequence tableName, int walId, int segmentId) {
+        walPath.of(engine.getConfiguration().getRoot()).concat(tableName).slash().put(WAL_NAME_BASE).put(walId).slash().put(segmentId);
+    }
+
+    /**
+     * Adds data transaction to the coalesced ones when it is smaller than coalesceRowCount.
+     *
+     * @return row count of the coalesced transaction or -1 when the transaction has to be applied on its own
+     */
+    private long tryCoalesceWalTxn(@Transient Path walPath, int walId, int segmentId, long segmentTxn, long seqTxn, long coalesceRowCount) {
+        try (WalEventReader eventReader = walEventReader) {
+            final WalEventCursor walEventCursor = eventReader.of(walPath, WAL_FORMAT_VERSION, segmentTxn);
+            if (walEventCursor.getType() == DATA) {
+                final WalEventCursor.DataInfo dataInfo = walEventCursor.getDataInfo();
+                final long rowLo = dataInfo.getStartRowID();
+                final long rowHi = dataInfo.getEndRowID();
+                if (rowHi - rowLo < coalesceRowCount) {
+                    coalescedTxns.add(walId, segmentId, segmentTxn, seqTxn);
+                    coalescedTxns.add(rowLo, rowHi);
+                    return rowHi - rowLo;
+                }
+            }
+            return -1;
+        }
+    }
+
     @Override
     protected boolean doRun(int workerId, long cursor) {
         final CharSequence tableName;
@@ -31,13 +31,23 @@ import io.questdb.cairo.TxReader;
 import io.questdb.cairo.wal.seq.TableSequencerAPI;
 import io.questdb.mp.SynchronizedJob;
 import io.questdb.std.Chars;
+import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
+import io.questdb.std.ObjectFactory;
+import io.questdb.std.ObjectPool;
 import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.str.Path;
 
+import java.util.Comparator;
+
 public class CheckWalTransactionsJob extends SynchronizedJob {
+    // tables with the longest backlog of WAL transactions are notified first
+    private static final Comparator<OutstandingWalTable> BACKLOG_COMPARATOR = (t1, t2) -> Long.compare(t2.backlog, t1.backlog);
     private final CharSequence dbRoot;
     private final CairoEngine engine;
     private final MillisecondClock milliseconClock;
+    private final ObjList<OutstandingWalTable> outstandingTables = new ObjList<>();
+    private final ObjectPool<OutstandingWalTable> outstandingTablesPool = new ObjectPool<>(OutstandingWalTable.FACTORY, 16);
     private final long spinLockTimeout;
     private final TxReader txReader;
     private final TableSequencerAPI.RegisteredTable callback = this::checkNotifyOutstandingTxnInWal;
@@ -52,7 +62,17 @@ public class CheckWalTransactionsJob extends SynchronizedJob {
     }
 
     public void checkMissingWalTransactions() {
-        engine.getTableSequencerAPI().forAllWalTables(callback);
+        try {
+            engine.getTableSequencerAPI().forAllWalTables(callback);
+            outstandingTables.sort(BACKLOG_COMPARATOR);
+            for (int i = 0, n = outstandingTables.size(); i < n; i++) {
+                final OutstandingWalTable table = outstandingTables.getQuick(i);
+                engine.notifyWalTxnCommitted(table.tableId, table.tableName, table.txn);
+            }
+        } finally {
+            outstandingTables.clear();
+            outstandingTablesPool.clear();
+        }
     }
 
     public void checkNotifyOutstandingTxnInWal(int tableId, CharSequence tableName, long txn) {
@@ -61,9 +81,13 @@ public class CheckWalTransactionsJob extends SynchronizedJob {
         try (TxReader txReader = this.txReader.ofRO(rootPath, PartitionBy.NONE)) {
             TableUtils.safeReadTxn(txReader, milliseconClock, spinLockTimeout);
             if (txReader.getSeqTxn() < txn && !engine.getTableSequencerAPI().isSuspended(tableName)) {
+                final OutstandingWalTable table = outstandingTablesPool.next();
+                table.tableId = tableId;
                 // table name should be immutable when in the notification message
-                final String tableNameStr = Chars.toString(tableName);
-                engine.notifyWalTxnCommitted(tableId, tableNameStr, txn);
+                table.tableName = Chars.toString(tableName);
+                table.txn = txn;
+                table.backlog = txn - txReader.getSeqTxn();
+                outstandingTables.add(table);
             }
         }
     }
@@ -78,4 +102,17 @@ public class CheckWalTransactionsJob extends SynchronizedJob {
         lastProcessed = unpublishedWalTxnCount;
         return true;
     }
+
+    private static class OutstandingWalTable implements Mutable {
+        private static final ObjectFactory<OutstandingWalTable> FACTORY = OutstandingWalTable::new;
+        private long backlog;
+        private int tableId;
+        private String tableName;
+        private long txn;
+
+        @Override
+        public void clear() {
+            tableName = null;
+        }
+    }
 }
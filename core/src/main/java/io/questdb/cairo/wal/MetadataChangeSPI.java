@@ -76,6 +76,26 @@ public interface MetadataChangeSPI {
 
     void changeCacheFlag(int columnIndex, boolean isCacheOn);
 
+    /**
+     * Rewrites partition column files in block compressed format. Readers keep using the raw
+     * version of the partition until they reload, the raw version is purged once it is no longer in use.
+     * Compressed partitions are read-only, the writer refuses out-of-order data and updates
+     * that target them.
+     *
+     * @param partitionTimestamp timestamp of the partition, the partition must not be the active (last) one
+     * @return true when the partition is compressed, including the case when it was compressed already;
+     * false when the partition does not exist
+     */
+    boolean compressPartition(long partitionTimestamp);
+
+    /**
+     * Restores raw column files of the partition previously compressed by {@link #compressPartition(long)}.
+     *
+     * @param partitionTimestamp timestamp of the partition
+     * @return true when the partition is not compressed anymore, false when it does not exist
+     */
+    boolean decompressPartition(long partitionTimestamp);
+
     AttachDetachStatus detachPartition(long partitionTimestamp);
 
     void dropIndex(CharSequence columnName);
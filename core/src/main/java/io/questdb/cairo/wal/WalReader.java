@@ -25,6 +25,7 @@
 package io.questdb.cairo.wal;
 
 import io.questdb.cairo.*;
+import io.questdb.cairo.sql.TableRecordMetadata;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
@@ -35,6 +36,7 @@ import io.questdb.log.LogFactory;
 import io.questdb.std.*;
 import io.questdb.std.str.Path;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
@@ -54,14 +56,33 @@ public class WalReader implements Closeable {
     private final Path path;
     private final int rootLen;
     private final long rowCount;
+    private final int segmentId;
     private final ObjList<IntObjHashMap<CharSequence>> symbolMaps = new ObjList<>();
     private final String tableName;
     private final String walName;
 
     public WalReader(CairoConfiguration configuration, CharSequence tableName, CharSequence walName, int segmentId, long rowCount) {
+        this(configuration, tableName, walName, segmentId, rowCount, null);
+    }
+
+    /**
+     * Opens WAL segment using table metadata instead of the metadata file of the segment, which
+     * is rewritten by WAL writer on structure change. Column indexes of the table and the segment must match.
+     * Symbol maps are not read in this case, the segment can still be written to and symbol keys have
+     * to be resolved by the caller from symbol map diffs of the committed transactions.
+     */
+    public WalReader(
+            CairoConfiguration configuration,
+            CharSequence tableName,
+            CharSequence walName,
+            int segmentId,
+            long rowCount,
+            @Nullable TableRecordMetadata tableMetadata
+    ) {
         this.tableName = Chars.toString(tableName);
         this.walName = Chars.toString(walName);
         this.rowCount = rowCount;
+        this.segmentId = segmentId;
 
         ff = configuration.getFilesFacade();
         path = new Path();
@@ -70,14 +91,20 @@ public class WalReader implements Closeable {
 
         try {
             metadata = new SequencerMetadata(ff, true);
-            metadata.open(Chars.toString(tableName), path.slash().put(segmentId), rootLen);
+            if (tableMetadata == null) {
+                metadata.open(this.tableName, path.slash().put(segmentId), rootLen);
+            } else {
+                metadata.copyFrom(tableMetadata, this.tableName, tableMetadata.getTableId(), tableMetadata.getStructureVersion(), false);
+            }
             columnCount = metadata.getColumnCount();
             events = new WalEventReader(ff);
             LOG.debug().$("open [table=").$(tableName).I$();
             int pathLen = path.length();
             eventCursor = events.of(path.slash().put(segmentId), WAL_FORMAT_VERSION, -1L);
             path.trimTo(pathLen);
-            openSymbolMaps(eventCursor, configuration);
+            if (tableMetadata == null) {
+                openSymbolMaps(eventCursor, configuration);
+            }
             path.slash().put(segmentId);
             eventCursor.reset();
 
@@ -123,6 +150,10 @@ public class WalReader implements Closeable {
         return eventCursor;
     }
 
+    public int getSegmentId() {
+        return segmentId;
+    }
+
     public CharSequence getSymbolValue(int col, int key) {
         IntObjHashMap<CharSequence> symbolMap = symbolMaps.getQuick(col);
         return symbolMap.get(key);
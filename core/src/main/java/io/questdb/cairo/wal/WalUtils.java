@@ -25,6 +25,7 @@
 package io.questdb.cairo.wal;
 
 import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.O3Utils;
 import io.questdb.mp.WorkerPool;
 
 public class WalUtils {
@@ -41,6 +42,15 @@ public class WalUtils {
     public static final String WAL_INDEX_FILE_NAME = "_wal_index.d";
     public static final String WAL_NAME_BASE = "wal";
 
+    /**
+     * Sets up dedicated WAL apply pool. Besides apply jobs the pool runs O3 commit jobs, workers idle
+     * while single hot table is being applied merge its partitions in parallel with the apply job.
+     */
+    public static void setupWalApplyWorkerPool(WorkerPool workerPool, CairoEngine engine, int sharedWorkerCount) {
+        setupWorkerPool(workerPool, engine, sharedWorkerCount);
+        O3Utils.setupO3Jobs(workerPool, engine.getMessageBus());
+    }
+
     public static void setupWorkerPool(WorkerPool workerPool, CairoEngine engine, int sharedWorkerCount) {
         for (int i = 0, workerCount = workerPool.getWorkerCount(); i < workerCount; i++) {
             // create job per worker
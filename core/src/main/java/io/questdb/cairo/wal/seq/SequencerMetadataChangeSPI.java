@@ -46,6 +46,16 @@ public interface SequencerMetadataChangeSPI extends MetadataChangeSPI {
         throw CairoException.critical(0).put("change cache flag does not update sequencer metadata");
     }
 
+    @Override
+    default boolean compressPartition(long partitionTimestamp) {
+        throw CairoException.critical(0).put("compress partition does not update sequencer metadata");
+    }
+
+    @Override
+    default boolean decompressPartition(long partitionTimestamp) {
+        throw CairoException.critical(0).put("decompress partition does not update sequencer metadata");
+    }
+
     @Override
     default AttachDetachStatus detachPartition(long partitionTimestamp) {
         throw CairoException.critical(0).put("detach partition does not update sequencer metadata");
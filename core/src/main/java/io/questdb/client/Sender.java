@@ -229,6 +229,7 @@ public interface Sender extends Closeable {
         private static final int MIN_BUFFER_SIZE_FOR_AUTH = 512 + 1; // challenge size + 1;
         // indicate that port was not set explicitly
         private static final byte PORT_DEFAULT = 0;
+        private boolean binaryFormatEnabled;
         private int bufferCapacity = BUFFER_CAPACITY_DEFAULT;
         private String host;
         private String keyId;
@@ -352,6 +353,9 @@ public interface Sender extends Closeable {
                 channel.close();
                 throw rethrow(t);
             }
+            if (binaryFormatEnabled) {
+                sender.enableBinaryFormat();
+            }
             if (privateKey != null) {
                 try {
                     sender.authenticate(keyId, privateKey);
@@ -386,6 +390,21 @@ public interface Sender extends Closeable {
             return new LineSenderBuilder.AuthBuilder();
         }
 
+        /**
+         * Instruct a client to send double, long and timestamp values in binary format. This saves
+         * number formatting on a client and parsing on a server. Server must have
+         * <code>line.tcp.binary.format.supported</code> enabled.
+         *
+         * @return this instance for method chaining.
+         */
+        public LineSenderBuilder enableBinaryFormat() {
+            if (binaryFormatEnabled) {
+                throw new LineSenderException("binary format was already enabled");
+            }
+            binaryFormatEnabled = true;
+            return this;
+        }
+
         /**
          * Instruct a client to use TLS when connecting to a QuestDB server
          *
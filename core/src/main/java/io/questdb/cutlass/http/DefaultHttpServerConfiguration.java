@@ -26,6 +26,8 @@ package io.questdb.cutlass.http;
 
 import io.questdb.cutlass.http.processors.JsonQueryProcessorConfiguration;
 import io.questdb.cutlass.http.processors.StaticContentProcessorConfiguration;
+import io.questdb.cutlass.line.tcp.DefaultLineTcpReceiverConfiguration;
+import io.questdb.cutlass.line.tcp.LineTcpReceiverConfiguration;
 import io.questdb.network.DefaultIODispatcherConfiguration;
 import io.questdb.network.IODispatcherConfiguration;
 import io.questdb.std.FilesFacade;
@@ -76,6 +78,7 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
             return Long.MAX_VALUE;
         }
     };
+    private final LineTcpReceiverConfiguration lineTcpReceiverConfiguration = new DefaultLineTcpReceiverConfiguration();
     private final StaticContentProcessorConfiguration staticContentProcessorConfiguration = new StaticContentProcessorConfiguration() {
         @Override
         public FilesFacade getFilesFacade() {
@@ -140,6 +143,11 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         return jsonQueryProcessorConfiguration;
     }
 
+    @Override
+    public LineTcpReceiverConfiguration getLineTcpReceiverConfiguration() {
+        return lineTcpReceiverConfiguration;
+    }
+
     @Override
     public String getPoolName() {
         return "http";
@@ -195,6 +203,11 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         return 2;
     }
 
+    @Override
+    public boolean isLineHttpEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isQueryCacheEnabled() {
         return true;
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http;
+
+import io.questdb.network.PeerDisconnectedException;
+import io.questdb.network.PeerIsSlowToReadException;
+import io.questdb.network.ServerDisconnectException;
+import io.questdb.std.Mutable;
+import io.questdb.std.Unsafe;
+
+/**
+ * Decodes request body sent with "Transfer-Encoding: chunked". Parser is incremental, it can be fed
+ * arbitrary fragments of the body, chunk payload is passed to the listener as soon as it is available.
+ * Chunk extensions and trailer headers are skipped.
+ */
+public class HttpChunkedContentParser implements Mutable {
+    private static final int CHUNK_DATA = 4;
+    private static final int CHUNK_DATA_CR = 5;
+    private static final int CHUNK_DATA_LF = 6;
+    private static final int CHUNK_EXT = 2;
+    private static final int CHUNK_SIZE = 1;
+    private static final int CHUNK_SIZE_LF = 3;
+    private static final int DONE = 10;
+    private static final int MAX_CHUNK_SIZE_DIGITS = 15;
+    private static final int TRAILER = 7;
+    private static final int TRAILER_END_LF = 9;
+    private static final int TRAILER_LINE = 8;
+    private long chunkRemaining;
+    private int chunkSizeDigits;
+    private int state;
+
+    public HttpChunkedContentParser() {
+        clear();
+    }
+
+    @Override
+    public final void clear() {
+        state = CHUNK_SIZE;
+        chunkRemaining = 0;
+        chunkSizeDigits = 0;
+    }
+
+    /**
+     * Parses fragment of chunked body.
+     *
+     * @param lo       address of the first byte of the fragment
+     * @param hi       address of the byte after the last byte of the fragment
+     * @param listener receives decoded content
+     * @return true when terminating chunk and trailer have been consumed
+     */
+    public boolean parse(long lo, long hi, HttpContentListener listener)
+            throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException {
+        long ptr = lo;
+        while (ptr < hi) {
+            switch (state) {
+                case CHUNK_SIZE: {
+                    final byte b = Unsafe.getUnsafe().getByte(ptr++);
+                    final int digit = hexDigit(b);
+                    if (digit > -1) {
+                        if (++chunkSizeDigits > MAX_CHUNK_SIZE_DIGITS) {
+                            throw HttpException.instance("chunk size is too large");
+                        }
+                        chunkRemaining = (chunkRemaining << 4) | digit;
+                    } else if (chunkSizeDigits == 0) {
+                        throw HttpException.instance("invalid chunk size");
+                    } else if (b == ';' || b == ' ' || b == '\t') {
+                        state = CHUNK_EXT;
+                    } else if (b == '\r') {
+                        state = CHUNK_SIZE_LF;
+                    } else {
+                        throw HttpException.instance("invalid chunk size");
+                    }
+                    break;
+                }
+                case CHUNK_EXT:
+                    if (Unsafe.getUnsafe().getByte(ptr++) == '\r') {
+                        state = CHUNK_SIZE_LF;
+                    }
+                    break;
+                case CHUNK_SIZE_LF:
+                    expect(ptr++, '\n');
+                    state = chunkRemaining > 0 ? CHUNK_DATA : TRAILER;
+                    break;
+                case CHUNK_DATA: {
+                    final long len = Math.min(chunkRemaining, hi - ptr);
+                    listener.onChunk(ptr, ptr + len);
+                    ptr += len;
+                    chunkRemaining -= len;
+                    if (chunkRemaining == 0) {
+                        state = CHUNK_DATA_CR;
+                    }
+                    break;
+                }
+                case CHUNK_DATA_CR:
+                    expect(ptr++, '\r');
+                    state = CHUNK_DATA_LF;
+                    break;
+                case CHUNK_DATA_LF:
+                    expect(ptr++, '\n');
+                    chunkSizeDigits = 0;
+                    state = CHUNK_SIZE;
+                    break;
+                case TRAILER:
+                    state = Unsafe.getUnsafe().getByte(ptr++) == '\r' ? TRAILER_END_LF : TRAILER_LINE;
+                    break;
+                case TRAILER_LINE:
+                    if (Unsafe.getUnsafe().getByte(ptr++) == '\n') {
+                        state = TRAILER;
+                    }
+                    break;
+                case TRAILER_END_LF:
+                    expect(ptr++, '\n');
+                    state = DONE;
+                    return true;
+                default:
+                    return true;
+            }
+        }
+        return state == DONE;
+    }
+
+    private static void expect(long ptr, char c) {
+        if (Unsafe.getUnsafe().getByte(ptr) != c) {
+            throw HttpException.instance("invalid chunked encoding");
+        }
+    }
+
+    private static int hexDigit(byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        }
+        if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        }
+        if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        return -1;
+    }
+}
@@ -41,6 +41,7 @@ public class HttpConnectionContext extends AbstractMutableIOContext<HttpConnecti
     private static final Log LOG = LogFactory.getLog(HttpConnectionContext.class);
     private final boolean allowDeflateBeforeSend;
     private final CairoSecurityContext cairoSecurityContext;
+    private final HttpChunkedContentParser chunkedContentParser = new HttpChunkedContentParser();
     private final ObjectPool<DirectByteCharSequence> csPool;
     private final boolean dumpNetworkTraffic;
     private final HttpHeaderParser headerParser;
@@ -60,6 +61,8 @@ public class HttpConnectionContext extends AbstractMutableIOContext<HttpConnecti
         throw RetryOperationException.INSTANCE;
     };
     private final boolean serverKeepAlive;
+    private boolean chunkedContent;
+    private long contentRemaining;
     private int nCompletedRequests;
     private boolean pendingRetry = false;
     private int receivedBytes;
@@ -94,6 +97,9 @@ public class HttpConnectionContext extends AbstractMutableIOContext<HttpConnecti
         this.headerParser.clear();
         this.multipartContentParser.clear();
         this.multipartContentHeaderParser.clear();
+        this.chunkedContentParser.clear();
+        this.chunkedContent = false;
+        this.contentRemaining = 0;
         this.csPool.clear();
         this.localValueMap.clear();
         if (this.pendingRetry) {
@@ -224,6 +230,8 @@ public class HttpConnectionContext extends AbstractMutableIOContext<HttpConnecti
             // The context is about to be returned to the pool, so we should release the memory.
             this.recvBuffer = Unsafe.free(recvBuffer, recvBufferSize, MemoryTag.NATIVE_HTTP_CONN);
             this.responseSink.close();
+            // release resources held by request that did not complete, e.g. table writers
+            this.localValueMap.clear();
         } else {
             // The context is obtained from the pool, so we should initialize the memory.
             if (recvBuffer == 0) {
@@ -312,6 +320,55 @@ public class HttpConnectionContext extends AbstractMutableIOContext<HttpConnecti
         }
     }
 
+    private boolean consumeContent(
+            long fd,
+            HttpRequestProcessor processor,
+            long headerEnd,
+            int read,
+            boolean newRequest,
+            RescheduleContext rescheduleContext
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException {
+        final HttpContentListener contentListener = (HttpContentListener) processor;
+        if (newRequest) {
+            final DirectByteCharSequence transferEncoding = headerParser.getHeader("Transfer-Encoding");
+            chunkedContent = transferEncoding != null && Chars.contains(transferEncoding, "chunked");
+            contentRemaining = chunkedContent ? 0 : parseContentLength();
+            processor.onHeadersReady(this);
+        }
+
+        processor.resumeRecv(this);
+
+        // content that arrived together with the headers
+        if (newRequest && parseContent(headerEnd, recvBuffer + read, contentListener)) {
+            completeRequest(processor, rescheduleContext);
+            return true;
+        }
+
+        while (true) {
+            // content length is known, do not read past the end of request body
+            final int len = chunkedContent ? recvBufferSize : (int) Math.min(recvBufferSize, contentRemaining);
+            final int n = nf.recv(fd, recvBuffer, len);
+            if (n < 0) {
+                handlePeerDisconnect(DISCONNECT_REASON_PEER_DISCONNECT_AT_CONTENT_RECV);
+                return false;
+            }
+
+            if (n == 0) {
+                LOG.debug().$("peer is slow [content]").$();
+                dispatcher.registerChannel(this, IOOperation.READ);
+                return false;
+            }
+
+            LOG.debug().$("content recv [len=").$(n).$(']').$();
+            dumpBuffer(recvBuffer, n);
+
+            if (parseContent(recvBuffer, recvBuffer + n, contentListener)) {
+                completeRequest(processor, rescheduleContext);
+                return true;
+            }
+        }
+    }
+
     private boolean consumeMultipart(
             long fd,
             HttpRequestProcessor processor,
@@ -556,6 +613,8 @@ public class HttpConnectionContext extends AbstractMutableIOContext<HttpConnecti
                     busyRecv = rejectRequest("Bad request. Multipart POST expected.");
                 } else if (multipartProcessor) {
                     busyRecv = consumeMultipart(fd, processor, headerEnd, read, newRequest, rescheduleContext);
+                } else if (processor instanceof HttpContentListener) {
+                    busyRecv = consumeContent(fd, processor, headerEnd, read, newRequest, rescheduleContext);
                 } else {
 
                     // Do not expect any more bytes to be sent to us before
@@ -632,6 +691,33 @@ public class HttpConnectionContext extends AbstractMutableIOContext<HttpConnecti
         onPeerDisconnect.run();
     }
 
+    private boolean parseContent(long lo, long hi, HttpContentListener contentListener) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException {
+        if (chunkedContent) {
+            return chunkedContentParser.parse(lo, hi, contentListener);
+        }
+        final long len = Math.min(hi - lo, contentRemaining);
+        if (len > 0) {
+            contentListener.onChunk(lo, lo + len);
+            contentRemaining -= len;
+        }
+        return contentRemaining == 0;
+    }
+
+    private long parseContentLength() {
+        final DirectByteCharSequence contentLength = headerParser.getHeader("Content-Length");
+        if (contentLength == null) {
+            return 0;
+        }
+        try {
+            final long len = Numbers.parseLong(contentLength);
+            if (len > -1) {
+                return len;
+            }
+        } catch (NumericException ignore) {
+        }
+        throw HttpException.instance("invalid Content-Length [value=").put(contentLength).put(']');
+    }
+
     private boolean parseMultipartResult(long start, long buf, int bufRemaining, HttpMultipartContentListener
             multipartListener, HttpRequestProcessor processor, RescheduleContext rescheduleContext) throws
             PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException, TooFewBytesReceivedException {
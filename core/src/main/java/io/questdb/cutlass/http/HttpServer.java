@@ -180,6 +180,20 @@ public class HttpServer implements Closeable {
             }
         });
 
+        if (configuration.isLineHttpEnabled()) {
+            server.bind(new HttpRequestProcessorFactory() {
+                @Override
+                public String getUrl() {
+                    return "/write";
+                }
+
+                @Override
+                public HttpRequestProcessor newInstance() {
+                    return new LineHttpProcessor(cairoEngine, configuration.getLineTcpReceiverConfiguration());
+                }
+            });
+        }
+
         server.bind(new HttpRequestProcessorFactory() {
             @Override
             public String getUrl() {
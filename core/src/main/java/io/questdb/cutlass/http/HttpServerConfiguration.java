@@ -26,6 +26,7 @@ package io.questdb.cutlass.http;
 
 import io.questdb.cutlass.http.processors.JsonQueryProcessorConfiguration;
 import io.questdb.cutlass.http.processors.StaticContentProcessorConfiguration;
+import io.questdb.cutlass.line.tcp.LineTcpReceiverConfiguration;
 import io.questdb.mp.WorkerPoolConfiguration;
 
 public interface HttpServerConfiguration extends WorkerPoolConfiguration, HttpMinServerConfiguration {
@@ -35,6 +36,8 @@ public interface HttpServerConfiguration extends WorkerPoolConfiguration, HttpMi
 
     JsonQueryProcessorConfiguration getJsonQueryProcessorConfiguration();
 
+    LineTcpReceiverConfiguration getLineTcpReceiverConfiguration();
+
     int getQueryCacheBlockCount();
 
     int getQueryCacheRowCount();
@@ -43,5 +46,7 @@ public interface HttpServerConfiguration extends WorkerPoolConfiguration, HttpMi
 
     WaitProcessorConfiguration getWaitProcessorConfiguration();
 
+    boolean isLineHttpEnabled();
+
     boolean isQueryCacheEnabled();
 }
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cutlass.http.*;
+import io.questdb.cutlass.line.tcp.LineTcpReceiverConfiguration;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.network.PeerDisconnectedException;
+import io.questdb.network.PeerIsSlowToReadException;
+import io.questdb.network.ServerDisconnectException;
+
+import java.io.Closeable;
+
+/**
+ * Accepts InfluxDB line protocol in the request body, plain or with chunked transfer encoding.
+ * Body is parsed as it streams in and all rows of the request are committed when the body is complete.
+ * Client receives 204 once the data is committed, 400 when any of the lines cannot be parsed or written,
+ * in which case nothing is committed, and 503 when the table writer is busy and request can be retried.
+ */
+public class LineHttpProcessor implements HttpRequestProcessor, HttpContentListener, Closeable {
+    private static final Log LOG = LogFactory.getLog(LineHttpProcessor.class);
+    // Local value has to be static because each thread will have its own instance of
+    // processor. For different threads to lookup the same value from local value map the key,
+    // which is LV, has to be the same between processor instances
+    private static final LocalValue<LineHttpProcessorState> LV = new LocalValue<>();
+    private final LineTcpReceiverConfiguration configuration;
+    private final CairoEngine engine;
+    private LineHttpProcessorState transientState;
+
+    public LineHttpProcessor(CairoEngine engine, LineTcpReceiverConfiguration configuration) {
+        this.engine = engine;
+        this.configuration = configuration;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void onChunk(long lo, long hi) {
+        transientState.onChunk(lo, hi);
+    }
+
+    @Override
+    public void onHeadersReady(HttpConnectionContext context) {
+        LineHttpProcessorState state = LV.get(context);
+        if (state == null) {
+            LV.set(context, state = new LineHttpProcessorState(configuration, engine));
+        }
+        state.of(context.getCairoSecurityContext());
+    }
+
+    @Override
+    public void onRequestComplete(HttpConnectionContext context) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException {
+        final LineHttpProcessorState state = LV.get(context);
+        final long rowCount = state.commit();
+        switch (state.getStatus()) {
+            case LineHttpProcessorState.STATUS_OK:
+                LOG.debug().$("committed [fd=").$(context.getFd()).$(", rows=").$(rowCount).I$();
+                context.simpleResponse().sendStatus(204);
+                break;
+            case LineHttpProcessorState.STATUS_BUSY:
+                context.simpleResponse().sendStatus(503, state.errorMessage);
+                break;
+            default:
+                LOG.info().$("rejected [fd=").$(context.getFd()).$(", error=").$(state.errorMessage).I$();
+                context.simpleResponse().sendStatus(400, state.errorMessage);
+                break;
+        }
+    }
+
+    @Override
+    public void resumeRecv(HttpConnectionContext context) {
+        transientState = LV.get(context);
+    }
+}
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.CairoSecurityContext;
+import io.questdb.cairo.EntryUnavailableException;
+import io.questdb.cutlass.line.tcp.LineHttpAppender;
+import io.questdb.cutlass.line.tcp.LineTcpParser;
+import io.questdb.cutlass.line.tcp.LineTcpReceiverConfiguration;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+class LineHttpProcessorState implements Mutable, Closeable {
+    static final int STATUS_BUSY = 2;
+    static final int STATUS_ERROR = 1;
+    static final int STATUS_OK = 0;
+    private static final Log LOG = LogFactory.getLog(LineHttpProcessorState.class);
+    final StringSink errorMessage = new StringSink();
+    private final LineHttpAppender appender;
+    private final int bufSize;
+    private final LineTcpParser parser;
+    private long buf;
+    private long bufPos;
+    private long bufStartOfMeasurement;
+    private boolean goodMeasurement;
+    private long lineNumber;
+    private CairoSecurityContext securityContext;
+    private int status;
+
+    LineHttpProcessorState(LineTcpReceiverConfiguration configuration, CairoEngine engine) {
+        this.appender = new LineHttpAppender(configuration, engine);
+        this.parser = new LineTcpParser(
+                configuration.isStringAsTagSupported(),
+                configuration.isSymbolAsFieldSupported(),
+                configuration.isBinaryFormatSupported()
+        );
+        this.bufSize = configuration.getMaxMeasurementSize();
+        this.buf = Unsafe.malloc(bufSize, MemoryTag.NATIVE_ILP_RSS);
+        clear();
+    }
+
+    @Override
+    public void clear() {
+        appender.clear();
+        errorMessage.clear();
+        bufPos = buf;
+        bufStartOfMeasurement = buf;
+        goodMeasurement = true;
+        lineNumber = 1;
+        securityContext = null;
+        status = STATUS_OK;
+        parser.of(buf);
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(appender);
+        buf = Unsafe.free(buf, bufSize, MemoryTag.NATIVE_ILP_RSS);
+    }
+
+    /**
+     * Commits rows of the request. When request is in error its rows are rolled back.
+     *
+     * @return committed row count
+     */
+    long commit() {
+        if (status == STATUS_OK) {
+            // the last line of the body does not have to be terminated
+            if (bufPos > bufStartOfMeasurement) {
+                if (bufPos < buf + bufSize) {
+                    Unsafe.getUnsafe().putByte(bufPos++, (byte) '\n');
+                    parse();
+                } else {
+                    error("measurement is too long [maxMeasurementSize=").put(bufSize).put(']');
+                }
+            }
+            if (status == STATUS_OK) {
+                try {
+                    return appender.commit();
+                } catch (CairoException e) {
+                    onCairoException(e);
+                }
+            }
+        }
+        // release writers before response is sent
+        appender.clear();
+        return 0;
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    void of(CairoSecurityContext securityContext) {
+        this.securityContext = securityContext;
+    }
+
+    void onChunk(long lo, long hi) {
+        while (lo < hi && status == STATUS_OK) {
+            final long len = Math.min(hi - lo, buf + bufSize - bufPos);
+            if (len == 0) {
+                error("measurement is too long [maxMeasurementSize=").put(bufSize).put(']');
+                break;
+            }
+            Vect.memcpy(bufPos, lo, len);
+            bufPos += len;
+            lo += len;
+            parse();
+        }
+    }
+
+    /**
+     * Moves incomplete measurement to the start of the buffer, parser pointers are shifted accordingly.
+     */
+    private void compactBuffer() {
+        if (bufStartOfMeasurement > buf) {
+            final long len = bufPos - bufStartOfMeasurement;
+            if (len > 0) {
+                Vect.memmove(buf, bufStartOfMeasurement, len);
+                parser.shl(bufStartOfMeasurement - buf);
+            } else {
+                parser.of(buf);
+            }
+            bufStartOfMeasurement = buf;
+            bufPos = buf + len;
+        }
+    }
+
+    private StringSink error(CharSequence message) {
+        status = STATUS_ERROR;
+        errorMessage.clear();
+        errorMessage.put(message);
+        return errorMessage;
+    }
+
+    private void onCairoException(CairoException e) {
+        LOG.error().$("could not write line protocol measurement [line=").$(lineNumber)
+                .$(", table=").$(parser.getMeasurementName())
+                .$(", msg=").$(e.getFlyweightMessage())
+                .$(", errno=").$(e.getErrno())
+                .I$();
+        if (e instanceof EntryUnavailableException) {
+            status = STATUS_BUSY;
+            errorMessage.clear();
+            errorMessage.put("table is busy, retry request [table=").put(parser.getMeasurementName()).put(']');
+        } else {
+            error(e.getFlyweightMessage()).put(" [line=").put(lineNumber).put(']');
+        }
+    }
+
+    private void parse() {
+        while (status == STATUS_OK) {
+            final LineTcpParser.ParseResult rc = goodMeasurement ? parser.parseMeasurement(bufPos) : parser.skipMeasurement(bufPos);
+            switch (rc) {
+                case MEASUREMENT_COMPLETE:
+                    if (goodMeasurement) {
+                        try {
+                            appender.append(parser, securityContext);
+                        } catch (CairoException e) {
+                            onCairoException(e);
+                            return;
+                        }
+                    }
+                    goodMeasurement = true;
+                    lineNumber++;
+                    parser.startNextMeasurement();
+                    bufStartOfMeasurement = parser.getBufferAddress();
+                    break;
+                case ERROR:
+                    if (parser.getErrorCode() == LineTcpParser.ErrorCode.EMPTY_LINE) {
+                        // tolerate blank lines
+                        goodMeasurement = false;
+                        break;
+                    }
+                    error("could not parse measurement, ").put(parser.getErrorCode().name()).put(" [line=").put(lineNumber).put(']');
+                    return;
+                default:
+                    compactBuffer();
+                    return;
+            }
+        }
+    }
+}
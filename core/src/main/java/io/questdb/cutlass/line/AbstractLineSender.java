@@ -27,6 +27,7 @@ package io.questdb.cutlass.line;
 import io.questdb.cairo.TableUtils;
 import io.questdb.client.Sender;
 import io.questdb.cutlass.line.tcp.AuthDb;
+import io.questdb.cutlass.line.tcp.LineTcpParser;
 import io.questdb.std.*;
 import io.questdb.std.str.AbstractCharSink;
 import io.questdb.std.str.CharSink;
@@ -39,6 +40,7 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
     protected final int capacity;
     private final long bufA;
     private final long bufB;
+    protected boolean binaryFormat;
     protected LineChannel lineChannel;
     private boolean closed;
     private boolean enableValidation;
@@ -76,7 +78,12 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
 
     @Override
     public final void at(long timestamp) {
-        put(' ').put(timestamp);
+        put(' ');
+        if (binaryFormat) {
+            putBinaryValue(LineTcpParser.BINARY_TYPE_TIMESTAMP, timestamp);
+        } else {
+            put(timestamp);
+        }
         atNow();
     }
 
@@ -140,7 +147,12 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
     }
 
     public AbstractLineSender field(CharSequence name, long value) {
-        writeFieldName(name).put(value).put('i');
+        writeFieldName(name);
+        if (binaryFormat) {
+            putBinaryValue(LineTcpParser.BINARY_TYPE_LONG, value);
+        } else {
+            put(value).put('i');
+        }
         return this;
     }
 
@@ -154,7 +166,12 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
     }
 
     public AbstractLineSender field(CharSequence name, double value) {
-        writeFieldName(name).put(value);
+        writeFieldName(name);
+        if (binaryFormat) {
+            putBinaryValue(LineTcpParser.BINARY_TYPE_DOUBLE, Double.doubleToRawLongBits(value));
+        } else {
+            put(value);
+        }
         return this;
     }
 
@@ -294,7 +311,12 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
 
     @Override
     public final AbstractLineSender timestampColumn(CharSequence name, long value) {
-        writeFieldName(name).put(value).put('t');
+        writeFieldName(name);
+        if (binaryFormat) {
+            putBinaryValue(LineTcpParser.BINARY_TYPE_TIMESTAMP, value);
+        } else {
+            put(value).put('t');
+        }
         return this;
     }
 
@@ -308,6 +330,15 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
         return -1;
     }
 
+    private void putBinaryValue(byte type, long value) {
+        put((char) LineTcpParser.BINARY_FORMAT_FLAG).put((char) type);
+        if (ptr + Long.BYTES > hi) {
+            send00();
+        }
+        Unsafe.getUnsafe().putLong(ptr, value);
+        ptr += Long.BYTES;
+    }
+
     private byte[] receiveChallengeBytes() {
         int n = 0;
         for (; ; ) {
@@ -74,6 +74,15 @@ public class LineTcpSender extends AbstractLineSender {
         }
     }
 
+    /**
+     * Switches the sender to binary extension of the protocol. Double, long and timestamp values, including
+     * designated timestamp, are sent as little-endian 8 byte values instead of text. Server has to support
+     * binary format, see <code>line.tcp.binary.format.supported</code>.
+     */
+    public void enableBinaryFormat() {
+        binaryFormat = true;
+    }
+
     @Override
     public void flush() {
         validateNotClosed();
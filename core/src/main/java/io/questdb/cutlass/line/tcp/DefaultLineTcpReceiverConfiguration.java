@@ -69,6 +69,16 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
         return true;
     }
 
+    @Override
+    public double getBackpressureQueueRatio() {
+        return 0.5;
+    }
+
+    @Override
+    public long getBackpressureWalLag() {
+        return 1000;
+    }
+
     @Override
     public CairoSecurityContext getCairoSecurityContext() {
         return AllowAllCairoSecurityContext.INSTANCE;
@@ -154,6 +164,16 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
         return NetworkFacadeImpl.INSTANCE;
     }
 
+    @Override
+    public int getSymbolCacheLocalCapacity() {
+        return 4096;
+    }
+
+    @Override
+    public int getSymbolCacheSharedCapacity() {
+        return 16384;
+    }
+
     @Override
     public long getSymbolCacheWaitUsBeforeReload() {
         return 500_000;
@@ -174,11 +194,21 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
         return 64;
     }
 
+    @Override
+    public double getWriterRebalanceLoadRatio() {
+        return 1.5;
+    }
+
     @Override
     public WorkerPoolConfiguration getWriterWorkerPoolConfiguration() {
         return SHARED_CONFIGURATION;
     }
 
+    @Override
+    public boolean isBinaryFormatSupported() {
+        return true;
+    }
+
     @Override
     public boolean isEnabled() {
         return true;
@@ -0,0 +1,235 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryMARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectByteCharSequence;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+/**
+ * Writes measurements parsed from an HTTP request body directly to table writers, bypassing
+ * writer thread queues. Rows are not committed until {@link #commit()} is called, which gives
+ * the client per-request acknowledgement. Writers are held for the duration of the request only,
+ * uncommitted rows are rolled back on {@link #clear()}.
+ */
+public class LineHttpAppender implements Closeable, Mutable {
+    private static final Log LOG = LogFactory.getLog(LineHttpAppender.class);
+    private final boolean autoCreateNewColumns;
+    private final boolean autoCreateNewTables;
+    private final LineTcpReceiverConfiguration configuration;
+    private final MemoryMARW ddlMem = Vm.getMARWInstance();
+    private final DefaultColumnTypes defaultColumnTypes;
+    private final CairoEngine engine;
+    private final LineTcpMeasurementEvent event;
+    private final long eventBufSize;
+    private final NetworkIOJob[] netIoJobs = new NetworkIOJob[]{
+            new NetworkIOJob() {
+                @Override
+                public void addTableUpdateDetails(String tableNameUtf8, TableUpdateDetails tableUpdateDetails) {
+                }
+
+                @Override
+                public void close() {
+                }
+
+                @Override
+                public TableUpdateDetails getLocalTableDetails(CharSequence tableName) {
+                    return null;
+                }
+
+                @Override
+                public ObjList<SymbolCache> getUnusedSymbolCaches() {
+                    return unusedSymbolCaches;
+                }
+
+                @Override
+                public int getWorkerId() {
+                    return 0;
+                }
+
+                @Override
+                public boolean run(int workerId) {
+                    return false;
+                }
+            }
+    };
+    private final Path path = new Path();
+    private final StringSink tableNameSink = new StringSink();
+    private final TableStructureAdapter tableStructureAdapter;
+    private final ObjList<TableUpdateDetails> tableUpdateDetails = new ObjList<>();
+    private final CharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf8 = new CharSequenceObjHashMap<>();
+    private final LowerCaseCharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf16 = new LowerCaseCharSequenceObjHashMap<>();
+    private final ObjList<SymbolCache> unusedSymbolCaches = new ObjList<>();
+    private long eventBuf;
+    private long rowCount;
+
+    public LineHttpAppender(LineTcpReceiverConfiguration configuration, CairoEngine engine) {
+        this.configuration = configuration;
+        this.engine = engine;
+        final CairoConfiguration cairoConfiguration = engine.getConfiguration();
+        this.defaultColumnTypes = new DefaultColumnTypes(configuration);
+        this.autoCreateNewTables = configuration.getAutoCreateNewTables();
+        this.autoCreateNewColumns = configuration.getAutoCreateNewColumns();
+        this.tableStructureAdapter = new TableStructureAdapter(cairoConfiguration, defaultColumnTypes, configuration.getDefaultPartitionBy());
+        this.eventBufSize = LineTcpMeasurementScheduler.getEventSlotSize(configuration.getMaxMeasurementSize());
+        this.eventBuf = Unsafe.malloc(eventBufSize, MemoryTag.NATIVE_ILP_RSS);
+        this.event = new LineTcpMeasurementEvent(
+                eventBuf,
+                eventBufSize,
+                configuration.getMicrosecondClock(),
+                configuration.getTimestampAdapter(),
+                defaultColumnTypes,
+                configuration.isStringToCharCastAllowed(),
+                configuration.isSymbolAsFieldSupported(),
+                configuration.getMaxFileNameLength(),
+                autoCreateNewColumns,
+                cairoConfiguration.getDefaultSymbolCapacity(),
+                cairoConfiguration.getDefaultSymbolCacheFlag()
+        );
+    }
+
+    /**
+     * Appends measurement the parser has just completed. Row is written to the table writer
+     * but it is not committed.
+     *
+     * @param parser          parser positioned on complete measurement
+     * @param securityContext security context of the request
+     * @throws CairoException when table cannot be created, writer is busy or row is invalid
+     */
+    public void append(LineTcpParser parser, CairoSecurityContext securityContext) {
+        final TableUpdateDetails tud = getTableUpdateDetails(parser, securityContext);
+        event.createMeasurementEvent(tud, parser, 0);
+        event.appendRow();
+        rowCount++;
+    }
+
+    /**
+     * Rolls back rows that have not been committed and releases table writers.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0, n = tableUpdateDetails.size(); i < n; i++) {
+            final TableUpdateDetails tud = tableUpdateDetails.getQuick(i);
+            // returning writer to the pool rolls back uncommitted rows
+            tud.releaseWriter(false);
+            tud.close();
+        }
+        tableUpdateDetails.clear();
+        tableUpdateDetailsUtf8.clear();
+        tableUpdateDetailsUtf16.clear();
+        rowCount = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.freeObjListAndClear(unusedSymbolCaches);
+        Misc.free(path);
+        Misc.free(ddlMem);
+        eventBuf = Unsafe.free(eventBuf, eventBufSize, MemoryTag.NATIVE_ILP_RSS);
+    }
+
+    /**
+     * Commits rows appended since the last commit to every table touched by the request and
+     * releases writers. Tables are committed one by one, commit is not atomic across tables.
+     *
+     * @return number of committed rows
+     */
+    public long commit() {
+        for (int i = 0, n = tableUpdateDetails.size(); i < n; i++) {
+            tableUpdateDetails.getQuick(i).getWriter().commit();
+        }
+        final long committed = rowCount;
+        clear();
+        return committed;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    private TableUpdateDetails getTableUpdateDetails(LineTcpParser parser, CairoSecurityContext securityContext) {
+        final DirectByteCharSequence tableNameUtf8 = parser.getMeasurementName();
+        final int utf8KeyIndex = tableUpdateDetailsUtf8.keyIndex(tableNameUtf8);
+        if (utf8KeyIndex < 0) {
+            return tableUpdateDetailsUtf8.valueAt(utf8KeyIndex);
+        }
+
+        tableNameSink.clear();
+        Chars.utf8Decode(tableNameUtf8.getLo(), tableNameUtf8.getHi(), tableNameSink);
+        final int utf16KeyIndex = tableUpdateDetailsUtf16.keyIndex(tableNameSink);
+        TableUpdateDetails tud;
+        if (utf16KeyIndex < 0) {
+            tud = tableUpdateDetailsUtf16.valueAt(utf16KeyIndex);
+        } else {
+            int status = engine.getStatus(securityContext, path, tableNameSink, 0, tableNameSink.length());
+            if (status != TableUtils.TABLE_EXISTS) {
+                if (!autoCreateNewTables) {
+                    throw CairoException.nonCritical()
+                            .put("table does not exist, creating new tables is disabled [table=").put(tableNameSink)
+                            .put(']');
+                }
+                if (!autoCreateNewColumns) {
+                    throw CairoException.nonCritical()
+                            .put("table does not exist, cannot create table, creating new columns is disabled [table=").put(tableNameSink)
+                            .put(']');
+                }
+                TableStructureAdapter tsa = tableStructureAdapter.of(tableNameSink, parser);
+                for (int i = 0, n = tsa.getColumnCount(); i < n; i++) {
+                    if (tsa.getColumnType(i) == LineTcpParser.ENTITY_TYPE_NULL) {
+                        throw CairoException.nonCritical().put("unknown column type [columnName=").put(tsa.getColumnName(i)).put(']');
+                    }
+                }
+                LOG.info().$("creating table [tableName=").$(tableNameSink).$(']').$();
+                engine.createTable(securityContext, ddlMem, path, tsa);
+            }
+
+            tud = new TableUpdateDetails(
+                    configuration,
+                    engine,
+                    engine.getTableWriterAPI(securityContext, tableNameSink, "httpIlp"),
+                    0,
+                    netIoJobs,
+                    defaultColumnTypes
+            );
+            tableUpdateDetails.add(tud);
+            tableUpdateDetailsUtf16.putAt(utf16KeyIndex, tud.getTableNameUtf16(), tud);
+        }
+
+        // key is a string image of utf8 bytes, same as network IO jobs use
+        tableNameSink.clear();
+        tableNameSink.put(tableNameUtf8);
+        tableUpdateDetailsUtf8.putAt(utf8KeyIndex, tableNameSink.toString(), tud);
+        return tud;
+    }
+}
@@ -131,6 +131,25 @@ class LineTcpMeasurementEvent implements Closeable {
     }
 
     void append() throws CommitFailedException {
+        try {
+            appendRow();
+            tableUpdateDetails.commitIfMaxUncommittedRowsCountReached();
+        } catch (CommitFailedException commitFailedException) {
+            throw commitFailedException;
+        } catch (Throwable th) {
+            LOG.error()
+                    .$("could not write line protocol measurement [tableName=").$(tableUpdateDetails.getTableNameUtf16())
+                    .$(", message=").$(th.getMessage())
+                    .$(th)
+                    .I$();
+        }
+    }
+
+    /**
+     * Appends row to the table writer without committing it. When row cannot be written it is cancelled
+     * and the error is re-thrown to the caller.
+     */
+    void appendRow() {
         TableWriter.Row row = null;
         try {
             TableWriterAPI writer = tableUpdateDetails.getWriter();
@@ -284,18 +303,11 @@ class LineTcpMeasurementEvent implements Closeable {
                 }
             }
             row.append();
-            tableUpdateDetails.commitIfMaxUncommittedRowsCountReached();
-        } catch (CommitFailedException commitFailedException) {
-            throw commitFailedException;
         } catch (Throwable th) {
-            LOG.error()
-                    .$("could not write line protocol measurement [tableName=").$(tableUpdateDetails.getTableNameUtf16())
-                    .$(", message=").$(th.getMessage())
-                    .$(th)
-                    .I$();
             if (row != null) {
                 row.cancel();
             }
+            throw th;
         }
     }
 
@@ -414,7 +426,7 @@ class LineTcpMeasurementEvent implements Closeable {
                             break;
 
                         default:
-                            if (symbolAsFieldSupported && colType == ColumnType.SYMBOL) {
+                            if (symbolAsFieldSupported && colType == ColumnType.SYMBOL && !entity.isBinary()) {
                                 offset = buffer.addSymbol(offset, entity.getValue(), parser.hasNonAsciiChars(), localDetails.getSymbolLookup(columnWriterIndex));
                             } else {
                                 throw castError("integer", columnWriterIndex, colType, entity.getName());
@@ -434,7 +446,7 @@ class LineTcpMeasurementEvent implements Closeable {
                             break;
 
                         default:
-                            if (symbolAsFieldSupported && colType == ColumnType.SYMBOL) {
+                            if (symbolAsFieldSupported && colType == ColumnType.SYMBOL && !entity.isBinary()) {
                                 offset = buffer.addSymbol(offset, entity.getValue(), parser.hasNonAsciiChars(), localDetails.getSymbolLookup(columnWriterIndex));
                             } else {
                                 throw castError("float", columnWriterIndex, colType, entity.getName());
@@ -526,7 +538,7 @@ class LineTcpMeasurementEvent implements Closeable {
                 case LineTcpParser.ENTITY_TYPE_TIMESTAMP: {
                     if (ColumnType.tagOf(colType) == ColumnType.TIMESTAMP) {
                         offset = buffer.addTimestamp(offset, entity.getLongValue());
-                    } else if (symbolAsFieldSupported && colType == ColumnType.SYMBOL) {
+                    } else if (symbolAsFieldSupported && colType == ColumnType.SYMBOL && !entity.isBinary()) {
                         // todo: this makes no sense
                         offset = buffer.addSymbol(offset, entity.getValue(), parser.hasNonAsciiChars(), localDetails.getSymbolLookup(columnWriterIndex));
                     } else {
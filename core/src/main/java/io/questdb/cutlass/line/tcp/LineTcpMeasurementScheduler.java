@@ -57,11 +57,15 @@ class LineTcpMeasurementScheduler implements Closeable {
     private final DefaultColumnTypes defaultColumnTypes;
     private final CairoEngine engine;
     private final LowerCaseCharSequenceObjHashMap<TableUpdateDetails> idleTableUpdateDetailsUtf16;
+    private final LineTcpMetrics lineTcpMetrics;
     private final long[] loadByWriterThread;
+    private final int maxPendingEventsPerTable;
+    private final long maxWalLag;
     private final NetworkIOJob[] netIoJobs;
     private final Path path = new Path();
     private final MPSequence[] pubSeq;
     private final RingQueue<LineTcpMeasurementEvent>[] queue;
+    private final double rebalanceLoadRatio;
     private final CairoSecurityContext securityContext;
     private final StringSink[] tableNameSinks;
     private final TableStructureAdapter tableStructureAdapter;
@@ -83,6 +87,7 @@ class LineTcpMeasurementScheduler implements Closeable {
         this.configuration = lineConfiguration;
         MillisecondClock milliClock = cairoConfiguration.getMillisecondClock();
         this.defaultColumnTypes = new DefaultColumnTypes(lineConfiguration);
+        this.lineTcpMetrics = engine.getMetrics().lineTcp();
         int n = ioWorkerPool.getWorkerCount();
         this.netIoJobs = new NetworkIOJob[n];
         this.tableNameSinks = new StringSink[n];
@@ -99,10 +104,13 @@ class LineTcpMeasurementScheduler implements Closeable {
         tableUpdateDetailsUtf16 = new LowerCaseCharSequenceObjHashMap<>();
         idleTableUpdateDetailsUtf16 = new LowerCaseCharSequenceObjHashMap<>();
         loadByWriterThread = new long[writerWorkerPool.getWorkerCount()];
+        rebalanceLoadRatio = lineConfiguration.getWriterRebalanceLoadRatio();
         autoCreateNewTables = lineConfiguration.getAutoCreateNewTables();
         autoCreateNewColumns = lineConfiguration.getAutoCreateNewColumns();
         int maxMeasurementSize = lineConfiguration.getMaxMeasurementSize();
         int queueSize = lineConfiguration.getWriterQueueCapacity();
+        maxPendingEventsPerTable = (int) Math.max(1, Math.min(queueSize, queueSize * lineConfiguration.getBackpressureQueueRatio()));
+        maxWalLag = lineConfiguration.getBackpressureWalLag();
         long commitIntervalDefault = configuration.getCommitIntervalDefault();
         int nWriterThreads = writerWorkerPool.getWorkerCount();
         pubSeq = new MPSequence[nWriterThreads];
@@ -140,6 +148,7 @@ class LineTcpMeasurementScheduler implements Closeable {
                     q,
                     subSeq,
                     milliClock,
+                    cairoConfiguration.getNanosecondClock(),
                     commitIntervalDefault,
                     this,
                     engine.getMetrics()
@@ -234,10 +243,6 @@ class LineTcpMeasurementScheduler implements Closeable {
         }
     }
 
-    private static long getEventSlotSize(int maxMeasurementSize) {
-        return Numbers.ceilPow2((long) (maxMeasurementSize / 4) * (Integer.BYTES + Double.BYTES + 1));
-    }
-
     private void closeLocals(LowerCaseCharSequenceObjHashMap<TableUpdateDetails> tudUtf16) {
         ObjList<CharSequence> tableNames = tudUtf16.keys();
         for (int n = 0, sz = tableNames.size(); n < sz; n++) {
@@ -287,18 +292,19 @@ class LineTcpMeasurementScheduler implements Closeable {
                     tab = idleTableUpdateDetailsUtf16.valueAt(idleTudKeyIndex);
                     LOG.info().$("idle table going active [tableName=").$(tab.getTableNameUtf16()).I$();
                     if (tab.getWriter() == null) {
+                        final int previousWriterThreadId = tab.getWriterThreadId();
                         tab.closeNoLock();
                         // Use actual table name from the "details" to avoid case mismatches in the
                         // WriterPool. There was an error in the LineTcpReceiverFuzzTest, which helped
                         // to identify the cause
-                        tab = unsafeAssignTableToWriterThread(tudKeyIndex, tab.getTableNameUtf16());
+                        tab = unsafeAssignTableToWriterThread(tudKeyIndex, tab.getTableNameUtf16(), previousWriterThreadId);
                     } else {
                         idleTableUpdateDetailsUtf16.removeAt(idleTudKeyIndex);
                         tableUpdateDetailsUtf16.putAt(tudKeyIndex, tab.getTableNameUtf16(), tab);
                     }
                 } else {
                     TelemetryTask.doStoreTelemetry(engine, Telemetry.SYSTEM_ILP_RESERVE_WRITER, Telemetry.ORIGIN_ILP_TCP);
-                    tab = unsafeAssignTableToWriterThread(tudKeyIndex, tableNameUtf16);
+                    tab = unsafeAssignTableToWriterThread(tudKeyIndex, tableNameUtf16, -1);
                 }
             }
 
@@ -319,8 +325,15 @@ class LineTcpMeasurementScheduler implements Closeable {
         return null != pubSeq;
     }
 
+    private boolean isOverloaded(TableUpdateDetails tab) {
+        if (tab.getPendingEventCount() >= maxPendingEventsPerTable) {
+            return true;
+        }
+        return maxWalLag > 0 && tab.getWalLag() >= maxWalLag;
+    }
+
     @NotNull
-    private TableUpdateDetails unsafeAssignTableToWriterThread(int tudKeyIndex, CharSequence tableNameUtf16) {
+    private TableUpdateDetails unsafeAssignTableToWriterThread(int tudKeyIndex, CharSequence tableNameUtf16, int previousThreadId) {
         unsafeCalcThreadLoad();
         long leastLoad = Long.MAX_VALUE;
         int threadId = 0;
@@ -332,6 +345,22 @@ class LineTcpMeasurementScheduler implements Closeable {
             }
         }
 
+        if (previousThreadId > -1 && previousThreadId < loadByWriterThread.length && previousThreadId != threadId) {
+            // keep the table on its previous thread unless the load difference is significant,
+            // this stops tables going idle and active from bouncing between threads
+            if (loadByWriterThread[previousThreadId] <= leastLoad * rebalanceLoadRatio) {
+                threadId = previousThreadId;
+            } else {
+                lineTcpMetrics.incrementTableReassignments();
+                LOG.info().$("moving table to less busy thread [tableName=").$(tableNameUtf16)
+                        .$(", fromThread=").$(previousThreadId)
+                        .$(", fromThreadLoad=").$(loadByWriterThread[previousThreadId])
+                        .$(", toThread=").$(threadId)
+                        .$(", toThreadLoad=").$(leastLoad)
+                        .I$();
+            }
+        }
+
         final TableUpdateDetails tableUpdateDetails = new TableUpdateDetails(
                 configuration,
                 engine,
@@ -344,7 +373,8 @@ class LineTcpMeasurementScheduler implements Closeable {
                 defaultColumnTypes
         );
         tableUpdateDetailsUtf16.putAt(tudKeyIndex, tableUpdateDetails.getTableNameUtf16(), tableUpdateDetails);
-        LOG.info().$("assigned ").$(tableNameUtf16).$(" to thread ").$(threadId).$();
+        lineTcpMetrics.incrementTableAssignments();
+        LOG.info().$("assigned ").$(tableNameUtf16).$(" to thread ").$(threadId).$(" [load=").$(loadByWriterThread[threadId]).I$();
         return tableUpdateDetails;
     }
 
@@ -355,7 +385,7 @@ class LineTcpMeasurementScheduler implements Closeable {
             final CharSequence tableName = tableNames.getQuick(n);
             final TableUpdateDetails stats = tableUpdateDetailsUtf16.get(tableName);
             if (stats != null) {
-                loadByWriterThread[stats.getWriterThreadId()] += stats.getEventsProcessedSinceReshuffle();
+                loadByWriterThread[stats.getWriterThreadId()] += stats.getWriteNanos();
             } else {
                 LOG.error().$("could not find statistic for table [name=").$(tableName).I$();
             }
@@ -363,7 +393,11 @@ class LineTcpMeasurementScheduler implements Closeable {
     }
 
     protected NetworkIOJob createNetworkIOJob(IODispatcher<LineTcpConnectionContext> dispatcher, int workerId) {
-        return new LineTcpNetworkIOJob(configuration, this, dispatcher, workerId);
+        return new LineTcpNetworkIOJob(configuration, this, dispatcher, workerId, lineTcpMetrics);
+    }
+
+    static long getEventSlotSize(int maxMeasurementSize) {
+        return Numbers.ceilPow2((long) (maxMeasurementSize / 4) * (Integer.BYTES + Double.BYTES + 1));
     }
 
     long getNextPublisherEventSequence(int writerWorkerId) {
@@ -395,6 +429,12 @@ class LineTcpMeasurementScheduler implements Closeable {
             throw ex;
         }
 
+        if (isOverloaded(tab)) {
+            // stop reading from this connection only, connections sending
+            // measurements for other tables keep using the writer queue
+            return true;
+        }
+
         final int writerThreadId = tab.getWriterThreadId();
         long seq = getNextPublisherEventSequence(writerThreadId);
         if (seq > -1) {
@@ -407,10 +447,11 @@ class LineTcpMeasurementScheduler implements Closeable {
                         parser,
                         netIoJob.getWorkerId()
                 );
+                tab.onEventPublished();
+                lineTcpMetrics.queuedEventsGauge().inc();
             } finally {
                 pubSeq[writerThreadId].done(seq);
             }
-            tab.incrementEventsProcessedSinceReshuffle();
             return false;
         }
         return true;
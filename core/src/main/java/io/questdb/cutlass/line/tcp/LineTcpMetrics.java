@@ -0,0 +1,91 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.metrics.Counter;
+import io.questdb.metrics.Gauge;
+import io.questdb.metrics.MetricsRegistry;
+
+public class LineTcpMetrics {
+
+    // Measurements published to writer threads and not yet written
+    private final Gauge queuedEventsGauge;
+    // Connections not read from because their table, or the writer queue, is over its limit
+    private final Gauge stalledConnectionsGauge;
+    // Total time connections spent not being read from, in milliseconds
+    private final Counter stalledMillisCounter;
+    // Tables assigned to writer threads when they become active
+    private final Counter tableAssignmentCounter;
+    // Tables that became active again and were moved to a less busy writer thread
+    private final Counter tableReassignmentCounter;
+
+    public LineTcpMetrics(MetricsRegistry metricsRegistry) {
+        this.tableAssignmentCounter = metricsRegistry.newCounter("line_tcp_table_assignments");
+        this.tableReassignmentCounter = metricsRegistry.newCounter("line_tcp_table_reassignments");
+        this.queuedEventsGauge = metricsRegistry.newGauge("line_tcp_queued_events");
+        this.stalledConnectionsGauge = metricsRegistry.newGauge("line_tcp_stalled_connections");
+        this.stalledMillisCounter = metricsRegistry.newCounter("line_tcp_stalled_millis");
+    }
+
+    public void addStalledMillis(long millis) {
+        stalledMillisCounter.add(millis);
+    }
+
+    public long getQueuedEventCount() {
+        return queuedEventsGauge.getValue();
+    }
+
+    public long getStalledConnectionCount() {
+        return stalledConnectionsGauge.getValue();
+    }
+
+    public long getStalledMillis() {
+        return stalledMillisCounter.getValue();
+    }
+
+    public long getTableAssignmentCount() {
+        return tableAssignmentCounter.getValue();
+    }
+
+    public long getTableReassignmentCount() {
+        return tableReassignmentCounter.getValue();
+    }
+
+    public void incrementTableAssignments() {
+        tableAssignmentCounter.inc();
+    }
+
+    public void incrementTableReassignments() {
+        tableReassignmentCounter.inc();
+    }
+
+    public Gauge queuedEventsGauge() {
+        return queuedEventsGauge;
+    }
+
+    public Gauge stalledConnectionsGauge() {
+        return stalledConnectionsGauge;
+    }
+}
@@ -30,6 +30,7 @@ import io.questdb.network.IODispatcher;
 import io.questdb.network.IOOperation;
 import io.questdb.network.IORequestProcessor;
 import io.questdb.std.CharSequenceObjHashMap;
+import io.questdb.std.LongList;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
 import io.questdb.std.datetime.millitime.MillisecondClock;
@@ -39,15 +40,18 @@ import static io.questdb.network.IODispatcher.DISCONNECT_REASON_UNKNOWN_OPERATIO
 
 class LineTcpNetworkIOJob implements NetworkIOJob {
     private final static Log LOG = LogFactory.getLog(LineTcpNetworkIOJob.class);
+    // Contexts blocked on LineTcpMeasurementScheduler, either on a full queue or on a table over its
+    // backpressure limits. These are not read from until the measurement they hold is scheduled.
+    private final ObjList<LineTcpConnectionContext> busyContexts = new ObjList<>();
+    private final LongList busySinceMillis = new LongList();
     private final IODispatcher<LineTcpConnectionContext> dispatcher;
     private final long maintenanceInterval;
+    private final LineTcpMetrics metrics;
     private final MillisecondClock millisecondClock;
     private final LineTcpMeasurementScheduler scheduler;
     private final CharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf8 = new CharSequenceObjHashMap<>();
     private final ObjList<SymbolCache> unusedSymbolCaches = new ObjList<>();
     private final int workerId;
-    // Context blocked on LineTcpMeasurementScheduler queue
-    private LineTcpConnectionContext busyContext = null;
     private final IORequestProcessor<LineTcpConnectionContext> onRequest = this::onRequest;
     private long maintenanceJobDeadline;
 
@@ -55,7 +59,8 @@ class LineTcpNetworkIOJob implements NetworkIOJob {
             LineTcpReceiverConfiguration configuration,
             LineTcpMeasurementScheduler scheduler,
             IODispatcher<LineTcpConnectionContext> dispatcher,
-            int workerId
+            int workerId,
+            LineTcpMetrics metrics
     ) {
         this.millisecondClock = configuration.getMillisecondClock();
         this.maintenanceInterval = configuration.getMaintenanceInterval();
@@ -63,6 +68,7 @@ class LineTcpNetworkIOJob implements NetworkIOJob {
         this.maintenanceJobDeadline = millisecondClock.getTicks() + maintenanceInterval;
         this.dispatcher = dispatcher;
         this.workerId = workerId;
+        this.metrics = metrics;
     }
 
     @Override
@@ -73,10 +79,13 @@ class LineTcpNetworkIOJob implements NetworkIOJob {
 
     @Override
     public void close() {
-        if (busyContext != null) {
+        for (int i = 0, n = busyContexts.size(); i < n; i++) {
+            final LineTcpConnectionContext busyContext = busyContexts.getQuick(i);
             busyContext.getDispatcher().disconnect(busyContext, DISCONNECT_REASON_RETRY_FAILED);
-            busyContext = null;
+            metrics.stalledConnectionsGauge().dec();
         }
+        busyContexts.clear();
+        busySinceMillis.clear();
         Misc.freeObjList(unusedSymbolCaches);
     }
 
@@ -99,16 +108,12 @@ class LineTcpNetworkIOJob implements NetworkIOJob {
     public boolean run(int workerId) {
         assert this.workerId == workerId;
         boolean busy = false;
-        if (busyContext != null) {
-            if (handleIO(busyContext)) {
-                // queue is still full
-                return true;
-            }
-            LOG.debug().$("context is no longer waiting on a full queue [fd=").$(busyContext.getFd()).$(']').$();
-            busyContext = null;
+        if (busyContexts.size() > 0) {
+            resumeBusyContexts();
             busy = true;
         }
 
+        // contexts blocked on an overloaded table do not hold up the other connections
         if (dispatcher.processIOQueue(onRequest)) {
             busy = true;
         }
@@ -145,9 +150,29 @@ class LineTcpNetworkIOJob implements NetworkIOJob {
 
     private void onRequest(int operation, LineTcpConnectionContext context) {
         if (handleIO(context)) {
-            busyContext = context;
+            busyContexts.add(context);
+            busySinceMillis.add(millisecondClock.getTicks());
+            metrics.stalledConnectionsGauge().inc();
             LOG.debug().$("context is waiting on a full queue [fd=").$(context.getFd()).$(']').$();
         }
     }
 
+    private void resumeBusyContexts() {
+        int n = 0;
+        for (int i = 0, size = busyContexts.size(); i < size; i++) {
+            final LineTcpConnectionContext context = busyContexts.getQuick(i);
+            if (handleIO(context)) {
+                // still blocked, keep contexts in the order they got blocked
+                busyContexts.setQuick(n, context);
+                busySinceMillis.setQuick(n++, busySinceMillis.getQuick(i));
+            } else {
+                metrics.stalledConnectionsGauge().dec();
+                metrics.addStalledMillis(millisecondClock.getTicks() - busySinceMillis.getQuick(i));
+                LOG.debug().$("context is no longer waiting on a full queue [fd=").$(context.getFd()).$(']').$();
+            }
+        }
+        busyContexts.setPos(n);
+        busySinceMillis.setPos(n);
+    }
+
 }
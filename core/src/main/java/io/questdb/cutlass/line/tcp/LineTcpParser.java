@@ -33,8 +33,18 @@ import io.questdb.std.ObjList;
 import io.questdb.std.Unsafe;
 import io.questdb.std.str.DirectByteCharSequence;
 
+/**
+ * Parses lines of InfluxDB line protocol. Besides text the parser accepts binary extension of the protocol
+ * when it is supported. Binary field value follows the name as an extra '=', wire type and little-endian
+ * value bytes, e.g. <code>name==&lt;type&gt;&lt;8 bytes&gt;</code>. Binary designated timestamp is '=' followed by
+ * {@link #BINARY_TYPE_TIMESTAMP} and 8 little-endian bytes. Binary values are copied as they are, without escaping.
+ */
 public class LineTcpParser {
 
+    public static final byte BINARY_FORMAT_FLAG = '=';
+    public static final byte BINARY_TYPE_DOUBLE = 16;
+    public static final byte BINARY_TYPE_LONG = 17;
+    public static final byte BINARY_TYPE_TIMESTAMP = 18;
     public static final byte ENTITY_TYPE_BOOLEAN = 6;
     public static final byte ENTITY_TYPE_BYTE = 17;
     public static final byte ENTITY_TYPE_CACHED_TAG = 8;
@@ -59,6 +69,8 @@ public class LineTcpParser {
     public static final int N_ENTITY_TYPES = ENTITY_TYPE_TIMESTAMP + 1;
     public static final int N_MAPPED_ENTITY_TYPES = ENTITY_TYPE_CHAR + 1;
     static final byte ENTITY_TYPE_NONE = (byte) 0xff; // visible for testing
+    // binary format flag, wire type and 8 bytes of the value
+    private static final int BINARY_VALUE_SIZE = 2 + Long.BYTES;
     private static final byte ENTITY_HANDLER_NAME = 1;
     private static final byte ENTITY_HANDLER_NEW_LINE = 4;
     private static final byte ENTITY_HANDLER_TABLE = 0;
@@ -67,6 +79,7 @@ public class LineTcpParser {
     private static final Log LOG = LogFactory.getLog(LineTcpParser.class);
     private static final boolean[] controlChars;
     private final DirectByteCharSequence charSeq = new DirectByteCharSequence();
+    private final boolean binaryFormatSupported;
     private final ObjList<ProtoEntity> entityCache = new ObjList<>();
     private final DirectByteCharSequence measurementName = new DirectByteCharSequence();
     private final boolean stringAsTagSupported;
@@ -88,8 +101,13 @@ public class LineTcpParser {
     private long timestamp;
 
     public LineTcpParser(boolean stringAsTagSupported, boolean symbolAsFieldSupported) {
+        this(stringAsTagSupported, symbolAsFieldSupported, false);
+    }
+
+    public LineTcpParser(boolean stringAsTagSupported, boolean symbolAsFieldSupported, boolean binaryFormatSupported) {
         this.stringAsTagSupported = stringAsTagSupported;
         this.symbolAsFieldSupported = symbolAsFieldSupported;
+        this.binaryFormatSupported = binaryFormatSupported;
     }
 
     public long getBufferAddress() {
@@ -331,13 +349,32 @@ public class LineTcpParser {
             case ENTITY_HANDLER_VALUE:
                 return expectEntityValue(endOfEntityByte);
             case ENTITY_HANDLER_TIMESTAMP:
-                return expectTimestamp(endOfEntityByte);
+                return expectTimestamp(endOfEntityByte, bufHi);
             case ENTITY_HANDLER_NEW_LINE:
                 return expectEndOfLine(endOfEntityByte);
         }
         return false;
     }
 
+    private boolean expectBinaryTimestamp(long bufHi) {
+        // wire type, value and the end of line have to be in the buffer
+        final long valueLo = bufAt + 2;
+        if (valueLo + Long.BYTES >= bufHi) {
+            errorCode = ErrorCode.INVALID_FIELD_VALUE_STR_UNDERFLOW;
+            return false;
+        }
+        final byte endOfLineByte = Unsafe.getUnsafe().getByte(valueLo + Long.BYTES);
+        if (Unsafe.getUnsafe().getByte(bufAt + 1) != BINARY_TYPE_TIMESTAMP || (endOfLineByte != '\n' && endOfLineByte != '\r')) {
+            errorCode = ErrorCode.INVALID_TIMESTAMP;
+            return false;
+        }
+        timestamp = Unsafe.getUnsafe().getLong(valueLo);
+        // stop at the last byte of the value, end of line is parsed next
+        bufAt = valueLo + Long.BYTES - 1;
+        entityHandler = ENTITY_HANDLER_NEW_LINE;
+        return true;
+    }
+
     private boolean expectEndOfLine(byte endOfEntityByte) {
         assert endOfEntityByte == '\n';
         return true;
@@ -346,10 +383,25 @@ public class LineTcpParser {
     private boolean expectEntityName(byte endOfEntityByte, long bufHi) {
         if (endOfEntityByte == (byte) '=') {
             if (bufAt - entityLo - nEscapedChars == 0) { // no tag/field name
+                if (tagsComplete && binaryFormatSupported && currentEntity != null && currentEntity.getType() == ENTITY_TYPE_TAG) {
+                    // line without fields, binary timestamp follows the tags
+                    return expectBinaryTimestamp(bufHi);
+                }
                 errorCode = tagsComplete ? ErrorCode.INCOMPLETE_FIELD : ErrorCode.INCOMPLETE_TAG;
                 return false;
             }
 
+            boolean binaryValue = false;
+            if (tagsComplete && binaryFormatSupported) {
+                // binary value has to be in the buffer in full, including the separator that follows it,
+                // otherwise the name is parsed again once more data arrives
+                if (bufAt + 1 >= bufHi
+                        || (binaryValue = Unsafe.getUnsafe().getByte(bufAt + 1) == BINARY_FORMAT_FLAG) && bufAt + BINARY_VALUE_SIZE + 1 >= bufHi) {
+                    errorCode = ErrorCode.INVALID_FIELD_VALUE_STR_UNDERFLOW;
+                    return false;
+                }
+            }
+
             if (entityCache.size() <= nEntities) {
                 currentEntity = new ProtoEntity();
                 entityCache.add(currentEntity);
@@ -361,6 +413,9 @@ public class LineTcpParser {
             nEntities++;
             currentEntity.setName();
             entityHandler = ENTITY_HANDLER_VALUE;
+            if (binaryValue) {
+                return currentEntity.setBinaryValue();
+            }
             if (tagsComplete) {
                 if (bufAt + 3 < bufHi) { // peek oncoming value's 1st byte, only caring for valid strings (2 quotes plus a follow-up byte)
                     long candidateQuoteIdx = bufAt + 1;
@@ -398,7 +453,7 @@ public class LineTcpParser {
             if (currentEntity != null && currentEntity.getType() == ENTITY_TYPE_TAG) {
                 // One token after last tag, and no fields
                 // This must be the timestamp
-                return expectTimestamp(endOfEntityByte);
+                return expectTimestamp(endOfEntityByte, bufHi);
             }
         }
 
@@ -413,7 +468,8 @@ public class LineTcpParser {
     private boolean expectEntityValue(byte endOfEntityByte) {
         boolean endOfSet = endOfEntityByte == (byte) ' ';
         if (endOfSet || endOfEntityByte == (byte) ',' || endOfEntityByte == (byte) '\n') {
-            if (currentEntity.setValue()) {
+            // binary value is set as soon as it is read
+            if (currentEntity.getType() != ENTITY_TYPE_NONE || currentEntity.setValue()) {
                 if (endOfSet) {
                     if (tagsComplete) {
                         entityHandler = ENTITY_HANDLER_TIMESTAMP;
@@ -452,8 +508,11 @@ public class LineTcpParser {
         return false;
     }
 
-    private boolean expectTimestamp(byte endOfEntityByte) {
+    private boolean expectTimestamp(byte endOfEntityByte, long bufHi) {
         try {
+            if (endOfEntityByte == BINARY_FORMAT_FLAG && binaryFormatSupported && entityLo == bufAt) {
+                return expectBinaryTimestamp(bufHi);
+            }
             if (endOfEntityByte == (byte) '\n') {
                 if (entityLo < bufAt - nEscapedChars) {
                     timestamp = Numbers.parseLong(charSeq.of(entityLo, bufAt - nEscapedChars));
@@ -556,6 +615,7 @@ public class LineTcpParser {
     public class ProtoEntity {
         private final DirectByteCharSequence name = new DirectByteCharSequence();
         private final DirectByteCharSequence value = new DirectByteCharSequence();
+        private boolean binary;
         private boolean booleanValue;
         private double floatValue;
         private long longValue;
@@ -585,6 +645,10 @@ public class LineTcpParser {
             return value;
         }
 
+        public boolean isBinary() {
+            return binary;
+        }
+
         public void shl(long shl) {
             name.shl(shl);
             value.shl(shl);
@@ -592,6 +656,7 @@ public class LineTcpParser {
 
         private void clear() {
             type = ENTITY_TYPE_NONE;
+            binary = false;
         }
 
         private boolean parse(byte last, int valueLen) {
@@ -676,6 +741,40 @@ public class LineTcpParser {
             return true;
         }
 
+        private boolean setBinaryValue() {
+            // bufAt points to the name separator, binary format flag and wire type follow it
+            final long valueLo = bufAt + 3;
+            final long valueHi = valueLo + Long.BYTES;
+            final byte separator = Unsafe.getUnsafe().getByte(valueHi);
+            if (separator != ',' && separator != ' ' && separator != '\n' && separator != '\r') {
+                errorCode = ErrorCode.INVALID_FIELD_SEPARATOR;
+                return false;
+            }
+            switch (Unsafe.getUnsafe().getByte(bufAt + 2)) {
+                case BINARY_TYPE_DOUBLE:
+                    floatValue = Unsafe.getUnsafe().getDouble(valueLo);
+                    type = ENTITY_TYPE_FLOAT;
+                    break;
+                case BINARY_TYPE_LONG:
+                    longValue = Unsafe.getUnsafe().getLong(valueLo);
+                    type = ENTITY_TYPE_INTEGER;
+                    break;
+                case BINARY_TYPE_TIMESTAMP:
+                    longValue = Unsafe.getUnsafe().getLong(valueLo);
+                    type = ENTITY_TYPE_TIMESTAMP;
+                    break;
+                default:
+                    errorCode = ErrorCode.INVALID_FIELD_VALUE;
+                    return false;
+            }
+            // there is no text representation of binary value
+            value.of(valueHi, valueHi);
+            binary = true;
+            // stop at the last byte of the value, the separator is parsed next
+            bufAt = valueHi - 1;
+            return true;
+        }
+
         private void setName() {
             name.of(entityLo, bufAt - nEscapedChars);
         }
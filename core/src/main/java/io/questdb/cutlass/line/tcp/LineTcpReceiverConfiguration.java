@@ -40,6 +40,19 @@ public interface LineTcpReceiverConfiguration {
 
     boolean getAutoCreateNewTables();
 
+    /**
+     * Share of a writer thread queue that measurements of a single table may occupy. Connections
+     * sending measurements for a table that holds more than its share stop being read until
+     * the writer thread catches up. Values of 1 or more leave only the full queue to stop reads.
+     */
+    double getBackpressureQueueRatio();
+
+    /**
+     * Number of committed WAL transactions a table may have waiting to be applied before
+     * connections sending measurements for the table stop being read. Zero disables the check.
+     */
+    long getBackpressureWalLag();
+
     CairoSecurityContext getCairoSecurityContext();
 
     long getCommitIntervalDefault();
@@ -80,6 +93,17 @@ public interface LineTcpReceiverConfiguration {
 
     NetworkFacade getNetworkFacade();
 
+    /**
+     * Maximum number of symbol values each network IO thread caches on heap per symbol column.
+     */
+    int getSymbolCacheLocalCapacity();
+
+    /**
+     * Number of entries, power of 2, of the off-heap symbol cache shared by network IO threads
+     * per symbol column. Zero disables the shared cache.
+     */
+    int getSymbolCacheSharedCapacity();
+
     long getSymbolCacheWaitUsBeforeReload();
 
     LineProtoTimestampAdapter getTimestampAdapter();
@@ -88,8 +112,21 @@ public interface LineTcpReceiverConfiguration {
 
     int getWriterQueueCapacity();
 
+    /**
+     * Table that becomes active again stays on its previous writer thread unless that thread's load
+     * exceeds the load of the least busy writer thread by this ratio. Load is the time writer threads
+     * spent writing and committing rows of their active tables.
+     */
+    double getWriterRebalanceLoadRatio();
+
     WorkerPoolConfiguration getWriterWorkerPoolConfiguration();
 
+    /**
+     * Binary format lets clients send numeric field values and timestamps as raw little-endian
+     * bytes instead of text. Text lines are accepted regardless of the setting.
+     */
+    boolean isBinaryFormatSupported();
+
     boolean isEnabled();
 
     boolean isStringAsTagSupported();
@@ -31,6 +31,7 @@ import io.questdb.mp.Job;
 import io.questdb.mp.RingQueue;
 import io.questdb.mp.Sequence;
 import io.questdb.std.Misc;
+import io.questdb.std.NanosecondClock;
 import io.questdb.std.ObjList;
 import io.questdb.std.Os;
 import io.questdb.std.datetime.millitime.MillisecondClock;
@@ -44,6 +45,7 @@ class LineTcpWriterJob implements Job, Closeable {
     private final long commitIntervalDefault;
     private final Metrics metrics;
     private final MillisecondClock millisecondClock;
+    private final NanosecondClock nanosecondClock;
     private final Path path = new Path();
     private final RingQueue<LineTcpMeasurementEvent> queue;
     private final LineTcpMeasurementScheduler scheduler;
@@ -56,6 +58,7 @@ class LineTcpWriterJob implements Job, Closeable {
             RingQueue<LineTcpMeasurementEvent> queue,
             Sequence sequence,
             MillisecondClock millisecondClock,
+            NanosecondClock nanosecondClock,
             long commitIntervalDefault,
             LineTcpMeasurementScheduler scheduler,
             Metrics metrics
@@ -64,6 +67,7 @@ class LineTcpWriterJob implements Job, Closeable {
         this.queue = queue;
         this.sequence = sequence;
         this.millisecondClock = millisecondClock;
+        this.nanosecondClock = nanosecondClock;
         this.commitIntervalDefault = commitIntervalDefault;
         this.nextCommitTime = millisecondClock.getTicks();
         this.scheduler = scheduler;
@@ -109,8 +113,11 @@ class LineTcpWriterJob implements Job, Closeable {
                 // the heap based solution mentioned above will eliminate the minimum search
                 // we could just process the min element of the heap until we hit the first commit
                 // time greater than millis and that will be our nextCommitTime
+                final TableUpdateDetails tab = assignedTables.getQuick(n);
                 try {
-                    long tableNextCommitTime = assignedTables.getQuick(n).commitIfIntervalElapsed(wallClockMillis);
+                    final long start = nanosecondClock.getTicks();
+                    long tableNextCommitTime = tab.commitIfIntervalElapsed(wallClockMillis);
+                    tab.addWriteNanos(nanosecondClock.getTicks() - start);
                     // get current time again, commit is not instant and take quite some time.
                     wallClockMillis = millisecondClock.getTicks();
                     if (tableNextCommitTime < minTableNextCommitTime) {
@@ -119,7 +126,7 @@ class LineTcpWriterJob implements Job, Closeable {
                     }
                 } catch (Throwable ex) {
                     LOG.critical()
-                            .$("commit failed [table=").$(assignedTables.getQuick(n).getTableNameUtf16())
+                            .$("commit failed [table=").$(tab.getTableNameUtf16())
                             .$(",ex=").$(ex)
                             .I$();
                     metrics.health().incrementUnhandledErrors();
@@ -150,6 +157,8 @@ class LineTcpWriterJob implements Job, Closeable {
                 final TableUpdateDetails tab = event.getTableUpdateDetails();
                 boolean closeWriter = false;
                 if (event.getWriterWorkerId() == workerId) {
+                    tab.onEventProcessed();
+                    metrics.lineTcp().queuedEventsGauge().dec();
                     try {
                         if (tab.isWriterInError()) {
                             closeWriter = true;
@@ -163,7 +172,9 @@ class LineTcpWriterJob implements Job, Closeable {
                                         .$(", threadId=").$(workerId)
                                         .I$();
                             }
+                            final long start = nanosecondClock.getTicks();
                             event.append();
+                            tab.addWriteNanos(nanosecondClock.getTicks() - start);
                         }
                     } catch (Throwable ex) {
                         tab.setWriterInError();
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * Bounded off-heap cache of symbol value to symbol key mappings of a single symbol column.
+ * The cache is shared by all network IO threads writing to the table, so that a symbol
+ * value resolved by one thread or connection is a hit for all others.
+ * <p>
+ * The cache is 2-way set associative, set is chosen by hash of the value and victim within
+ * the set is picked with second-chance (clock) policy. Entries are read and written without
+ * locks, each entry is a single long made of value hash and symbol key. Concurrent writers may
+ * overwrite each other's entries, which is harmless because entries do not hold values. The
+ * caller verifies the value of a cached key against its own symbol table before using the key.
+ */
+class SharedSymbolCache implements Closeable {
+    private static final long KEY_MASK = 0x7fffffffL;
+    private static final long REFERENCED_BIT = 0x80000000L;
+    private final int setMask;
+    private final long size;
+    private long address;
+
+    SharedSymbolCache(int capacity) {
+        assert Numbers.isPow2(capacity) && capacity > 1;
+        this.size = (long) capacity * Long.BYTES;
+        this.address = Unsafe.calloc(size, MemoryTag.NATIVE_ILP_RSS);
+        this.setMask = (capacity >> 1) - 1;
+    }
+
+    static int hashOf(CharSequence value) {
+        return Hash.spread(Chars.hashCode(value));
+    }
+
+    @Override
+    public void close() {
+        if (address != 0) {
+            address = Unsafe.free(address, size, MemoryTag.NATIVE_ILP_RSS);
+        }
+    }
+
+    int keyOf(CharSequence value, int hash, StaticSymbolTable symbolTable) {
+        final long setAddress = setAddress(hash);
+        for (int i = 0; i < 2; i++) {
+            final long entryAddress = setAddress + (long) i * Long.BYTES;
+            final long entry = Unsafe.getUnsafe().getLong(entryAddress);
+            if (entry != 0 && (int) (entry >>> 32) == hash) {
+                final int key = (int) (entry & KEY_MASK) - 1;
+                // value of the key can be unknown to the symbol table yet, or the key can be
+                // stale, e.g. after the table was truncated
+                if (Chars.equalsNc(value, symbolTable.valueOf(key))) {
+                    if ((entry & REFERENCED_BIT) == 0) {
+                        Unsafe.getUnsafe().putLong(entryAddress, entry | REFERENCED_BIT);
+                    }
+                    return key;
+                }
+            }
+        }
+        return SymbolTable.VALUE_NOT_FOUND;
+    }
+
+    void put(int hash, int key) {
+        final long setAddress = setAddress(hash);
+        final long newEntry = ((long) hash << 32) | (key + 1);
+        final long entry0 = Unsafe.getUnsafe().getLong(setAddress);
+        final long entry1 = Unsafe.getUnsafe().getLong(setAddress + Long.BYTES);
+        final long victimAddress;
+        if (entry0 == 0 || (entry0 & ~REFERENCED_BIT) == newEntry) {
+            victimAddress = setAddress;
+        } else if (entry1 == 0 || (entry1 & ~REFERENCED_BIT) == newEntry) {
+            victimAddress = setAddress + Long.BYTES;
+        } else if ((entry0 & REFERENCED_BIT) == 0) {
+            victimAddress = setAddress;
+        } else if ((entry1 & REFERENCED_BIT) == 0) {
+            // first entry was used recently, it gets its second chance
+            Unsafe.getUnsafe().putLong(setAddress, entry0 & ~REFERENCED_BIT);
+            victimAddress = setAddress + Long.BYTES;
+        } else {
+            // both entries were used recently, clear the second one and replace the first one
+            Unsafe.getUnsafe().putLong(setAddress + Long.BYTES, entry1 & ~REFERENCED_BIT);
+            victimAddress = setAddress;
+        }
+        Unsafe.getUnsafe().putLong(victimAddress, newEntry);
+    }
+
+    private long setAddress(int hash) {
+        return address + (long) (hash & setMask) * 2 * Long.BYTES;
+    }
+}
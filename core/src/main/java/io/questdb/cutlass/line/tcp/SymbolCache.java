@@ -28,6 +28,7 @@ import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.SymbolMapReaderImpl;
 import io.questdb.cairo.TableWriterAPI;
 import io.questdb.cairo.TxReader;
+import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.cairo.sql.SymbolLookup;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.std.Chars;
@@ -40,7 +41,10 @@ import java.io.Closeable;
 
 class SymbolCache implements Closeable, SymbolLookup {
     private final MicrosecondClock clock;
+    private final int localCapacity;
     private final SymbolMapReaderImpl symbolMapReader = new SymbolMapReaderImpl();
+    // uncached view of the symbol map, used to verify keys found in the shared cache
+    private final StaticSymbolTable symbolTableView = symbolMapReader.newSymbolTableView();
     private final ObjIntHashMap<CharSequence> symbolValueToKeyMap = new ObjIntHashMap<>(
             256,
             0.5,
@@ -49,6 +53,7 @@ class SymbolCache implements Closeable, SymbolLookup {
     private final long waitUsBeforeReload;
     private int columnIndex;
     private long lastSymbolReaderReloadTimestamp;
+    private SharedSymbolCache sharedCache;
     private int symbolIndexInTxFile;
     private TxReader txReader;
     private TableWriterAPI writerAPI;
@@ -56,12 +61,14 @@ class SymbolCache implements Closeable, SymbolLookup {
     SymbolCache(LineTcpReceiverConfiguration configuration) {
         this.clock = configuration.getMicrosecondClock();
         this.waitUsBeforeReload = configuration.getSymbolCacheWaitUsBeforeReload();
+        this.localCapacity = configuration.getSymbolCacheLocalCapacity();
     }
 
     @Override
     public void close() {
         txReader = null;
         writerAPI = null;
+        sharedCache = null;
         symbolMapReader.close();
         symbolValueToKeyMap.reset();
     }
@@ -73,6 +80,16 @@ class SymbolCache implements Closeable, SymbolLookup {
             return symbolValueToKeyMap.valueAt(index);
         }
 
+        int hash = 0;
+        if (sharedCache != null) {
+            hash = SharedSymbolCache.hashOf(value);
+            final int symbolKey = sharedCache.keyOf(value, hash, symbolTableView);
+            if (symbolKey != SymbolTable.VALUE_NOT_FOUND) {
+                putLocal(index, value, symbolKey);
+                return symbolKey;
+            }
+        }
+
         final long ticks = clock.getTicks();
         int symbolValueCount;
 
@@ -87,12 +104,26 @@ class SymbolCache implements Closeable, SymbolLookup {
         final int symbolKey = symbolMapReader.keyOf(value);
 
         if (SymbolTable.VALUE_NOT_FOUND != symbolKey) {
-            symbolValueToKeyMap.putAt(index, Chars.toString(value), symbolKey);
+            if (sharedCache != null) {
+                sharedCache.put(hash, symbolKey);
+            }
+            putLocal(index, value, symbolKey);
         }
 
         return symbolKey;
     }
 
+    private void putLocal(int index, CharSequence value, int symbolKey) {
+        if (symbolValueToKeyMap.size() < localCapacity) {
+            symbolValueToKeyMap.putAt(index, Chars.toString(value), symbolKey);
+        } else {
+            // local cache is bounded, start it over, evicted values
+            // are still available in the shared cache
+            symbolValueToKeyMap.clear();
+            symbolValueToKeyMap.put(Chars.toString(value), symbolKey);
+        }
+    }
+
     private int readSymbolCount(int symbolIndexInTxFile, boolean initialStateOk) {
         int watermark = writerAPI.getSymbolCountWatermark(columnIndex);
         if (watermark != -1) {
@@ -134,8 +165,23 @@ class SymbolCache implements Closeable, SymbolLookup {
             int symbolIndexInTxFile,
             TxReader txReader,
             long columnNameTxn
+    ) {
+        of(configuration, writerAPI, columnIndex, path, columnName, symbolIndexInTxFile, txReader, columnNameTxn, null);
+    }
+
+    void of(
+            CairoConfiguration configuration,
+            TableWriterAPI writerAPI,
+            int columnIndex,
+            Path path,
+            CharSequence columnName,
+            int symbolIndexInTxFile,
+            TxReader txReader,
+            long columnNameTxn,
+            SharedSymbolCache sharedCache
     ) {
         this.writerAPI = writerAPI;
+        this.sharedCache = sharedCache;
         this.columnIndex = columnIndex;
         this.symbolIndexInTxFile = symbolIndexInTxFile;
         final int plen = path.length();
@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.SymbolLookup;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.sql.TableRecordMetadata;
 import io.questdb.cairo.wal.MetadataChangeSPI;
+import io.questdb.cairo.wal.WalWriter;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
@@ -39,6 +40,7 @@ import io.questdb.std.str.Path;
 import io.questdb.std.str.StringSink;
 
 import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.questdb.cairo.TableUtils.TXN_FILE_NAME;
 import static io.questdb.cutlass.line.tcp.LineTcpUtils.utf8BytesToString;
@@ -53,16 +55,28 @@ public class TableUpdateDetails implements Closeable {
     private final CairoEngine engine;
     private final ThreadLocalDetails[] localDetailsArray;
     private final MillisecondClock millisecondClock;
+    // measurements published to the writer thread queue and not yet processed by the writer thread
+    private final AtomicInteger pendingEventCount = new AtomicInteger();
+    // symbol caches shared by network IO threads, indexed by column writer index
+    private final ObjList<SharedSymbolCache> sharedSymbolCaches = new ObjList<>();
+    private final int sharedSymbolCacheCapacity;
     private final String tableNameUtf16;
     private final int timestampIndex;
+    private final long walLagCheckInterval;
     private final long writerTickRowsCountMod;
     private boolean assignedToJob = false;
-    // Number of rows processed since the last reshuffle, this is an estimate because it is incremented by
-    // multiple threads without synchronisation
-    private long eventsProcessedSinceReshuffle = 0;
     private long lastMeasurementMillis = Long.MAX_VALUE;
     private int networkIOOwnerCount = 0;
     private long nextCommitTime;
+    private long nextWalLagCheckMillis;
+    // WAL transactions committed by the writer thread and not yet applied to the table, refreshed
+    // by the writer thread and read by network IO threads to decide whether to stop reading
+    private volatile long walLag;
+    // reads applied transaction of WAL table, null when the table is not WAL or lag is not checked
+    private TxReader walTxReader;
+    // Time the writer thread spent writing and committing rows of this table, this is an estimate because
+    // it is read by network IO threads without synchronisation
+    private long writeNanos;
     private TableWriterAPI writerAPI;
     private volatile boolean writerInError;
     // todo: rename
@@ -86,10 +100,19 @@ public class TableUpdateDetails implements Closeable {
         this.writerTickRowsCountMod = cairoConfiguration.getWriterTickRowsCountMod();
         this.defaultCommitInterval = configuration.getCommitIntervalDefault();
         this.defaultMaxUncommittedRows = cairoConfiguration.getMaxUncommittedRows();
+        this.sharedSymbolCacheCapacity = configuration.getSymbolCacheSharedCapacity();
         this.writerAPI = writer;
         TableRecordMetadata tableMetadata = writer.getMetadata();
         this.timestampIndex = tableMetadata.getTimestampIndex();
         this.tableNameUtf16 = Chars.toString(writer.getTableName());
+        this.walLagCheckInterval = configuration.getMaintenanceInterval();
+        if (writer instanceof WalWriter && configuration.getBackpressureWalLag() > 0) {
+            try (Path path = new Path()) {
+                path.of(cairoConfiguration.getRoot()).concat(tableNameUtf16).concat(TXN_FILE_NAME).$();
+                // only sequencer transaction is read, partition details do not matter
+                this.walTxReader = new TxReader(cairoConfiguration.getFilesFacade()).ofRO(path, PartitionBy.NONE);
+            }
+        }
         if (writer instanceof MetadataChangeSPI) {
             writerSPI = (MetadataChangeSPI) writer;
             writerSPI.updateCommitInterval(configuration.getCommitIntervalFraction(), configuration.getCommitIntervalDefault());
@@ -129,6 +152,9 @@ public class TableUpdateDetails implements Closeable {
             LOG.info().$("closing table parsers [tableName=").$(tableNameUtf16).$(']').$();
             localDetailsArray[n] = Misc.free(localDetailsArray[n]);
         }
+        synchronized (sharedSymbolCaches) {
+            Misc.freeObjListAndClear(sharedSymbolCaches);
+        }
     }
 
     public void closeNoLock() {
@@ -148,14 +174,11 @@ public class TableUpdateDetails implements Closeable {
                     writerSPI = null;
                 }
             }
+            walTxReader = Misc.free(walTxReader);
             writerThreadId = Integer.MIN_VALUE;
         }
     }
 
-    public long getEventsProcessedSinceReshuffle() {
-        return eventsProcessedSinceReshuffle;
-    }
-
     public long getLastMeasurementMillis() {
         return lastMeasurementMillis;
     }
@@ -168,12 +191,12 @@ public class TableUpdateDetails implements Closeable {
         return tableNameUtf16;
     }
 
-    public int getWriterThreadId() {
-        return writerThreadId;
+    public long getWriteNanos() {
+        return writeNanos;
     }
 
-    public void incrementEventsProcessedSinceReshuffle() {
-        ++eventsProcessedSinceReshuffle;
+    public int getWriterThreadId() {
+        return writerThreadId;
     }
 
     public boolean isAssignedToJob() {
@@ -206,6 +229,13 @@ public class TableUpdateDetails implements Closeable {
         if (writerSPI != null) {
             writerSPI.tick();
         }
+        if (walTxReader != null) {
+            final long millis = millisecondClock.getTicks();
+            if (millis >= nextWalLagCheckMillis) {
+                nextWalLagCheckMillis = millis + walLagCheckInterval;
+                refreshWalLag();
+            }
+        }
     }
 
     private void commit(boolean withLag) throws CommitFailedException {
@@ -244,6 +274,31 @@ public class TableUpdateDetails implements Closeable {
         return defaultMaxUncommittedRows;
     }
 
+    private void refreshWalLag() {
+        final CairoConfiguration configuration = engine.getConfiguration();
+        try {
+            // suspended table is not applied until it is resumed, holding connections back would not help
+            if (engine.getTableSequencerAPI().isSuspended(tableNameUtf16)) {
+                walLag = 0;
+                return;
+            }
+            final long lastTxn = engine.getTableSequencerAPI().lastTxn(tableNameUtf16);
+            TableUtils.safeReadTxn(walTxReader, configuration.getMillisecondClock(), configuration.getSpinLockTimeout());
+            final long lag = Math.max(0, lastTxn - walTxReader.getSeqTxn());
+            if (lag != walLag) {
+                LOG.debug().$("WAL lag [table=").$(tableNameUtf16).$(", lag=").$(lag).I$();
+            }
+            walLag = lag;
+        } catch (Throwable th) {
+            LOG.error().$("could not check WAL lag [table=").$(tableNameUtf16).$(", e=").$(th).I$();
+            walLag = 0;
+        }
+    }
+
+    void addWriteNanos(long nanos) {
+        writeNanos += nanos;
+    }
+
     long commitIfIntervalElapsed(long wallClockMillis) throws CommitFailedException {
         if (wallClockMillis < nextCommitTime) {
             return nextCommitTime;
@@ -287,6 +342,25 @@ public class TableUpdateDetails implements Closeable {
         tick();
     }
 
+    SharedSymbolCache getSharedSymbolCache(int colWriterIndex) {
+        if (sharedSymbolCacheCapacity == 0) {
+            return null;
+        }
+        // network IO threads resolve new symbol columns concurrently
+        synchronized (sharedSymbolCaches) {
+            SharedSymbolCache cache = sharedSymbolCaches.getQuiet(colWriterIndex);
+            if (cache == null) {
+                cache = new SharedSymbolCache(sharedSymbolCacheCapacity);
+                sharedSymbolCaches.extendAndSet(colWriterIndex, cache);
+            }
+            return cache;
+        }
+    }
+
+    int getPendingEventCount() {
+        return pendingEventCount.get();
+    }
+
     ThreadLocalDetails getThreadLocalDetails(int workerId) {
         lastMeasurementMillis = millisecondClock.getTicks();
         return localDetailsArray[workerId];
@@ -296,10 +370,22 @@ public class TableUpdateDetails implements Closeable {
         return timestampIndex;
     }
 
+    long getWalLag() {
+        return walLag;
+    }
+
     TableWriterAPI getWriter() {
         return writerAPI;
     }
 
+    void onEventProcessed() {
+        pendingEventCount.decrementAndGet();
+    }
+
+    void onEventPublished() {
+        pendingEventCount.incrementAndGet();
+    }
+
     void releaseWriter(boolean commit) {
         if (writerAPI != null) {
             try {
@@ -411,7 +497,8 @@ public class TableUpdateDetails implements Closeable {
                         symbolNameTemp,
                         symIndex,
                         txReader,
-                        columnNameTxn
+                        columnNameTxn,
+                        getSharedSymbolCache(colWriterIndex)
                 );
                 symbolCacheByColumnIndex.extendAndSet(colWriterIndex, symCache);
                 return symCache;
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.text;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Holds the state of a parallel CSV export. Page frames are rendered into chunk files
+ * next to the export file, one chunk per frame, by whichever worker slot reduces the frame.
+ */
+class CsvExportAtom implements StatefulAtom, Closeable {
+    private final CsvRecordWriter ownerWriter;
+    private final AtomicIntegerArray perWorkerLocks;
+    private final ObjList<CsvRecordWriter> perWorkerWriters;
+    // Used to randomize acquire attempts for work stealing threads. Accessed in a racy way, intentionally.
+    private final Rnd rnd = new Rnd();
+    private char delimiter;
+    private RecordMetadata metadata;
+    private String outputFile;
+
+    public CsvExportAtom(CairoConfiguration configuration, int workerCount) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        final int bufferSize = configuration.getSqlCopyBufferSize();
+        final int floatScale = configuration.getFloatToStrCastScale();
+        final int doubleScale = configuration.getDoubleToStrCastScale();
+        this.ownerWriter = new CsvRecordWriter(ff, bufferSize, floatScale, doubleScale);
+        this.perWorkerLocks = new AtomicIntegerArray(workerCount);
+        this.perWorkerWriters = new ObjList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            perWorkerWriters.add(new CsvRecordWriter(ff, bufferSize, floatScale, doubleScale));
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use the owner writer anytime.
+            return -1;
+        }
+        final int size = perWorkerWriters.size();
+        workerId = workerId == -1 ? rnd.nextInt(size) : workerId;
+        while (true) {
+            for (int i = 0; i < size; i++) {
+                int id = (i + workerId) % size;
+                if (perWorkerLocks.compareAndSet(id, 0, 1)) {
+                    return id;
+                }
+            }
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            Os.pause();
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerWriter);
+        Misc.freeObjList(perWorkerWriters);
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public RecordMetadata getMetadata() {
+        return metadata;
+    }
+
+    public String getOutputFile() {
+        return outputFile;
+    }
+
+    public CsvRecordWriter getWriter(int slotId) {
+        if (slotId == -1) {
+            return ownerWriter;
+        }
+        return perWorkerWriters.getQuick(slotId);
+    }
+
+    public void of(RecordMetadata metadata, String outputFile, char delimiter) {
+        this.metadata = metadata;
+        this.outputFile = outputFile;
+        this.delimiter = delimiter;
+    }
+
+    public void release(int slotId) {
+        if (slotId == -1) {
+            return;
+        }
+        perWorkerLocks.set(slotId, 0);
+    }
+}
@@ -0,0 +1,371 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.text;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.ExecutionCircuitBreaker;
+import io.questdb.cairo.sql.PageAddressCacheRecord;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.CompiledQuery;
+import io.questdb.griffin.FunctionFactoryCache;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import io.questdb.std.datetime.millitime.MillisecondClock;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * Exports result of a query into a CSV file under 'cairo.sql.copy.root'. When the query
+ * is a plain table scan, its page frames are rendered into chunk files in parallel on the
+ * shared worker pool; the chunks are then appended to the export file in frame order with
+ * {@link FilesFacade#copyData(long, long, long, long)}, which avoids copying the data through
+ * user space. Other queries are exported serially by iterating their record cursor.
+ */
+public final class CsvFileExporter implements Closeable {
+    private static final Log LOG = LogFactory.getLog(CsvFileExporter.class);
+    private static final PageFrameReducer REDUCER = CsvFileExporter::exportFrame;
+    // row count between cancellation and progress checks of serial export
+    private static final int SERIAL_CHECK_MASK = 0xffff;
+    private static final long STATUS_REPORT_INTERVAL_MS = 1000;
+    private final CsvExportAtom atom;
+    private final MillisecondClock clock;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final CairoConfiguration configuration;
+    private final FilesFacade ff;
+    private final PageFrameSequence<CsvExportAtom> frameSequence;
+    private final CharSequence outputRoot;
+    private final WeakClosableObjectPool<PageFrameReduceTask> reduceTaskPool;
+    private Path chunkPath;
+    private ExecutionCircuitBreaker circuitBreaker;
+    private char delimiter;
+    private long exportId;
+    private boolean headerFlag;
+    private long lastReportMs;
+    private String outputFile;
+    private Path outputPath;
+    private String query;
+    private SqlCompiler sqlCompiler;
+    private SqlExecutionContextImpl sqlExecutionContext;
+    private StatusReporter statusReporter;
+
+    public CsvFileExporter(CairoEngine engine, int workerCount, @Nullable FunctionFactoryCache functionFactoryCache) {
+        this.configuration = engine.getConfiguration();
+        this.ff = configuration.getFilesFacade();
+        this.clock = configuration.getMillisecondClock();
+        this.outputRoot = configuration.getSqlCopyInputRoot();
+        this.chunkPath = new Path();
+        this.outputPath = new Path();
+        this.atom = new CsvExportAtom(configuration, workerCount);
+        this.reduceTaskPool = new WeakClosableObjectPool<>(
+                () -> new PageFrameReduceTask(configuration),
+                configuration.getPageFrameReduceTaskPoolCapacity()
+        );
+        this.frameSequence = new PageFrameSequence<>(configuration, engine.getMessageBus(), REDUCER, reduceTaskPool);
+        this.sqlCompiler = new SqlCompiler(engine, functionFactoryCache, null);
+        this.sqlExecutionContext = new SqlExecutionContextImpl(engine, workerCount);
+        this.sqlExecutionContext.with(AllowAllCairoSecurityContext.INSTANCE, null, null);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(frameSequence);
+        Misc.free(atom);
+        Misc.free(reduceTaskPool);
+        chunkPath = Misc.free(chunkPath);
+        outputPath = Misc.free(outputPath);
+        sqlCompiler = Misc.free(sqlCompiler);
+        sqlExecutionContext = Misc.free(sqlExecutionContext);
+    }
+
+    public void of(
+            String query,
+            String outputFileName,
+            long exportId,
+            byte delimiter,
+            boolean headerFlag,
+            ExecutionCircuitBreaker circuitBreaker
+    ) {
+        this.query = query;
+        this.exportId = exportId;
+        this.delimiter = (char) delimiter;
+        this.headerFlag = headerFlag;
+        this.circuitBreaker = circuitBreaker;
+        outputPath.of(outputRoot).concat(outputFileName).$();
+        this.outputFile = outputPath.toString();
+    }
+
+    public void process() throws TextImportException {
+        LOG.info()
+                .$("started [exportId=").$hexPadded(exportId)
+                .$(", file=`").$(outputPath).$('`')
+                .$(", query=`").$(query).$('`')
+                .I$();
+
+        final long startMs = clock.getTicks();
+        lastReportMs = startMs;
+        updateStatus(TextImportTask.STATUS_STARTED, 0, 0);
+
+        if (ff.exists(outputPath)) {
+            throw TextImportException.instance(TextImportTask.NO_PHASE, "export file already exists [file=").put(outputFile).put(']');
+        }
+
+        long fd = -1;
+        boolean success = false;
+        final CsvRecordWriter writer = atom.getWriter(-1);
+        try (RecordCursorFactory factory = compileQuery()) {
+            fd = TableUtils.openRW(ff, outputPath, LOG, configuration.getWriterFileOpenOpts());
+            writer.of(fd, delimiter);
+            if (headerFlag) {
+                writer.putHeader(factory.getMetadata());
+            }
+
+            final long rowCount;
+            if (factory.supportPageFrameCursor() && !factory.hasDescendingOrder()) {
+                // header has to reach the file before the first chunk is appended
+                writer.flush();
+                rowCount = exportParallel(factory, fd);
+            } else {
+                rowCount = exportSerial(factory, writer);
+                writer.flush();
+            }
+
+            final long byteCount = ff.length(fd);
+            updateStatus(TextImportTask.STATUS_FINISHED, rowCount, byteCount);
+            success = true;
+
+            LOG.info()
+                    .$("export complete [exportId=").$hexPadded(exportId)
+                    .$(", file=`").$(outputPath).$('`')
+                    .$(", rows=").$(rowCount)
+                    .$(", bytes=").$(byteCount)
+                    .$(", time=").$((clock.getTicks() - startMs) / 1000).$('s')
+                    .I$();
+        } catch (SqlException e) {
+            throw TextImportException.instance(TextImportTask.NO_PHASE, e.getFlyweightMessage());
+        } catch (CairoException e) {
+            throw TextImportException.instance(TextImportTask.NO_PHASE, e.getFlyweightMessage(), e.getErrno());
+        } finally {
+            if (fd != -1) {
+                ff.close(fd);
+            }
+            if (!success) {
+                // partial export is of no use to anyone
+                ff.remove(outputPath);
+            }
+        }
+    }
+
+    public void setStatusReporter(StatusReporter reporter) {
+        this.statusReporter = reporter;
+    }
+
+    private static void exportFrame(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final PageFrameSequence<CsvExportAtom> frameSequence = task.getFrameSequence(CsvExportAtom.class);
+        final CsvExportAtom atom = frameSequence.getAtom();
+        final RecordMetadata metadata = atom.getMetadata();
+        final long frameRowCount = task.getFrameRowCount();
+        final FilesFacade ff = frameSequence.getSqlExecutionContext().getCairoEngine().getConfiguration().getFilesFacade();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == frameSequence;
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final Path path = chunkPath(Path.getThreadLocal(atom.getOutputFile()), task.getFrameIndex());
+        long fd = -1;
+        try {
+            fd = TableUtils.openRW(ff, path, LOG, CairoConfiguration.O_NONE);
+            // chunk may be left over by an export that did not finish
+            ff.truncate(fd, 0);
+            final CsvRecordWriter writer = atom.getWriter(slotId);
+            writer.of(fd, atom.getDelimiter());
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                writer.putRecord(record, metadata);
+            }
+            writer.flush();
+        } catch (Throwable th) {
+            LOG.error()
+                    .$("could not export frame [file=").$(path)
+                    .$(", frameIndex=").$(task.getFrameIndex())
+                    .$(", error=`").$(th).$('`')
+                    .I$();
+            // export owner finds out about the failure from inactive frame sequence
+            frameSequence.cancel();
+        } finally {
+            if (fd != -1) {
+                ff.close(fd);
+            }
+            atom.release(slotId);
+        }
+    }
+
+    private static Path chunkPath(Path outputPath, int frameIndex) {
+        return outputPath.put('.').put(frameIndex).put(".part").$();
+    }
+
+    private void appendChunk(int frameIndex, long fd) {
+        chunkPath(chunkPath.of(outputFile), frameIndex);
+        final long chunkFd = TableUtils.openRO(ff, chunkPath, LOG);
+        try {
+            final long len = ff.length(chunkFd);
+            if (len > 0 && ff.copyData(chunkFd, fd, 0, len) != len) {
+                throw CairoException.critical(ff.errno()).put("could not append export chunk [file=").put(chunkPath).put(']');
+            }
+        } finally {
+            ff.close(chunkFd);
+        }
+        ff.remove(chunkPath);
+    }
+
+    private void checkCancelled() {
+        if (circuitBreaker.checkIfTripped()) {
+            TextImportException ex = TextImportException.instance(TextImportTask.NO_PHASE, "export was cancelled");
+            ex.setCancelled(true);
+            throw ex;
+        }
+    }
+
+    private RecordCursorFactory compileQuery() throws SqlException {
+        final CompiledQuery cq = sqlCompiler.compile(query, sqlExecutionContext);
+        if (cq.getType() != CompiledQuery.SELECT || cq.getRecordCursorFactory() == null) {
+            throw SqlException.$(0, "export query must return rows");
+        }
+        return cq.getRecordCursorFactory();
+    }
+
+    private long exportParallel(RecordCursorFactory factory, long fd) throws SqlException {
+        atom.of(factory.getMetadata(), outputFile, delimiter);
+        final PageFrameSequence<CsvExportAtom> frameSequence = this.frameSequence.of(factory, sqlExecutionContext, collectSubSeq, atom, ORDER_ASC);
+        final int frameCount = frameSequence.getFrameCount();
+        long rowCount = 0;
+        long cursor = -1;
+        int appendedFrameCount = 0;
+        try {
+            while (appendedFrameCount < frameCount) {
+                cursor = frameSequence.next();
+                if (cursor > -1) {
+                    final PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    final int frameIndex = task.getFrameIndex();
+                    final long frameRowCount = task.getFrameRowCount();
+                    final boolean active = frameSequence.isActive();
+                    frameSequence.collect(cursor, false);
+                    cursor = -1;
+
+                    if (!active) {
+                        throw CairoException.critical(0).put("could not export page frame [frameIndex=").put(frameIndex).put(']');
+                    }
+                    // frames are collected in the order they were dispatched
+                    assert frameIndex == appendedFrameCount;
+                    appendChunk(frameIndex, fd);
+                    appendedFrameCount++;
+                    rowCount += frameRowCount;
+
+                    checkCancelled();
+                    reportProgress(rowCount, ff.length(fd));
+                } else {
+                    Os.pause();
+                }
+            }
+        } catch (Throwable e) {
+            frameSequence.cancel();
+            throw e;
+        } finally {
+            if (cursor > -1) {
+                frameSequence.collect(cursor, true);
+            }
+            if (frameCount > 0) {
+                frameSequence.await();
+            }
+            frameSequence.clear();
+            if (appendedFrameCount < frameCount) {
+                for (int i = appendedFrameCount; i < frameCount; i++) {
+                    ff.remove(chunkPath(chunkPath.of(outputFile), i));
+                }
+            }
+        }
+        return rowCount;
+    }
+
+    private long exportSerial(RecordCursorFactory factory, CsvRecordWriter writer) throws SqlException {
+        final RecordMetadata metadata = factory.getMetadata();
+        long rowCount = 0;
+        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+            final Record record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                writer.putRecord(record, metadata);
+                if ((++rowCount & SERIAL_CHECK_MASK) == 0) {
+                    checkCancelled();
+                    reportProgress(rowCount, writer.getBytesWritten());
+                }
+            }
+        }
+        return rowCount;
+    }
+
+    private void reportProgress(long rowCount, long byteCount) {
+        final long now = clock.getTicks();
+        if (now - lastReportMs >= STATUS_REPORT_INTERVAL_MS) {
+            lastReportMs = now;
+            updateStatus(TextImportTask.STATUS_STARTED, rowCount, byteCount);
+        }
+    }
+
+    private void updateStatus(byte status, long rowCount, long byteCount) {
+        if (statusReporter != null) {
+            statusReporter.report(status, null, rowCount, byteCount);
+        }
+    }
+
+    @FunctionalInterface
+    public interface StatusReporter {
+        void report(byte status, @Nullable CharSequence msg, long rowCount, long byteCount);
+    }
+}
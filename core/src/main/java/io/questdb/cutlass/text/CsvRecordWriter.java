@@ -0,0 +1,258 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.text;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.AbstractCharSink;
+import io.questdb.std.str.CharSink;
+
+import java.io.Closeable;
+
+/**
+ * Renders records as UTF-8 CSV lines into a native buffer, which is flushed to the file
+ * descriptor once full. Values are formatted the same way as the /exp HTTP endpoint does,
+ * except that quotes inside strings are escaped by doubling them.
+ */
+class CsvRecordWriter extends AbstractCharSink implements Closeable {
+    private final int bufSize;
+    private final int doubleScale;
+    private final FilesFacade ff;
+    private final int floatScale;
+    private long buf;
+    private long bytesFlushed;
+    private char delimiter;
+    private long fd = -1;
+    private long ptr;
+
+    CsvRecordWriter(FilesFacade ff, int bufSize, int floatScale, int doubleScale) {
+        this.ff = ff;
+        this.bufSize = bufSize;
+        this.floatScale = floatScale;
+        this.doubleScale = doubleScale;
+        this.buf = this.ptr = Unsafe.malloc(bufSize, MemoryTag.NATIVE_IMPORT);
+    }
+
+    @Override
+    public void close() {
+        if (buf != 0) {
+            Unsafe.free(buf, bufSize, MemoryTag.NATIVE_IMPORT);
+            buf = ptr = 0;
+        }
+    }
+
+    @Override
+    public void flush() {
+        final int len = (int) (ptr - buf);
+        if (len > 0) {
+            if (ff.append(fd, buf, len) != len) {
+                throw CairoException.critical(ff.errno()).put("could not write export file [fd=").put(fd).put(']');
+            }
+            bytesFlushed += len;
+            ptr = buf;
+        }
+    }
+
+    @Override
+    public CharSink put(CharSequence cs) {
+        for (int i = 0, n = cs.length(); i < n; i++) {
+            put(cs.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public CharSink put(char c) {
+        if (ptr == buf + bufSize) {
+            flush();
+        }
+        Unsafe.getUnsafe().putByte(ptr++, (byte) c);
+        return this;
+    }
+
+    private void putChar(char c) {
+        if (c == delimiter || c == '"' || c == '\r' || c == '\n') {
+            put('"');
+            if (c == '"') {
+                put('"');
+            }
+            put(c).put('"');
+        } else {
+            putUtf8(c);
+        }
+    }
+
+    private void putGeoHash(long value, int type) {
+        if (value != GeoHashes.NULL) {
+            final int bitFlags = GeoHashes.getBitFlags(type);
+            put('"');
+            if (bitFlags < 0) {
+                GeoHashes.appendCharsUnsafe(value, -bitFlags, this);
+            } else {
+                GeoHashes.appendBinaryStringUnsafe(value, bitFlags, this);
+            }
+            put('"');
+        }
+    }
+
+    private void putQuotedUtf8(CharSequence cs) {
+        if (cs != null) {
+            put('"');
+            int i = 0;
+            final int hi = cs.length();
+            while (i < hi) {
+                final char c = cs.charAt(i++);
+                if (c == '"') {
+                    put('"').put('"');
+                } else if (c < 128) {
+                    put(c);
+                } else {
+                    i = putUtf8Internal(cs, hi, i, c);
+                }
+            }
+            put('"');
+        }
+    }
+
+    private void putValue(Record record, int type, int col) {
+        switch (ColumnType.tagOf(type)) {
+            case ColumnType.BOOLEAN:
+                put(record.getBool(col));
+                break;
+            case ColumnType.BYTE:
+                put(record.getByte(col));
+                break;
+            case ColumnType.SHORT:
+                put(record.getShort(col));
+                break;
+            case ColumnType.CHAR:
+                final char c = record.getChar(col);
+                if (c > 0) {
+                    putChar(c);
+                }
+                break;
+            case ColumnType.INT:
+                final int i = record.getInt(col);
+                if (i != Numbers.INT_NaN) {
+                    put(i);
+                }
+                break;
+            case ColumnType.LONG:
+                long l = record.getLong(col);
+                if (l != Numbers.LONG_NaN) {
+                    put(l);
+                }
+                break;
+            case ColumnType.DATE:
+                l = record.getDate(col);
+                if (l != Numbers.LONG_NaN) {
+                    put('"').putISODateMillis(l).put('"');
+                }
+                break;
+            case ColumnType.TIMESTAMP:
+                l = record.getTimestamp(col);
+                if (l != Numbers.LONG_NaN) {
+                    put('"').putISODate(l).put('"');
+                }
+                break;
+            case ColumnType.FLOAT:
+                final float f = record.getFloat(col);
+                if (f == f) {
+                    put(f, floatScale);
+                }
+                break;
+            case ColumnType.DOUBLE:
+                final double d = record.getDouble(col);
+                if (d == d) {
+                    put(d, doubleScale);
+                }
+                break;
+            case ColumnType.STRING:
+                putQuotedUtf8(record.getStr(col));
+                break;
+            case ColumnType.SYMBOL:
+                putQuotedUtf8(record.getSym(col));
+                break;
+            case ColumnType.LONG256:
+                record.getLong256(col, this);
+                break;
+            case ColumnType.GEOBYTE:
+                putGeoHash(record.getGeoByte(col), type);
+                break;
+            case ColumnType.GEOSHORT:
+                putGeoHash(record.getGeoShort(col), type);
+                break;
+            case ColumnType.GEOINT:
+                putGeoHash(record.getGeoInt(col), type);
+                break;
+            case ColumnType.GEOLONG:
+                putGeoHash(record.getGeoLong(col), type);
+                break;
+            default:
+                // binary and other types without text form are exported as empty values
+                break;
+        }
+    }
+
+    long getBytesWritten() {
+        return bytesFlushed + ptr - buf;
+    }
+
+    void of(long fd, char delimiter) {
+        this.fd = fd;
+        this.delimiter = delimiter;
+        this.ptr = buf;
+        this.bytesFlushed = 0;
+    }
+
+    void putHeader(RecordMetadata metadata) {
+        for (int col = 0, n = metadata.getColumnCount(); col < n; col++) {
+            if (col > 0) {
+                put(delimiter);
+            }
+            putQuotedUtf8(metadata.getColumnName(col));
+        }
+        put(Misc.EOL);
+    }
+
+    void putRecord(Record record, RecordMetadata metadata) {
+        for (int col = 0, n = metadata.getColumnCount(); col < n; col++) {
+            if (col > 0) {
+                put(delimiter);
+            }
+            putValue(record, metadata.getColumnType(col), col);
+        }
+        put(Misc.EOL);
+    }
+}
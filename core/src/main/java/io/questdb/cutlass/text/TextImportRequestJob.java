@@ -53,6 +53,7 @@ public class TextImportRequestJob extends SynchronizedJob implements Closeable {
     private static final Log LOG = LogFactory.getLog(TextImportRequestJob.class);
     private final MicrosecondClock clock;
     private final CairoEngine engine;
+    private final CharSequence exportStatusTableName;
     private final int logRetentionDays;
     private final LongList partitionsToRemove = new LongList();
     private final RingQueue<TextImportRequestTask> requestQueue;
@@ -60,6 +61,8 @@ public class TextImportRequestJob extends SynchronizedJob implements Closeable {
     private final CharSequence statusTableName;
     private final StringSink stringSink = new StringSink();
     private final TextImportExecutionContext textImportExecutionContext;
+    private TableWriter exportWriter;
+    private CsvFileExporter exporter;
     private ParallelCsvFileImporter parallelImporter;
     private Path path;
     private SerialCsvFileImporter serialImporter;
@@ -68,6 +71,7 @@ public class TextImportRequestJob extends SynchronizedJob implements Closeable {
     private TextImportRequestTask task;
     private TableWriter writer;
     private final ParallelCsvFileImporter.PhaseStatusReporter updateStatusRef = this::updateStatus;
+    private final CsvFileExporter.StatusReporter updateExportStatusRef = this::updateExportStatus;
 
     public TextImportRequestJob(
             final CairoEngine engine,
@@ -78,10 +82,12 @@ public class TextImportRequestJob extends SynchronizedJob implements Closeable {
         this.requestSubSeq = engine.getMessageBus().getTextImportRequestSubSeq();
         this.parallelImporter = new ParallelCsvFileImporter(engine, workerCount);
         this.serialImporter = new SerialCsvFileImporter(engine);
+        this.exporter = new CsvFileExporter(engine, workerCount, functionFactoryCache);
 
         CairoConfiguration configuration = engine.getConfiguration();
         this.clock = configuration.getMicrosecondClock();
         this.statusTableName = configuration.getSystemTableNamePrefix() + "text_import_log";
+        this.exportStatusTableName = configuration.getSystemTableNamePrefix() + "text_export_log";
 
         this.sqlCompiler = new SqlCompiler(engine, functionFactoryCache, null);
         this.sqlExecutionContext = new SqlExecutionContextImpl(engine, 1);
@@ -101,7 +107,21 @@ public class TextImportRequestJob extends SynchronizedJob implements Closeable {
                         ") timestamp(ts) partition by DAY",
                 sqlExecutionContext
         );
+        this.sqlCompiler.compile(
+                "CREATE TABLE IF NOT EXISTS \"" + exportStatusTableName + "\" (" +
+                        "ts timestamp, " + // 0
+                        "id string, " + // 1
+                        "query string, " + // 2
+                        "file symbol, " + // 3
+                        "status symbol, " + // 4
+                        "message string," + // 5
+                        "rows_exported long," + // 6
+                        "bytes_written long" + // 7
+                        ") timestamp(ts) partition by DAY",
+                sqlExecutionContext
+        );
         this.writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, statusTableName, "QuestDB system");
+        this.exportWriter = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, exportStatusTableName, "QuestDB system");
         this.logRetentionDays = configuration.getSqlCopyLogRetentionDays();
         this.textImportExecutionContext = engine.getTextImportExecutionContext();
         this.path = new Path();
@@ -113,12 +133,89 @@ public class TextImportRequestJob extends SynchronizedJob implements Closeable {
     public void close() throws IOException {
         this.parallelImporter = Misc.free(parallelImporter);
         this.serialImporter = Misc.free(serialImporter);
+        this.exporter = Misc.free(exporter);
         this.writer = Misc.free(this.writer);
+        this.exportWriter = Misc.free(this.exportWriter);
         this.sqlCompiler = Misc.free(sqlCompiler);
         this.sqlExecutionContext = Misc.free(sqlExecutionContext);
         this.path = Misc.free(path);
     }
 
+    private static void enforceLogRetention(TableWriter writer, int logRetentionDays, LongList partitionsToRemove) {
+        if (writer != null) {
+            if (logRetentionDays < 1) {
+                writer.truncate();
+                return;
+            }
+            if (writer.getPartitionCount() > 0) {
+                partitionsToRemove.clear();
+                for (int i = writer.getPartitionCount() - logRetentionDays - 1; i > -1; i--) {
+                    partitionsToRemove.add(writer.getPartitionTimestamp(i));
+                }
+
+                for (int i = 0, sz = partitionsToRemove.size(); i < sz; i++) {
+                    writer.removePartition(partitionsToRemove.getQuick(i));
+                }
+            }
+        }
+    }
+
+    private void export() throws TextImportException {
+        exporter.of(
+                task.getQuery(),
+                task.getFileName(),
+                task.getImportId(),
+                task.getDelimiter(),
+                task.isHeaderFlag(),
+                textImportExecutionContext.getCircuitBreaker()
+        );
+        exporter.setStatusReporter(updateExportStatusRef);
+        exporter.process();
+    }
+
+    private void updateExportStatus(byte status, final CharSequence msg, long rowCount, long byteCount) {
+        if (exportWriter != null) {
+            stringSink.clear();
+            Numbers.appendHex(stringSink, task.getImportId(), true);
+            try {
+                TableWriter.Row row = exportWriter.newRow(clock.getTicks());
+                row.putStr(1, stringSink);
+                row.putStr(2, task.getQuery());
+                row.putSym(3, task.getFileName());
+                row.putSym(4, TextImportTask.getStatusName(status));
+                row.putStr(5, msg);
+                row.putLong(6, rowCount);
+                row.putLong(7, byteCount);
+                row.append();
+                exportWriter.commit();
+            } catch (Throwable th) {
+                LOG.error()
+                        .$("could not update status table [exportId=").$hexPadded(task.getImportId())
+                        .$(", statusTableName=").$(exportStatusTableName)
+                        .$(", fileName=").$(task.getFileName())
+                        .$(", status=").$(getStatusName(status))
+                        .$(", msg=").$(msg)
+                        .$(", rowCount=").$(rowCount)
+                        .$(", byteCount=").$(byteCount)
+                        .$(", error=`").$(th).$('`')
+                        .I$();
+                exportWriter = Misc.free(exportWriter);
+            }
+
+            // if we closed the writer, we need to reopen it again
+            if (exportWriter == null) {
+                try {
+                    exportWriter = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, exportStatusTableName, "QuestDB system");
+                } catch (Throwable e) {
+                    LOG.error()
+                            .$("could not re-open writer [table=").$(exportStatusTableName)
+                            .$(", error=`").$(e).$('`')
+                            .I$();
+                }
+            }
+        }
+    }
+
     private void updateStatus(
             byte phase,
             byte status,
@@ -184,22 +281,8 @@ public class TextImportRequestJob extends SynchronizedJob implements Closeable {
     }
 
     void enforceLogRetention() {
-        if (writer != null) {
-            if (logRetentionDays < 1) {
-                writer.truncate();
-                return;
-            }
-            if (writer.getPartitionCount() > 0) {
-                partitionsToRemove.clear();
-                for (int i = writer.getPartitionCount() - logRetentionDays - 1; i > -1; i--) {
-                    partitionsToRemove.add(writer.getPartitionTimestamp(i));
-                }
-
-                for (int i = 0, sz = partitionsToRemove.size(); i < sz; i++) {
-                    writer.removePartition(partitionsToRemove.getQuick(i));
-                }
-            }
-        }
+        enforceLogRetention(writer, logRetentionDays, partitionsToRemove);
+        enforceLogRetention(exportWriter, logRetentionDays, partitionsToRemove);
     }
 
     @Override
@@ -208,7 +291,9 @@ public class TextImportRequestJob extends SynchronizedJob implements Closeable {
         if (cursor > -1) {
             task = requestQueue.get(cursor);
             try {
-                if (useParallelImport()) {
+                if (task.isExport()) {
+                    export();
+                } else if (useParallelImport()) {
                     parallelImporter.of(
                             task.getTableName(),
                             task.getFileName(),
@@ -239,14 +324,12 @@ public class TextImportRequestJob extends SynchronizedJob implements Closeable {
                     serialImporter.process();
                 }
             } catch (TextImportException e) {
-                updateStatus(
-                        TextImportTask.NO_PHASE,
-                        e.isCancelled() ? TextImportTask.STATUS_CANCELLED : TextImportTask.STATUS_FAILED,
-                        e.getMessage(),
-                        0,
-                        0,
-                        0
-                );
+                final byte status = e.isCancelled() ? TextImportTask.STATUS_CANCELLED : TextImportTask.STATUS_FAILED;
+                if (task.isExport()) {
+                    updateExportStatus(status, e.getMessage(), 0, 0);
+                } else {
+                    updateStatus(TextImportTask.NO_PHASE, status, e.getMessage(), 0, 0, 0);
+                }
             } finally {
                 requestSubSeq.done(cursor);
                 textImportExecutionContext.resetActiveImportId();
@@ -33,6 +33,7 @@ public class TextImportRequestTask implements Mutable {
     private boolean headerFlag;
     private long importId;
     private int partitionBy;
+    private String query;
     private String tableName;
     private String timestampColumnName;
     private String timestampFormat;
@@ -48,6 +49,7 @@ public class TextImportRequestTask implements Mutable {
         this.timestampFormat = null;
         this.partitionBy = -1;
         this.atomicity = -1;
+        this.query = null;
     }
 
     public int getAtomicity() {
@@ -70,6 +72,10 @@ public class TextImportRequestTask implements Mutable {
         return partitionBy;
     }
 
+    public String getQuery() {
+        return query;
+    }
+
     public String getTableName() {
         return tableName;
     }
@@ -82,6 +88,10 @@ public class TextImportRequestTask implements Mutable {
         return timestampFormat;
     }
 
+    public boolean isExport() {
+        return query != null;
+    }
+
     public boolean isHeaderFlag() {
         return headerFlag;
     }
@@ -107,4 +117,19 @@ public class TextImportRequestTask implements Mutable {
         this.partitionBy = partitionBy;
         this.atomicity = atomicity;
     }
+
+    public void ofExport(
+            long exportId,
+            String query,
+            String fileName,
+            boolean headerFlag,
+            byte delimiter
+    ) {
+        this.clear();
+        this.importId = exportId;
+        this.query = query;
+        this.fileName = fileName;
+        this.headerFlag = headerFlag;
+        this.delimiter = delimiter;
+    }
 }
@@ -89,6 +89,14 @@ public interface FunctionFactory {
         return false;
     }
 
+    /**
+     * @return true if the function is only valid with OVER clause. Such factories are kept apart from
+     * regular functions, so that names like sum() resolve to the window variant only in analytic context.
+     */
+    default boolean isWindow() {
+        return false;
+    }
+
     Function newInstance(
             int position,
             @Transient ObjList<Function> args,
@@ -41,6 +41,7 @@ public class FunctionFactoryCache {
     private final LowerCaseCharSequenceObjHashMap<ObjList<FunctionFactoryDescriptor>> factories = new LowerCaseCharSequenceObjHashMap<>();
     private final LowerCaseCharSequenceHashSet groupByFunctionNames = new LowerCaseCharSequenceHashSet();
     private final LowerCaseCharSequenceHashSet runtimeConstantFunctionNames = new LowerCaseCharSequenceHashSet();
+    private final LowerCaseCharSequenceObjHashMap<ObjList<FunctionFactoryDescriptor>> windowFactories = new LowerCaseCharSequenceObjHashMap<>();
 
     public FunctionFactoryCache(CairoConfiguration configuration, Iterable<FunctionFactory> functionFactories) {
         boolean enableTestFactories = configuration.enableTestFactories();
@@ -50,6 +51,10 @@ public class FunctionFactoryCache {
                 try {
                     final FunctionFactoryDescriptor descriptor = new FunctionFactoryDescriptor(factory);
                     final String name = descriptor.getName();
+                    if (factory.isWindow()) {
+                        addFactoryToList(windowFactories, descriptor);
+                        continue;
+                    }
                     addFactoryToList(factories, descriptor);
 
                     // Add != counterparts to equality function factories
@@ -93,6 +98,10 @@ public class FunctionFactoryCache {
         return factories.get(token);
     }
 
+    public ObjList<FunctionFactoryDescriptor> getWindowOverloadList(CharSequence token) {
+        return windowFactories.get(token);
+    }
+
     public boolean isCursor(CharSequence name) {
         return name != null && cursorFunctionNames.contains(name);
     }
@@ -121,6 +130,10 @@ public class FunctionFactoryCache {
         return false;
     }
 
+    public boolean isWindow(CharSequence name) {
+        return name != null && windowFactories.keyIndex(name) < 0;
+    }
+
     private void addFactoryToList(LowerCaseCharSequenceObjHashMap<ObjList<FunctionFactoryDescriptor>> list, FunctionFactory factory) throws SqlException {
         addFactoryToList(list, new FunctionFactoryDescriptor(factory));
     }
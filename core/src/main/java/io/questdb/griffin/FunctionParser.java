@@ -69,6 +69,8 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
     private final IntStack positionStack = new IntStack();
     private final PostOrderTreeTraversalAlgo traverseAlgo = new PostOrderTreeTraversalAlgo();
     private final IntList undefinedVariables = new IntList();
+    // root node of analytic function expression, resolved against window functions first
+    private ExpressionNode analyticNode;
     private RecordMetadata metadata;
     private SqlCodeGenerator sqlCodeGenerator;
     private SqlExecutionContext sqlExecutionContext;
@@ -193,6 +195,25 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
         return functionFactoryCache;
     }
 
+    /**
+     * Same as {@link #parseFunction(ExpressionNode, RecordMetadata, SqlExecutionContext)} except that
+     * top level function is looked up among window functions before regular functions. Analytic
+     * context of the execution context must be configured.
+     */
+    public Function parseAnalyticFunction(
+            ExpressionNode node,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final ExpressionNode prevAnalyticNode = analyticNode;
+        analyticNode = node;
+        try {
+            return parseFunction(node, metadata, executionContext);
+        } finally {
+            analyticNode = prevAnalyticNode;
+        }
+    }
+
     /**
      * Creates function instance. When node type is {@link ExpressionNode#LITERAL} a column or parameter
      * function is returned. We will be using the supplied {@link #metadata} to resolve type of column. When node token
@@ -518,8 +539,18 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
             @Transient ObjList<Function> args,
             @Transient IntList argPositions
     ) throws SqlException {
-        final ObjList<FunctionFactoryDescriptor> overload = functionFactoryCache.getOverloadList(node.token);
+        ObjList<FunctionFactoryDescriptor> overload = null;
+        if (node == analyticNode) {
+            overload = functionFactoryCache.getWindowOverloadList(node.token);
+        }
+        if (overload == null) {
+            overload = functionFactoryCache.getOverloadList(node.token);
+        }
         if (overload == null) {
+            if (functionFactoryCache.isWindow(node.token)) {
+                Misc.freeObjList(args);
+                throw SqlException.$(node.position, "analytic function called in non-analytic context, make sure to add OVER clause");
+            }
             throw invalidFunction(node, args);
         }
 
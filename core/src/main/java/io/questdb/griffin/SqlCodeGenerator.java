@@ -36,6 +36,7 @@ import io.questdb.griffin.engine.EmptyTableRecordCursorFactory;
 import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.griffin.engine.LimitRecordCursorFactory;
 import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.analytic.AnalyticRecordCursorFactory;
 import io.questdb.griffin.engine.analytic.AnalyticFunction;
 import io.questdb.griffin.engine.analytic.CachedAnalyticRecordCursorFactory;
 import io.questdb.griffin.engine.functions.GroupByFunction;
@@ -50,6 +51,7 @@ import io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory;
 import io.questdb.griffin.engine.groupby.vect.*;
 import io.questdb.griffin.engine.join.*;
 import io.questdb.griffin.engine.orderby.LimitedSizeSortedLightRecordCursorFactory;
+import io.questdb.griffin.engine.orderby.RadixSortLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
 import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.SortedRecordCursorFactory;
@@ -62,6 +64,7 @@ import io.questdb.jit.JitUtil;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -233,6 +236,73 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return new LtJoinRecordCursorFactory(configuration, metadata, masterFactory, slaveFactory, mapKeyTypes, mapValueTypes, slaveColumnTypes, masterKeySink, slaveKeySink, columnSplit, slaveValueSink, columnIndex);
     }
 
+    private static void extractZoneMapPredicates(ExpressionNode node, RecordMetadata metadata, int timestampIndex, ZoneMapFilter zoneMapFilter) {
+        if (node == null || node.type != ExpressionNode.OPERATION || node.paramCount != 2) {
+            return;
+        }
+
+        if (isAndKeyword(node.token)) {
+            extractZoneMapPredicates(node.lhs, metadata, timestampIndex, zoneMapFilter);
+            extractZoneMapPredicates(node.rhs, metadata, timestampIndex, zoneMapFilter);
+            return;
+        }
+
+        int op = getZoneMapOp(node.token);
+        if (op == -1) {
+            return;
+        }
+
+        ExpressionNode columnNode = node.lhs;
+        ExpressionNode constantNode = node.rhs;
+        if (columnNode.type != LITERAL) {
+            columnNode = node.rhs;
+            constantNode = node.lhs;
+            op = ZoneMapFilter.flip(op);
+        }
+        if (columnNode.type != LITERAL || constantNode.type != ExpressionNode.CONSTANT) {
+            return;
+        }
+
+        final int columnIndex = metadata.getColumnIndexQuiet(columnNode.token);
+        if (columnIndex == -1 || columnIndex == timestampIndex) {
+            return;
+        }
+
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (!ZoneMap.isSupported(columnType)) {
+            return;
+        }
+
+        final CharSequence token = constantNode.token;
+        try {
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.SYMBOL:
+                    if (op == ZoneMapFilter.OP_EQ && token.length() > 1 && token.charAt(0) == '\'') {
+                        zoneMapFilter.addSymbol(columnNode.token, columnType, GenericLexer.unquote(token));
+                    }
+                    break;
+                case ColumnType.FLOAT:
+                case ColumnType.DOUBLE:
+                    // equality of floating point values is not exact, only ranges are used
+                    if (op != ZoneMapFilter.OP_EQ) {
+                        final double value = Numbers.parseDouble(token);
+                        if (!Double.isNaN(value)) {
+                            zoneMapFilter.add(columnNode.token, columnType, op, value);
+                        }
+                    }
+                    break;
+                default:
+                    final long value = Numbers.parseLong(token);
+                    if (value > getZoneMapMinValue(columnType) && value <= getZoneMapMaxValue(columnType)) {
+                        zoneMapFilter.add(columnNode.token, columnType, op, value);
+                    }
+                    break;
+            }
+        } catch (NumericException ignore) {
+            // constant is not a plain number, the predicate is left to the filter
+        }
+    }
+
     private static int getOrderByDirectionOrDefault(QueryModel model, int index) {
         IntList direction = model.getOrderByDirectionAdvice();
         if (index >= direction.size()) {
@@ -241,6 +311,54 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return model.getOrderByDirectionAdvice().getQuick(index);
     }
 
+    private static long getZoneMapMaxValue(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+                return Byte.MAX_VALUE;
+            case ColumnType.SHORT:
+                return Short.MAX_VALUE;
+            case ColumnType.INT:
+            case ColumnType.SYMBOL:
+                return Integer.MAX_VALUE;
+            default:
+                return Long.MAX_VALUE;
+        }
+    }
+
+    // exclusive, values at or below the bound are nulls or do not fit the column type
+    private static long getZoneMapMinValue(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+                return Byte.MIN_VALUE - 1;
+            case ColumnType.SHORT:
+                return Short.MIN_VALUE - 1;
+            case ColumnType.INT:
+            case ColumnType.SYMBOL:
+                return Numbers.INT_NaN;
+            default:
+                return Numbers.LONG_NaN;
+        }
+    }
+
+    private static int getZoneMapOp(CharSequence token) {
+        if (Chars.equals(token, '=')) {
+            return ZoneMapFilter.OP_EQ;
+        }
+        if (Chars.equals(token, '<')) {
+            return ZoneMapFilter.OP_LT;
+        }
+        if (Chars.equals(token, "<=")) {
+            return ZoneMapFilter.OP_LE;
+        }
+        if (Chars.equals(token, '>')) {
+            return ZoneMapFilter.OP_GT;
+        }
+        if (Chars.equals(token, ">=")) {
+            return ZoneMapFilter.OP_GE;
+        }
+        return -1;
+    }
+
     private VectorAggregateFunctionConstructor assembleFunctionReference(RecordMetadata metadata, ExpressionNode ast) {
         int columnIndex;
         if (ast.type == FUNCTION && ast.paramCount == 1 && SqlKeywords.isSumKeyword(ast.token) && ast.rhs.type == LITERAL) {
@@ -370,6 +488,43 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return null;
     }
 
+    private ObjList<ObjList<GroupByFunction>> compilePerWorkerGroupByFunctions(
+            QueryModel model,
+            RecordMetadata metadata,
+            int workerCount,
+            boolean reserveTimestampValue,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions = new ObjList<>(workerCount);
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                final ObjList<GroupByFunction> workerGroupByFunctions = new ObjList<>();
+                perWorkerGroupByFunctions.add(workerGroupByFunctions);
+                // value types must be identical to the owner ones, so we throw them away
+                arrayColumnTypes.clear();
+                if (reserveTimestampValue) {
+                    // SAMPLE BY keeps bucket timestamp as the first value
+                    arrayColumnTypes.add(ColumnType.TIMESTAMP);
+                }
+                GroupByUtils.prepareGroupByFunctions(
+                        model,
+                        metadata,
+                        functionParser,
+                        executionContext,
+                        workerGroupByFunctions,
+                        groupByFunctionPositions,
+                        arrayColumnTypes
+                );
+            }
+        } catch (Throwable e) {
+            for (int i = 0, n = perWorkerGroupByFunctions.size(); i < n; i++) {
+                Misc.freeObjList(perWorkerGroupByFunctions.getQuick(i));
+            }
+            throw e;
+        }
+        return perWorkerGroupByFunctions;
+    }
+
     private @Nullable ObjList<Function> compileWorkerFilterConditionally(
             boolean condition,
             int workerCount,
@@ -657,6 +812,15 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 false
         );
 
+        // master records are copied to disk when the join spills over memory budget
+        entityColumnFilter.of(masterMetadata.getColumnCount());
+        RecordSink masterSink = RecordSinkFactory.getInstance(
+                asm,
+                masterMetadata,
+                entityColumnFilter,
+                false
+        );
+
         if (joinType == JOIN_INNER) {
             return new HashJoinRecordCursorFactory(
                     configuration,
@@ -668,6 +832,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     masterKeySink,
                     slaveKeySink,
                     slaveSink,
+                    masterSink,
                     masterMetadata.getColumnCount()
             );
         }
@@ -682,6 +847,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 masterKeySink,
                 slaveKeySink,
                 slaveSink,
+                masterSink,
                 masterMetadata.getColumnCount()
         );
     }
@@ -1440,7 +1606,17 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 validateBothTimestamps(slaveModel, masterMetadata, slaveMetadata);
                                 processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
                                 if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
-                                    if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
+                                    if (isIndexedAsOfJoinSupported(slave, masterMetadata, slaveMetadata)) {
+                                        master = new AsOfJoinIndexedRecordCursorFactory(
+                                                createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                master,
+                                                listColumnFilterB.getColumnIndexFactored(0),
+                                                slave,
+                                                listColumnFilterA.getColumnIndexFactored(0),
+                                                masterMetadata.getColumnCount(),
+                                                false
+                                        );
+                                    } else if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
                                         master = createAsOfJoin(
                                                 createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
                                                 master,
@@ -1488,7 +1664,17 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 validateBothTimestamps(slaveModel, masterMetadata, slaveMetadata);
                                 processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
                                 if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
-                                    if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
+                                    if (isIndexedAsOfJoinSupported(slave, masterMetadata, slaveMetadata)) {
+                                        master = new AsOfJoinIndexedRecordCursorFactory(
+                                                createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                master,
+                                                listColumnFilterB.getColumnIndexFactored(0),
+                                                slave,
+                                                listColumnFilterA.getColumnIndexFactored(0),
+                                                masterMetadata.getColumnCount(),
+                                                true
+                                        );
+                                    } else if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
                                         master = createLtJoin(
                                                 createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
                                                 master,
@@ -2052,6 +2238,22 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 hiFunc
                         );
                     } else {
+                        final int firstKey = listColumnFilterA.getQuick(0);
+                        final int keyColumnIndex = (firstKey > 0 ? firstKey : -firstKey) - 1;
+                        if (
+                                configuration.isSqlParallelSortEnabled()
+                                        && RadixSortLightRecordCursorFactory.isKeyTypeSupported(metadata.getColumnType(keyColumnIndex))
+                        ) {
+                            // the leading key is radix sorted, comparator only orders rows with equal leading keys
+                            return new RadixSortLightRecordCursorFactory(
+                                    configuration,
+                                    orderedMetadata,
+                                    recordCursorFactory,
+                                    keyColumnIndex,
+                                    firstKey < 0,
+                                    listColumnFilterA.size() > 1 ? recordComparatorCompiler.compile(metadata, listColumnFilterA) : null
+                            );
+                        }
                         return new SortedLightRecordCursorFactory(
                                 configuration,
                                 orderedMetadata,
@@ -2357,6 +2559,21 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
                 if (isFillNone) {
 
+                    final RecordCursorFactory parallelFactory = generateParallelSampleBy(
+                            model,
+                            executionContext,
+                            factory,
+                            timestampSampler,
+                            groupByMetadata,
+                            groupByFunctions,
+                            recordFunctions,
+                            timestampIndex,
+                            offsetFunc
+                    );
+                    if (parallelFactory != null) {
+                        return parallelFactory;
+                    }
+
                     if (keyTypes.getColumnCount() == 0) {
                         // this sample by is not keyed
                         return new SampleByFillNoneNotKeyedRecordCursorFactory(
@@ -2482,6 +2699,92 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
     }
 
+    /**
+     * Returns parallel SAMPLE BY factory when the query qualifies for it, or null otherwise.
+     * Only FILL(NONE) without time zone is supported. Parallel factory produces unordered rows,
+     * so it is wrapped into a sort by the timestamp column.
+     */
+    private @Nullable RecordCursorFactory generateParallelSampleBy(
+            QueryModel model,
+            SqlExecutionContext executionContext,
+            RecordCursorFactory factory,
+            TimestampSampler timestampSampler,
+            GenericRecordMetadata groupByMetadata,
+            ObjList<GroupByFunction> groupByFunctions,
+            ObjList<Function> recordFunctions,
+            int timestampIndex,
+            Function offsetFunc
+    ) throws SqlException {
+        final int workerCount = executionContext.getSharedWorkerCount();
+        final int outputTimestampIndex = groupByMetadata.getTimestampIndex();
+        if (
+                !configuration.isSqlParallelGroupByEnabled()
+                        || workerCount < 1
+                        || model.getSampleByTimezoneName() != null
+                        || !offsetFunc.isConstant()
+                        || outputTimestampIndex == -1
+                        || !factory.supportPageFrameCursor()
+                        || !Chars.equalsLowerCaseAscii(configuration.getDefaultMapType(), "fast")
+                        || !GroupByUtils.isParallelismSupported(groupByFunctions)
+        ) {
+            return null;
+        }
+
+        long fixedOffset = Long.MIN_VALUE;
+        final CharSequence offset = offsetFunc.getStr(null);
+        if (offset != null) {
+            final long val = Timestamps.parseOffset(offset);
+            if (val == Numbers.LONG_NaN) {
+                // let serial factory report invalid offset
+                return null;
+            }
+            fixedOffset = Numbers.decodeLowInt(val) * Timestamps.MINUTE_MICROS;
+        }
+        Misc.free(offsetFunc);
+
+        // serial cursors substitute timestamp function at runtime, we read bucket timestamp from the first map value
+        for (int i = 0, n = recordFunctions.size(); i < n; i++) {
+            if (recordFunctions.getQuick(i) == null) {
+                recordFunctions.setQuick(i, TimestampColumn.newInstance(0));
+            }
+        }
+
+        final ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions;
+        try {
+            perWorkerGroupByFunctions = compilePerWorkerGroupByFunctions(model, factory.getMetadata(), workerCount, true, executionContext);
+        } catch (Throwable e) {
+            Misc.freeObjList(recordFunctions);
+            throw e;
+        }
+
+        listColumnFilterB.clear();
+        listColumnFilterB.add(outputTimestampIndex + 1);
+        final RecordComparator comparator = recordComparatorCompiler.compile(groupByMetadata, listColumnFilterB);
+
+        return new SortedLightRecordCursorFactory(
+                configuration,
+                groupByMetadata,
+                new AsyncSampleByRecordCursorFactory(
+                        asm,
+                        configuration,
+                        executionContext.getMessageBus(),
+                        factory,
+                        timestampSampler,
+                        fixedOffset,
+                        timestampIndex,
+                        listColumnFilterA,
+                        keyTypes,
+                        valueTypes,
+                        groupByMetadata,
+                        groupByFunctions,
+                        perWorkerGroupByFunctions,
+                        recordFunctions,
+                        reduceTaskPool
+                ),
+                comparator
+        );
+    }
+
     private RecordCursorFactory generateSelect(
             QueryModel model,
             SqlExecutionContext executionContext,
@@ -2572,121 +2875,173 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         // not main metadata to avoid partitionBy functions accidentally looking up
         // analytic columns recursively
 
+        // analytic functions can be computed while base cursor is read when they all see
+        // records in the base cursor order
+        final int baseTimestampIndex = baseMetadata.getTimestampIndex();
+        boolean streaming = !base.hasDescendingOrder();
+        final ObjList<AnalyticFunction> analyticFunctions = new ObjList<>();
+        final ObjList<Function> outputFunctions = new ObjList<>(columnCount);
         deferredAnalyticMetadata.clear();
-        for (int i = 0; i < columnCount; i++) {
-            final QueryColumn qc = columns.getQuick(i);
-            if (qc instanceof AnalyticColumn) {
-                final AnalyticColumn ac = (AnalyticColumn) qc;
-                final ExpressionNode ast = qc.getAst();
-                if (ast.paramCount > 1) {
-                    Misc.free(base);
-                    throw SqlException.$(ast.position, "too many arguments");
-                }
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                final QueryColumn qc = columns.getQuick(i);
+                if (qc instanceof AnalyticColumn) {
+                    final AnalyticColumn ac = (AnalyticColumn) qc;
+                    final ExpressionNode ast = qc.getAst();
+                    // window functions, such as lag() and lead(), validate their own arguments
+                    if (ast.paramCount > 1 && !functionParser.getFunctionFactoryCache().isWindow(ast.token)) {
+                        throw SqlException.$(ast.position, "too many arguments");
+                    }
 
-                ObjList<Function> partitionBy = null;
-                int psz = ac.getPartitionBy().size();
-                if (psz > 0) {
-                    partitionBy = new ObjList<>(psz);
-                    for (int j = 0; j < psz; j++) {
-                        partitionBy.add(
-                                functionParser.parseFunction(ac.getPartitionBy().getQuick(j), chainMetadata, executionContext)
-                        );
+                    ObjList<Function> partitionBy = null;
+                    int psz = ac.getPartitionBy().size();
+                    if (psz > 0) {
+                        partitionBy = new ObjList<>(psz);
+                        try {
+                            for (int j = 0; j < psz; j++) {
+                                partitionBy.add(
+                                        functionParser.parseFunction(ac.getPartitionBy().getQuick(j), chainMetadata, executionContext)
+                                );
+                            }
+                        } catch (Throwable th) {
+                            Misc.freeObjList(partitionBy);
+                            throw th;
+                        }
                     }
-                }
 
-                final VirtualRecord partitionByRecord;
-                final RecordSink partitionBySink;
+                    final VirtualRecord partitionByRecord;
+                    final RecordSink partitionBySink;
 
-                if (partitionBy != null) {
-                    partitionByRecord = new VirtualRecord(partitionBy);
-                    keyTypes.clear();
-                    final int partitionByCount = partitionBy.size();
+                    if (partitionBy != null) {
+                        partitionByRecord = new VirtualRecord(partitionBy);
+                        keyTypes.clear();
+                        final int partitionByCount = partitionBy.size();
 
-                    for (int j = 0; j < partitionByCount; j++) {
-                        keyTypes.add(partitionBy.getQuick(j).getType());
+                        for (int j = 0; j < partitionByCount; j++) {
+                            keyTypes.add(partitionBy.getQuick(j).getType());
+                        }
+                        entityColumnFilter.of(partitionByCount);
+                        // create sink
+                        partitionBySink = RecordSinkFactory.getInstance(
+                                asm,
+                                keyTypes,
+                                entityColumnFilter,
+                                false
+                        );
+                    } else {
+                        partitionByRecord = null;
+                        partitionBySink = null;
                     }
-                    entityColumnFilter.of(partitionByCount);
-                    // create sink
-                    partitionBySink = RecordSinkFactory.getInstance(
-                            asm,
-                            keyTypes,
-                            entityColumnFilter,
-                            false
-                    );
-                } else {
-                    partitionByRecord = null;
-                    partitionBySink = null;
-                }
 
+                    final int osz = ac.getOrderBy().size();
 
-                final int osz = ac.getOrderBy().size();
-                executionContext.configureAnalyticContext(
-                        partitionByRecord,
-                        partitionBySink,
-                        keyTypes,
-                        osz > 0,
-                        base.recordCursorSupportsRandomAccess()
-                );
-                final Function f;
-                try {
-                    f = functionParser.parseFunction(ast, baseMetadata, executionContext);
-                    if (!(f instanceof AnalyticFunction)) {
-                        Misc.free(base);
-                        throw SqlException.$(ast.position, "non-analytic function called in analytic context");
+                    // RANGE frames with offset need timestamp of the ORDER BY column
+                    int orderByTimestampIndex = -1;
+                    if (osz == 1 && ac.getOrderByDirection().getQuick(0) == QueryModel.ORDER_DIRECTION_ASCENDING) {
+                        final int index = chainMetadata.getColumnIndexQuiet(ac.getOrderBy().getQuick(0).token);
+                        if (index > -1 && ColumnType.isTimestamp(chainMetadata.getColumnType(index))) {
+                            orderByTimestampIndex = index;
+                        }
                     }
-                } finally {
-                    executionContext.clearAnalyticContext();
-                }
 
-                AnalyticFunction analyticFunction = (AnalyticFunction) f;
-
-                // analyze order by clause on the current model and optimise out
-                // order by on analytic function if it matches the one on the model
-                final LowerCaseCharSequenceIntHashMap orderHash = model.getOrderHash();
-                boolean dismissOrder;
-                if (osz > 0 && orderHash.size() > 0) {
-                    dismissOrder = true;
-                    for (int j = 0; j < osz; j++) {
-                        ExpressionNode node = ac.getOrderBy().getQuick(j);
-                        int direction = ac.getOrderByDirection().getQuick(j);
-                        if (orderHash.get(node.token) != direction) {
-                            dismissOrder = false;
-                            break;
+                    executionContext.configureAnalyticContext(
+                            partitionByRecord,
+                            partitionBySink,
+                            keyTypes,
+                            osz > 0,
+                            base.recordCursorSupportsRandomAccess(),
+                            ac.getFramingMode(),
+                            ac.getRowsLo(),
+                            ac.getRowsHi(),
+                            orderByTimestampIndex
+                    );
+                    Function f = null;
+                    try {
+                        // functions see chain records when result is cached, the streaming
+                        // cursor presents base records in the same layout
+                        f = functionParser.parseAnalyticFunction(ast, chainMetadata, executionContext);
+                        if (!(f instanceof AnalyticFunction)) {
+                            throw SqlException.$(ast.position, "non-analytic function called in analytic context");
                         }
+                    } catch (Throwable th) {
+                        // partition by functions are owned by analytic function once it is created
+                        if (!(f instanceof AnalyticFunction)) {
+                            Misc.freeObjList(partitionBy);
+                        }
+                        Misc.free(f);
+                        throw th;
+                    } finally {
+                        executionContext.clearAnalyticContext();
                     }
-                } else {
-                    dismissOrder = false;
-                }
 
-                if (osz > 0 && !dismissOrder) {
-                    IntList order = toOrderIndices(chainMetadata, ac.getOrderBy(), ac.getOrderByDirection());
-                    // init comparator if we need
-                    analyticFunction.initRecordComparator(recordComparatorCompiler, chainTypes, order);
-                    ObjList<AnalyticFunction> funcs = groupedAnalytic.get(order);
-                    if (funcs == null) {
-                        groupedAnalytic.put(order, funcs = new ObjList<>());
+                    AnalyticFunction analyticFunction = (AnalyticFunction) f;
+                    analyticFunctions.add(analyticFunction);
+                    outputFunctions.extendAndSet(i, analyticFunction);
+
+                    streaming &= analyticFunction.getPassCount() == AnalyticFunction.ZERO_PASS
+                            && (osz == 0 || (orderByTimestampIndex > -1 && baseTimestampIndex > -1 && columnIndexes.getQuick(orderByTimestampIndex) == baseTimestampIndex));
+
+                    // analyze order by clause on the current model and optimise out
+                    // order by on analytic function if it matches the one on the model
+                    final LowerCaseCharSequenceIntHashMap orderHash = model.getOrderHash();
+                    boolean dismissOrder;
+                    if (osz > 0 && orderHash.size() > 0) {
+                        dismissOrder = true;
+                        for (int j = 0; j < osz; j++) {
+                            ExpressionNode node = ac.getOrderBy().getQuick(j);
+                            int direction = ac.getOrderByDirection().getQuick(j);
+                            if (orderHash.get(node.token) != direction) {
+                                dismissOrder = false;
+                                break;
+                            }
+                        }
+                    } else {
+                        dismissOrder = false;
                     }
-                    funcs.add(analyticFunction);
-                } else {
-                    if (naturalOrderFunctions == null) {
-                        naturalOrderFunctions = new ObjList<>();
+
+                    if (osz > 0 && !dismissOrder) {
+                        IntList order = toOrderIndices(chainMetadata, ac.getOrderBy(), ac.getOrderByDirection());
+                        // init comparator if we need
+                        analyticFunction.initRecordComparator(recordComparatorCompiler, chainTypes, order);
+                        ObjList<AnalyticFunction> funcs = groupedAnalytic.get(order);
+                        if (funcs == null) {
+                            groupedAnalytic.put(order, funcs = new ObjList<>());
+                        }
+                        funcs.add(analyticFunction);
+                    } else {
+                        if (naturalOrderFunctions == null) {
+                            naturalOrderFunctions = new ObjList<>();
+                        }
+                        naturalOrderFunctions.add(analyticFunction);
                     }
-                    naturalOrderFunctions.add(analyticFunction);
-                }
 
-                analyticFunction.setColumnIndex(i);
+                    analyticFunction.setColumnIndex(i);
 
-                deferredAnalyticMetadata.extendAndSet(i, new TableColumnMetadata(
-                        Chars.toString(qc.getAlias()),
-                        analyticFunction.getType(),
-                        false,
-                        0,
-                        false,
-                        null
-                ));
+                    deferredAnalyticMetadata.extendAndSet(i, new TableColumnMetadata(
+                            Chars.toString(qc.getAlias()),
+                            analyticFunction.getType(),
+                            false,
+                            0,
+                            false,
+                            null
+                    ));
+
+                    listColumnFilterA.extendAndSet(i, -i - 1);
+                }
+            }
 
-                listColumnFilterA.extendAndSet(i, -i - 1);
+            if (streaming) {
+                for (int i = 0; i < columnCount; i++) {
+                    final QueryColumn qc = columns.getQuick(i);
+                    if (!(qc instanceof AnalyticColumn)) {
+                        outputFunctions.extendAndSet(i, FunctionParser.createColumn(qc.getAst().position, qc.getAst().token, baseMetadata));
+                    }
+                }
             }
+        } catch (Throwable th) {
+            Misc.freeObjList(outputFunctions);
+            Misc.free(base);
+            throw th;
         }
 
         // after all columns are processed we can re-insert deferred metadata
@@ -2698,6 +3053,16 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             }
         }
 
+        if (streaming) {
+            return new AnalyticRecordCursorFactory(
+                    factoryMetadata,
+                    base,
+                    outputFunctions,
+                    analyticFunctions,
+                    columnIndexes
+            );
+        }
+
         final ObjList<RecordComparator> analyticComparators = new ObjList<>(groupedAnalytic.size());
         final ObjList<ObjList<AnalyticFunction>> functionGroups = new ObjList<>(groupedAnalytic.size());
         for (ObjObjHashMap.Entry<IntList, ObjList<AnalyticFunction>> e : groupedAnalytic) {
@@ -3160,6 +3525,37 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 );
             }
 
+            final int workerCount = executionContext.getSharedWorkerCount();
+            if (
+                    configuration.isSqlParallelGroupByEnabled()
+                            && workerCount > 0
+                            && factory.supportPageFrameCursor()
+                            && Chars.equalsLowerCaseAscii(configuration.getDefaultMapType(), "fast")
+                            && GroupByUtils.isParallelismSupported(groupByFunctions)
+            ) {
+                final ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions;
+                try {
+                    perWorkerGroupByFunctions = compilePerWorkerGroupByFunctions(model, metadata, workerCount, false, executionContext);
+                } catch (Throwable e) {
+                    Misc.freeObjList(recordFunctions);
+                    throw e;
+                }
+                return new AsyncGroupByRecordCursorFactory(
+                        asm,
+                        configuration,
+                        executionContext.getMessageBus(),
+                        factory,
+                        listColumnFilterA,
+                        keyTypes,
+                        valueTypes,
+                        groupByMetadata,
+                        groupByFunctions,
+                        perWorkerGroupByFunctions,
+                        recordFunctions,
+                        reduceTaskPool
+                );
+            }
+
             return new io.questdb.griffin.engine.groupby.GroupByRecordCursorFactory(
                     asm,
                     configuration,
@@ -3861,6 +4257,18 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 rowFactory = new DataFrameRowCursorFactory();
             }
 
+            if (intrinsicModel.filter != null
+                    && configuration.isPartitionZoneMapsEnabled()
+                    && PartitionBy.isPartitioned(reader.getPartitionedBy())) {
+                final ZoneMapFilter zoneMapFilter = new ZoneMapFilter();
+                extractZoneMapPredicates(intrinsicModel.filter, metadata, readerTimestampIndex, zoneMapFilter);
+                if (zoneMapFilter.getPredicateCount() > 0) {
+                    dfcFactory = new ZoneMapDataFrameCursorFactory(dfcFactory, zoneMapFilter);
+                } else {
+                    Misc.free(zoneMapFilter);
+                }
+            }
+
             model.setWhereClause(intrinsicModel.filter);
             return new DataFrameRecordCursorFactory(
                     configuration,
@@ -4043,6 +4451,19 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return metadata.getTimestampIndex();
     }
 
+    // keyed ASOF and LT joins can look up slave rows via symbol index instead of building map of keys
+    private boolean isIndexedAsOfJoinSupported(RecordCursorFactory slave, RecordMetadata masterMetadata, RecordMetadata slaveMetadata) {
+        if (listColumnFilterA.getColumnCount() != 1
+                || !(slave instanceof DataFrameRecordCursorFactory)
+                || !((DataFrameRecordCursorFactory) slave).isFullTableScan()) {
+            return false;
+        }
+        final int slaveKeyIndex = listColumnFilterA.getColumnIndexFactored(0);
+        return ColumnType.isSymbol(slaveMetadata.getColumnType(slaveKeyIndex))
+                && slaveMetadata.isColumnIndexed(slaveKeyIndex)
+                && ColumnType.isSymbolOrString(masterMetadata.getColumnType(listColumnFilterB.getColumnIndexFactored(0)));
+    }
+
     private boolean isOrderDescendingByDesignatedTimestampOnly(QueryModel model) {
         return model.getOrderByAdvice().size() == 1 && model.getTimestamp() != null &&
                 Chars.equalsIgnoreCase(model.getOrderByAdvice().getQuick(0).token, model.getTimestamp().token) &&
@@ -452,6 +452,20 @@ public class SqlCompiler implements Closeable {
                     } else {
                         throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
                     }
+                } else if (SqlKeywords.isCompressKeyword(tok)) {
+                    tok = expectToken(lexer, "'partition'");
+                    if (SqlKeywords.isPartitionKeyword(tok)) {
+                        return alterTableDropDetachOrAttachPartition(tableMetadata, tableName, PartitionAction.COMPRESS, executionContext);
+                    } else {
+                        throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
+                    }
+                } else if (SqlKeywords.isDecompressKeyword(tok)) {
+                    tok = expectToken(lexer, "'partition'");
+                    if (SqlKeywords.isPartitionKeyword(tok)) {
+                        return alterTableDropDetachOrAttachPartition(tableMetadata, tableName, PartitionAction.DECOMPRESS, executionContext);
+                    } else {
+                        throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
+                    }
                 } else if (SqlKeywords.isAlterKeyword(tok)) {
                     tok = expectToken(lexer, "'column'");
                     if (SqlKeywords.isColumnKeyword(tok)) {
@@ -859,8 +873,14 @@ public class SqlCompiler implements Closeable {
                     case PartitionAction.DETACH:
                         alterOperationBuilder = this.alterOperationBuilder.ofDetachPartition(pos, tableName, tableMetadata.getTableId());
                         break;
+                    case PartitionAction.COMPRESS:
+                        alterOperationBuilder = this.alterOperationBuilder.ofCompressPartition(pos, tableName, tableMetadata.getTableId());
+                        break;
+                    case PartitionAction.DECOMPRESS:
+                        alterOperationBuilder = this.alterOperationBuilder.ofDecompressPartition(pos, tableName, tableMetadata.getTableId());
+                        break;
                     default:
-                        throw SqlException.$(pos, "WHERE clause can only be used with command DROP PARTITION, or DETACH PARTITION");
+                        throw SqlException.$(pos, "WHERE clause can only be used with command DROP PARTITION, DETACH PARTITION, COMPRESS PARTITION or DECOMPRESS PARTITION");
                 }
 
                 final int functionPosition = lexer.getPosition();
@@ -877,7 +897,9 @@ public class SqlCompiler implements Closeable {
                     if (function != null && ColumnType.isBoolean(function.getType())) {
                         function.init(null, executionContext);
                         if (reader != null) {
-                            filterPartitions(function, functionPosition, reader, alterOperationBuilder);
+                            // active partition is never compressed, so there is nothing to do with it
+                            final boolean includeLastPartition = action != PartitionAction.COMPRESS && action != PartitionAction.DECOMPRESS;
+                            filterPartitions(function, functionPosition, reader, alterOperationBuilder, includeLastPartition);
                         }
                         return compiledQuery.ofAlter(this.alterOperationBuilder.build());
                     } else {
@@ -913,6 +935,12 @@ public class SqlCompiler implements Closeable {
                 // attach
                 alterOperationBuilder = this.alterOperationBuilder.ofAttachPartition(pos, tableName, tableMetadata.getTableId());
                 break;
+            case PartitionAction.COMPRESS:
+                alterOperationBuilder = this.alterOperationBuilder.ofCompressPartition(pos, tableName, tableMetadata.getTableId());
+                break;
+            case PartitionAction.DECOMPRESS:
+                alterOperationBuilder = this.alterOperationBuilder.ofDecompressPartition(pos, tableName, tableMetadata.getTableId());
+                break;
             default:
                 alterOperationBuilder = null;
                 assert false;
@@ -1153,6 +1181,21 @@ public class SqlCompiler implements Closeable {
         return compiledQuery.ofSet();
     }
 
+    private CopyFactory compileTextExport(CopyModel model) throws SqlException {
+        assert model.isExport();
+
+        final ExpressionNode fileNameNode = model.getFileName();
+        final CharSequence fileName = GenericLexer.assertNoDots(GenericLexer.unquote(fileNameNode.token), fileNameNode.position);
+
+        return new CopyFactory(
+                messageBus,
+                engine.getTextImportExecutionContext(),
+                null,
+                Chars.toString(fileName),
+                model
+        );
+    }
+
     private CopyFactory compileTextImport(CopyModel model) throws SqlException {
         assert !model.isCancel();
 
@@ -1635,7 +1678,7 @@ public class SqlCompiler implements Closeable {
     @NotNull
     private CompiledQuery executeCopy(SqlExecutionContext executionContext, CopyModel executionModel) throws SqlException {
         executionContext.getCairoSecurityContext().checkWritePermission();
-        if (!executionModel.isCancel() && Chars.equalsLowerCaseAscii(executionModel.getFileName().token, "stdin")) {
+        if (!executionModel.isCancel() && !executionModel.isExport() && Chars.equalsLowerCaseAscii(executionModel.getFileName().token, "stdin")) {
             // no-op implementation
             setupTextLoaderFromModel(executionModel);
             return compiledQuery.ofCopyRemote(textLoader);
@@ -1650,6 +1693,11 @@ public class SqlCompiler implements Closeable {
             if (model.isCancel()) {
                 cancelTextImport(model);
                 return null;
+            } else if (model.isExport()) {
+                if (model.getDelimiter() < 0) {
+                    model.setDelimiter((byte) ',');
+                }
+                return compileTextExport(model);
             } else {
                 if (model.getTimestampColumnName() == null &&
                         ((model.getPartitionBy() != -1 && model.getPartitionBy() != PartitionBy.NONE))) {
@@ -1691,7 +1739,8 @@ public class SqlCompiler implements Closeable {
             Function function,
             int functionPosition,
             TableReader reader,
-            AlterOperationBuilder changePartitionStatement
+            AlterOperationBuilder changePartitionStatement,
+            boolean includeLastPartition
     ) {
         // Iterate partitions in descending order so if folders are missing on disk
         // removePartition does not fail to determine next minTimestamp
@@ -1705,11 +1754,13 @@ public class SqlCompiler implements Closeable {
                 }
             }
 
-            // remove last partition
-            long partitionTimestamp = reader.getPartitionTimestampByIndex(partitionCount - 1);
-            partitionFunctionRec.setTimestamp(partitionTimestamp);
-            if (function.getBool(partitionFunctionRec)) {
-                changePartitionStatement.addPartitionToList(partitionTimestamp, functionPosition);
+            if (includeLastPartition) {
+                // remove last partition
+                long partitionTimestamp = reader.getPartitionTimestampByIndex(partitionCount - 1);
+                partitionFunctionRec.setTimestamp(partitionTimestamp);
+                if (function.getBool(partitionFunctionRec)) {
+                    changePartitionStatement.addPartitionToList(partitionTimestamp, functionPosition);
+                }
             }
         }
     }
@@ -2494,6 +2545,21 @@ public class SqlCompiler implements Closeable {
         if (PartitionBy.isPartitioned(model.getPartitionBy()) && model.getTimestampIndex() == -1 && metadata.getTimestampIndex() == -1) {
             throw SqlException.position(0).put("timestamp is not defined");
         }
+
+        // validate types of deduplication key columns, they were not known at parse time
+        for (int i = 0, n = model.getColumnCount(); i < n; i++) {
+            if (model.isDedupKey(i)) {
+                final CharSequence columnName = model.getColumnName(i);
+                final ColumnCastModel ccm = castModels.get(columnName);
+                final int columnType = ccm != null ? ccm.getColumnType() : metadata.getColumnType(columnName);
+                if (ColumnType.isVariableLength(columnType)) {
+                    throw SqlException.position(0)
+                            .put("deduplication key column must be of fixed size type [column=").put(columnName)
+                            .put(", type=").put(ColumnType.nameOf(columnType))
+                            .put(']');
+                }
+            }
+        }
     }
 
     RecordCursorFactory generate(QueryModel queryModel, SqlExecutionContext executionContext) throws SqlException {
@@ -2582,6 +2648,8 @@ public class SqlCompiler implements Closeable {
 
     public final static class PartitionAction {
         public static final int ATTACH = 2;
+        public static final int COMPRESS = 4;
+        public static final int DECOMPRESS = 5;
         public static final int DETACH = 3;
         public static final int DROP = 1;
     }
@@ -2660,6 +2728,11 @@ public class SqlCompiler implements Closeable {
             return timestampIndex;
         }
 
+        @Override
+        public boolean isDedupKey(int columnIndex) {
+            return model.isDedupKey(columnIndex);
+        }
+
         @Override
         public boolean isIndexed(int columnIndex) {
             return model.isIndexed(columnIndex);
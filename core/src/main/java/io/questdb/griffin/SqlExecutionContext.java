@@ -54,7 +54,11 @@ public interface SqlExecutionContext extends Closeable {
             @Nullable RecordSink partitionBySink,
             @Transient @Nullable ColumnTypes keyTypes,
             boolean isOrdered,
-            boolean baseSupportsRandomAccess
+            boolean baseSupportsRandomAccess,
+            int framingMode,
+            long rowsLo,
+            long rowsHi,
+            int timestampIndex
     );
 
     AnalyticContext getAnalyticContext();
@@ -83,6 +87,14 @@ public interface SqlExecutionContext extends Closeable {
 
     QueryFutureUpdateListener getQueryFutureUpdateListener();
 
+    /**
+     * @return maximum number of bytes of native memory the query may hold on to before
+     * memory hungry operators, such as hash joins, switch to spilling to disk. 0 means unlimited.
+     */
+    default long getQueryMemoryBudget() {
+        return getCairoEngine().getConfiguration().getSqlQueryMemoryBudget();
+    }
+
     Rnd getRandom();
 
     long getRequestFd();
@@ -31,6 +31,7 @@ import io.questdb.cairo.TableUtils;
 import io.questdb.cutlass.text.Atomicity;
 import io.questdb.griffin.model.*;
 import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -349,8 +350,26 @@ public final class SqlParser {
         if (Chars.isBlank(configuration.getSqlCopyInputRoot())) {
             throw SqlException.$(lexer.lastTokenPosition(), "COPY is disabled ['cairo.sql.copy.root' is not set?]");
         }
+        CharSequence tok = tok(lexer, "table name, import id or '('");
+        if (Chars.equals(tok, '(')) {
+            // export of query result, query text is kept as is and compiled by the export job
+            final int queryLo = lexer.getPosition();
+            parseAsSubQueryAndExpectClosingBrace(lexer, null);
+            final CharSequence query = lexer.immutableBetween(queryLo, lexer.lastTokenPosition());
+            tok = tok(lexer, "'to'");
+            if (!isToKeyword(tok)) {
+                throw SqlException.$(lexer.lastTokenPosition(), "'to' expected");
+            }
+            return parseCopyTo(lexer, query);
+        }
+        lexer.unparseLast();
+
         ExpressionNode target = expectExpr(lexer);
-        CharSequence tok = tok(lexer, "'from' or 'to' or 'cancel'");
+        tok = tok(lexer, "'from' or 'to' or 'cancel'");
+
+        if (isToKeyword(tok)) {
+            return parseCopyTo(lexer, target.token);
+        }
 
         if (isCancelKeyword(tok)) {
             CopyModel model = copyModelPool.next();
@@ -368,71 +387,91 @@ public final class SqlParser {
             CopyModel model = copyModelPool.next();
             model.setTarget(target);
             model.setFileName(fileName);
+            return parseCopyOptions(lexer, model);
+        }
+        throw SqlException.$(lexer.lastTokenPosition(), "'from' expected");
+    }
 
-            tok = optTok(lexer);
-            if (tok != null && isWithKeyword(tok)) {
-                tok = tok(lexer, "copy option");
-                while (tok != null && !isSemicolon(tok)) {
-                    if (isHeaderKeyword(tok)) {
-                        model.setHeader(isTrueKeyword(tok(lexer, "'true' or 'false'")));
-                        tok = optTok(lexer);
-                    } else if (isPartitionKeyword(tok)) {
-                        expectTok(lexer, "by");
-                        tok = tok(lexer, "year month day hour");
-                        int partitionBy = PartitionBy.fromString(tok);
-                        if (partitionBy == -1) {
-                            throw SqlException.$(lexer.getPosition(), "'NONE', 'HOUR', 'DAY', 'MONTH' or 'YEAR' expected");
-                        }
-                        model.setPartitionBy(partitionBy);
-                        tok = optTok(lexer);
-                    } else if (isTimestampKeyword(tok)) {
-                        tok = tok(lexer, "timestamp column name expected");
-                        CharSequence columnName = GenericLexer.immutableOf(GenericLexer.unquote(tok));
-                        if (!TableUtils.isValidColumnName(columnName, configuration.getMaxFileNameLength())) {
-                            throw SqlException.$(lexer.getPosition(), "timestamp column name contains invalid characters");
-                        }
-                        model.setTimestampColumnName(columnName);
-                        tok = optTok(lexer);
-                    } else if (isFormatKeyword(tok)) {
-                        tok = tok(lexer, "timestamp format expected");
-                        CharSequence format = GenericLexer.immutableOf(GenericLexer.unquote(tok));
-                        model.setTimestampFormat(format);
-                        tok = optTok(lexer);
-                    } else if (isOnKeyword(tok)) {
-                        expectTok(lexer, "error");
-                        tok = tok(lexer, "skip_column skip_row abort");
-                        if (Chars.equalsIgnoreCase(tok, "skip_column")) {
-                            model.setAtomicity(Atomicity.SKIP_COL);
-                        } else if (Chars.equalsIgnoreCase(tok, "skip_row")) {
-                            model.setAtomicity(Atomicity.SKIP_ROW);
-                        } else if (Chars.equalsIgnoreCase(tok, "abort")) {
-                            model.setAtomicity(Atomicity.SKIP_ALL);
-                        } else {
-                            throw SqlException.$(lexer.getPosition(), "invalid 'on error' copy option found");
-                        }
-                        tok = optTok(lexer);
-                    } else if (isDelimiterKeyword(tok)) {
-                        tok = tok(lexer, "timestamp character expected");
-                        CharSequence delimiter = GenericLexer.immutableOf(GenericLexer.unquote(tok));
-                        if (delimiter == null || delimiter.length() != 1) {
-                            throw SqlException.$(lexer.getPosition(), "delimiter is empty or contains more than 1 character");
-                        }
-                        char delimiterChar = delimiter.charAt(0);
-                        if (delimiterChar > 127) {
-                            throw SqlException.$(lexer.getPosition(), "delimiter is not an ascii character");
-                        }
-                        model.setDelimiter((byte) delimiterChar);
-                        tok = optTok(lexer);
+    private CopyModel parseCopyOptions(GenericLexer lexer, CopyModel model) throws SqlException {
+        CharSequence tok = optTok(lexer);
+        if (tok != null && isWithKeyword(tok)) {
+            tok = tok(lexer, "copy option");
+            while (tok != null && !isSemicolon(tok)) {
+                if (model.isExport() && !isHeaderKeyword(tok) && !isDelimiterKeyword(tok)) {
+                    throw SqlException.$(lexer.lastTokenPosition(), "unexpected export option");
+                }
+                if (isHeaderKeyword(tok)) {
+                    model.setHeader(isTrueKeyword(tok(lexer, "'true' or 'false'")));
+                    tok = optTok(lexer);
+                } else if (isPartitionKeyword(tok)) {
+                    expectTok(lexer, "by");
+                    tok = tok(lexer, "year month day hour");
+                    int partitionBy = PartitionBy.fromString(tok);
+                    if (partitionBy == -1) {
+                        throw SqlException.$(lexer.getPosition(), "'NONE', 'HOUR', 'DAY', 'MONTH' or 'YEAR' expected");
+                    }
+                    model.setPartitionBy(partitionBy);
+                    tok = optTok(lexer);
+                } else if (isTimestampKeyword(tok)) {
+                    tok = tok(lexer, "timestamp column name expected");
+                    CharSequence columnName = GenericLexer.immutableOf(GenericLexer.unquote(tok));
+                    if (!TableUtils.isValidColumnName(columnName, configuration.getMaxFileNameLength())) {
+                        throw SqlException.$(lexer.getPosition(), "timestamp column name contains invalid characters");
+                    }
+                    model.setTimestampColumnName(columnName);
+                    tok = optTok(lexer);
+                } else if (isFormatKeyword(tok)) {
+                    tok = tok(lexer, "timestamp format expected");
+                    CharSequence format = GenericLexer.immutableOf(GenericLexer.unquote(tok));
+                    model.setTimestampFormat(format);
+                    tok = optTok(lexer);
+                } else if (isOnKeyword(tok)) {
+                    expectTok(lexer, "error");
+                    tok = tok(lexer, "skip_column skip_row abort");
+                    if (Chars.equalsIgnoreCase(tok, "skip_column")) {
+                        model.setAtomicity(Atomicity.SKIP_COL);
+                    } else if (Chars.equalsIgnoreCase(tok, "skip_row")) {
+                        model.setAtomicity(Atomicity.SKIP_ROW);
+                    } else if (Chars.equalsIgnoreCase(tok, "abort")) {
+                        model.setAtomicity(Atomicity.SKIP_ALL);
                     } else {
-                        throw SqlException.$(lexer.lastTokenPosition(), "unexpected option");
+                        throw SqlException.$(lexer.getPosition(), "invalid 'on error' copy option found");
+                    }
+                    tok = optTok(lexer);
+                } else if (isDelimiterKeyword(tok)) {
+                    tok = tok(lexer, "timestamp character expected");
+                    CharSequence delimiter = GenericLexer.immutableOf(GenericLexer.unquote(tok));
+                    if (delimiter == null || delimiter.length() != 1) {
+                        throw SqlException.$(lexer.getPosition(), "delimiter is empty or contains more than 1 character");
+                    }
+                    char delimiterChar = delimiter.charAt(0);
+                    if (delimiterChar > 127) {
+                        throw SqlException.$(lexer.getPosition(), "delimiter is not an ascii character");
                     }
+                    model.setDelimiter((byte) delimiterChar);
+                    tok = optTok(lexer);
+                } else {
+                    throw SqlException.$(lexer.lastTokenPosition(), "unexpected option");
                 }
-            } else if (tok != null && !SqlKeywords.isSemicolon(tok)) {
-                throw SqlException.$(lexer.lastTokenPosition(), "'with' expected");
             }
-            return model;
+        } else if (tok != null && !SqlKeywords.isSemicolon(tok)) {
+            throw SqlException.$(lexer.lastTokenPosition(), "'with' expected");
         }
-        throw SqlException.$(lexer.lastTokenPosition(), "'from' expected");
+        return model;
+    }
+
+    private CopyModel parseCopyTo(GenericLexer lexer, CharSequence query) throws SqlException {
+        final ExpressionNode fileName = expectExpr(lexer);
+        if (fileName.token.length() < 3 && Chars.startsWith(fileName.token, '\'')) {
+            throw SqlException.$(fileName.position, "file name expected");
+        }
+
+        CopyModel model = copyModelPool.next();
+        model.setQuery(query);
+        model.setFileName(fileName);
+        // exported file starts with column names unless asked otherwise
+        model.setHeader(true);
+        return parseCopyOptions(lexer, model);
     }
 
     private ExecutionModel parseCreateStatement(GenericLexer lexer, SqlExecutionContext executionContext) throws SqlException {
@@ -560,6 +599,11 @@ public final class SqlParser {
                     throw SqlException.position(lexer.getPosition()).put(" expected parameter after WITH");
                 }
             }
+
+            if (tok != null && isDedupKeyword(tok)) {
+                parseCreateTableDedupKeys(lexer, model);
+                tok = optTok(lexer);
+            }
         }
 
         model.setMaxUncommittedRows(maxUncommittedRows);
@@ -721,6 +765,38 @@ public final class SqlParser {
         }
     }
 
+    private void parseCreateTableDedupKeys(GenericLexer lexer, CreateTableModel model) throws SqlException {
+        if (!PartitionBy.isPartitioned(model.getPartitionBy())) {
+            throw SqlException.position(lexer.lastTokenPosition()).put("deduplication is possible only on partitioned tables");
+        }
+        expectTok(lexer, "upsert");
+        expectTok(lexer, "keys");
+        expectTok(lexer, '(');
+        final int timestampIndex = model.getTimestampIndex();
+        boolean timestampKey = false;
+        CharSequence tok;
+        do {
+            final ExpressionNode columnName = expectLiteral(lexer);
+            final int columnIndex = getCreateTableColumnIndex(model, columnName.token, columnName.position);
+            // type is not known yet for "create table as select", compiler validates it later
+            final int columnType = model.getColumnType(columnIndex);
+            if (ColumnType.isVariableLength(columnType)) {
+                throw SqlException.position(columnName.position)
+                        .put("deduplication key column must be of fixed size type [column=").put(columnName.token)
+                        .put(", type=").put(ColumnType.nameOf(columnType))
+                        .put(']');
+            }
+            model.setDedupKeyFlag(columnIndex);
+            timestampKey |= columnIndex == timestampIndex;
+            tok = tok(lexer, "',' or ')'");
+        } while (Chars.equals(tok, ','));
+        expectTok(tok, lexer.lastTokenPosition(), ')');
+
+        if (!timestampKey) {
+            throw SqlException.position(lexer.lastTokenPosition()).put("deduplication keys must include the designated timestamp column");
+        }
+    }
+
     private void parseCreateTableIndexDef(GenericLexer lexer, CreateTableModel model) throws SqlException {
         expectTok(lexer, '(');
         final CharSequence columnName = expectLiteral(lexer).token;
@@ -980,6 +1056,72 @@ public final class SqlParser {
         return updateQueryModel;
     }
 
+    // returns frame bound as offset from the current row, negative offsets are preceding rows;
+    // RANGE offsets are converted to microseconds
+    private long parseFrameBound(GenericLexer lexer, int framingMode) throws SqlException {
+        CharSequence tok = tok(lexer, "'unbounded', 'current' or frame offset");
+        if (isUnboundedKeyword(tok)) {
+            tok = tok(lexer, "'preceding' or 'following'");
+            if (isPrecedingKeyword(tok)) {
+                return AnalyticColumn.UNBOUNDED_PRECEDING;
+            }
+            if (isFollowingKeyword(tok)) {
+                return AnalyticColumn.UNBOUNDED_FOLLOWING;
+            }
+            throw SqlException.$(lexer.lastTokenPosition(), "'preceding' or 'following' expected");
+        }
+
+        if (isCurrentKeyword(tok)) {
+            expectTok(lexer, "row");
+            return 0;
+        }
+
+        final int offsetPos = lexer.lastTokenPosition();
+        long offset;
+        try {
+            offset = Numbers.parseLong(tok);
+        } catch (NumericException e) {
+            throw SqlException.$(offsetPos, "'unbounded', 'current' or non-negative integer frame offset expected");
+        }
+
+        tok = tok(lexer, "'preceding' or 'following'");
+        if (framingMode == AnalyticColumn.FRAMING_RANGE && !isPrecedingKeyword(tok) && !isFollowingKeyword(tok)) {
+            final long unit;
+            if (isMicrosecondsKeyword(tok)) {
+                unit = 1;
+            } else if (isMillisecondsKeyword(tok)) {
+                unit = Timestamps.MILLI_MICROS;
+            } else if (isSecondKeyword(tok)) {
+                unit = Timestamps.SECOND_MICROS;
+            } else if (isMinuteKeyword(tok)) {
+                unit = Timestamps.MINUTE_MICROS;
+            } else if (isHourKeyword(tok)) {
+                unit = Timestamps.HOUR_MICROS;
+            } else if (isDayKeyword(tok)) {
+                unit = Timestamps.DAY_MICROS;
+            } else if (isWeekKeyword(tok)) {
+                unit = Timestamps.WEEK_MICROS;
+            } else {
+                throw SqlException.$(lexer.lastTokenPosition(), "'preceding', 'following' or time unit expected");
+            }
+            if (offset > Long.MAX_VALUE / unit - 1) {
+                throw SqlException.$(offsetPos, "frame offset is too large");
+            }
+            offset *= unit;
+            tok = tok(lexer, "'preceding' or 'following'");
+        } else if (offset == Long.MAX_VALUE) {
+            throw SqlException.$(offsetPos, "frame offset is too large");
+        }
+
+        if (isPrecedingKeyword(tok)) {
+            return -offset;
+        }
+        if (isFollowingKeyword(tok)) {
+            return offset;
+        }
+        throw SqlException.$(lexer.lastTokenPosition(), "'preceding' or 'following' expected");
+    }
+
     private void parseFromClause(GenericLexer lexer, QueryModel model, QueryModel masterModel) throws SqlException {
         CharSequence tok = expectTableNameOrSubQuery(lexer);
         // expect "(" in case of sub-query
@@ -1557,6 +1699,36 @@ public final class SqlParser {
                         }
                     } while (Chars.equals(tok, ','));
                 }
+
+                if (isRowsKeyword(tok) || isRangeKeyword(tok)) {
+                    final int framingMode = isRowsKeyword(tok) ? AnalyticColumn.FRAMING_ROWS : AnalyticColumn.FRAMING_RANGE;
+                    final int framingModePos = lexer.lastTokenPosition();
+                    final long rowsLo;
+                    final long rowsHi;
+                    tok = tok(lexer, "'between', 'unbounded', 'current' or frame offset");
+                    if (isBetweenKeyword(tok)) {
+                        rowsLo = parseFrameBound(lexer, framingMode);
+                        expectTok(lexer, "and");
+                        rowsHi = parseFrameBound(lexer, framingMode);
+                    } else {
+                        // short form, frame ends at current row
+                        lexer.unparseLast();
+                        rowsLo = parseFrameBound(lexer, framingMode);
+                        rowsHi = 0;
+                    }
+
+                    if (rowsLo == AnalyticColumn.UNBOUNDED_FOLLOWING) {
+                        throw SqlException.$(framingModePos, "frame start cannot be UNBOUNDED FOLLOWING");
+                    }
+                    if (rowsHi == AnalyticColumn.UNBOUNDED_PRECEDING) {
+                        throw SqlException.$(framingModePos, "frame end cannot be UNBOUNDED PRECEDING");
+                    }
+                    if (rowsLo > rowsHi) {
+                        throw SqlException.$(framingModePos, "frame start is after frame end");
+                    }
+                    ((AnalyticColumn) col).setFrame(framingMode, framingModePos, rowsLo, rowsHi);
+                    tok = tokIncludingLocalBrace(lexer, "')'");
+                }
                 expectTok(tok, lexer.lastTokenPosition(), ')');
                 tok = optTok(lexer);
 
@@ -597,6 +597,12 @@ public class UpdateOperatorImpl extends PurgingOperator implements QuietCloseabl
             path.trimTo(rootLen);
             TableUtils.setPathForPartition(path, tableWriter.getPartitionBy(), partitionTimestamp, false);
             TableUtils.txnPartitionConditionally(path, partitionNameTxn);
+            if (!forWrite && TableUtils.isPartitionCompressed(ff, path)) {
+                throw CairoException.nonCritical()
+                        .put("cannot update compressed partition, decompress it first [table=").put(tableWriter.getTableName())
+                        .put(", partition=").ts(partitionTimestamp)
+                        .put(']');
+            }
             int pathTrimToLen = path.length();
             for (int i = 0, n = updateColumnIndexes.size(); i < n; i++) {
                 int columnIndex = updateColumnIndexes.get(i);
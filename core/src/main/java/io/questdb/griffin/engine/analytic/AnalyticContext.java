@@ -31,12 +31,24 @@ import io.questdb.cairo.sql.VirtualRecord;
 public interface AnalyticContext {
     boolean baseSupportsRandomAccess();
 
+    // one of AnalyticColumn.FRAMING_* constants
+    int getFramingMode();
+
     ColumnTypes getPartitionByKeyTypes();
 
     VirtualRecord getPartitionByRecord();
 
     RecordSink getPartitionBySink();
 
+    // frame end, offset from the current row, see AnalyticColumn
+    long getRowsHi();
+
+    // frame start, offset from the current row, see AnalyticColumn
+    long getRowsLo();
+
+    // index of ORDER BY column when analytic is ordered by single ascending timestamp, -1 otherwise
+    int getTimestampIndex();
+
     boolean isEmpty();
 
     boolean isOrdered();
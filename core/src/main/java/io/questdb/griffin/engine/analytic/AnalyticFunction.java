@@ -36,12 +36,30 @@ public interface AnalyticFunction extends Function {
     int STREAM = 1;
     int THREE_PASS = 3;
     int TWO_PASS = 2;
+    // value is computed by computeNext() as records arrive, result set does not have to be cached
+    int ZERO_PASS = 0;
+
+    /**
+     * Computes function value for the record and moves function state forward. Records
+     * must arrive in the order of the analytic ORDER BY clause. The value is then available via
+     * getXXX() methods until the next call. Called only when {@link #getPassCount()} is {@link #ZERO_PASS}.
+     *
+     * @param record record in the layout the function arguments and PARTITION BY were parsed against
+     */
+    default void computeNext(Record record) {
+        throw new UnsupportedOperationException();
+    }
+
+    default int getPassCount() {
+        return STREAM;
+    }
 
     void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order);
 
     void pass1(Record record, long recordOffset, AnalyticSPI spi);
 
-    void pass2(Record record);
+    // called for each cached record after pass1 is complete for all records, only when pass count is TWO_PASS
+    void pass2(Record record, long recordOffset, AnalyticSPI spi);
 
     void preparePass2(RecordCursor cursor);
 
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.analytic;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.AbstractVirtualFunctionRecordCursor;
+import io.questdb.griffin.engine.table.SelectedRecord;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+/**
+ * Computes analytic functions in a single pass over the base cursor without caching the result set.
+ * Used when base cursor is already in the order required by all analytic functions, which is the case
+ * when they are all ordered by the designated timestamp. Analytic functions keep their running state
+ * per partition and produce a value for each record as it is read.
+ */
+public class AnalyticRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final ObjList<AnalyticFunction> analyticFunctions;
+    private final RecordCursorFactory base;
+    private final AnalyticRecordCursor cursor;
+    private final ObjList<Function> functions;
+
+    /**
+     * @param metadata           factory metadata
+     * @param base               base factory, must produce records in the analytic order
+     * @param functions          output column functions, base column references and analytic functions
+     * @param analyticFunctions  analytic functions, subset of output functions
+     * @param chainColumnIndexes base column index for every column of the layout that analytic function arguments
+     *                           and PARTITION BY clauses were parsed against
+     */
+    public AnalyticRecordCursorFactory(
+            RecordMetadata metadata,
+            RecordCursorFactory base,
+            ObjList<Function> functions,
+            ObjList<AnalyticFunction> analyticFunctions,
+            IntList chainColumnIndexes
+    ) {
+        super(metadata);
+        this.base = base;
+        this.functions = functions;
+        this.analyticFunctions = analyticFunctions;
+        this.cursor = new AnalyticRecordCursor(functions, chainColumnIndexes);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (Throwable th) {
+            cursor.close();
+            throw th;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("AnalyticRecordCursorFactory");
+        sink.attr("functions");
+        sink.val(analyticFunctions);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        Misc.freeObjList(functions);
+        Misc.free(base);
+    }
+
+    private class AnalyticRecordCursor extends AbstractVirtualFunctionRecordCursor {
+        private final SelectedRecord analyticRecord;
+        private final IntList chainColumnIndexes;
+        // symbol tables in the layout of analytic function arguments
+        private final SymbolTableSource chainSymbolTableSource = new SymbolTableSource() {
+            @Override
+            public SymbolTable getSymbolTable(int columnIndex) {
+                return baseCursor.getSymbolTable(chainColumnIndexes.getQuick(columnIndex));
+            }
+
+            @Override
+            public SymbolTable newSymbolTable(int columnIndex) {
+                return baseCursor.newSymbolTable(chainColumnIndexes.getQuick(columnIndex));
+            }
+        };
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        private boolean isOpen = true;
+
+        public AnalyticRecordCursor(ObjList<Function> functions, IntList chainColumnIndexes) {
+            super(functions, false);
+            this.chainColumnIndexes = chainColumnIndexes;
+            this.analyticRecord = new SelectedRecord(chainColumnIndexes);
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                super.close();
+                // releases per-partition state
+                for (int i = 0, n = analyticFunctions.size(); i < n; i++) {
+                    analyticFunctions.getQuick(i).reset();
+                }
+                isOpen = false;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (baseCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                for (int i = 0, n = analyticFunctions.size(); i < n; i++) {
+                    analyticFunctions.getQuick(i).computeNext(analyticRecord);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private void of(RecordCursor baseCursor, SqlExecutionContext executionContext) throws SqlException {
+            if (!isOpen) {
+                for (int i = 0, n = analyticFunctions.size(); i < n; i++) {
+                    final AnalyticFunction f = analyticFunctions.getQuick(i);
+                    if (f instanceof Reopenable) {
+                        ((Reopenable) f).reopen();
+                    }
+                }
+                isOpen = true;
+            }
+            of(baseCursor);
+            analyticRecord.of(baseCursor.getRecord());
+            circuitBreaker = executionContext.getCircuitBreaker();
+            final ObjList<Function> functions = AnalyticRecordCursorFactory.this.functions;
+            for (int i = 0, n = functions.size(); i < n; i++) {
+                final Function f = functions.getQuick(i);
+                if (f instanceof AnalyticFunction) {
+                    f.init(chainSymbolTableSource, executionContext);
+                    f.toTop();
+                } else {
+                    f.init(baseCursor, executionContext);
+                }
+            }
+        }
+    }
+}
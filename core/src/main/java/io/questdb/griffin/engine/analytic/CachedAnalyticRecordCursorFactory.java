@@ -46,6 +46,8 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
     private final CachedAnalyticRecordCursor cursor;
     private final ObjList<ObjList<AnalyticFunction>> orderedFunctions;
     private final int orderedGroupCount;
+    // functions that need to see the whole partition before they can produce values
+    private final ObjList<AnalyticFunction> twoPassFunctions = new ObjList<>();
     @Nullable
     private final ObjList<AnalyticFunction> unorderedFunctions;
     private boolean closed = false;
@@ -98,13 +100,24 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
         }
 
         this.unorderedFunctions = unorderedFunctions;
+        for (int i = 0, n = allFunctions.size(); i < n; i++) {
+            final AnalyticFunction f = allFunctions.getQuick(i);
+            if (f.getPassCount() == AnalyticFunction.TWO_PASS) {
+                twoPassFunctions.add(f);
+            }
+        }
     }
 
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
         final RecordCursor baseCursor = base.getCursor(executionContext);
-        cursor.of(baseCursor, executionContext);
-        return cursor;
+        try {
+            cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (Throwable th) {
+            cursor.close();
+            throw th;
+        }
     }
 
     @Override
@@ -260,10 +273,20 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
                 }
             }
 
+
+            // run pass2 for functions that need complete partitions, the order of records does not matter here
+            for (int j = 0, n = twoPassFunctions.size(); j < n; j++) {
+                final AnalyticFunction f = twoPassFunctions.getQuick(j);
+                recordChain.toTop();
+                while (recordChain.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    f.pass2(chainRecord, chainRecord.getRowId(), recordChain);
+                }
+            }
             recordChain.toTop();
         }
 
-        private void of(RecordCursor base, SqlExecutionContext context) {
+        private void of(RecordCursor base, SqlExecutionContext context) throws SqlException {
             this.base = base;
             if (!isOpen) {
                 recordChain.reopen();
@@ -272,6 +295,7 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
                 reopen(allFunctions);
                 isOpen = true;
             }
+            Function.init(allFunctions, this, context);
             buildRecordChain(context);
         }
 
@@ -0,0 +1,267 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.AnalyticSPI;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.ScalarFunction;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+/**
+ * Base for functions that are only valid with OVER clause, such as aggregates over a window frame.
+ * These factories are resolved ahead of regular functions with the same name when the function
+ * is called in analytic context.
+ */
+public abstract class AbstractWindowFunctionFactory implements FunctionFactory {
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final AnalyticContext analyticContext = sqlExecutionContext.getAnalyticContext();
+        if (analyticContext.isEmpty()) {
+            throw SqlException.$(position, "analytic function called in non-analytic context, make sure to add OVER clause");
+        }
+        return newInstance(position, args, argPositions, configuration, analyticContext);
+    }
+
+    // lag() and lead() accept optional constant offset as the second argument
+    static long getOffset(ObjList<Function> args, IntList argPositions) throws SqlException {
+        if (args.size() > 2) {
+            throw SqlException.$(argPositions.getQuick(2), "too many arguments");
+        }
+        if (args.size() < 2) {
+            return 1;
+        }
+        final Function offsetArg = args.getQuick(1);
+        final int offsetType = ColumnType.tagOf(offsetArg.getType());
+        if (!offsetArg.isConstant() || (offsetType != ColumnType.BYTE && offsetType != ColumnType.SHORT && offsetType != ColumnType.INT && offsetType != ColumnType.LONG)) {
+            throw SqlException.$(argPositions.getQuick(1), "offset must be a constant integer");
+        }
+        final long offset = offsetArg.getLong(null);
+        if (offset < 0) {
+            throw SqlException.$(argPositions.getQuick(1), "offset must be a non-negative integer");
+        }
+        Misc.free(offsetArg);
+        return offset;
+    }
+
+    protected abstract Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            AnalyticContext analyticContext
+    ) throws SqlException;
+
+    static class DoubleWindowFunction extends DoubleFunction implements ScalarFunction, AnalyticFunction, Reopenable {
+        protected final WindowFrame frame;
+        protected int columnIndex;
+
+        DoubleWindowFunction(WindowFrame frame) {
+            this.frame = frame;
+        }
+
+        @Override
+        public void close() {
+            frame.close();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            frame.computeNext(record);
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return frame.getDoubleValue();
+        }
+
+        @Override
+        public int getPassCount() {
+            return frame.getPassCount();
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            frame.init(symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+        }
+
+        @Override
+        public boolean isReadThreadSafe() {
+            return false;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            frame.computeNext(record);
+            if (frame.getPassCount() == ZERO_PASS) {
+                Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), frame.getDoubleValue());
+            }
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+            frame.pass2(record);
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), frame.getDoubleValue());
+        }
+
+        @Override
+        public void preparePass2(RecordCursor cursor) {
+        }
+
+        @Override
+        public void reopen() {
+            frame.reopen();
+        }
+
+        @Override
+        public void reset() {
+            frame.reset();
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+
+        @Override
+        public void toTop() {
+            frame.toTop();
+        }
+    }
+
+    static class LongWindowFunction extends LongFunction implements ScalarFunction, AnalyticFunction, Reopenable {
+        private final WindowFrame frame;
+        private int columnIndex;
+
+        LongWindowFunction(WindowFrame frame) {
+            this.frame = frame;
+        }
+
+        @Override
+        public void close() {
+            frame.close();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            frame.computeNext(record);
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return frame.getLongValue();
+        }
+
+        @Override
+        public int getPassCount() {
+            return frame.getPassCount();
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            frame.init(symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+        }
+
+        @Override
+        public boolean isReadThreadSafe() {
+            return false;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            frame.computeNext(record);
+            if (frame.getPassCount() == ZERO_PASS) {
+                Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), frame.getLongValue());
+            }
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+            frame.pass2(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), frame.getLongValue());
+        }
+
+        @Override
+        public void preparePass2(RecordCursor cursor) {
+        }
+
+        @Override
+        public void reopen() {
+            frame.reopen();
+        }
+
+        @Override
+        public void reset() {
+            frame.reset();
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+
+        @Override
+        public void toTop() {
+            frame.toTop();
+        }
+    }
+}
@@ -70,33 +70,58 @@ public class RankFunctionFactory implements FunctionFactory {
             arrayColumnTypes.add(ColumnType.LONG); // current index
             arrayColumnTypes.add(ColumnType.LONG); // offset
             Map map = MapFactory.createMap(configuration, analyticContext.getPartitionByKeyTypes(), arrayColumnTypes);
-            return new RankFunction(map, analyticContext.getPartitionByRecord(), analyticContext.getPartitionBySink());
+            return new RankFunction(
+                    map,
+                    analyticContext.getPartitionByRecord(),
+                    analyticContext.getPartitionBySink(),
+                    analyticContext.isOrdered(),
+                    analyticContext.getTimestampIndex()
+            );
         }
         if (analyticContext.isOrdered()) {
-            return new OrderRankFunction();
+            return new OrderRankFunction(analyticContext.getTimestampIndex());
         }
         return new SequenceRankFunction();
     }
 
     private static class OrderRankFunction extends LongFunction implements ScalarFunction, AnalyticFunction, Reopenable {
 
+        // index of ORDER BY timestamp column when records can be ranked as they arrive, -1 otherwise
+        private final int timestampIndex;
         private int columnIndex;
         private long currentIndex = 0;
+        private long lastTimestamp;
         private long maxIndex = 0;
         private long offset = 0;
         private RecordComparator recordComparator;
 
-        public OrderRankFunction() {
+        public OrderRankFunction(int timestampIndex) {
+            this.timestampIndex = timestampIndex;
         }
 
         @Override
         public void close() {
         }
 
+        @Override
+        public void computeNext(Record record) {
+            // records arrive in timestamp order, peers have the same timestamp
+            final long timestamp = record.getTimestamp(timestampIndex);
+            if (maxIndex == 0 || timestamp != lastTimestamp) {
+                currentIndex = maxIndex + 1;
+                lastTimestamp = timestamp;
+            }
+            maxIndex++;
+        }
+
         @Override
         public long getLong(Record rec) {
-            // not called
-            throw new UnsupportedOperationException();
+            return currentIndex;
+        }
+
+        @Override
+        public int getPassCount() {
+            return timestampIndex != -1 ? ZERO_PASS : STREAM;
         }
 
         @Override
@@ -132,7 +157,7 @@ public class RankFunctionFactory implements FunctionFactory {
         }
 
         @Override
-        public void pass2(Record record) {
+        public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
         }
 
         @Override
@@ -155,6 +180,11 @@ public class RankFunctionFactory implements FunctionFactory {
         public void setColumnIndex(int columnIndex) {
             this.columnIndex = columnIndex;
         }
+
+        @Override
+        public void toTop() {
+            reset();
+        }
     }
 
     private static class RankFunction extends LongFunction implements ScalarFunction, AnalyticFunction, Reopenable {
@@ -165,13 +195,19 @@ public class RankFunctionFactory implements FunctionFactory {
         private final Map map;
         private final VirtualRecord partitionByRecord;
         private final RecordSink partitionBySink;
+        private final boolean ordered;
+        // index of ORDER BY timestamp column when records can be ranked as they arrive, -1 otherwise
+        private final int timestampIndex;
         private int columnIndex;
+        private long rank;
         private RecordComparator recordComparator;
 
-        public RankFunction(Map map, VirtualRecord partitionByRecord, RecordSink partitionBySink) {
+        public RankFunction(Map map, VirtualRecord partitionByRecord, RecordSink partitionBySink, boolean ordered, int timestampIndex) {
             this.partitionByRecord = partitionByRecord;
             this.partitionBySink = partitionBySink;
             this.map = map;
+            this.ordered = ordered;
+            this.timestampIndex = timestampIndex;
         }
 
         @Override
@@ -180,10 +216,43 @@ public class RankFunctionFactory implements FunctionFactory {
             Misc.freeObjList(partitionByRecord.getFunctions());
         }
 
+        @Override
+        public void computeNext(Record record) {
+            partitionByRecord.of(record);
+
+            MapKey mapKey = map.withKey();
+            mapKey.put(partitionByRecord, partitionBySink);
+            MapValue mapValue = mapKey.createValue();
+            final long maxIndex = mapValue.isNew() ? 0 : mapValue.getLong(VAL_MAX_INDEX);
+
+            if (!ordered) {
+                // same as pass1() without comparator
+                rank = maxIndex + 1;
+            } else {
+                // offset slot keeps timestamp of the previous record in the partition
+                final long timestamp = record.getTimestamp(timestampIndex);
+                if (maxIndex == 0 || timestamp != mapValue.getLong(VAL_OFFSET)) {
+                    mapValue.putLong(VAL_CURRENT_INDEX, maxIndex + 1);
+                    mapValue.putLong(VAL_OFFSET, timestamp);
+                }
+                rank = mapValue.getLong(VAL_CURRENT_INDEX);
+            }
+            mapValue.putLong(VAL_MAX_INDEX, maxIndex + 1);
+        }
+
         @Override
         public long getLong(Record rec) {
-            // not called
-            throw new UnsupportedOperationException();
+            return rank;
+        }
+
+        @Override
+        public int getPassCount() {
+            return !ordered || timestampIndex != -1 ? ZERO_PASS : STREAM;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            Function.init(partitionByRecord.getFunctions(), symbolTableSource, executionContext);
         }
 
         @Override
@@ -235,7 +304,7 @@ public class RankFunctionFactory implements FunctionFactory {
         }
 
         @Override
-        public void pass2(Record record) {
+        public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
         }
 
         @Override
@@ -256,6 +325,11 @@ public class RankFunctionFactory implements FunctionFactory {
         public void setColumnIndex(int columnIndex) {
             this.columnIndex = columnIndex;
         }
+
+        @Override
+        public void toTop() {
+            map.clear();
+        }
     }
 
     private static class SequenceRankFunction extends LongFunction implements ScalarFunction, AnalyticFunction, Reopenable {
@@ -269,10 +343,19 @@ public class RankFunctionFactory implements FunctionFactory {
         public void close() {
         }
 
+        @Override
+        public void computeNext(Record record) {
+        }
+
         @Override
         public long getLong(Record rec) {
-            // not called
-            throw new UnsupportedOperationException();
+            // without ORDER BY all records are peers
+            return 1;
+        }
+
+        @Override
+        public int getPassCount() {
+            return ZERO_PASS;
         }
 
         @Override
@@ -290,7 +373,7 @@ public class RankFunctionFactory implements FunctionFactory {
         }
 
         @Override
-        public void pass2(Record record) {
+        public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
         }
 
         @Override
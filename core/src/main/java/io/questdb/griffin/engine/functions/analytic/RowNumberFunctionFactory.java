@@ -94,10 +94,20 @@ public class RowNumberFunctionFactory implements FunctionFactory {
         public void close() {
         }
 
+        @Override
+        public void computeNext(Record record) {
+            next++;
+        }
+
         @Override
         public long getLong(Record rec) {
-            // not called
-            throw new UnsupportedOperationException();
+            // row number of the last record passed to computeNext()
+            return next - 1;
+        }
+
+        @Override
+        public int getPassCount() {
+            return ZERO_PASS;
         }
 
         @Override
@@ -116,7 +126,7 @@ public class RowNumberFunctionFactory implements FunctionFactory {
         }
 
         @Override
-        public void pass2(Record record) {
+        public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
         }
 
         @Override
@@ -137,6 +147,11 @@ public class RowNumberFunctionFactory implements FunctionFactory {
         public void setColumnIndex(int columnIndex) {
             this.columnIndex = columnIndex;
         }
+
+        @Override
+        public void toTop() {
+            reset();
+        }
     }
 
     private static class RowNumberFunction extends LongFunction implements ScalarFunction, AnalyticFunction, Reopenable {
@@ -144,6 +159,7 @@ public class RowNumberFunctionFactory implements FunctionFactory {
         private final VirtualRecord partitionByRecord;
         private final RecordSink partitionBySink;
         private int columnIndex;
+        private long rowNumber;
 
         public RowNumberFunction(Map map, VirtualRecord partitionByRecord, RecordSink partitionBySink) {
             this.map = map;
@@ -157,10 +173,24 @@ public class RowNumberFunctionFactory implements FunctionFactory {
             Misc.freeObjList(partitionByRecord.getFunctions());
         }
 
+        @Override
+        public void computeNext(Record record) {
+            rowNumber = next(record);
+        }
+
         @Override
         public long getLong(Record rec) {
-            // not called
-            throw new UnsupportedOperationException();
+            return rowNumber;
+        }
+
+        @Override
+        public int getPassCount() {
+            return ZERO_PASS;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            Function.init(partitionByRecord.getFunctions(), symbolTableSource, executionContext);
         }
 
         @Override
@@ -174,22 +204,11 @@ public class RowNumberFunctionFactory implements FunctionFactory {
 
         @Override
         public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
-            partitionByRecord.of(record);
-            MapKey key = map.withKey();
-            key.put(partitionByRecord, partitionBySink);
-            MapValue value = key.createValue();
-            long x;
-            if (value.isNew()) {
-                x = 0;
-            } else {
-                x = value.getLong(0);
-            }
-            value.putLong(0, x + 1);
-            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), x + 1);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), next(record));
         }
 
         @Override
-        public void pass2(Record record) {
+        public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
         }
 
         @Override
@@ -210,16 +229,46 @@ public class RowNumberFunctionFactory implements FunctionFactory {
         public void setColumnIndex(int columnIndex) {
             this.columnIndex = columnIndex;
         }
+
+        @Override
+        public void toTop() {
+            map.clear();
+        }
+
+        private long next(Record record) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.createValue();
+            long x;
+            if (value.isNew()) {
+                x = 0;
+            } else {
+                x = value.getLong(0);
+            }
+            value.putLong(0, x + 1);
+            return x + 1;
+        }
     }
 
     private static class SequenceRowNumberFunction extends LongFunction implements ScalarFunction, AnalyticFunction, Reopenable {
         private int columnIndex;
         private long next = 1;
 
+        @Override
+        public void computeNext(Record record) {
+            next++;
+        }
+
         @Override
         public long getLong(Record rec) {
-            // not called
-            throw new UnsupportedOperationException();
+            // row number of the last record passed to computeNext()
+            return next - 1;
+        }
+
+        @Override
+        public int getPassCount() {
+            return ZERO_PASS;
         }
 
         @Override
@@ -237,7 +286,7 @@ public class RowNumberFunctionFactory implements FunctionFactory {
         }
 
         @Override
-        public void pass2(Record record) {
+        public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
         }
 
         @Override
@@ -0,0 +1,481 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.AnalyticSPI;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.groupby.SimpleMapValue;
+import io.questdb.griffin.model.AnalyticColumn;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Aggregate state of a window function. State is kept per PARTITION BY key in a map, frames that
+ * do not start at UNBOUNDED PRECEDING additionally keep a ring buffer of (timestamp, value) entries
+ * per partition. Ring buffers live in a single contiguous memory block and are addressed by offset.
+ * <p>
+ * Records must be fed in the order of the analytic ORDER BY clause.
+ */
+class WindowFrame implements Reopenable {
+    static final int AGG_AVG = 0;
+    static final int AGG_COUNT = 1;
+    static final int AGG_FIRST = 2;
+    static final int AGG_LAG = 3;
+    static final int AGG_LAST = 4;
+    static final int AGG_LEAD = 5;
+    static final int AGG_MAX = 6;
+    static final int AGG_MIN = 7;
+    static final int AGG_SUM = 8;
+    // whole partition is visible to every row, value is known only after all rows are seen
+    static final int FRAME_PARTITION = 0;
+    // from the partition start to the current row
+    static final int FRAME_RUNNING = 1;
+    // bounded number of rows or time range before the current row, which must be the frame end
+    static final int FRAME_SLIDING = 2;
+    private static final int ENTRY_SIZE = 2 * Long.BYTES;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int VAL_AGG = 0;
+    private static final int VAL_BUF_CAPACITY = 4;
+    private static final int VAL_BUF_HEAD = 5;
+    private static final int VAL_BUF_OFFSET = 3;
+    private static final int VAL_BUF_SIZE = 6;
+    private static final int VAL_NOT_NULL_COUNT = 1;
+    private static final int VAL_ROW_COUNT = 2;
+    private static final int VALUE_COUNT = 7;
+    private final int agg;
+    @Nullable
+    private final Function arg;
+    // ring buffers of all partitions
+    private final MemoryCARW buffers;
+    private final int frameKind;
+    // max rows in ROWS frame including current row, -1 for RANGE frames
+    private final long maxRows;
+    @Nullable
+    private final Map map;
+    private final VirtualRecord partitionByRecord;
+    private final RecordSink partitionBySink;
+    // max distance from current timestamp in RANGE frame, -1 for ROWS frames
+    private final long range;
+    private final SimpleMapValue singleState;
+    private final int timestampIndex;
+    private double doubleValue;
+    private long longValue;
+    private boolean singleStateInitialized;
+
+    private WindowFrame(
+            CairoConfiguration configuration,
+            AnalyticContext analyticContext,
+            @Nullable Function arg,
+            int agg,
+            int frameKind,
+            long maxRows,
+            long range
+    ) {
+        this.arg = arg;
+        this.agg = agg;
+        this.frameKind = frameKind;
+        this.maxRows = maxRows;
+        this.range = range;
+        this.timestampIndex = analyticContext.getTimestampIndex();
+        this.partitionByRecord = analyticContext.getPartitionByRecord();
+        this.partitionBySink = analyticContext.getPartitionBySink();
+        if (partitionByRecord != null) {
+            final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+            valueTypes.add(ColumnType.DOUBLE);
+            for (int i = 1; i < VALUE_COUNT; i++) {
+                valueTypes.add(ColumnType.LONG);
+            }
+            this.map = MapFactory.createMap(configuration, analyticContext.getPartitionByKeyTypes(), valueTypes);
+            this.singleState = null;
+        } else {
+            this.map = null;
+            this.singleState = new SimpleMapValue(VALUE_COUNT);
+        }
+        this.buffers = Vm.getCARWInstance(
+                configuration.getSqlAnalyticStorePageSize(),
+                configuration.getSqlAnalyticStoreMaxPages(),
+                MemoryTag.NATIVE_DEFAULT
+        );
+    }
+
+    static WindowFrame newInstance(
+            int position,
+            CairoConfiguration configuration,
+            AnalyticContext analyticContext,
+            @Nullable Function arg,
+            int agg
+    ) throws SqlException {
+        final int framingMode = analyticContext.getFramingMode();
+        final long rowsLo = analyticContext.getRowsLo();
+        final long rowsHi = analyticContext.getRowsHi();
+
+        if (framingMode == AnalyticColumn.FRAMING_DEFAULT) {
+            // without ORDER BY all rows of the partition are peers and belong to the frame
+            return new WindowFrame(
+                    configuration,
+                    analyticContext,
+                    arg,
+                    agg,
+                    analyticContext.isOrdered() ? FRAME_RUNNING : FRAME_PARTITION,
+                    -1,
+                    -1
+            );
+        }
+
+        if (rowsLo == AnalyticColumn.UNBOUNDED_PRECEDING) {
+            if (rowsHi == AnalyticColumn.UNBOUNDED_FOLLOWING) {
+                return new WindowFrame(configuration, analyticContext, arg, agg, FRAME_PARTITION, -1, -1);
+            }
+            if (rowsHi == 0) {
+                return new WindowFrame(configuration, analyticContext, arg, agg, FRAME_RUNNING, -1, -1);
+            }
+        } else if (rowsHi == 0) {
+            if (framingMode == AnalyticColumn.FRAMING_ROWS) {
+                return new WindowFrame(configuration, analyticContext, arg, agg, FRAME_SLIDING, 1 - rowsLo, -1);
+            }
+            if (analyticContext.getTimestampIndex() == -1) {
+                throw SqlException.$(position, "RANGE frame with offset requires ORDER BY on a single ascending timestamp column");
+            }
+            return new WindowFrame(configuration, analyticContext, arg, agg, FRAME_SLIDING, -1, -rowsLo);
+        }
+        throw SqlException.$(position, "frame is not supported, frame must end at CURRENT ROW or be UNBOUNDED on both ends");
+    }
+
+    // lag() and lead() ignore the frame, they look at the row at the fixed distance from the current row
+    static WindowFrame newOffsetInstance(
+            CairoConfiguration configuration,
+            AnalyticContext analyticContext,
+            Function arg,
+            int agg,
+            long offset
+    ) {
+        return new WindowFrame(configuration, analyticContext, arg, agg, FRAME_SLIDING, offset + 1, -1);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(map);
+        Misc.free(buffers);
+        if (partitionByRecord != null) {
+            Misc.freeObjList(partitionByRecord.getFunctions());
+        }
+        Misc.free(arg);
+    }
+
+    void computeNext(Record record) {
+        final MapValue state = getState(record);
+        final double value = arg != null ? arg.getDouble(record) : 1.0;
+        if (frameKind == FRAME_SLIDING) {
+            final long timestamp = timestampIndex != -1 ? record.getTimestamp(timestampIndex) : 0;
+            slide(state, timestamp, value);
+        } else {
+            accumulate(state, value);
+        }
+        computeValue(state);
+    }
+
+    double getDoubleValue() {
+        return doubleValue;
+    }
+
+    long getLongValue() {
+        return longValue;
+    }
+
+    int getPassCount() {
+        if (agg == AGG_LEAD) {
+            // values are written back to the cached rows seen earlier
+            return AnalyticFunction.STREAM;
+        }
+        return frameKind == FRAME_PARTITION ? AnalyticFunction.TWO_PASS : AnalyticFunction.ZERO_PASS;
+    }
+
+    void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (arg != null) {
+            arg.init(symbolTableSource, executionContext);
+        }
+        if (partitionByRecord != null) {
+            Function.init(partitionByRecord.getFunctions(), symbolTableSource, executionContext);
+        }
+    }
+
+    // lead(): the current value belongs to the row that is "offset" rows back in the same partition,
+    // the current row gets null unless a later row fills it in
+    void pass1Lead(Record record, long recordOffset, AnalyticSPI spi, int columnIndex) {
+        final MapValue state = getState(record);
+        final double value = arg.getDouble(record);
+        final long columnAddress = spi.getAddress(recordOffset, columnIndex);
+        if (maxRows == 1) {
+            Unsafe.getUnsafe().putDouble(columnAddress, value);
+            return;
+        }
+        Unsafe.getUnsafe().putDouble(columnAddress, Double.NaN);
+        if (state.getLong(VAL_BUF_SIZE) == maxRows - 1) {
+            final long headOffset = buffers.getLong(entryOffset(state, 0));
+            Unsafe.getUnsafe().putDouble(spi.getAddress(headOffset, columnIndex), value);
+            evict(state);
+        }
+        // ring buffer entries keep offsets of rows waiting for their lead value
+        push(state, recordOffset, Double.NaN);
+    }
+
+    void pass2(Record record) {
+        computeValue(getState(record));
+    }
+
+    @Override
+    public void reopen() {
+        if (map != null) {
+            map.reopen();
+        }
+        singleStateInitialized = false;
+    }
+
+    void reset() {
+        if (map != null) {
+            map.close();
+        }
+        buffers.close();
+        singleStateInitialized = false;
+    }
+
+    void toTop() {
+        if (map != null) {
+            map.clear();
+        }
+        buffers.truncate();
+        singleStateInitialized = false;
+    }
+
+    private static void initState(MapValue state) {
+        state.putDouble(VAL_AGG, Double.NaN);
+        state.putLong(VAL_NOT_NULL_COUNT, 0);
+        state.putLong(VAL_ROW_COUNT, 0);
+        state.putLong(VAL_BUF_OFFSET, -1);
+        state.putLong(VAL_BUF_CAPACITY, 0);
+        state.putLong(VAL_BUF_HEAD, 0);
+        state.putLong(VAL_BUF_SIZE, 0);
+    }
+
+    private void accumulate(MapValue state, double value) {
+        final long rowCount = state.getLong(VAL_ROW_COUNT) + 1;
+        state.putLong(VAL_ROW_COUNT, rowCount);
+        switch (agg) {
+            case AGG_FIRST:
+                if (rowCount == 1) {
+                    state.putDouble(VAL_AGG, value);
+                }
+                return;
+            case AGG_LAST:
+                state.putDouble(VAL_AGG, value);
+                return;
+            default:
+                break;
+        }
+
+        if (Double.isNaN(value)) {
+            return;
+        }
+        final long notNullCount = state.getLong(VAL_NOT_NULL_COUNT) + 1;
+        state.putLong(VAL_NOT_NULL_COUNT, notNullCount);
+        final double current = state.getDouble(VAL_AGG);
+        switch (agg) {
+            case AGG_SUM:
+            case AGG_AVG:
+                state.putDouble(VAL_AGG, notNullCount == 1 ? value : current + value);
+                break;
+            case AGG_MIN:
+                if (notNullCount == 1 || value < current) {
+                    state.putDouble(VAL_AGG, value);
+                }
+                break;
+            case AGG_MAX:
+                if (notNullCount == 1 || value > current) {
+                    state.putDouble(VAL_AGG, value);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void computeValue(MapValue state) {
+        final long notNullCount = state.getLong(VAL_NOT_NULL_COUNT);
+        switch (agg) {
+            case AGG_COUNT:
+                longValue = notNullCount;
+                break;
+            case AGG_AVG:
+                doubleValue = notNullCount > 0 ? state.getDouble(VAL_AGG) / notNullCount : Double.NaN;
+                break;
+            case AGG_SUM:
+                doubleValue = notNullCount > 0 ? state.getDouble(VAL_AGG) : Double.NaN;
+                break;
+            case AGG_MIN:
+            case AGG_MAX:
+                if (frameKind == FRAME_SLIDING) {
+                    doubleValue = scanMinMax(state);
+                } else {
+                    doubleValue = notNullCount > 0 ? state.getDouble(VAL_AGG) : Double.NaN;
+                }
+                break;
+            case AGG_FIRST:
+                doubleValue = frameKind == FRAME_SLIDING ? buffers.getDouble(entryOffset(state, 0) + Long.BYTES) : state.getDouble(VAL_AGG);
+                break;
+            case AGG_LAG:
+                // oldest entry is exactly "offset" rows back once the buffer is full
+                if (state.getLong(VAL_BUF_SIZE) == maxRows) {
+                    doubleValue = buffers.getDouble(entryOffset(state, 0) + Long.BYTES);
+                } else {
+                    doubleValue = Double.NaN;
+                }
+                break;
+            default:
+                // AGG_LAST
+                doubleValue = frameKind == FRAME_SLIDING ? buffers.getDouble(entryOffset(state, state.getLong(VAL_BUF_SIZE) - 1) + Long.BYTES) : state.getDouble(VAL_AGG);
+                break;
+        }
+    }
+
+    private long entryOffset(MapValue state, long index) {
+        return state.getLong(VAL_BUF_OFFSET) + ((state.getLong(VAL_BUF_HEAD) + index) % state.getLong(VAL_BUF_CAPACITY)) * ENTRY_SIZE;
+    }
+
+    private void evict(MapValue state) {
+        final long entryOffset = entryOffset(state, 0);
+        final double value = buffers.getDouble(entryOffset + Long.BYTES);
+        if (!Double.isNaN(value) && (agg == AGG_SUM || agg == AGG_AVG || agg == AGG_COUNT)) {
+            state.putLong(VAL_NOT_NULL_COUNT, state.getLong(VAL_NOT_NULL_COUNT) - 1);
+            state.putDouble(VAL_AGG, state.getDouble(VAL_AGG) - value);
+        }
+        state.putLong(VAL_BUF_HEAD, (state.getLong(VAL_BUF_HEAD) + 1) % state.getLong(VAL_BUF_CAPACITY));
+        state.putLong(VAL_BUF_SIZE, state.getLong(VAL_BUF_SIZE) - 1);
+    }
+
+    private MapValue getState(Record record) {
+        if (map != null) {
+            partitionByRecord.of(record);
+            final MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            final MapValue value = key.createValue();
+            if (value.isNew()) {
+                initState(value);
+            }
+            return value;
+        }
+        if (!singleStateInitialized) {
+            initState(singleState);
+            singleStateInitialized = true;
+        }
+        return singleState;
+    }
+
+    private void grow(MapValue state) {
+        final long capacity = state.getLong(VAL_BUF_CAPACITY);
+        final long size = state.getLong(VAL_BUF_SIZE);
+        long newCapacity = capacity == 0 ? INITIAL_CAPACITY : capacity * 2;
+        if (maxRows > 0 && newCapacity > maxRows) {
+            newCapacity = maxRows;
+        }
+        // the old ring buffer is abandoned, memory is reclaimed when the cursor is closed or rewound
+        final long newOffset = buffers.getAppendOffset();
+        buffers.appendAddressFor(newCapacity * ENTRY_SIZE);
+        if (size > 0) {
+            // unwrap ring buffer into the new block, head moves to index 0
+            final long oldOffset = state.getLong(VAL_BUF_OFFSET);
+            final long head = state.getLong(VAL_BUF_HEAD);
+            final long firstChunk = Math.min(size, capacity - head);
+            Vect.memcpy(buffers.addressOf(newOffset), buffers.addressOf(oldOffset + head * ENTRY_SIZE), firstChunk * ENTRY_SIZE);
+            if (firstChunk < size) {
+                Vect.memcpy(buffers.addressOf(newOffset + firstChunk * ENTRY_SIZE), buffers.addressOf(oldOffset), (size - firstChunk) * ENTRY_SIZE);
+            }
+        }
+        state.putLong(VAL_BUF_OFFSET, newOffset);
+        state.putLong(VAL_BUF_CAPACITY, newCapacity);
+        state.putLong(VAL_BUF_HEAD, 0);
+    }
+
+    private void push(MapValue state, long timestamp, double value) {
+        final long size = state.getLong(VAL_BUF_SIZE);
+        if (size == state.getLong(VAL_BUF_CAPACITY)) {
+            grow(state);
+        }
+        state.putLong(VAL_BUF_SIZE, size + 1);
+        final long entryOffset = entryOffset(state, size);
+        buffers.putLong(entryOffset, timestamp);
+        buffers.putDouble(entryOffset + Long.BYTES, value);
+        if (!Double.isNaN(value) && (agg == AGG_SUM || agg == AGG_AVG || agg == AGG_COUNT)) {
+            final long notNullCount = state.getLong(VAL_NOT_NULL_COUNT) + 1;
+            state.putLong(VAL_NOT_NULL_COUNT, notNullCount);
+            state.putDouble(VAL_AGG, notNullCount == 1 ? value : state.getDouble(VAL_AGG) + value);
+        }
+    }
+
+    private double scanMinMax(MapValue state) {
+        double result = Double.NaN;
+        for (long i = 0, n = state.getLong(VAL_BUF_SIZE); i < n; i++) {
+            final double value = buffers.getDouble(entryOffset(state, i) + Long.BYTES);
+            if (!Double.isNaN(value) && (Double.isNaN(result) || (agg == AGG_MIN ? value < result : value > result))) {
+                result = value;
+            }
+        }
+        return result;
+    }
+
+    private void slide(MapValue state, long timestamp, double value) {
+        if (maxRows > 0) {
+            // ROWS frame, make room for the current row
+            while (state.getLong(VAL_BUF_SIZE) >= maxRows) {
+                evict(state);
+            }
+            push(state, timestamp, value);
+        } else {
+            push(state, timestamp, value);
+            // RANGE frame, timestamps arrive in ascending order
+            final long lo = timestamp - range;
+            while (buffers.getLong(entryOffset(state, 0)) < lo) {
+                evict(state);
+            }
+        }
+    }
+}
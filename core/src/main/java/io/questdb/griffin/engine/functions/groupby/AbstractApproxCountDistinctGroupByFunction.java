@@ -0,0 +1,93 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+
+/**
+ * Estimates number of distinct non-null values with {@link HyperLogLog} sketch. Unlike count_distinct(),
+ * state lives entirely in map value, so partial results of parallel workers are merged register by register.
+ */
+public abstract class AbstractApproxCountDistinctGroupByFunction extends LongFunction implements UnaryFunction, GroupByFunction {
+    protected final Function arg;
+    protected int valueIndex;
+
+    public AbstractApproxCountDistinctGroupByFunction(Function arg) {
+        this.arg = arg;
+    }
+
+    @Override
+    public void computeFirst(MapValue mapValue, Record record) {
+        HyperLogLog.clear(mapValue, valueIndex);
+        computeNext(mapValue, record);
+    }
+
+    @Override
+    public Function getArg() {
+        return arg;
+    }
+
+    @Override
+    public long getLong(Record rec) {
+        return HyperLogLog.estimate(rec, valueIndex);
+    }
+
+    @Override
+    public boolean isConstant() {
+        return false;
+    }
+
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        HyperLogLog.merge(destValue, srcValue, valueIndex);
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes columnTypes) {
+        this.valueIndex = HyperLogLog.pushValueTypes(columnTypes);
+    }
+
+    @Override
+    public void setEmpty(MapValue mapValue) {
+        HyperLogLog.clear(mapValue, valueIndex);
+    }
+
+    @Override
+    public void setNull(MapValue mapValue) {
+        HyperLogLog.setNull(mapValue, valueIndex);
+    }
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.std.Numbers;
+import io.questdb.std.str.CharSink;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Estimates quantile of non-null values with {@link DDSketch}, returned value is within 1%
+ * of the exact one for all but the lowest quantiles of data that spans many orders of magnitude.
+ */
+public class ApproxPercentileDoubleGroupByFunction extends DoubleFunction implements GroupByFunction, UnaryFunction {
+    private final Function arg;
+    private final double quantile;
+    private int valueIndex;
+
+    public ApproxPercentileDoubleGroupByFunction(@NotNull Function arg, double quantile) {
+        this.arg = arg;
+        this.quantile = quantile;
+    }
+
+    @Override
+    public void computeFirst(MapValue mapValue, Record record) {
+        DDSketch.clear(mapValue, valueIndex);
+        computeNext(mapValue, record);
+    }
+
+    @Override
+    public void computeNext(MapValue mapValue, Record record) {
+        final double d = arg.getDouble(record);
+        if (Numbers.isFinite(d)) {
+            DDSketch.add(mapValue, valueIndex, d);
+        }
+    }
+
+    @Override
+    public Function getArg() {
+        return arg;
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        return DDSketch.quantile(rec, valueIndex, quantile);
+    }
+
+    @Override
+    public boolean isConstant() {
+        return false;
+    }
+
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        DDSketch.merge(destValue, srcValue, valueIndex);
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes columnTypes) {
+        this.valueIndex = DDSketch.pushValueTypes(columnTypes);
+    }
+
+    @Override
+    public void setNull(MapValue mapValue) {
+        DDSketch.setNull(mapValue, valueIndex);
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        sink.put("ApproxPercentileDouble(").put(arg).put(',').put(quantile).put(')');
+    }
+}
@@ -0,0 +1,255 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+
+/**
+ * Quantile sketch with relative error guarantee, kept in fixed number of map value columns.
+ * <p>
+ * Values are mapped to logarithmic buckets, so that every value in a bucket is within 1% of the
+ * value that represents the bucket. Positive and negative values are counted in separate stores,
+ * each of them is a window of 1024 consecutive buckets that covers about 9 orders of magnitude.
+ * When values span wider range, the lowest buckets are collapsed, which keeps accuracy of the higher quantiles.
+ * Bucket counts are 32-bit unsigned integers packed two to a LONG column and saturate on overflow.
+ * <p>
+ * Sketches merge by adding bucket counts, which makes them suitable for parallel aggregation.
+ */
+final class DDSketch {
+    static final double RELATIVE_ACCURACY = 0.01;
+    private static final int BIN_COUNT = 1024;
+    private static final int BIN_COLUMN_COUNT = BIN_COUNT / 2;
+    private static final long BIN_MAX = 0xffffffffL;
+    // offsets of value columns
+    private static final int COUNT = 0;
+    private static final int ZERO_COUNT = COUNT + 1;
+    private static final int POSITIVE = ZERO_COUNT + 1;
+    // store header columns, relative to store offset
+    private static final int STORE_COUNT = 0;
+    private static final int STORE_MAX_KEY = STORE_COUNT + 1;
+    private static final int STORE_MIN_KEY = STORE_MAX_KEY + 1;
+    private static final int STORE_OFFSET = STORE_MIN_KEY + 1;
+    private static final int STORE_BINS = STORE_OFFSET + 1;
+    private static final int STORE_SIZE = STORE_BINS + BIN_COLUMN_COUNT;
+    private static final int NEGATIVE = POSITIVE + STORE_SIZE;
+    static final int COLUMN_COUNT = NEGATIVE + STORE_SIZE;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double INV_LN_GAMMA = 1.0 / Math.log(GAMMA);
+    private static final double LN_GAMMA = Math.log(GAMMA);
+    private static final double MIN_INDEXABLE_VALUE = Double.MIN_NORMAL;
+
+    private DDSketch() {
+    }
+
+    static void add(MapValue mapValue, int valueIndex, double value) {
+        mapValue.addLong(valueIndex + COUNT, 1);
+        if (value > MIN_INDEXABLE_VALUE) {
+            addToStore(mapValue, valueIndex + POSITIVE, key(value), 1);
+        } else if (value < -MIN_INDEXABLE_VALUE) {
+            addToStore(mapValue, valueIndex + NEGATIVE, key(-value), 1);
+        } else {
+            mapValue.addLong(valueIndex + ZERO_COUNT, 1);
+        }
+    }
+
+    static void clear(MapValue mapValue, int valueIndex) {
+        mapValue.putLong(valueIndex + COUNT, 0);
+        mapValue.putLong(valueIndex + ZERO_COUNT, 0);
+        clearStore(mapValue, valueIndex + POSITIVE);
+        clearStore(mapValue, valueIndex + NEGATIVE);
+    }
+
+    static void merge(MapValue destValue, MapValue srcValue, int valueIndex) {
+        final long count = srcValue.getLong(valueIndex + COUNT);
+        if (count < 1) {
+            return;
+        }
+        destValue.addLong(valueIndex + COUNT, count);
+        destValue.addLong(valueIndex + ZERO_COUNT, srcValue.getLong(valueIndex + ZERO_COUNT));
+        mergeStore(destValue, srcValue, valueIndex + POSITIVE);
+        mergeStore(destValue, srcValue, valueIndex + NEGATIVE);
+    }
+
+    static int pushValueTypes(ArrayColumnTypes columnTypes) {
+        final int valueIndex = columnTypes.getColumnCount();
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            columnTypes.add(ColumnType.LONG);
+        }
+        return valueIndex;
+    }
+
+    static double quantile(Record record, int valueIndex, double quantile) {
+        final long count = record.getLong(valueIndex + COUNT);
+        if (count < 1) {
+            return Double.NaN;
+        }
+
+        final double rank = quantile * (count - 1);
+        long seen = 0;
+
+        // negative values, from the largest magnitude down
+        int store = valueIndex + NEGATIVE;
+        if (record.getLong(store + STORE_COUNT) > 0) {
+            final int offset = (int) record.getLong(store + STORE_OFFSET);
+            for (int k = (int) record.getLong(store + STORE_MAX_KEY), lo = (int) record.getLong(store + STORE_MIN_KEY); k >= lo; k--) {
+                seen += getBin(record, store, k - offset);
+                if (seen > rank) {
+                    return -value(k);
+                }
+            }
+        }
+
+        seen += record.getLong(valueIndex + ZERO_COUNT);
+        if (seen > rank) {
+            return 0;
+        }
+
+        store = valueIndex + POSITIVE;
+        final int offset = (int) record.getLong(store + STORE_OFFSET);
+        final int hi = (int) record.getLong(store + STORE_MAX_KEY);
+        for (int k = (int) record.getLong(store + STORE_MIN_KEY); k <= hi; k++) {
+            seen += getBin(record, store, k - offset);
+            if (seen > rank) {
+                return value(k);
+            }
+        }
+        // rounding of rank, return the largest value
+        return value(hi);
+    }
+
+    static void setNull(MapValue mapValue, int valueIndex) {
+        clear(mapValue, valueIndex);
+    }
+
+    private static void addToStore(MapValue mapValue, int store, int key, long count) {
+        final long storeCount = mapValue.getLong(store + STORE_COUNT);
+        if (storeCount == 0) {
+            mapValue.putLong(store + STORE_COUNT, count);
+            mapValue.putLong(store + STORE_MIN_KEY, key);
+            mapValue.putLong(store + STORE_MAX_KEY, key);
+            // centre window on the first key, values tend to cluster around it
+            mapValue.putLong(store + STORE_OFFSET, key - BIN_COUNT / 2);
+            putBin(mapValue, store, BIN_COUNT / 2, count);
+            return;
+        }
+
+        mapValue.putLong(store + STORE_COUNT, storeCount + count);
+        int offset = (int) mapValue.getLong(store + STORE_OFFSET);
+        final int minKey = (int) mapValue.getLong(store + STORE_MIN_KEY);
+        final int maxKey = (int) mapValue.getLong(store + STORE_MAX_KEY);
+
+        if (key < offset || key >= offset + BIN_COUNT) {
+            final int lo = Math.min(key, minKey);
+            final int hi = Math.max(key, maxKey);
+            final int newOffset;
+            if (hi - lo < BIN_COUNT) {
+                newOffset = lo - (BIN_COUNT - 1 - (hi - lo)) / 2;
+            } else {
+                // collapse the lowest buckets
+                newOffset = hi - BIN_COUNT + 1;
+            }
+            if (newOffset != offset) {
+                shiftBins(mapValue, store, newOffset - offset);
+                mapValue.putLong(store + STORE_OFFSET, offset = newOffset);
+            }
+        }
+
+        if (key < offset) {
+            key = offset;
+        }
+        if (key < minKey || minKey < offset) {
+            mapValue.putLong(store + STORE_MIN_KEY, Math.max(Math.min(key, minKey), offset));
+        }
+        if (key > maxKey) {
+            mapValue.putLong(store + STORE_MAX_KEY, key);
+        }
+        final int index = key - offset;
+        putBin(mapValue, store, index, getBin(mapValue, store, index) + count);
+    }
+
+    private static void clearStore(MapValue mapValue, int store) {
+        for (int i = 0; i < STORE_SIZE; i++) {
+            mapValue.putLong(store + i, 0);
+        }
+    }
+
+    private static long getBin(Record record, int store, int index) {
+        return (record.getLong(store + STORE_BINS + (index >>> 1)) >>> ((index & 1) << 5)) & BIN_MAX;
+    }
+
+    private static int key(double value) {
+        return (int) Math.ceil(Math.log(value) * INV_LN_GAMMA);
+    }
+
+    private static void mergeStore(MapValue destValue, MapValue srcValue, int store) {
+        if (srcValue.getLong(store + STORE_COUNT) == 0) {
+            return;
+        }
+        final int offset = (int) srcValue.getLong(store + STORE_OFFSET);
+        // start from the highest key, so that destination window is positioned once
+        for (int k = (int) srcValue.getLong(store + STORE_MAX_KEY), lo = (int) srcValue.getLong(store + STORE_MIN_KEY); k >= lo; k--) {
+            final long count = getBin(srcValue, store, k - offset);
+            if (count > 0) {
+                addToStore(destValue, store, k, count);
+            }
+        }
+    }
+
+    private static void putBin(MapValue mapValue, int store, int index, long count) {
+        final int column = store + STORE_BINS + (index >>> 1);
+        final int shift = (index & 1) << 5;
+        final long packed = mapValue.getLong(column);
+        mapValue.putLong(column, (packed & ~(BIN_MAX << shift)) | (Math.min(count, BIN_MAX) << shift));
+    }
+
+    private static void shiftBins(MapValue mapValue, int store, int delta) {
+        if (delta > 0) {
+            // window moves up, buckets that fall below it are folded into its lowest bucket
+            long folded = 0;
+            for (int i = 0, n = Math.min(delta, BIN_COUNT); i < n; i++) {
+                folded += getBin(mapValue, store, i);
+            }
+            for (int i = 0; i < BIN_COUNT; i++) {
+                final int src = i + delta;
+                putBin(mapValue, store, i, src < BIN_COUNT ? getBin(mapValue, store, src) : 0);
+            }
+            putBin(mapValue, store, 0, getBin(mapValue, store, 0) + folded);
+        } else {
+            for (int i = BIN_COUNT - 1; i > -1; i--) {
+                final int src = i + delta;
+                putBin(mapValue, store, i, src > -1 ? getBin(mapValue, store, src) : 0);
+            }
+        }
+    }
+
+    private static double value(int key) {
+        // the value in the middle of bucket, in relative terms
+        return 2 * Math.exp(key * LN_GAMMA) / (1 + GAMMA);
+    }
+}
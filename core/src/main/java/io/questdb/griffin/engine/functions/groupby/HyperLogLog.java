@@ -0,0 +1,128 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.std.Numbers;
+
+/**
+ * HyperLogLog cardinality sketch kept in fixed number of map value columns. Registers are
+ * one byte each and are packed eight to a LONG column, so that sketch can be stored in and
+ * merged between map values without any memory outside of the map.
+ * <p>
+ * Precision of 11 bits gives 2048 registers and standard error of about 2.3%. Small
+ * cardinalities are estimated with linear counting, which is exact in practice.
+ */
+final class HyperLogLog {
+    static final int PRECISION = 11;
+    static final int REGISTER_COUNT = 1 << PRECISION;
+    static final int COLUMN_COUNT = REGISTER_COUNT / Long.BYTES;
+    private static final double ALPHA_MM = 0.7213 / (1 + 1.079 / REGISTER_COUNT) * REGISTER_COUNT * REGISTER_COUNT;
+    // register value that is never produced by add(), marks sketch of a null group
+    private static final long NULL_MARKER = Numbers.LONG_NaN;
+
+    private HyperLogLog() {
+    }
+
+    static void add(MapValue mapValue, int valueIndex, long hash) {
+        final int register = (int) (hash >>> (Long.SIZE - PRECISION));
+        // position of the first set bit in remaining hash bits, capped by the sentinel bit
+        final long rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        final int columnIndex = valueIndex + (register >>> 3);
+        final int shift = (register & 7) << 3;
+        final long packed = mapValue.getLong(columnIndex);
+        if (((packed >>> shift) & 0xff) < rank) {
+            mapValue.putLong(columnIndex, (packed & ~(0xffL << shift)) | (rank << shift));
+        }
+    }
+
+    static void clear(MapValue mapValue, int valueIndex) {
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            mapValue.putLong(valueIndex + i, 0);
+        }
+    }
+
+    static long estimate(Record record, int valueIndex) {
+        if (record.getLong(valueIndex) == NULL_MARKER) {
+            return Numbers.LONG_NaN;
+        }
+
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            final long packed = record.getLong(valueIndex + i);
+            if (packed == 0) {
+                sum += Long.BYTES;
+                zeros += Long.BYTES;
+                continue;
+            }
+            for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+                final int rank = (int) ((packed >>> shift) & 0xff);
+                sum += Math.scalb(1.0, -rank);
+                if (rank == 0) {
+                    zeros++;
+                }
+            }
+        }
+
+        final double estimate = ALPHA_MM / sum;
+        if (estimate <= 2.5 * REGISTER_COUNT && zeros > 0) {
+            return Math.round(REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros));
+        }
+        return Math.round(estimate);
+    }
+
+    static void merge(MapValue destValue, MapValue srcValue, int valueIndex) {
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            final long src = srcValue.getLong(valueIndex + i);
+            if (src == 0) {
+                continue;
+            }
+            final long dest = destValue.getLong(valueIndex + i);
+            long merged = 0;
+            for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+                merged |= Math.max((dest >>> shift) & 0xff, (src >>> shift) & 0xff) << shift;
+            }
+            destValue.putLong(valueIndex + i, merged);
+        }
+    }
+
+    static int pushValueTypes(ArrayColumnTypes columnTypes) {
+        final int valueIndex = columnTypes.getColumnCount();
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            columnTypes.add(ColumnType.LONG);
+        }
+        return valueIndex;
+    }
+
+    static void setNull(MapValue mapValue, int valueIndex) {
+        clear(mapValue, valueIndex);
+        mapValue.putLong(valueIndex, NULL_MARKER);
+    }
+}
@@ -67,6 +67,20 @@ public class MaxDoubleGroupByFunction extends DoubleFunction implements GroupByF
         return rec.getDouble(valueIndex);
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        double srcMax = srcValue.getDouble(valueIndex);
+        double destMax = destValue.getDouble(valueIndex);
+        if (srcMax > destMax || Double.isNaN(destMax)) {
+            destValue.putDouble(valueIndex, srcMax);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -67,6 +67,20 @@ public class MaxFloatGroupByFunction extends FloatFunction implements GroupByFun
         return rec.getFloat(valueIndex);
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        float srcMax = srcValue.getFloat(valueIndex);
+        float destMax = destValue.getFloat(valueIndex);
+        if (srcMax > destMax || Float.isNaN(destMax)) {
+            destValue.putFloat(valueIndex, srcMax);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -69,6 +69,20 @@ public class MaxIntGroupByFunction extends IntFunction implements GroupByFunctio
         return rec.getInt(valueIndex);
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        int srcMax = srcValue.getInt(valueIndex);
+        int destMax = destValue.getInt(valueIndex);
+        if (srcMax > destMax) {
+            destValue.putInt(valueIndex, srcMax);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
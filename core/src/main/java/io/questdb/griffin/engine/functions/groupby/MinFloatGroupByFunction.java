@@ -67,6 +67,20 @@ public class MinFloatGroupByFunction extends FloatFunction implements GroupByFun
         return rec.getFloat(valueIndex);
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        float srcMin = srcValue.getFloat(valueIndex);
+        float destMin = destValue.getFloat(valueIndex);
+        if (srcMin < destMin || Float.isNaN(destMin)) {
+            destValue.putFloat(valueIndex, srcMin);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
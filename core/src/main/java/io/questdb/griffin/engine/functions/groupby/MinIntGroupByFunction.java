@@ -69,6 +69,20 @@ public class MinIntGroupByFunction extends IntFunction implements GroupByFunctio
         return rec.getInt(valueIndex);
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        int srcMin = srcValue.getInt(valueIndex);
+        int destMin = destValue.getInt(valueIndex);
+        if (srcMin != Numbers.INT_NaN && (srcMin < destMin || destMin == Numbers.INT_NaN)) {
+            destValue.putInt(valueIndex, srcMin);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
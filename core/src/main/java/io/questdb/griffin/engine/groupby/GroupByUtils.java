@@ -44,6 +44,15 @@ import org.jetbrains.annotations.NotNull;
 
 public class GroupByUtils {
 
+    public static boolean isParallelismSupported(ObjList<GroupByFunction> groupByFunctions) {
+        for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+            if (!groupByFunctions.getQuick(i).isParallelismSupported()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static void prepareGroupByFunctions(
             QueryModel model,
             RecordMetadata metadata,
@@ -0,0 +1,244 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.AbstractDataFrameRecordCursor;
+import io.questdb.std.Misc;
+import io.questdb.std.Rows;
+
+/**
+ * ASOF and LT join on a single symbol key that finds slave rows using bitmap index of the key column
+ * instead of maintaining map of the latest slave row per key. For every master row, slave partition
+ * that contains master timestamp is searched for the last row not later than the master timestamp, the
+ * index is then asked for the latest row with the master key at or before that row. When the key is absent
+ * from the partition, search continues in the older partitions.
+ * <p>
+ * Memory use does not depend on number of distinct keys and slave rows are never read sequentially,
+ * which suits joins of frequent master rows to a slave table with many symbols, such as trades to quotes.
+ * Slave factory must scan whole table, so that every indexed row is part of the slave result set.
+ */
+public class AsOfJoinIndexedRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final AsOfJoinIndexedRecordCursor cursor;
+    private final RecordCursorFactory masterFactory;
+    private final RecordCursorFactory slaveFactory;
+    private final boolean strict;
+
+    /**
+     * @param metadata             join metadata
+     * @param masterFactory        master factory, ordered by designated timestamp
+     * @param masterKeyIndex       index of SYMBOL or STRING join key column in master metadata
+     * @param slaveFactory         full table scan of the slave table
+     * @param slaveKeyIndex        index of indexed SYMBOL join key column in slave metadata
+     * @param columnSplit          number of master columns
+     * @param strict               true for LT join, which excludes slave rows with timestamp equal to master timestamp
+     */
+    public AsOfJoinIndexedRecordCursorFactory(
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            int masterKeyIndex,
+            RecordCursorFactory slaveFactory,
+            int slaveKeyIndex,
+            int columnSplit,
+            boolean strict
+    ) {
+        super(metadata);
+        this.masterFactory = masterFactory;
+        this.slaveFactory = slaveFactory;
+        this.strict = strict;
+        final RecordMetadata masterMetadata = masterFactory.getMetadata();
+        final RecordMetadata slaveMetadata = slaveFactory.getMetadata();
+        this.cursor = new AsOfJoinIndexedRecordCursor(
+                columnSplit,
+                NullRecordFactory.getInstance(slaveMetadata),
+                masterMetadata.getTimestampIndex(),
+                masterKeyIndex,
+                masterMetadata.getColumnType(masterKeyIndex) == ColumnType.SYMBOL,
+                slaveKeyIndex,
+                slaveMetadata.getColumnName(slaveKeyIndex),
+                strict
+        );
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        RecordCursor master = masterFactory.getCursor(executionContext);
+        RecordCursor slave = null;
+        try {
+            slave = slaveFactory.getCursor(executionContext);
+            cursor.of(master, slave);
+        } catch (Throwable ex) {
+            Misc.free(master);
+            Misc.free(slave);
+            throw ex;
+        }
+        return cursor;
+    }
+
+    @Override
+    public boolean hasDescendingOrder() {
+        return masterFactory.hasDescendingOrder();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(strict ? "Lt Join Indexed" : "AsOf Join Indexed");
+        sink.child(masterFactory);
+        sink.child(slaveFactory);
+    }
+
+    @Override
+    protected void _close() {
+        ((JoinRecordMetadata) getMetadata()).close();
+        masterFactory.close();
+        slaveFactory.close();
+        cursor.close();
+    }
+
+    private static class AsOfJoinIndexedRecordCursor extends AbstractJoinCursor {
+        private final boolean masterKeyIsSymbol;
+        private final int masterKeyIndex;
+        private final int masterTimestampIndex;
+        private final OuterJoinRecord record;
+        private final int slaveKeyIndex;
+        private final CharSequence slaveKeyName;
+        private final boolean strict;
+        private Record masterRecord;
+        private TableReader reader;
+        private int readerKeyIndex;
+        private int readerTimestampIndex;
+        private StaticSymbolTable slaveKeySymbolTable;
+        private Record slaveRecord;
+
+        public AsOfJoinIndexedRecordCursor(
+                int columnSplit,
+                Record nullRecord,
+                int masterTimestampIndex,
+                int masterKeyIndex,
+                boolean masterKeyIsSymbol,
+                int slaveKeyIndex,
+                CharSequence slaveKeyName,
+                boolean strict
+        ) {
+            super(columnSplit);
+            this.record = new OuterJoinRecord(columnSplit, nullRecord);
+            this.masterTimestampIndex = masterTimestampIndex;
+            this.masterKeyIndex = masterKeyIndex;
+            this.masterKeyIsSymbol = masterKeyIsSymbol;
+            this.slaveKeyIndex = slaveKeyIndex;
+            this.slaveKeyName = slaveKeyName;
+            this.strict = strict;
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (masterCursor.hasNext()) {
+                final CharSequence masterKey = masterKeyIsSymbol ? masterRecord.getSym(masterKeyIndex) : masterRecord.getStr(masterKeyIndex);
+                final int symbolKey = slaveKeySymbolTable.keyOf(masterKey);
+                if (symbolKey != SymbolTable.VALUE_NOT_FOUND) {
+                    final long masterTimestamp = masterRecord.getTimestamp(masterTimestampIndex);
+                    final long rowId = findSlaveRow(TableUtils.toIndexKey(symbolKey), strict ? masterTimestamp - 1 : masterTimestamp);
+                    if (rowId != -1) {
+                        slaveCursor.recordAt(slaveRecord, rowId);
+                        record.hasSlave(true);
+                        return true;
+                    }
+                }
+                record.hasSlave(false);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public long size() {
+            return masterCursor.size();
+        }
+
+        @Override
+        public void toTop() {
+            masterCursor.toTop();
+        }
+
+        private long findSlaveRow(int indexKey, long timestamp) {
+            int partitionIndex = PartitionBy.isPartitioned(reader.getPartitionedBy()) ? reader.getPartitionIndexByTimestamp(timestamp) : 0;
+            partitionIndex = Math.min(partitionIndex, reader.getPartitionCount() - 1);
+            boolean first = true;
+            for (; partitionIndex > -1; partitionIndex--) {
+                final long rowCount = reader.openPartition(partitionIndex);
+                if (rowCount < 1) {
+                    continue;
+                }
+                long rowHi = rowCount - 1;
+                if (first) {
+                    // rows of the later partitions are all after the timestamp
+                    first = false;
+                    final int columnBase = reader.getColumnBase(partitionIndex);
+                    final MemoryR timestamps = reader.getColumn(TableReader.getPrimaryColumnIndex(columnBase, readerTimestampIndex));
+                    rowHi = BinarySearch.find(timestamps, timestamp, 0, rowHi, BinarySearch.SCAN_DOWN);
+                    if (rowHi < 0) {
+                        continue;
+                    }
+                }
+                final BitmapIndexReader indexReader = reader.getBitmapIndexReader(partitionIndex, readerKeyIndex, BitmapIndexReader.DIR_BACKWARD);
+                final RowCursor rowCursor = indexReader.getCursor(true, indexKey, 0, rowHi);
+                if (rowCursor.hasNext()) {
+                    return Rows.toRowID(partitionIndex, rowCursor.next());
+                }
+            }
+            return -1;
+        }
+
+        void of(RecordCursor masterCursor, RecordCursor slaveCursor) {
+            this.masterCursor = masterCursor;
+            this.slaveCursor = slaveCursor;
+            this.masterRecord = masterCursor.getRecord();
+            this.slaveRecord = slaveCursor.getRecordB();
+            this.reader = ((AbstractDataFrameRecordCursor) slaveCursor).getTableReader();
+            final TableReaderMetadata readerMetadata = reader.getMetadata();
+            this.readerKeyIndex = readerMetadata.getColumnIndex(slaveKeyName);
+            this.readerTimestampIndex = readerMetadata.getTimestampIndex();
+            this.slaveKeySymbolTable = (StaticSymbolTable) slaveCursor.getSymbolTable(slaveKeyIndex);
+            record.of(masterRecord, slaveRecord);
+        }
+    }
+}
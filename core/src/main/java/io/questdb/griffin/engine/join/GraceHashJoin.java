@@ -0,0 +1,464 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Grace hash join, which full fat hash joins fall back to when slave records do not fit
+ * per-query memory budget. Both sides of the join are hash partitioned on join key into
+ * temporary files under database root. Partition pairs are then joined one by one, the map
+ * is built from slave partition only. Join results reference records in partition files and
+ * are merged back in the order of master records, which makes the output identical to that
+ * of in-memory hash join.
+ */
+public class GraceHashJoin implements Closeable {
+    public static final String SPILL_DIR_NAME = "_join_spill";
+    private static final Log LOG = LogFactory.getLog(GraceHashJoin.class);
+    private static final int RESULT_ENTRY_SIZE = 3 * Long.BYTES;
+    private static final AtomicLong SPILL_ID = new AtomicLong();
+    private final CairoConfiguration configuration;
+    private final KeyHasher hasher = new KeyHasher();
+    private final ObjList<RecordChain> masterChains = new ObjList<>();
+    private final RecordSink masterKeySink;
+    private final ObjList<MemoryCMARW> masterMems = new ObjList<>();
+    // master cursor ordinals of the records in master chain, in the order of the chain
+    private final ObjList<MemoryCMARW> ordinals = new ObjList<>();
+    private final boolean outer;
+    private final long pageSize;
+    private final int partitionCount;
+    private final int partitionMask;
+    private final Path path = new Path();
+    private final LongList readOffsets = new LongList();
+    // (master ordinal, master chain offset, slave chain offset) triplets in the order of master ordinal
+    private final ObjList<MemoryCMARW> results = new ObjList<>();
+    private final int rootLen;
+    private final ObjList<RecordChain> slaveChains = new ObjList<>();
+    private final RecordSink slaveKeySink;
+    private final ObjList<MemoryCMARW> slaveMems = new ObjList<>();
+    private final LongChain slaveOffsets;
+    private final LongList tails = new LongList();
+    private int currentPartition = -1;
+    private long lastOrdinal;
+    private Record masterRecord;
+    private Record slaveRecord;
+    private long spillId = -1;
+
+    GraceHashJoin(
+            CairoConfiguration configuration,
+            RecordMetadata masterMetadata,
+            RecordMetadata slaveMetadata,
+            RecordSink masterKeySink,
+            RecordSink masterChainSink,
+            RecordSink slaveKeySink,
+            RecordSink slaveChainSink,
+            boolean outer
+    ) {
+        this.configuration = configuration;
+        this.masterKeySink = masterKeySink;
+        this.slaveKeySink = slaveKeySink;
+        this.outer = outer;
+        this.partitionCount = Numbers.ceilPow2(Math.max(1, configuration.getSqlHashJoinSpillPartitions()));
+        this.partitionMask = partitionCount - 1;
+        this.pageSize = Math.max(Files.PAGE_SIZE, configuration.getSqlHashJoinValuePageSize() / partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            MemoryCMARW mem = Vm.getCMARWInstance();
+            masterMems.add(mem);
+            masterChains.add(new RecordChain(masterMetadata, masterChainSink, mem));
+            mem = Vm.getCMARWInstance();
+            slaveMems.add(mem);
+            slaveChains.add(new RecordChain(slaveMetadata, slaveChainSink, mem));
+            ordinals.add(Vm.getCMARWInstance());
+            results.add(Vm.getCMARWInstance());
+        }
+        this.slaveOffsets = new LongChain(configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages());
+        this.path.of(configuration.getRoot()).concat(SPILL_DIR_NAME);
+        this.rootLen = path.length();
+    }
+
+    /**
+     * Releases memory and removes temporary files. The instance can be reused after clear.
+     */
+    public void clear() {
+        if (spillId != -1) {
+            final FilesFacade ff = configuration.getFilesFacade();
+            for (int i = 0; i < partitionCount; i++) {
+                masterChains.getQuick(i).close();
+                slaveChains.getQuick(i).close();
+                ordinals.getQuick(i).close(false);
+                results.getQuick(i).close(false);
+                removeFile(ff, 'm', i);
+                removeFile(ff, 's', i);
+                removeFile(ff, 'o', i);
+                removeFile(ff, 'r', i);
+            }
+            spillId = -1;
+        }
+        slaveOffsets.close();
+        currentPartition = -1;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(path);
+    }
+
+    Record getMasterRecord() {
+        return masterRecord;
+    }
+
+    /**
+     * @return slave record joined to current master record or null when outer join found no match
+     */
+    Record getSlaveRecord() {
+        return slaveRecord;
+    }
+
+    boolean hasNext() {
+        final int partition = nextPartition();
+        if (partition == -1) {
+            return false;
+        }
+        final MemoryCMARW mem = results.getQuick(partition);
+        final long offset = readOffsets.getQuick(partition);
+        lastOrdinal = mem.getLong(offset);
+        final RecordChain masterChain = masterChains.getQuick(partition);
+        masterRecord = masterChain.getRecordB();
+        masterChain.recordAt(masterRecord, mem.getLong(offset + Long.BYTES));
+        final long slaveOffset = mem.getLong(offset + 2 * Long.BYTES);
+        if (slaveOffset != -1) {
+            final RecordChain slaveChain = slaveChains.getQuick(partition);
+            slaveRecord = slaveChain.getRecordB();
+            slaveChain.recordAt(slaveRecord, slaveOffset);
+        } else {
+            slaveRecord = null;
+        }
+        readOffsets.setQuick(partition, offset + RESULT_ENTRY_SIZE);
+        currentPartition = partition;
+        return true;
+    }
+
+    /**
+     * Partitions both sides of the join into temporary files and joins the partitions. Master cursor
+     * is read to the end, slave cursor is rewound first, it may have been partially consumed by
+     * in-memory join.
+     */
+    void of(
+            RecordCursor masterCursor,
+            RecordCursor slaveCursor,
+            Map joinKeyMap,
+            long memoryBudget,
+            SqlExecutionCircuitBreaker circuitBreaker
+    ) {
+        clear();
+        spillId = SPILL_ID.incrementAndGet();
+        LOG.info().$("hash join exceeded memory budget, spilling to disk [budget=").$(memoryBudget)
+                .$(", partitions=").$(partitionCount)
+                .$(", id=").$(spillId)
+                .I$();
+        openFiles();
+
+        for (int i = 0; i < partitionCount; i++) {
+            masterChains.getQuick(i).setSymbolTableResolver(masterCursor);
+            slaveChains.getQuick(i).setSymbolTableResolver(slaveCursor);
+        }
+
+        slaveCursor.toTop();
+        partition(slaveCursor, slaveKeySink, slaveChains, null, circuitBreaker);
+        partition(masterCursor, masterKeySink, masterChains, ordinals, circuitBreaker);
+
+        for (int i = 0; i < partitionCount; i++) {
+            joinPartition(i, joinKeyMap, circuitBreaker);
+        }
+        // partition maps are no longer needed, release their memory
+        joinKeyMap.restoreInitialCapacity();
+        slaveOffsets.close();
+        toTop();
+    }
+
+    void toTop() {
+        readOffsets.setAll(partitionCount, 0);
+        currentPartition = -1;
+        lastOrdinal = -1;
+    }
+
+    private void joinPartition(int partition, Map joinKeyMap, SqlExecutionCircuitBreaker circuitBreaker) {
+        joinKeyMap.clear();
+        slaveOffsets.clear();
+
+        final RecordChain slaveChain = slaveChains.getQuick(partition);
+        final Record slaveRecord = slaveChain.getRecord();
+        slaveChain.toTop();
+        while (slaveChain.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            MapKey key = joinKeyMap.withKey();
+            key.put(slaveRecord, slaveKeySink);
+            MapValue value = key.createValue();
+            if (value.isNew()) {
+                final long offset = slaveOffsets.put(slaveRecord.getRowId(), -1);
+                value.putLong(0, offset);
+                value.putLong(1, offset);
+            } else {
+                value.putLong(1, slaveOffsets.put(slaveRecord.getRowId(), value.getLong(1)));
+            }
+        }
+
+        final RecordChain masterChain = masterChains.getQuick(partition);
+        final Record masterRecord = masterChain.getRecord();
+        final MemoryCMARW ordinalMem = ordinals.getQuick(partition);
+        final MemoryCMARW resultMem = results.getQuick(partition);
+        long ordinalOffset = 0;
+        masterChain.toTop();
+        while (masterChain.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            final long ordinal = ordinalMem.getLong(ordinalOffset);
+            ordinalOffset += Long.BYTES;
+            MapKey key = joinKeyMap.withKey();
+            key.put(masterRecord, masterKeySink);
+            MapValue value = key.findValue();
+            if (value != null) {
+                LongChain.TreeCursor cursor = slaveOffsets.getCursor(value.getLong(0));
+                while (cursor.hasNext()) {
+                    resultMem.putLong(ordinal);
+                    resultMem.putLong(masterRecord.getRowId());
+                    resultMem.putLong(cursor.next());
+                }
+            } else if (outer) {
+                resultMem.putLong(ordinal);
+                resultMem.putLong(masterRecord.getRowId());
+                resultMem.putLong(-1);
+            }
+        }
+    }
+
+    private int nextPartition() {
+        // all results of the same master record are in the same partition, and they are
+        // followed by results of the next master record more often than not
+        if (currentPartition != -1) {
+            final long offset = readOffsets.getQuick(currentPartition);
+            final MemoryCMARW mem = results.getQuick(currentPartition);
+            if (offset < mem.getAppendOffset() && mem.getLong(offset) <= lastOrdinal + 1) {
+                return currentPartition;
+            }
+        }
+
+        int partition = -1;
+        long minOrdinal = Long.MAX_VALUE;
+        for (int i = 0; i < partitionCount; i++) {
+            final long offset = readOffsets.getQuick(i);
+            final MemoryCMARW mem = results.getQuick(i);
+            if (offset < mem.getAppendOffset()) {
+                final long ordinal = mem.getLong(offset);
+                if (ordinal < minOrdinal) {
+                    minOrdinal = ordinal;
+                    partition = i;
+                }
+            }
+        }
+        return partition;
+    }
+
+    private void openFiles() {
+        final FilesFacade ff = configuration.getFilesFacade();
+        path.trimTo(rootLen);
+        if (!ff.exists(path.slash$()) && ff.mkdirs(path, configuration.getMkDirMode()) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create join spill directory [path=").put(path).put(']');
+        }
+        for (int i = 0; i < partitionCount; i++) {
+            masterMems.getQuick(i).of(ff, spillFile('m', i), pageSize, -1, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE);
+            slaveMems.getQuick(i).of(ff, spillFile('s', i), pageSize, -1, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE);
+            ordinals.getQuick(i).of(ff, spillFile('o', i), pageSize, -1, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE);
+            results.getQuick(i).of(ff, spillFile('r', i), pageSize, -1, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE);
+        }
+    }
+
+    private void partition(
+            RecordCursor cursor,
+            RecordSink keySink,
+            ObjList<RecordChain> chains,
+            ObjList<MemoryCMARW> ordinals,
+            SqlExecutionCircuitBreaker circuitBreaker
+    ) {
+        tails.setAll(partitionCount, -1);
+        final Record record = cursor.getRecord();
+        long ordinal = 0;
+        while (cursor.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            hasher.reset();
+            keySink.copy(record, hasher);
+            final int partition = Hash.spread(hasher.hash()) & partitionMask;
+            // records of the partition are linked in the order they were added
+            tails.setQuick(partition, chains.getQuick(partition).put(record, tails.getQuick(partition)));
+            if (ordinals != null) {
+                ordinals.getQuick(partition).putLong(ordinal++);
+            }
+        }
+    }
+
+    private void removeFile(FilesFacade ff, char kind, int partition) {
+        final Path path = spillFile(kind, partition);
+        if (ff.exists(path) && !ff.remove(path)) {
+            LOG.error().$("could not remove join spill file [path=").$(path).$(", errno=").$(ff.errno()).I$();
+        }
+    }
+
+    private Path spillFile(char kind, int partition) {
+        return path.trimTo(rootLen).slash().put(spillId).put('.').put(kind).put(partition).$();
+    }
+
+    /**
+     * Hashes join key the same way regardless of which side of the join the key sink
+     * is reading, so that matching master and slave keys end up in the same partition.
+     */
+    private static class KeyHasher implements RecordSinkSPI {
+        private long hash;
+
+        @Override
+        public void putBin(BinarySequence value) {
+            if (value == null) {
+                putLong(TableUtils.NULL_LEN);
+            } else {
+                final long len = value.length();
+                putLong(len);
+                for (long i = 0; i < len; i++) {
+                    putByte(value.byteAt(i));
+                }
+            }
+        }
+
+        @Override
+        public void putBool(boolean value) {
+            putLong(value ? 1 : 0);
+        }
+
+        @Override
+        public void putByte(byte value) {
+            putLong(value);
+        }
+
+        @Override
+        public void putChar(char value) {
+            putLong(value);
+        }
+
+        @Override
+        public void putDate(long value) {
+            putLong(value);
+        }
+
+        @Override
+        public void putDouble(double value) {
+            putLong(Double.doubleToRawLongBits(value));
+        }
+
+        @Override
+        public void putFloat(float value) {
+            putLong(Float.floatToRawIntBits(value));
+        }
+
+        @Override
+        public void putInt(int value) {
+            putLong(value);
+        }
+
+        @Override
+        public void putLong(long value) {
+            hash = hash * 31 + value;
+        }
+
+        @Override
+        public void putLong128LittleEndian(long hi, long lo) {
+            putLong(hi);
+            putLong(lo);
+        }
+
+        @Override
+        public void putLong256(Long256 value) {
+            putLong(value.getLong0());
+            putLong(value.getLong1());
+            putLong(value.getLong2());
+            putLong(value.getLong3());
+        }
+
+        @Override
+        public void putRecord(Record value) {
+            // noop
+        }
+
+        @Override
+        public void putShort(short value) {
+            putLong(value);
+        }
+
+        @Override
+        public void putStr(CharSequence value) {
+            if (value == null) {
+                putLong(TableUtils.NULL_LEN);
+            } else {
+                putLong(Chars.hashCode(value));
+            }
+        }
+
+        @Override
+        public void putStr(CharSequence value, int lo, int hi) {
+            putLong(Chars.hashCode(value, lo, hi));
+        }
+
+        @Override
+        public void putTimestamp(long value) {
+            putLong(value);
+        }
+
+        @Override
+        public void skip(int bytes) {
+            // noop
+        }
+
+        int hash() {
+            return (int) (hash ^ (hash >>> 32));
+        }
+
+        void reset() {
+            hash = 0;
+        }
+    }
+}
@@ -53,6 +53,7 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
             RecordSink masterSink,
             RecordSink slaveKeySink,
             RecordSink slaveChainSink,
+            RecordSink masterChainSink,
             int columnSplit
     ) {
         super(metadata);
@@ -62,7 +63,17 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         RecordChain slaveChain = new RecordChain(slaveFactory.getMetadata(), slaveChainSink, configuration.getSqlHashJoinValuePageSize(), configuration.getSqlHashJoinValueMaxPages());
         this.masterSink = masterSink;
         this.slaveKeySink = slaveKeySink;
-        this.cursor = new HashJoinRecordCursor(columnSplit, joinKeyMap, slaveChain);
+        GraceHashJoin graceHashJoin = new GraceHashJoin(
+                configuration,
+                masterFactory.getMetadata(),
+                slaveFactory.getMetadata(),
+                masterSink,
+                masterChainSink,
+                slaveKeySink,
+                slaveChainSink,
+                false
+        );
+        this.cursor = new HashJoinRecordCursor(columnSplit, joinKeyMap, slaveChain, graceHashJoin);
     }
 
     @Override
@@ -99,21 +110,25 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         masterFactory.close();
         slaveFactory.close();
         cursor.close();
+        Misc.free(cursor.graceHashJoin);
     }
 
     private class HashJoinRecordCursor extends AbstractJoinCursor {
+        private final GraceHashJoin graceHashJoin;
         private final Map joinKeyMap;
         private final JoinRecord recordA;
         private final RecordChain slaveChain;
         private boolean isOpen;
         private Record masterRecord;
+        private boolean spilled;
         private boolean useSlaveCursor;
 
-        public HashJoinRecordCursor(int columnSplit, Map joinKeyMap, RecordChain slaveChain) {
+        public HashJoinRecordCursor(int columnSplit, Map joinKeyMap, RecordChain slaveChain, GraceHashJoin graceHashJoin) {
             super(columnSplit);
             this.recordA = new JoinRecord(columnSplit);
             this.joinKeyMap = joinKeyMap;
             this.slaveChain = slaveChain;
+            this.graceHashJoin = graceHashJoin;
             this.isOpen = true;
         }
 
@@ -123,6 +138,7 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
                 isOpen = false;
                 joinKeyMap.close();
                 slaveChain.close();
+                graceHashJoin.clear();
                 super.close();
             }
         }
@@ -134,6 +150,14 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
 
         @Override
         public boolean hasNext() {
+            if (spilled) {
+                if (graceHashJoin.hasNext()) {
+                    recordA.of(graceHashJoin.getMasterRecord(), graceHashJoin.getSlaveRecord());
+                    return true;
+                }
+                return false;
+            }
+
             if (useSlaveCursor && slaveChain.hasNext()) {
                 return true;
             }
@@ -161,26 +185,36 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
 
         @Override
         public void toTop() {
-            masterCursor.toTop();
+            if (spilled) {
+                graceHashJoin.toTop();
+            } else {
+                masterCursor.toTop();
+            }
             useSlaveCursor = false;
         }
 
-        private void buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+        private boolean buildMapOfSlaveRecords(RecordCursor slaveCursor, long memoryBudget, SqlExecutionCircuitBreaker circuitBreaker) {
             if (!isOpen) {
                 isOpen = true;
                 joinKeyMap.reopen();
                 slaveChain.reopen();
             }
             HashJoinRecordCursorFactory factory = HashJoinRecordCursorFactory.this;
-            HashOuterJoinRecordCursorFactory.buildMap(slaveCursor, slaveCursor.getRecord(), joinKeyMap, factory.slaveKeySink, slaveChain, circuitBreaker);
+            return HashOuterJoinRecordCursorFactory.buildMap(slaveCursor, slaveCursor.getRecord(), joinKeyMap, factory.slaveKeySink, slaveChain, memoryBudget, circuitBreaker);
         }
 
         void of(SqlExecutionContext executionContext, RecordCursor slaveCursor) throws SqlException {
             try {
-                buildMapOfSlaveRecords(slaveCursor, executionContext.getCircuitBreaker());
+                final long memoryBudget = executionContext.getQueryMemoryBudget();
+                final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+                spilled = !buildMapOfSlaveRecords(slaveCursor, memoryBudget, circuitBreaker);
                 this.masterCursor = masterFactory.getCursor(executionContext);
                 this.slaveCursor = slaveCursor;
                 this.masterRecord = masterCursor.getRecord();
+                if (spilled) {
+                    slaveChain.clear();
+                    graceHashJoin.of(masterCursor, slaveCursor, joinKeyMap, memoryBudget, circuitBreaker);
+                }
                 Record slaveRecord = slaveChain.getRecord();
                 this.slaveChain.setSymbolTableResolver(slaveCursor);
                 recordA.of(masterRecord, slaveRecord);
@@ -53,6 +53,7 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
             RecordSink masterSink,
             RecordSink slaveKeySink,
             RecordSink slaveChainSink,
+            RecordSink masterChainSink,
             int columnSplit
 
     ) {
@@ -64,10 +65,21 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
         this.slaveKeySink = slaveKeySink;
 
         Map joinKeyMap = MapFactory.createMap(configuration, joinColumnTypes, valueTypes);
+        GraceHashJoin graceHashJoin = new GraceHashJoin(
+                configuration,
+                masterFactory.getMetadata(),
+                slaveFactory.getMetadata(),
+                masterSink,
+                masterChainSink,
+                slaveKeySink,
+                slaveChainSink,
+                true
+        );
         this.cursor = new HashOuterJoinRecordCursor(
                 columnSplit,
                 joinKeyMap,
                 slaveChain,
+                graceHashJoin,
                 NullRecordFactory.getInstance(slaveFactory.getMetadata())
         );
     }
@@ -95,17 +107,27 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
         return false;
     }
 
-    static void buildMap(
+    /**
+     * Builds map of slave records unless they exceed memory budget.
+     *
+     * @return false when the map and the chain of slave records would take more memory than the budget,
+     * 0 budget is unlimited
+     */
+    static boolean buildMap(
             RecordCursor slaveCursor,
             Record record,
             Map joinKeyMap,
             RecordSink slaveKeySink,
             RecordChain slaveChain,
+            long memoryBudget,
             SqlExecutionCircuitBreaker circuitBreaker
     ) {
         joinKeyMap.clear();
         slaveChain.clear();
         while (slaveCursor.hasNext()) {
+            if (memoryBudget > 0 && slaveChain.getMemorySize() + joinKeyMap.getMemorySize() > memoryBudget) {
+                return false;
+            }
             circuitBreaker.statefulThrowExceptionIfTripped();
             MapKey key = joinKeyMap.withKey();
             key.put(record, slaveKeySink);
@@ -118,6 +140,7 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
                 value.putLong(1, slaveChain.put(record, value.getLong(1)));
             }
         }
+        return true;
     }
 
     @Override
@@ -126,21 +149,25 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
         masterFactory.close();
         slaveFactory.close();
         cursor.close();
+        Misc.free(cursor.graceHashJoin);
     }
 
     private class HashOuterJoinRecordCursor extends AbstractJoinCursor {
+        private final GraceHashJoin graceHashJoin;
         private final Map joinKeyMap;
         private final OuterJoinRecord record;
         private final RecordChain slaveChain;
         private boolean isOpen;
         private Record masterRecord;
+        private boolean spilled;
         private boolean useSlaveCursor;
 
-        public HashOuterJoinRecordCursor(int columnSplit, Map joinKeyMap, RecordChain slaveChain, Record nullRecord) {
+        public HashOuterJoinRecordCursor(int columnSplit, Map joinKeyMap, RecordChain slaveChain, GraceHashJoin graceHashJoin, Record nullRecord) {
             super(columnSplit);
             this.record = new OuterJoinRecord(columnSplit, nullRecord);
             this.joinKeyMap = joinKeyMap;
             this.slaveChain = slaveChain;
+            this.graceHashJoin = graceHashJoin;
             this.isOpen = true;
         }
 
@@ -150,6 +177,7 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
                 isOpen = false;
                 joinKeyMap.close();
                 slaveChain.close();
+                graceHashJoin.clear();
                 super.close();
             }
         }
@@ -161,6 +189,16 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
 
         @Override
         public boolean hasNext() {
+            if (spilled) {
+                if (graceHashJoin.hasNext()) {
+                    final Record slaveRecord = graceHashJoin.getSlaveRecord();
+                    record.of(graceHashJoin.getMasterRecord(), slaveRecord);
+                    record.hasSlave(slaveRecord != null);
+                    return true;
+                }
+                return false;
+            }
+
             if (useSlaveCursor && slaveChain.hasNext()) {
                 return true;
             }
@@ -192,27 +230,37 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
 
         @Override
         public void toTop() {
-            masterCursor.toTop();
+            if (spilled) {
+                graceHashJoin.toTop();
+            } else {
+                masterCursor.toTop();
+            }
             useSlaveCursor = false;
         }
 
-        private void buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+        private boolean buildMapOfSlaveRecords(RecordCursor slaveCursor, long memoryBudget, SqlExecutionCircuitBreaker circuitBreaker) {
             if (!this.isOpen) {
                 this.isOpen = true;
                 this.joinKeyMap.reopen();
                 this.slaveChain.reopen();
             }
             HashOuterJoinRecordCursorFactory factory = HashOuterJoinRecordCursorFactory.this;
-            buildMap(slaveCursor, slaveCursor.getRecord(), this.joinKeyMap, factory.slaveKeySink, this.slaveChain, circuitBreaker);
+            return buildMap(slaveCursor, slaveCursor.getRecord(), this.joinKeyMap, factory.slaveKeySink, this.slaveChain, memoryBudget, circuitBreaker);
         }
 
         void of(SqlExecutionContext executionContext, RecordCursor slaveCursor) throws SqlException {
             try {
-                buildMapOfSlaveRecords(slaveCursor, executionContext.getCircuitBreaker());
+                final long memoryBudget = executionContext.getQueryMemoryBudget();
+                final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+                spilled = !buildMapOfSlaveRecords(slaveCursor, memoryBudget, circuitBreaker);
                 this.masterCursor = masterFactory.getCursor(executionContext);
 
                 this.slaveCursor = slaveCursor;
                 this.masterRecord = masterCursor.getRecord();
+                if (spilled) {
+                    slaveChain.clear();
+                    graceHashJoin.of(masterCursor, slaveCursor, joinKeyMap, memoryBudget, circuitBreaker);
+                }
                 Record slaveRecord = slaveChain.getRecord();
                 this.slaveChain.setSymbolTableResolver(slaveCursor);
                 record.of(masterRecord, slaveRecord);
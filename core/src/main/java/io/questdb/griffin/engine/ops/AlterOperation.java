@@ -43,6 +43,8 @@ public class AlterOperation extends AbstractOperation implements Mutable {
     public final static short ADD_SYMBOL_CACHE = 6;
     public final static short ATTACH_PARTITION = 3;
     public final static String CMD_NAME = "ALTER TABLE";
+    public final static short COMPRESS_PARTITION = 13;
+    public final static short DECOMPRESS_PARTITION = 14;
     public final static short DETACH_PARTITION = 12;
     public final static short DO_NOTHING = 0;
     public final static short DROP_COLUMN = 8;
@@ -102,6 +104,12 @@ public class AlterOperation extends AbstractOperation implements Mutable {
                 case ATTACH_PARTITION:
                     applyAttachPartition(tableWriter);
                     break;
+                case COMPRESS_PARTITION:
+                    applyCompressPartition(tableWriter, true);
+                    break;
+                case DECOMPRESS_PARTITION:
+                    applyCompressPartition(tableWriter, false);
+                    break;
                 case ADD_INDEX:
                     applyAddIndex(tableWriter);
                     break;
@@ -308,6 +316,31 @@ public class AlterOperation extends AbstractOperation implements Mutable {
         }
     }
 
+    private void applyCompressPartition(MetadataChangeSPI tableWriter, boolean compress) {
+        // long list is a set of two longs per partition - (timestamp, partitionNamePosition)
+        for (int i = 0, n = longList.size() / 2; i < n; i++) {
+            final long partitionTimestamp = longList.getQuick(i * 2);
+            final boolean changed;
+            try {
+                changed = compress
+                        ? tableWriter.compressPartition(partitionTimestamp)
+                        : tableWriter.decompressPartition(partitionTimestamp);
+            } catch (CairoException e) {
+                e.position((int) longList.getQuick(i * 2 + 1));
+                throw e;
+            }
+            if (!changed) {
+                throw CairoException.nonCritical()
+                        .put("could not ").put(compress ? "compress" : "decompress")
+                        .put(" partition [table=").put(tableName)
+                        .put(", partitionTimestamp=").ts(partitionTimestamp)
+                        .put(", partitionBy=").put(PartitionBy.toString(tableWriter.getPartitionBy()))
+                        .put(']')
+                        .position((int) longList.getQuick(i * 2 + 1));
+            }
+        }
+    }
+
     private void applyDetachPartition(MetadataChangeSPI tableWriter) {
         for (int i = 0, n = longList.size() / 2; i < n; i++) {
             final long partitionTimestamp = longList.getQuick(i * 2);
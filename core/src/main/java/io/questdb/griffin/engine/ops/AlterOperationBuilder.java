@@ -135,6 +135,22 @@ public class AlterOperationBuilder {
         return this;
     }
 
+    public AlterOperationBuilder ofCompressPartition(int tableNamePosition, String tableName, int tableId) {
+        this.command = COMPRESS_PARTITION;
+        this.tableNamePosition = tableNamePosition;
+        this.tableName = tableName;
+        this.tableId = tableId;
+        return this;
+    }
+
+    public AlterOperationBuilder ofDecompressPartition(int tableNamePosition, String tableName, int tableId) {
+        this.command = DECOMPRESS_PARTITION;
+        this.tableNamePosition = tableNamePosition;
+        this.tableName = tableName;
+        this.tableId = tableId;
+        return this;
+    }
+
     public AlterOperationBuilder ofDetachPartition(int tableNamePosition, String tableName, int tableId) {
         this.command = DETACH_PARTITION;
         this.tableNamePosition = tableNamePosition;
@@ -58,6 +58,8 @@ public class CopyFactory extends AbstractRecordCursorFactory {
     private final StringSink importIdSink = new StringSink();
     private final MessageBus messageBus;
     private final int partitionBy;
+    // export query text, import requests leave it null
+    private final String query;
     private final ImportIdRecord record = new ImportIdRecord();
     private final SingleValueRecordCursor cursor = new SingleValueRecordCursor(record);
     private final String tableName;
@@ -83,6 +85,7 @@ public class CopyFactory extends AbstractRecordCursorFactory {
         this.delimiter = model.getDelimiter();
         this.partitionBy = model.getPartitionBy();
         this.atomicity = model.getAtomicity();
+        this.query = Chars.toString(model.getQuery());
     }
 
     @Override
@@ -98,17 +101,27 @@ public class CopyFactory extends AbstractRecordCursorFactory {
                 final TextImportRequestTask task = textImportRequestQueue.get(processingCursor);
 
                 long importId = textImportExecutionContext.assignActiveImportId();
-                task.of(
-                        importId,
-                        tableName,
-                        fileName,
-                        headerFlag,
-                        timestampColumn,
-                        delimiter,
-                        timestampFormat,
-                        partitionBy,
-                        atomicity
-                );
+                if (query != null) {
+                    task.ofExport(
+                            importId,
+                            query,
+                            fileName,
+                            headerFlag,
+                            delimiter
+                    );
+                } else {
+                    task.of(
+                            importId,
+                            tableName,
+                            fileName,
+                            headerFlag,
+                            timestampColumn,
+                            delimiter,
+                            timestampFormat,
+                            partitionBy,
+                            atomicity
+                    );
+                }
 
                 circuitBreaker.reset();
                 textImportRequestPubSeq.done(processingCursor);
@@ -0,0 +1,399 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cutlass.text.AtomicBooleanCircuitBreaker;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.tasks.SortTask;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Sorts row ids of a random access cursor by radix sorting (key, row id) pairs. The leading
+ * ORDER BY column is encoded into an unsigned 64-bit key. Chunks of the pair buffer are sorted
+ * and then merged on the shared worker pool. Rows with equal leading keys are ordered with the
+ * full record comparator afterwards.
+ * <p>
+ * Rows that are equal on every ORDER BY column are returned in reverse scan order, the same
+ * way {@link SortedLightRecordCursor} returns them.
+ */
+class RadixSortLightRecordCursor implements DelegatingRecordCursor {
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private final long chunkSize;
+    // null when there are no ORDER BY columns beyond the leading key
+    private final RecordComparator comparator;
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    private final DirectLongList entries;
+    private final int keyColumnIndex;
+    private final int keyColumnType;
+    private final boolean keyDescending;
+    private final long maxEntryCount;
+    private final int maxPages;
+    private final DirectLongList scratch;
+    private final AtomicBooleanCircuitBreaker sharedCircuitBreaker = new AtomicBooleanCircuitBreaker();
+    private RecordCursor base;
+    private Record baseRecord;
+    private long entryCount;
+    private long index;
+    private boolean isOpen;
+    private Sequence pubSeq;
+    private int queuedCount;
+    private RingQueue<SortTask> queue;
+    private long sortedAddress;
+    private Sequence subSeq;
+
+    public RadixSortLightRecordCursor(
+            long pageSize,
+            int maxPages,
+            long chunkSize,
+            int keyColumnIndex,
+            int keyColumnType,
+            boolean keyDescending,
+            @Nullable RecordComparator comparator
+    ) {
+        // each entry is a pair of longs, same footprint as a row in the light sort value chain
+        this.maxEntryCount = pageSize * maxPages / (2 * Long.BYTES);
+        this.maxPages = maxPages;
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.keyColumnIndex = keyColumnIndex;
+        this.keyColumnType = keyColumnType;
+        this.keyDescending = keyDescending;
+        this.comparator = comparator;
+        this.entries = new DirectLongList(2 * INSERTION_SORT_THRESHOLD, MemoryTag.NATIVE_TREE_CHAIN);
+        this.scratch = new DirectLongList(2 * INSERTION_SORT_THRESHOLD, MemoryTag.NATIVE_TREE_CHAIN);
+        this.isOpen = true;
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            Misc.free(entries);
+            Misc.free(scratch);
+            base = Misc.free(base);
+            baseRecord = null;
+        }
+    }
+
+    @Override
+    public Record getRecord() {
+        return baseRecord;
+    }
+
+    @Override
+    public Record getRecordB() {
+        return base.getRecordB();
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (index < entryCount) {
+            base.recordAt(baseRecord, rowIdAt(sortedAddress, index++));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return base.newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void of(RecordCursor base, SqlExecutionContext executionContext) {
+        if (!isOpen) {
+            entries.reopen();
+            scratch.reopen();
+            isOpen = true;
+        }
+
+        this.base = base;
+        this.baseRecord = base.getRecord();
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+
+        entries.clear();
+        long count = 0;
+        while (base.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            if (++count > maxEntryCount) {
+                throw LimitOverflowException.instance().put("Maximum number of pages (").put(maxPages).put(") breached in radix sort");
+            }
+            entries.add(encodeKey(baseRecord));
+            entries.add(baseRecord.getRowId());
+        }
+        entryCount = count;
+        sortedAddress = entries.getAddress();
+
+        if (entryCount > 1) {
+            scratch.setCapacity(2 * entryCount);
+            final long freeAddress = sort(executionContext.getMessageBus(), circuitBreaker);
+            orderEqualKeys(freeAddress);
+        }
+        index = 0;
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        base.recordAt(record, atRowId);
+    }
+
+    @Override
+    public long size() {
+        return base.size();
+    }
+
+    @Override
+    public void toTop() {
+        index = 0;
+    }
+
+    private static long keyAt(long address, long index) {
+        return Unsafe.getUnsafe().getLong(address + (index << 4));
+    }
+
+    private static void reverse(long address, long lo, long hi) {
+        for (long l = lo, r = hi - 1; l < r; l++, r--) {
+            final long rowId = rowIdAt(address, l);
+            setRowIdAt(address, l, rowIdAt(address, r));
+            setRowIdAt(address, r, rowId);
+        }
+    }
+
+    private static long rowIdAt(long address, long index) {
+        return Unsafe.getUnsafe().getLong(address + (index << 4) + Long.BYTES);
+    }
+
+    private static void setRowIdAt(long address, long index, long rowId) {
+        Unsafe.getUnsafe().putLong(address + (index << 4) + Long.BYTES, rowId);
+    }
+
+    private void awaitTasks(SqlExecutionCircuitBreaker circuitBreaker) {
+        // help workers with our own tasks, this also avoids a deadlock when there are no workers
+        while (doneLatch.getCount() > -queuedCount) {
+            circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+            long seq = subSeq.next();
+            if (seq > -1) {
+                queue.get(seq).run();
+                subSeq.done(seq);
+            }
+        }
+        doneLatch.await(queuedCount);
+        doneLatch.reset();
+        queuedCount = 0;
+    }
+
+    private int compareRows(long leftRowId, long rightRowId) {
+        base.recordAt(baseRecord, leftRowId);
+        comparator.setLeft(baseRecord);
+        final Record recordB = base.getRecordB();
+        base.recordAt(recordB, rightRowId);
+        return comparator.compare(recordB);
+    }
+
+    private void dispatch(int type, long srcAddress, long dstAddress, long lo, long mid, long hi) {
+        final long seq = pubSeq.next();
+        if (seq < 0) {
+            SortTask.execute(type, srcAddress, dstAddress, lo, mid, hi);
+        } else {
+            queue.get(seq).of(type, srcAddress, dstAddress, lo, mid, hi, doneLatch, sharedCircuitBreaker);
+            pubSeq.done(seq);
+            queuedCount++;
+        }
+    }
+
+    private long encodeKey(Record record) {
+        final long value;
+        switch (ColumnType.tagOf(keyColumnType)) {
+            case ColumnType.BOOLEAN:
+                value = record.getBool(keyColumnIndex) ? 1 : 0;
+                break;
+            case ColumnType.BYTE:
+                value = record.getByte(keyColumnIndex);
+                break;
+            case ColumnType.SHORT:
+                value = record.getShort(keyColumnIndex);
+                break;
+            case ColumnType.CHAR:
+                value = record.getChar(keyColumnIndex);
+                break;
+            case ColumnType.INT:
+                value = record.getInt(keyColumnIndex);
+                break;
+            case ColumnType.DATE:
+                value = record.getDate(keyColumnIndex);
+                break;
+            case ColumnType.TIMESTAMP:
+                value = record.getTimestamp(keyColumnIndex);
+                break;
+            default:
+                value = record.getLong(keyColumnIndex);
+                break;
+        }
+        // flip the sign bit to make signed values sort correctly as unsigned keys
+        final long key = value ^ Long.MIN_VALUE;
+        return keyDescending ? ~key : key;
+    }
+
+    private void insertionSort(long address, long lo, long hi) {
+        for (long i = lo + 1; i < hi; i++) {
+            final long rowId = rowIdAt(address, i);
+            base.recordAt(baseRecord, rowId);
+            comparator.setLeft(baseRecord);
+            final Record recordB = base.getRecordB();
+            long j = i - 1;
+            while (j >= lo) {
+                base.recordAt(recordB, rowIdAt(address, j));
+                if (comparator.compare(recordB) >= 0) {
+                    break;
+                }
+                setRowIdAt(address, j + 1, rowIdAt(address, j));
+                j--;
+            }
+            setRowIdAt(address, j + 1, rowId);
+        }
+    }
+
+    private void mergeSort(long address, long auxAddress, long lo, long hi) {
+        if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(address, lo, hi);
+            return;
+        }
+        final long mid = (lo + hi) >>> 1;
+        mergeSort(address, auxAddress, lo, mid);
+        mergeSort(address, auxAddress, mid, hi);
+        if (compareRows(rowIdAt(address, mid - 1), rowIdAt(address, mid)) <= 0) {
+            return;
+        }
+
+        Vect.memcpy(auxAddress + (lo << 4), address + (lo << 4), (hi - lo) << 4);
+        long l = lo;
+        long r = mid;
+        long d = lo;
+        while (l < mid && r < hi) {
+            final long leftRowId = rowIdAt(auxAddress, l);
+            final long rightRowId = rowIdAt(auxAddress, r);
+            if (compareRows(rightRowId, leftRowId) < 0) {
+                setRowIdAt(address, d++, rightRowId);
+                r++;
+            } else {
+                setRowIdAt(address, d++, leftRowId);
+                l++;
+            }
+        }
+        while (l < mid) {
+            setRowIdAt(address, d++, rowIdAt(auxAddress, l++));
+        }
+        // the remaining right side entries are already in place
+    }
+
+    private void orderEqualKeys(long auxAddress) {
+        long lo = 0;
+        long key = keyAt(sortedAddress, 0);
+        for (long i = 1; i <= entryCount; i++) {
+            if (i == entryCount || keyAt(sortedAddress, i) != key) {
+                if (i - lo > 1) {
+                    // radix sort is stable, reversing the run puts equal rows in reverse scan order
+                    reverse(sortedAddress, lo, i);
+                    if (comparator != null) {
+                        mergeSort(sortedAddress, auxAddress, lo, i);
+                    }
+                }
+                if (i < entryCount) {
+                    lo = i;
+                    key = keyAt(sortedAddress, i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts entries by key and returns address of the buffer that is free to be used as scratch area.
+     */
+    private long sort(MessageBus bus, SqlExecutionCircuitBreaker circuitBreaker) {
+        long srcAddress = entries.getAddress();
+        long dstAddress = scratch.getAddress();
+
+        if (entryCount <= chunkSize) {
+            SortTask.execute(SortTask.TYPE_SORT, srcAddress, dstAddress, 0, 0, entryCount);
+            return dstAddress;
+        }
+
+        queue = bus.getSortQueue();
+        pubSeq = bus.getSortPubSeq();
+        subSeq = bus.getSortSubSeq();
+        sharedCircuitBreaker.reset();
+        doneLatch.reset();
+        queuedCount = 0;
+        try {
+            for (long lo = 0; lo < entryCount; lo += chunkSize) {
+                dispatch(SortTask.TYPE_SORT, srcAddress, dstAddress, lo, lo, Math.min(lo + chunkSize, entryCount));
+            }
+            awaitTasks(circuitBreaker);
+
+            for (long width = chunkSize; width < entryCount; width <<= 1) {
+                for (long lo = 0; lo < entryCount; lo += 2 * width) {
+                    final long mid = Math.min(lo + width, entryCount);
+                    dispatch(SortTask.TYPE_MERGE, srcAddress, dstAddress, lo, mid, Math.min(mid + width, entryCount));
+                }
+                awaitTasks(circuitBreaker);
+                final long tmp = srcAddress;
+                srcAddress = dstAddress;
+                dstAddress = tmp;
+            }
+        } catch (Throwable th) {
+            sharedCircuitBreaker.cancel();
+            // tasks in the queue reference our buffers, wait for them before the memory can be released
+            while (doneLatch.getCount() > -queuedCount) {
+                long seq = subSeq.next();
+                if (seq > -1) {
+                    queue.get(seq).run();
+                    subSeq.done(seq);
+                }
+            }
+            doneLatch.await(queuedCount);
+            throw th;
+        }
+        sortedAddress = srcAddress;
+        return dstAddress;
+    }
+}
@@ -24,6 +24,7 @@
 
 package io.questdb.griffin.engine.table;
 
+import io.questdb.cairo.TableReader;
 import io.questdb.cairo.TableReaderSelectedColumnRecord;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
@@ -66,6 +67,10 @@ public abstract class AbstractDataFrameRecordCursor implements RecordCursor {
         return dataFrameCursor.getSymbolTable(columnIndexes.getQuick(columnIndex));
     }
 
+    public TableReader getTableReader() {
+        return dataFrameCursor.getTableReader();
+    }
+
     @Override
     public SymbolTable newSymbolTable(int columnIndex) {
         return dataFrameCursor.newSymbolTable(columnIndexes.getQuick(columnIndex));
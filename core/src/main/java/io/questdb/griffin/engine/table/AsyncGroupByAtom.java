@@ -0,0 +1,212 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.MapValueMergeFunction;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdater;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Holds the state of a parallel keyed GROUP BY. Each worker slot has its own map, group by functions
+ * and updater, so that page frames can be aggregated concurrently. The partial maps are merged into
+ * the owner map, which is the one later used to produce the result set.
+ */
+public class AsyncGroupByAtom implements StatefulAtom, Closeable {
+
+    private final CairoConfiguration configuration;
+    private final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+    private final RecordSink mapSink;
+    private final MapValueMergeFunction mergeFunction = this::mergeValues;
+    private final ObjList<GroupByFunction> ownerFunctions;
+    private final Map ownerMap;
+    private final GroupByFunctionsUpdater ownerUpdater;
+    private final ObjList<ObjList<GroupByFunction>> perWorkerFunctions;
+    private final AtomicIntegerArray perWorkerLocks;
+    // Per-worker maps are created lazily, on the first use by the worker.
+    private final ObjList<Map> perWorkerMaps;
+    private final ObjList<GroupByFunctionsUpdater> perWorkerUpdaters;
+    // Used to randomize acquire attempts for work stealing threads. Accessed in a racy way, intentionally.
+    private final Rnd rnd = new Rnd();
+    private final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+
+    public AsyncGroupByAtom(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @NotNull ColumnTypes valueTypes,
+            @NotNull RecordSink mapSink,
+            @NotNull ObjList<GroupByFunction> ownerFunctions,
+            @NotNull GroupByFunctionsUpdater ownerUpdater,
+            @NotNull ObjList<ObjList<GroupByFunction>> perWorkerFunctions,
+            @NotNull ObjList<GroupByFunctionsUpdater> perWorkerUpdaters
+    ) {
+        assert perWorkerFunctions.size() == perWorkerUpdaters.size();
+        this.configuration = configuration;
+        for (int i = 0, n = keyTypes.getColumnCount(); i < n; i++) {
+            this.keyTypes.add(keyTypes.getColumnType(i));
+        }
+        for (int i = 0, n = valueTypes.getColumnCount(); i < n; i++) {
+            this.valueTypes.add(valueTypes.getColumnType(i));
+        }
+        this.mapSink = mapSink;
+        this.ownerFunctions = ownerFunctions;
+        this.ownerUpdater = ownerUpdater;
+        this.perWorkerFunctions = perWorkerFunctions;
+        this.perWorkerUpdaters = perWorkerUpdaters;
+        final int slotCount = perWorkerFunctions.size();
+        this.perWorkerLocks = new AtomicIntegerArray(slotCount);
+        this.perWorkerMaps = new ObjList<>(slotCount);
+        this.perWorkerMaps.setPos(slotCount);
+        this.ownerMap = MapFactory.createMap(configuration, keyTypes, valueTypes);
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use the owner map anytime.
+            return -1;
+        }
+        final int size = perWorkerFunctions.size();
+        workerId = workerId == -1 ? rnd.nextInt(size) : workerId;
+        while (true) {
+            for (int i = 0; i < size; i++) {
+                int id = (i + workerId) % size;
+                if (perWorkerLocks.compareAndSet(id, 0, 1)) {
+                    return id;
+                }
+            }
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            Os.pause();
+        }
+    }
+
+    /**
+     * Releases memory held by the maps and resets group by functions. The atom remains
+     * usable, maps are reopened on the next use.
+     */
+    public void clear() {
+        ownerMap.close();
+        Misc.freeObjListAndKeepObjects(perWorkerMaps);
+        Misc.clearObjList(ownerFunctions);
+        for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+            Misc.clearObjList(perWorkerFunctions.getQuick(i));
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerMap);
+        Misc.freeObjList(perWorkerMaps);
+        for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+            Misc.freeObjList(perWorkerFunctions.getQuick(i));
+        }
+    }
+
+    public Map getMap(int slotId) {
+        if (slotId == -1) {
+            return ownerMap;
+        }
+        Map map = perWorkerMaps.getQuick(slotId);
+        if (map == null) {
+            map = MapFactory.createMap(configuration, keyTypes, valueTypes);
+            perWorkerMaps.setQuick(slotId, map);
+        } else {
+            map.reopen();
+        }
+        return map;
+    }
+
+    public RecordSink getMapSink() {
+        return mapSink;
+    }
+
+    public GroupByFunctionsUpdater getUpdater(int slotId) {
+        if (slotId == -1) {
+            return ownerUpdater;
+        }
+        return perWorkerUpdaters.getQuick(slotId);
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        ownerMap.reopen();
+        final boolean current = executionContext.getCloneSymbolTables();
+        executionContext.setCloneSymbolTables(true);
+        try {
+            for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+                Function.init(perWorkerFunctions.getQuick(i), symbolTableSource, executionContext);
+            }
+        } finally {
+            executionContext.setCloneSymbolTables(current);
+        }
+    }
+
+    /**
+     * Merges partial per-worker maps into the owner map and returns the owner map.
+     * Must be called by the query owner thread once all page frames are reduced.
+     */
+    public Map mergeWorkerMaps() {
+        for (int i = 0, n = perWorkerMaps.size(); i < n; i++) {
+            final Map workerMap = perWorkerMaps.getQuick(i);
+            if (workerMap != null && workerMap.size() > 0) {
+                ((FastMap) ownerMap).merge((FastMap) workerMap, mergeFunction);
+                // partial results are no longer needed, release the memory
+                workerMap.close();
+            }
+        }
+        return ownerMap;
+    }
+
+    public void release(int slotId) {
+        if (slotId == -1) {
+            return;
+        }
+        perWorkerLocks.set(slotId, 0);
+    }
+
+    private void mergeValues(MapValue destValue, MapValue srcValue) {
+        for (int i = 0, n = ownerFunctions.size(); i < n; i++) {
+            ownerFunctions.getQuick(i).merge(destValue, srcValue);
+        }
+    }
+}
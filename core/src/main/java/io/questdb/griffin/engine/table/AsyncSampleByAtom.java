@@ -0,0 +1,83 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdater;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * State of a parallel SAMPLE BY. On top of the GROUP BY state it holds the sampler used to
+ * map row timestamps to buckets. Bucket timestamp is the last map key column and it is also
+ * stored in the first map value column, which is where the result record reads it from.
+ * <p>
+ * The sampler is configured by the query owner thread before any frame is dispatched, after
+ * that workers only call {@link TimestampSampler#round(long)}, which is read-only.
+ */
+public class AsyncSampleByAtom extends AsyncGroupByAtom {
+    private final int timestampIndex;
+    private final TimestampSampler timestampSampler;
+
+    public AsyncSampleByAtom(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @NotNull ColumnTypes valueTypes,
+            @NotNull RecordSink mapSink,
+            @NotNull ObjList<GroupByFunction> ownerFunctions,
+            @NotNull GroupByFunctionsUpdater ownerUpdater,
+            @NotNull ObjList<ObjList<GroupByFunction>> perWorkerFunctions,
+            @NotNull ObjList<GroupByFunctionsUpdater> perWorkerUpdaters,
+            @NotNull TimestampSampler timestampSampler,
+            int timestampIndex
+    ) {
+        super(
+                configuration,
+                keyTypes,
+                valueTypes,
+                mapSink,
+                ownerFunctions,
+                ownerUpdater,
+                perWorkerFunctions,
+                perWorkerUpdaters
+        );
+        this.timestampSampler = timestampSampler;
+        this.timestampIndex = timestampIndex;
+    }
+
+    public int getTimestampIndex() {
+        return timestampIndex;
+    }
+
+    public TimestampSampler getTimestampSampler() {
+        return timestampSampler;
+    }
+}
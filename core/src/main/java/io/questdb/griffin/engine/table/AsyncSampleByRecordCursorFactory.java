@@ -0,0 +1,231 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdater;
+import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdaterFactory;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.mp.SCSequence;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * SAMPLE BY with FILL(NONE) executed in parallel over page frames. Rows are aggregated
+ * into per-worker maps keyed by the GROUP BY keys plus the sample bucket timestamp, then
+ * partial maps are merged the same way as in {@link AsyncGroupByRecordCursorFactory}.
+ * <p>
+ * Produced rows are not ordered, the code generator is expected to sort them by the
+ * timestamp column. Time zones are not supported, so bucket boundaries depend only
+ * on the sampler start, which is either the fixed calendar offset or the first
+ * timestamp of the base cursor.
+ */
+public class AsyncSampleByRecordCursorFactory extends AbstractRecordCursorFactory {
+
+    private static final PageFrameReducer REDUCER = AsyncSampleByRecordCursorFactory::aggregate;
+
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncGroupByRecordCursor cursor;
+    private final long fixedOffset;
+    private final PageFrameSequence<AsyncSampleByAtom> frameSequence;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final ObjList<Function> recordFunctions;
+    private final AsyncSampleByAtom sampleByAtom;
+    private final int timestampIndex;
+    private final TimestampSampler timestampSampler;
+    private final int workerCount;
+
+    /**
+     * @param keyTypes    types of GROUP BY keys, bucket timestamp column is appended by this factory
+     * @param valueTypes  value types, the first one must be a timestamp reserved for the bucket
+     * @param fixedOffset calendar offset in micros or Long.MIN_VALUE to align buckets to the first observation
+     */
+    public AsyncSampleByRecordCursorFactory(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordCursorFactory base,
+            @NotNull TimestampSampler timestampSampler,
+            long fixedOffset,
+            int timestampIndex,
+            @Transient @NotNull ListColumnFilter listColumnFilter,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @NotNull RecordMetadata groupByMetadata,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @NotNull ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions,
+            @NotNull ObjList<Function> recordFunctions,
+            @NotNull @Transient WeakClosableObjectPool<PageFrameReduceTask> localTaskPool
+    ) {
+        super(groupByMetadata);
+        assert ColumnType.isTimestamp(valueTypes.getColumnType(0));
+        try {
+            this.base = base;
+            this.timestampSampler = timestampSampler;
+            this.fixedOffset = fixedOffset;
+            this.timestampIndex = timestampIndex;
+            this.groupByFunctions = groupByFunctions;
+            this.recordFunctions = recordFunctions;
+            this.workerCount = perWorkerGroupByFunctions.size();
+            final RecordSink mapSink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, false);
+            final GroupByFunctionsUpdater ownerUpdater = GroupByFunctionsUpdaterFactory.getInstance(asm, groupByFunctions);
+            final ObjList<GroupByFunctionsUpdater> perWorkerUpdaters = new ObjList<>(workerCount);
+            for (int i = 0; i < workerCount; i++) {
+                perWorkerUpdaters.add(GroupByFunctionsUpdaterFactory.getInstance(asm, perWorkerGroupByFunctions.getQuick(i)));
+            }
+            // bucket timestamp goes after the GROUP BY keys
+            keyTypes.add(ColumnType.TIMESTAMP);
+            this.sampleByAtom = new AsyncSampleByAtom(
+                    configuration,
+                    keyTypes,
+                    valueTypes,
+                    mapSink,
+                    groupByFunctions,
+                    ownerUpdater,
+                    perWorkerGroupByFunctions,
+                    perWorkerUpdaters,
+                    timestampSampler,
+                    timestampIndex
+            );
+            this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, localTaskPool);
+            this.cursor = new AsyncGroupByRecordCursor(recordFunctions);
+        } catch (Throwable e) {
+            Misc.freeObjList(recordFunctions);
+            for (int i = 0, n = perWorkerGroupByFunctions.size(); i < n; i++) {
+                Misc.freeObjList(perWorkerGroupByFunctions.getQuick(i));
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public PageFrameSequence<AsyncSampleByAtom> execute(SqlExecutionContext executionContext, Sequence collectSubSeq, int order) throws SqlException {
+        return frameSequence.of(base, executionContext, collectSubSeq, sampleByAtom, order);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        // frames must be in ascending order for the first frame to hold the first observation
+        final PageFrameSequence<AsyncSampleByAtom> frameSequence = execute(executionContext, collectSubSeq, ORDER_ASC);
+        // frames are not dispatched until the cursor starts collecting them, so it is safe
+        // to configure the sampler at this point
+        if (fixedOffset != Long.MIN_VALUE) {
+            timestampSampler.setStart(fixedOffset);
+        } else {
+            for (int i = 0, n = frameSequence.getFrameCount(); i < n; i++) {
+                if (frameSequence.getFrameRowCount(i) > 0) {
+                    final long address = frameSequence.getPageAddressCache().getPageAddress(i, timestampIndex);
+                    timestampSampler.setStart(Unsafe.getUnsafe().getLong(address));
+                    break;
+                }
+            }
+        }
+        cursor.of(frameSequence, executionContext);
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("AsyncSampleByRecord");
+        sink.meta("vectorized").val(false);
+        sink.meta("workers").val(workerCount);
+        sink.attr("groupByFunctions").val(groupByFunctions);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    private static void aggregate(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        final AsyncSampleByAtom atom = task.getFrameSequence(AsyncSampleByAtom.class).getAtom();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        try {
+            final Map map = atom.getMap(slotId);
+            final GroupByFunctionsUpdater updater = atom.getUpdater(slotId);
+            final RecordSink mapSink = atom.getMapSink();
+            final TimestampSampler timestampSampler = atom.getTimestampSampler();
+            final int timestampIndex = atom.getTimestampIndex();
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                final long bucket = timestampSampler.round(record.getTimestamp(timestampIndex));
+                final MapKey key = map.withKey();
+                mapSink.copy(record, key);
+                key.putTimestamp(bucket);
+                final MapValue value = key.createValue();
+                if (value.isNew()) {
+                    value.putTimestamp(0, bucket);
+                    updater.updateNew(value, record);
+                } else {
+                    updater.updateExisting(value, record);
+                }
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        Misc.freeObjList(recordFunctions);
+        Misc.free(base);
+        Misc.free(sampleByAtom);
+        Misc.free(frameSequence);
+    }
+}
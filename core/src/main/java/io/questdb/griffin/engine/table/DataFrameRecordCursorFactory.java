@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.FullFwdDataFrameCursorFactory;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
@@ -47,6 +48,7 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
     private final Function filter;
     private final boolean followsOrderByAdvice;
     private final boolean framingSupported;
+    private final RowCursorFactory rowCursorFactory;
     private final boolean supportsRandomAccess;
     protected BwdTableReaderPageFrameCursor bwdPageFrameCursor;
     protected FwdTableReaderPageFrameCursor fwdPageFrameCursor;
@@ -67,6 +69,7 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         super(metadata, dataFrameCursorFactory);
 
         this.cursor = new DataFrameRecordCursor(rowCursorFactory, rowCursorFactory.isEntity(), filter, columnIndexes);
+        this.rowCursorFactory = rowCursorFactory;
         this.followsOrderByAdvice = followsOrderByAdvice;
         this.filter = filter;
         this.framingSupported = framingSupported;
@@ -98,6 +101,16 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         return dataFrameCursorFactory.getOrder() == DataFrameCursorFactory.ORDER_DESC;
     }
 
+    /**
+     * @return true when cursor returns every row of the table in timestamp order, so that rows found
+     * via table reader, for example using a bitmap index, are guaranteed to be part of the result set
+     */
+    public boolean isFullTableScan() {
+        return filter == null
+                && dataFrameCursorFactory instanceof FullFwdDataFrameCursorFactory
+                && rowCursorFactory instanceof DataFrameRowCursorFactory;
+    }
+
     @Override
     public boolean recordCursorSupportsRandomAccess() {
         return supportsRandomAccess;
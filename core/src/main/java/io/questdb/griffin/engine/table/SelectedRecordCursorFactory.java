@@ -28,6 +28,7 @@ import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.IntList;
@@ -68,6 +69,12 @@ public class SelectedRecordCursorFactory extends AbstractRecordCursorFactory {
         return base.supportsUpdateRowId(tableName);
     }
 
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("SelectedRecord");
+        sink.child(base);
+    }
+
     @Override
     public boolean usesCompiledFilter() {
         return base.usesCompiledFilter();
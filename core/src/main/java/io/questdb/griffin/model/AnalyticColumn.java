@@ -30,9 +30,20 @@ import io.questdb.std.ObjectFactory;
 
 public final class AnalyticColumn extends QueryColumn {
     public final static ObjectFactory<AnalyticColumn> FACTORY = AnalyticColumn::new;
+    // frame is not specified, default frame depends on presence of ORDER BY
+    public static final int FRAMING_DEFAULT = 0;
+    public static final int FRAMING_RANGE = 2;
+    public static final int FRAMING_ROWS = 1;
+    // frame bounds are offsets relative to the current row, negative offsets are PRECEDING, positive FOLLOWING
+    public static final long UNBOUNDED_FOLLOWING = Long.MAX_VALUE;
+    public static final long UNBOUNDED_PRECEDING = Long.MIN_VALUE;
     private final ObjList<ExpressionNode> orderBy = new ObjList<>(2);
     private final IntList orderByDirection = new IntList(2);
     private final ObjList<ExpressionNode> partitionBy = new ObjList<>(2);
+    private int framingMode = FRAMING_DEFAULT;
+    private int framingModePos;
+    private long rowsHi = 0;
+    private long rowsLo = UNBOUNDED_PRECEDING;
 
     private AnalyticColumn() {
     }
@@ -48,6 +59,18 @@ public final class AnalyticColumn extends QueryColumn {
         partitionBy.clear();
         orderBy.clear();
         orderByDirection.clear();
+        framingMode = FRAMING_DEFAULT;
+        framingModePos = 0;
+        rowsLo = UNBOUNDED_PRECEDING;
+        rowsHi = 0;
+    }
+
+    public int getFramingMode() {
+        return framingMode;
+    }
+
+    public int getFramingModePos() {
+        return framingModePos;
     }
 
     public ObjList<ExpressionNode> getOrderBy() {
@@ -62,8 +85,23 @@ public final class AnalyticColumn extends QueryColumn {
         return partitionBy;
     }
 
+    public long getRowsHi() {
+        return rowsHi;
+    }
+
+    public long getRowsLo() {
+        return rowsLo;
+    }
+
     @Override
     public AnalyticColumn of(CharSequence alias, ExpressionNode ast) {
         return (AnalyticColumn) super.of(alias, ast);
     }
+
+    public void setFrame(int framingMode, int framingModePos, long rowsLo, long rowsHi) {
+        this.framingMode = framingMode;
+        this.framingModePos = framingModePos;
+        this.rowsLo = rowsLo;
+        this.rowsHi = rowsHi;
+    }
 }
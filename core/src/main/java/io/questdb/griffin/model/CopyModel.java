@@ -37,6 +37,7 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
     private ExpressionNode fileName;
     private boolean header;
     private int partitionBy;
+    private CharSequence query; // text of exported query, null for import and cancel models
     private ExpressionNode target; // holds table name (new import) or import id (cancel model)
     private CharSequence timestampColumnName;
     private CharSequence timestampFormat;
@@ -55,6 +56,7 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         partitionBy = -1;
         delimiter = -1;
         atomicity = -1;
+        query = null;
     }
 
     public int getAtomicity() {
@@ -78,6 +80,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         return partitionBy;
     }
 
+    public CharSequence getQuery() {
+        return query;
+    }
+
     public ExpressionNode getTarget() {
         return target;
     }
@@ -94,6 +100,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         return cancel;
     }
 
+    public boolean isExport() {
+        return query != null;
+    }
+
     public boolean isHeader() {
         return header;
     }
@@ -122,6 +132,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         this.partitionBy = partitionBy;
     }
 
+    public void setQuery(CharSequence query) {
+        this.query = query;
+    }
+
     public void setTarget(ExpressionNode tableName) {
         this.target = tableName;
     }
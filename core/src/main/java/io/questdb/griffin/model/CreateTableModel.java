@@ -34,6 +34,7 @@ import io.questdb.std.str.CharSink;
 public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, TableStructure {
     public static final ObjectFactory<CreateTableModel> FACTORY = CreateTableModel::new;
     private static final int COLUMN_FLAG_CACHED = 1;
+    private static final int COLUMN_FLAG_DEDUP_KEY = 4;
     private static final int COLUMN_FLAG_INDEXED = 2;
     private final LongList columnBits = new LongList();
     private final CharSequenceObjHashMap<ColumnCastModel> columnCastModels = new CharSequenceObjHashMap<>();
@@ -183,6 +184,11 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return timestamp == null ? -1 : getColumnIndex(timestamp.token);
     }
 
+    @Override
+    public boolean isDedupKey(int index) {
+        return (getLowAt(index * 2 + 1) & COLUMN_FLAG_DEDUP_KEY) != 0;
+    }
+
     public boolean isIgnoreIfExists() {
         return ignoreIfExists;
     }
@@ -207,6 +213,11 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         this.commitLag = micros;
     }
 
+    public void setDedupKeyFlag(int index) {
+        final int pos = index * 2 + 1;
+        columnBits.setQuick(pos, Numbers.encodeLowHighInts(getLowAt(pos) | COLUMN_FLAG_DEDUP_KEY, getHighAt(pos)));
+    }
+
     public void setIgnoreIfExists(boolean flag) {
         this.ignoreIfExists = flag;
     }
@@ -342,6 +353,18 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         if (partitionBy != null) {
             sink.put(" partition by ").put(partitionBy.token);
         }
+
+        boolean dedup = false;
+        for (int i = 0, n = getColumnCount(); i < n; i++) {
+            if (isDedupKey(i)) {
+                sink.put(dedup ? ", " : " dedup upsert keys(");
+                sink.put(getColumnName(i));
+                dedup = true;
+            }
+        }
+        if (dedup) {
+            sink.put(')');
+        }
     }
 
     private int getHighAt(int index) {
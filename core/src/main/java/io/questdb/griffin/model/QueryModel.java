@@ -1204,6 +1204,16 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                             }
                         }
                     }
+
+                    if (ac.getFramingMode() != AnalyticColumn.FRAMING_DEFAULT) {
+                        if (partitionBy.size() > 0 || orderBy.size() > 0) {
+                            sink.put(' ');
+                        }
+                        sink.put(ac.getFramingMode() == AnalyticColumn.FRAMING_ROWS ? "rows between " : "range between ");
+                        frameBoundToSink(sink, ac.getRowsLo());
+                        sink.put(" and ");
+                        frameBoundToSink(sink, ac.getRowsHi());
+                    }
                     sink.put(')');
                 }
             } else {
@@ -1215,6 +1225,20 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         }
     }
 
+    private static void frameBoundToSink(CharSink sink, long bound) {
+        if (bound == AnalyticColumn.UNBOUNDED_PRECEDING) {
+            sink.put("unbounded preceding");
+        } else if (bound == AnalyticColumn.UNBOUNDED_FOLLOWING) {
+            sink.put("unbounded following");
+        } else if (bound == 0) {
+            sink.put("current row");
+        } else if (bound < 0) {
+            sink.put(-bound).put(" preceding");
+        } else {
+            sink.put(bound).put(" following");
+        }
+    }
+
     //returns textual description of this model, e.g. select-choose [top-down-columns] bottom-up-columns from X ...
     private void toSink0(CharSink sink, boolean joinSlave, boolean showOrderBy) {
         final boolean hasColumns = this.topDownColumns.size() > 0 || this.bottomUpColumns.size() > 0;
@@ -37,6 +37,7 @@ public interface IODispatcher<C extends IOContext> extends Closeable, Job {
     int DISCONNECT_REASON_KICKED_OUT_AT_SEND = 3;
     int DISCONNECT_REASON_KICKED_TXT_NOT_ENOUGH_LINES = 14;
     int DISCONNECT_REASON_MULTIPART_HEADER_TOO_BIG = 9;
+    int DISCONNECT_REASON_PEER_DISCONNECT_AT_CONTENT_RECV = 18;
     int DISCONNECT_REASON_PEER_DISCONNECT_AT_HEADER_RECV = 12;
     int DISCONNECT_REASON_PEER_DISCONNECT_AT_MULTIPART_RECV = 8;
     int DISCONNECT_REASON_PEER_DISCONNECT_AT_RECV = 15;
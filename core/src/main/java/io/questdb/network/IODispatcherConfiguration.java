@@ -24,6 +24,8 @@
 
 package io.questdb.network;
 
+import io.questdb.std.IOURingFacade;
+import io.questdb.std.IOURingFacadeImpl;
 import io.questdb.std.Numbers;
 import io.questdb.std.Os;
 import io.questdb.std.datetime.millitime.MillisecondClock;
@@ -56,6 +58,10 @@ public interface IODispatcherConfiguration {
         return Numbers.ceilPow2(getLimit());
     }
 
+    default IOURingFacade getIOURingFacade() {
+        return IOURingFacadeImpl.INSTANCE;
+    }
+
     int getInitialBias();
 
     default int getInterestQueueCapacity() {
@@ -90,4 +96,12 @@ public interface IODispatcherConfiguration {
     int getSndBufSize();
 
     long getTimeout();
+
+    /**
+     * When enabled and supported by the kernel, Linux dispatcher waits for socket readiness
+     * with io_uring poll requests rather than with epoll.
+     */
+    default boolean isIOURingEnabled() {
+        return false;
+    }
 }
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.network;
+
+import io.questdb.std.IOURing;
+
+/**
+ * Linux dispatcher that waits for socket readiness with io_uring one-shot poll requests
+ * instead of epoll. Poll requests of a dispatcher iteration are batched into a single
+ * submission system call and completions are reaped from the shared completion ring
+ * without any system call at all.
+ */
+public class IODispatcherLinuxIOURing<C extends IOContext> extends AbstractIODispatcher<C> {
+    private static final int MAX_RING_CAPACITY = 32768;
+    private static final int M_ID = 2;
+    // placeholder id of accepted connections that don't have their poll request enqueued yet
+    private static final long NOT_ENQUEUED_ID = Long.MAX_VALUE;
+    private final IOURing ring;
+    private int enqueuedCount;
+    private long listenerId = -1;
+
+    public IODispatcherLinuxIOURing(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory
+    ) {
+        super(configuration, ioContextFactory);
+        this.ring = configuration.getIOURingFacade().newInstance(Math.min(configuration.getEventCapacity(), MAX_RING_CAPACITY));
+        registerListenerFd();
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        this.ring.close();
+        LOG.info().$("closed").$();
+    }
+
+    private void enqueuePending(int watermark) {
+        for (int i = watermark, sz = pending.size(); i < sz; i++) {
+            pending.set(i, M_ID, enqueuePoll(pending.get(i, M_FD), initialBias == IODispatcherConfiguration.BIAS_READ ? IOOperation.READ : IOOperation.WRITE));
+        }
+    }
+
+    private long enqueuePoll(long fd, int operation) {
+        long id;
+        while ((id = ring.enqueuePoll(fd, operation == IOOperation.READ ? EpollAccessor.EPOLLIN : EpollAccessor.EPOLLOUT)) < 0) {
+            // submission queue is full, hand it over to the kernel and retry
+            submit();
+        }
+        enqueuedCount++;
+        return id;
+    }
+
+    private void enqueuePollRemove(long pollId) {
+        while (ring.enqueuePollRemove(pollId) < 0) {
+            submit();
+        }
+        enqueuedCount++;
+    }
+
+    private void processIdleConnections(long deadline) {
+        int count = 0;
+        for (int i = 0, n = pending.size(); i < n && pending.get(i, M_TIMESTAMP) < deadline; i++, count++) {
+            // the ring keeps a reference to the socket until its poll request is gone,
+            // cancel the request, so that closing fd actually closes the connection
+            final long id = pending.get(i, M_ID);
+            if (id != NOT_ENQUEUED_ID) {
+                enqueuePollRemove(id);
+            }
+            doDisconnect(pending.get(i), DISCONNECT_SRC_IDLE);
+        }
+        pending.zapTop(count);
+    }
+
+    private boolean processRegistrations(long timestamp) {
+        long cursor;
+        boolean useful = false;
+        while ((cursor = interestSubSeq.next()) > -1) {
+            IOEvent<C> evt = interestQueue.get(cursor);
+            C context = evt.context;
+            int operation = evt.operation;
+            interestSubSeq.done(cursor);
+
+            final long fd = context.getFd();
+            final long id = enqueuePoll(fd, operation);
+            LOG.debug().$("registered [fd=").$(fd).$(", op=").$(operation).$(", id=").$(id).$(']').$();
+
+            int r = pending.addRow();
+            pending.set(r, M_TIMESTAMP, timestamp);
+            pending.set(r, M_FD, fd);
+            pending.set(r, M_ID, id);
+            pending.set(r, context);
+            useful = true;
+        }
+        return useful;
+    }
+
+    private void submit() {
+        final int res = ring.submit();
+        if (res < 0) {
+            throw NetworkError.instance(-res, "could not submit io_uring requests");
+        }
+        enqueuedCount = 0;
+    }
+
+    @Override
+    protected void pendingAdded(int index) {
+        pending.set(index, M_ID, NOT_ENQUEUED_ID);
+    }
+
+    @Override
+    protected void registerListenerFd() {
+        if (listenerId == -1) {
+            listenerId = enqueuePoll(serverFd, IOOperation.READ);
+        }
+    }
+
+    @Override
+    protected boolean runSerially() {
+        boolean useful = false;
+
+        final long timestamp = clock.getTicks();
+        processDisconnects(timestamp);
+        int watermark = pending.size();
+        while (ring.nextCqe()) {
+            final long id = ring.getCqeId();
+            if (id == listenerId) {
+                // poll requests are one-shot, re-arm the listener unless accept
+                // has reached the connection limit
+                listenerId = -1;
+                accept(timestamp);
+                if (isListening()) {
+                    registerListenerFd();
+                }
+                useful = true;
+                continue;
+            }
+
+            // completions of poll removals and of cancelled polls are not in pending
+            final int row = pending.binarySearch(id, M_ID);
+            if (row < 0) {
+                continue;
+            }
+
+            final int res = ring.getCqeRes();
+            if (res < 0) {
+                LOG.error().$("poll request failed [fd=").$(pending.get(row, M_FD)).$(", res=").$(res).$(']').$();
+                doDisconnect(pending.get(row), DISCONNECT_SRC_QUEUE);
+            } else {
+                publishOperation(
+                        (res & EpollAccessor.EPOLLIN) > 0 ? IOOperation.READ : IOOperation.WRITE,
+                        pending.get(row)
+                );
+            }
+            pending.deleteRow(row);
+            watermark--;
+            useful = true;
+        }
+
+        // process rows over watermark
+        if (watermark < pending.size()) {
+            enqueuePending(watermark);
+        }
+
+        // process timed out connections
+        final long deadline = timestamp - idleConnectionTimeout;
+        if (pending.size() > 0 && pending.get(0, M_TIMESTAMP) < deadline) {
+            processIdleConnections(deadline);
+            useful = true;
+        }
+
+        useful |= processRegistrations(timestamp);
+
+        if (enqueuedCount > 0) {
+            submit();
+        }
+        return useful;
+    }
+
+    @Override
+    protected void unregisterListenerFd() {
+        if (listenerId != -1) {
+            enqueuePollRemove(listenerId);
+            listenerId = -1;
+        }
+    }
+}
@@ -38,6 +38,9 @@ public class IODispatchers {
         switch (Os.type) {
             case Os.LINUX_AMD64:
             case Os.LINUX_ARM64:
+                if (configuration.isIOURingEnabled() && configuration.getIOURingFacade().isAvailable()) {
+                    return new IODispatcherLinuxIOURing<>(configuration, ioContextFactory);
+                }
                 return new IODispatcherLinux<>(configuration, ioContextFactory);
             case Os.OSX_AMD64:
             case Os.OSX_ARM64:
@@ -74,6 +74,37 @@ public final class Hash {
         return xxHash64(p, len, 0, unsafeAccessor);
     }
 
+    /**
+     * Mixes all bits of a 64-bit value using finalizer of MurmurHash3. Suitable for sketches that
+     * need uniformly distributed 64-bit hash codes, such as HyperLogLog.
+     *
+     * @param k value to hash
+     * @return 64-bit hash code
+     */
+    public static long murmur3ToLong(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /**
+     * Calculates 64-bit hash code of char sequence. Chars are combined polynomially with a large
+     * odd multiplier and the result is mixed with {@link #murmur3ToLong(long)}.
+     *
+     * @param s char sequence
+     * @return 64-bit hash code
+     */
+    public static long murmur3ToLong(CharSequence s) {
+        long h = s.length();
+        for (int i = 0, n = s.length(); i < n; i++) {
+            h = (h + s.charAt(i)) * 0x9e3779b97f4a7c15L;
+        }
+        return murmur3ToLong(h);
+    }
+
     /**
      * (copied from ConcurrentHashMap)
      * Spreads (XORs) higher bits of hash to lower and also forces top
@@ -36,6 +36,22 @@ public interface IOURing extends Closeable {
     @TestOnly
     long enqueueNop();
 
+    /**
+     * Enqueues one-shot poll request for the given fd. The request completes
+     * once any of the requested events is signaled, cqe result holds the
+     * signaled events mask.
+     *
+     * @return request id or -1 if the submission queue is full.
+     */
+    long enqueuePoll(long fd, int events);
+
+    /**
+     * Enqueues cancellation of the previously enqueued poll request.
+     *
+     * @return request id or -1 if the submission queue is full.
+     */
+    long enqueuePollRemove(long pollId);
+
     long enqueueRead(long fd, long offset, long bufPtr, int len);
 
     long getCqeId();
@@ -94,12 +94,22 @@ public class IOURingImpl implements IOURing {
     @Override
     @TestOnly
     public long enqueueNop() {
-        return enqueueSqe(IORING_OP_NOP, 0, 0, 0, 0);
+        return enqueueSqe(IORING_OP_NOP, 0, 0, 0, 0, 0);
+    }
+
+    @Override
+    public long enqueuePoll(long fd, int events) {
+        return enqueueSqe(IORING_OP_POLL_ADD, fd, 0, 0, 0, events);
+    }
+
+    @Override
+    public long enqueuePollRemove(long pollId) {
+        return enqueueSqe(IORING_OP_POLL_REMOVE, -1, 0, pollId, 0, 0);
     }
 
     @Override
     public long enqueueRead(long fd, long offset, long bufAddr, int len) {
-        return enqueueSqe(IORING_OP_READ, fd, offset, bufAddr, len);
+        return enqueueSqe(IORING_OP_READ, fd, offset, bufAddr, len, 0);
     }
 
     @Override
@@ -152,7 +162,7 @@ public class IOURingImpl implements IOURing {
         return facade.submitAndWait(ringAddr, 1);
     }
 
-    private long enqueueSqe(byte op, long fd, long offset, long bufAddr, int len) {
+    private long enqueueSqe(byte op, long fd, long offset, long bufAddr, int len, int opFlags) {
         final long sqeAddr = nextSqe();
         if (sqeAddr == 0) {
             return -1;
@@ -162,6 +172,7 @@ public class IOURingImpl implements IOURing {
         Unsafe.getUnsafe().putLong(sqeAddr + SQE_OFF_OFFSET, offset);
         Unsafe.getUnsafe().putLong(sqeAddr + SQE_ADDR_OFFSET, bufAddr);
         Unsafe.getUnsafe().putInt(sqeAddr + SQE_LEN_OFFSET, len);
+        Unsafe.getUnsafe().putInt(sqeAddr + SQE_OP_FLAGS_OFFSET, opFlags);
         final long id = idSeq++;
         Unsafe.getUnsafe().putLong(sqeAddr + SQE_USER_DATA_OFFSET, id);
         return id;
@@ -34,6 +34,8 @@ public class IOUringAccessor {
     static final short CQ_KRING_MASK_OFFSET;
     static final short CQ_KTAIL_OFFSET;
     static final byte IORING_OP_NOP = 0;
+    static final byte IORING_OP_POLL_ADD = 6;
+    static final byte IORING_OP_POLL_REMOVE = 7;
     static final byte IORING_OP_READ = 22;
     static final short RING_FD_OFFSET;
     static final short SIZEOF_CQE;
@@ -41,6 +43,8 @@ public class IOUringAccessor {
     static final short SQE_ADDR_OFFSET;
     static final short SQE_FD_OFFSET;
     static final short SQE_LEN_OFFSET;
+    // op-specific flags union, e.g. poll32_events, follows len in struct io_uring_sqe
+    static final short SQE_OP_FLAGS_OFFSET;
     static final short SQE_OFF_OFFSET;
     static final short SQE_OPCODE_OFFSET;
     static final short SQE_USER_DATA_OFFSET;
@@ -130,6 +134,7 @@ public class IOUringAccessor {
         SQE_OFF_OFFSET = getSqeOffOffset();
         SQE_ADDR_OFFSET = getSqeAddrOffset();
         SQE_LEN_OFFSET = getSqeLenOffset();
+        SQE_OP_FLAGS_OFFSET = (short) (SQE_LEN_OFFSET + Integer.BYTES);
         SQE_USER_DATA_OFFSET = getSqeUserDataOffset();
 
         final short cqOffset = getCqOffset();
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.tasks;
+
+import io.questdb.cairo.sql.ExecutionCircuitBreaker;
+import io.questdb.mp.CountDownLatchSPI;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+/**
+ * Sorts or merges (key, row id) pairs on behalf of a radix ORDER BY. Each entry is
+ * two longs, key first. Keys are compared as unsigned values.
+ */
+public class SortTask {
+    public static final int TYPE_MERGE = 1;
+    public static final int TYPE_SORT = 0;
+    private ExecutionCircuitBreaker circuitBreaker;
+    private CountDownLatchSPI doneLatch;
+    private long dstAddress;
+    private long hi;
+    private long lo;
+    private long mid;
+    private long srcAddress;
+    private int type;
+
+    public static void execute(int type, long srcAddress, long dstAddress, long lo, long mid, long hi) {
+        if (type == TYPE_SORT) {
+            // radix sort uses destination as scratch area, sorted entries end up in the source buffer
+            Vect.radixSortLongIndexAscInPlace(srcAddress + (lo << 4), hi - lo, dstAddress + (lo << 4));
+        } else {
+            merge(srcAddress, dstAddress, lo, mid, hi);
+        }
+    }
+
+    /**
+     * Merges sorted entry ranges [lo, mid) and [mid, hi) of the source buffer into the same
+     * range of the destination buffer. Ties are taken from the left range first, which keeps
+     * the merge stable.
+     */
+    public static void merge(long srcAddress, long dstAddress, long lo, long mid, long hi) {
+        long l = lo;
+        long r = mid;
+        long d = dstAddress + (lo << 4);
+        while (l < mid && r < hi) {
+            final long lAddr = srcAddress + (l << 4);
+            final long rAddr = srcAddress + (r << 4);
+            final long src;
+            if (Long.compareUnsigned(Unsafe.getUnsafe().getLong(rAddr), Unsafe.getUnsafe().getLong(lAddr)) < 0) {
+                src = rAddr;
+                r++;
+            } else {
+                src = lAddr;
+                l++;
+            }
+            Unsafe.getUnsafe().putLong(d, Unsafe.getUnsafe().getLong(src));
+            Unsafe.getUnsafe().putLong(d + 8, Unsafe.getUnsafe().getLong(src + 8));
+            d += 16;
+        }
+        if (l < mid) {
+            Vect.memcpy(d, srcAddress + (l << 4), (mid - l) << 4);
+        } else if (r < hi) {
+            Vect.memcpy(d, srcAddress + (r << 4), (hi - r) << 4);
+        }
+    }
+
+    public void of(
+            int type,
+            long srcAddress,
+            long dstAddress,
+            long lo,
+            long mid,
+            long hi,
+            CountDownLatchSPI doneLatch,
+            ExecutionCircuitBreaker circuitBreaker
+    ) {
+        this.type = type;
+        this.srcAddress = srcAddress;
+        this.dstAddress = dstAddress;
+        this.lo = lo;
+        this.mid = mid;
+        this.hi = hi;
+        this.doneLatch = doneLatch;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public boolean run() {
+        if (!circuitBreaker.checkIfTripped()) {
+            execute(type, srcAddress, dstAddress, lo, mid, hi);
+        }
+
+        doneLatch.countDown();
+        return true;
+    }
+}
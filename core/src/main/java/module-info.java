@@ -533,6 +533,12 @@ open module io.questdb {
             io.questdb.griffin.engine.functions.groupby.CountLong256GroupByFunctionFactory,
             io.questdb.griffin.engine.functions.groupby.CountDistinctLongGroupByFunctionFactory,
             io.questdb.griffin.engine.functions.groupby.CountDistinctIntGroupByFunctionFactory,
+            io.questdb.griffin.engine.functions.groupby.ApproxCountDistinctIntGroupByFunctionFactory,
+            io.questdb.griffin.engine.functions.groupby.ApproxCountDistinctLongGroupByFunctionFactory,
+            io.questdb.griffin.engine.functions.groupby.ApproxCountDistinctStrGroupByFunctionFactory,
+            io.questdb.griffin.engine.functions.groupby.ApproxCountDistinctSymbolGroupByFunctionFactory,
+            io.questdb.griffin.engine.functions.groupby.ApproxPercentileDoubleGroupByFunctionFactory,
+            io.questdb.griffin.engine.functions.groupby.ApproxMedianDoubleGroupByFunctionFactory,
             //      'haversine_dist_degree' group by function
             io.questdb.griffin.engine.functions.groupby.HaversineDistDegreeGroupByFunctionFactory,
 //                  'isOrdered'
@@ -657,6 +663,15 @@ open module io.questdb {
 
             // analytic functions
             io.questdb.griffin.engine.functions.analytic.RowNumberFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.AvgDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.CountWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.FirstValueDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LagDoubleFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LastValueDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LeadDoubleFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.MaxDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.MinDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.SumDoubleWindowFunctionFactory,
             // this factory seems to corrupt memory, symptoms of which are visible on M1 CPU
             //io.questdb.griffin.engine.functions.analytic.RankFunctionFactory,
 
@@ -94,6 +94,9 @@ public abstract class AbstractCairoTest {
     protected static int defaultTableWriteMode = -1;
     protected static Boolean enableColumnPreTouch = null;
     protected static Boolean enableParallelFilter = null;
+    protected static Boolean enableParallelGroupBy = null;
+    protected static Boolean enableParallelSort = null;
+    protected static Boolean enablePartitionZoneMaps = null;
     protected static CairoEngine engine;
     protected static FilesFacade ff;
     protected static boolean hideTelemetryTable = false;
@@ -110,6 +113,7 @@ public abstract class AbstractCairoTest {
     protected static int pageFrameReduceShardCount = -1;
     protected static int parallelImportStatusLogKeepNDays = -1;
     protected static int queryCacheEventQueueCapacity = -1;
+    protected static long queryMemoryBudget = -1;
     protected static int rndFunctionMemoryMaxPages = -1;
     protected static int rndFunctionMemoryPageSize = -1;
     protected static CharSequence root;
@@ -120,6 +124,7 @@ public abstract class AbstractCairoTest {
     protected static Boolean snapshotRecoveryEnabled = null;
     protected static int sqlCopyBufferSize = 1024 * 1024;
     protected static MicrosecondClock testMicrosClock = defaultMicrosecondClock;
+    protected static long walApplyCoalesceRowCount = -1;
     protected static long walSegmentRolloverRowCount = -1;
     protected static int writerCommandQueueCapacity = 4;
     protected static long writerCommandQueueSlotSize = 2048L;
@@ -412,11 +417,21 @@ public abstract class AbstractCairoTest {
                 return pageFrameMaxRows < 0 ? super.getSqlPageFrameMaxRows() : pageFrameMaxRows;
             }
 
+            @Override
+            public long getSqlQueryMemoryBudget() {
+                return queryMemoryBudget < 0 ? super.getSqlQueryMemoryBudget() : queryMemoryBudget;
+            }
+
             @Override
             public TelemetryConfiguration getTelemetryConfiguration() {
                 return telemetryConfiguration;
             }
 
+            @Override
+            public long getWalApplyCoalesceRowCount() {
+                return walApplyCoalesceRowCount < 0 ? super.getWalApplyCoalesceRowCount() : walApplyCoalesceRowCount;
+            }
+
             @Override
             public boolean getWalEnabledDefault() {
                 return defaultTableWriteMode < 0 ? super.getWalEnabledDefault() : defaultTableWriteMode == 1;
@@ -467,6 +482,11 @@ public abstract class AbstractCairoTest {
                 return isO3QuickSortEnabled > 0 || (isO3QuickSortEnabled >= 0 && super.isO3QuickSortEnabled());
             }
 
+            @Override
+            public boolean isPartitionZoneMapsEnabled() {
+                return enablePartitionZoneMaps != null ? enablePartitionZoneMaps : super.isPartitionZoneMapsEnabled();
+            }
+
             @Override
             public boolean isSnapshotRecoveryEnabled() {
                 return snapshotRecoveryEnabled == null ? super.isSnapshotRecoveryEnabled() : snapshotRecoveryEnabled;
@@ -482,6 +502,16 @@ public abstract class AbstractCairoTest {
                 return enableColumnPreTouch != null ? enableColumnPreTouch : super.isSqlParallelFilterPreTouchEnabled();
             }
 
+            @Override
+            public boolean isSqlParallelGroupByEnabled() {
+                return enableParallelGroupBy != null ? enableParallelGroupBy : super.isSqlParallelGroupByEnabled();
+            }
+
+            @Override
+            public boolean isSqlParallelSortEnabled() {
+                return enableParallelSort != null ? enableParallelSort : super.isSqlParallelSortEnabled();
+            }
+
             @Override
             public boolean isWalSupported() {
                 return true;
@@ -545,6 +575,7 @@ public abstract class AbstractCairoTest {
         writerAsyncCommandBusyWaitTimeout = -1;
         writerAsyncCommandMaxTimeout = -1;
         pageFrameMaxRows = -1;
+        queryMemoryBudget = -1;
         jitMode = SqlJitMode.JIT_MODE_ENABLED;
         rndFunctionMemoryPageSize = -1;
         rndFunctionMemoryMaxPages = -1;
@@ -552,6 +583,9 @@ public abstract class AbstractCairoTest {
         snapshotInstanceId = null;
         snapshotRecoveryEnabled = null;
         enableParallelFilter = null;
+        enableParallelGroupBy = null;
+        enableParallelSort = null;
+        enablePartitionZoneMaps = null;
         enableColumnPreTouch = null;
         hideTelemetryTable = false;
         writerCommandQueueCapacity = 4;
@@ -575,6 +609,7 @@ public abstract class AbstractCairoTest {
         dataAppendPageSize = -1;
         isO3QuickSortEnabled = 0;
         walSegmentRolloverRowCount = -1;
+        walApplyCoalesceRowCount = -1;
     }
 
     protected static void assertFactoryMemoryUsage() {
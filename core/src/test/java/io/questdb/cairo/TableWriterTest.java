@@ -617,6 +617,12 @@ public class TableWriterTest extends AbstractCairoTest {
             public FilesFacade getFilesFacade() {
                 return ff;
             }
+
+            @Override
+            public boolean isPartitionZoneMapsEnabled() {
+                // zone maps open column files and would shift the failure counter
+                return false;
+            }
         };
 
         testAddIndexAndFailToIndexHalfWay(configuration, PartitionBy.DAY, 1000);
@@ -0,0 +1,213 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.CompiledQuery;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ZoneMapTest extends AbstractGriffinTest {
+
+    @Test
+    public void testColumnAddedMidTable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compile("alter table x add column n long");
+            executeInsert("insert into x (l, i, d, ts, n) values (31, 31, 15.5, '1970-01-04T01', 7)");
+            executeInsert("insert into x (l, i, d, ts, n) values (32, 32, 16.0, '1970-01-05T01', 8)");
+            try (
+                    TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x");
+                    ZoneMap zoneMap = new ZoneMap()
+            ) {
+                final int n = reader.getMetadata().getColumnIndex("n");
+                // the column does not exist in the first partitions
+                Assert.assertFalse(reader.readZoneMap(0, n, zoneMap));
+                Assert.assertTrue(reader.readZoneMap(3, n, zoneMap));
+                Assert.assertEquals(1, zoneMap.getRowCount());
+                Assert.assertEquals(0, zoneMap.getNullCount());
+                Assert.assertEquals(7, zoneMap.getMinLong());
+                Assert.assertEquals(7, zoneMap.getMaxLong());
+            }
+            assertSql("select l from x where n = 8", "l\n32\n");
+            assertSql("select count() from x where n > 6", "count\n2\n");
+        });
+    }
+
+    @Test
+    public void testFilterSkipsPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (
+                    TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x");
+                    ZoneMapFilter filter = new ZoneMapFilter()
+            ) {
+                filter.add("l", ColumnType.LONG, ZoneMapFilter.OP_GT, 15L);
+                filter.of(reader);
+                Assert.assertFalse(filter.mayMatch(reader, 0));
+                Assert.assertTrue(filter.mayMatch(reader, 1));
+                Assert.assertTrue(filter.mayMatch(reader, 2));
+            }
+
+            try (
+                    TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x");
+                    ZoneMapFilter filter = new ZoneMapFilter()
+            ) {
+                filter.add("i", ColumnType.INT, ZoneMapFilter.OP_EQ, 25L);
+                filter.add("d", ColumnType.DOUBLE, ZoneMapFilter.OP_LT, 100.0);
+                filter.of(reader);
+                Assert.assertFalse(filter.mayMatch(reader, 0));
+                Assert.assertFalse(filter.mayMatch(reader, 1));
+            }
+        });
+    }
+
+    @Test
+    public void testO3CommitRewritesZoneMap() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            executeInsert("insert into x values (100, 100, 50.0, '1970-01-01T12')");
+            try (
+                    TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x");
+                    ZoneMap zoneMap = new ZoneMap()
+            ) {
+                Assert.assertTrue(reader.readZoneMap(0, reader.getMetadata().getColumnIndex("l"), zoneMap));
+                Assert.assertEquals(11, zoneMap.getRowCount());
+                Assert.assertEquals(1, zoneMap.getMinLong());
+                Assert.assertEquals(100, zoneMap.getMaxLong());
+            }
+            assertSql("select l, ts from x where l > 50", "l\tts\n100\t1970-01-01T12:00:00.000000Z\n");
+        });
+    }
+
+    @Test
+    public void testQueryResultsMatchFullScan() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table y as (" +
+                    "select rnd_symbol('a','b','c') s, x l, rnd_int(0, 1000, 5) i, rnd_double(5) d, timestamp_sequence(0, 3600000000) ts " +
+                    "from long_sequence(1000)" +
+                    ") timestamp(ts) partition by day");
+            // symbol keys are allocated as data arrives, late symbols are only present in late partitions
+            compile("insert into y select rnd_symbol('e','f') s, x + 1000 l, rnd_int(0, 1000, 5) i, rnd_double(5) d, timestamp_sequence(3600000000000, 3600000000) ts from long_sequence(100)");
+
+            final StringSink expectedSink = new StringSink();
+            final String[] filters = {
+                    "l > 500",
+                    "l <= 100 and i > 500",
+                    "100 > l",
+                    "l = 777",
+                    "i >= 990",
+                    "d < 0.01",
+                    "s = 'e'",
+                    "s = 'a' and l >= 980",
+                    "l > 500 or i < 10"
+            };
+            for (String filter : filters) {
+                final String query = "select * from y where " + filter;
+                enablePartitionZoneMaps = false;
+                expectedSink.clear();
+                TestUtils.printSql(compiler, sqlExecutionContext, query, expectedSink);
+                enablePartitionZoneMaps = true;
+                assertSql(query, expectedSink);
+            }
+        });
+    }
+
+    @Test
+    public void testUpdateInvalidatesZoneMap() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            executeOperation("update x set l = 1000 where l = 5", CompiledQuery.UPDATE);
+            try (
+                    TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x");
+                    ZoneMap zoneMap = new ZoneMap()
+            ) {
+                // updated column is written under new version, zone map is not carried over
+                Assert.assertFalse(reader.readZoneMap(0, reader.getMetadata().getColumnIndex("l"), zoneMap));
+                Assert.assertTrue(reader.readZoneMap(0, reader.getMetadata().getColumnIndex("i"), zoneMap));
+            }
+            assertSql("select l, i from x where l > 100", "l\ti\n1000\t5\n");
+        });
+    }
+
+    @Test
+    public void testZoneMapWrittenOnPartitionSwitch() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (
+                    TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x");
+                    ZoneMap zoneMap = new ZoneMap()
+            ) {
+                Assert.assertEquals(3, reader.getPartitionCount());
+
+                Assert.assertTrue(reader.readZoneMap(0, reader.getMetadata().getColumnIndex("l"), zoneMap));
+                Assert.assertEquals(10, zoneMap.getRowCount());
+                Assert.assertEquals(0, zoneMap.getColumnTop());
+                Assert.assertEquals(0, zoneMap.getNullCount());
+                Assert.assertEquals(1, zoneMap.getMinLong());
+                Assert.assertEquals(10, zoneMap.getMaxLong());
+
+                Assert.assertTrue(reader.readZoneMap(1, reader.getMetadata().getColumnIndex("i"), zoneMap));
+                Assert.assertEquals(11, zoneMap.getMinLong());
+                Assert.assertEquals(20, zoneMap.getMaxLong());
+
+                Assert.assertTrue(reader.readZoneMap(0, reader.getMetadata().getColumnIndex("d"), zoneMap));
+                Assert.assertEquals(2, zoneMap.getNullCount());
+                Assert.assertEquals(0.5, zoneMap.getMinDouble(), 0.0000001);
+                Assert.assertEquals(4.5, zoneMap.getMaxDouble(), 0.0000001);
+
+                // the last partition is still open for appends
+                Assert.assertFalse(reader.readZoneMap(2, reader.getMetadata().getColumnIndex("l"), zoneMap));
+                // designated timestamp is served by interval scans
+                Assert.assertFalse(reader.readZoneMap(0, reader.getMetadata().getColumnIndex("ts"), zoneMap));
+            }
+        });
+    }
+
+    @Test
+    public void testZoneMapsDisabled() throws Exception {
+        enablePartitionZoneMaps = false;
+        assertMemoryLeak(() -> {
+            createTable();
+            try (
+                    TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x");
+                    ZoneMap zoneMap = new ZoneMap()
+            ) {
+                Assert.assertFalse(reader.readZoneMap(0, reader.getMetadata().getColumnIndex("l"), zoneMap));
+            }
+        });
+    }
+
+    private void createTable() throws SqlException {
+        // 10 rows per day, every 5th value of "d" is null
+        compile("create table x as (" +
+                "select x l, cast(x as int) i, case when x % 5 = 0 then null else x * 0.5 end d, timestamp_sequence(0, 8640000000) ts " +
+                "from long_sequence(30)" +
+                ") timestamp(ts) partition by day");
+    }
+}
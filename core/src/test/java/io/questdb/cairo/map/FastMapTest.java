@@ -495,6 +495,64 @@ public class FastMapTest extends AbstractCairoTest {
         }
     }
 
+    @Test
+    public void testMerge() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int N = 10000;
+            // small page size and key capacity to exercise resize and rehash during merge
+            try (
+                    FastMap mapA = new FastMap(64, new SingleColumnType(ColumnType.STRING), new SingleColumnType(ColumnType.LONG), 16, 0.5f, Integer.MAX_VALUE);
+                    FastMap mapB = new FastMap(64, new SingleColumnType(ColumnType.STRING), new SingleColumnType(ColumnType.LONG), 16, 0.5f, Integer.MAX_VALUE)
+            ) {
+                // map A has even keys, map B has keys divisible by 3
+                for (int i = 0; i < N; i++) {
+                    if (i % 2 == 0) {
+                        MapKey key = mapA.withKey();
+                        key.putStr("k" + i);
+                        key.createValue().putLong(0, i);
+                    }
+                    if (i % 3 == 0) {
+                        MapKey key = mapB.withKey();
+                        key.putStr("k" + i);
+                        key.createValue().putLong(0, i);
+                    }
+                }
+
+                mapA.merge(mapB, (destValue, srcValue) -> destValue.addLong(0, srcValue.getLong(0)));
+
+                int expectedSize = 0;
+                for (int i = 0; i < N; i++) {
+                    MapKey key = mapA.withKey();
+                    key.putStr("k" + i);
+                    MapValue value = key.findValue();
+                    long expected = (i % 2 == 0 ? i : 0) + (i % 3 == 0 ? i : 0);
+                    if (i % 2 == 0 || i % 3 == 0) {
+                        Assert.assertNotNull(value);
+                        Assert.assertEquals(expected, value.getLong(0));
+                        expectedSize++;
+                    } else {
+                        Assert.assertNull(value);
+                    }
+                }
+                Assert.assertEquals(expectedSize, mapA.size());
+
+                // source map stays intact
+                Assert.assertEquals((N + 2) / 3, mapB.size());
+
+                // cursor iterates over merged entries
+                int count = 0;
+                RecordCursor cursor = mapA.getCursor();
+                MapRecord record = mapA.getRecord();
+                while (cursor.hasNext()) {
+                    long value = record.getValue().getLong(0);
+                    Assert.assertTrue(value >= 0);
+                    count++;
+                }
+                Assert.assertEquals(expectedSize, count);
+            }
+        });
+    }
+
     @Test
     public void testNoValueColumns() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -31,6 +31,8 @@ import io.questdb.griffin.CompiledQuery;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.model.IntervalUtils;
 import io.questdb.mp.AbstractQueueConsumerJob;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.Sequence;
 import io.questdb.std.*;
 import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.tasks.WalTxnNotificationTask;
@@ -718,6 +720,40 @@ public class WalTableWriterTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testWalTxnRepublishingOrderedByBacklog() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table quiet (x long, ts timestamp) timestamp(ts) partition by DAY WAL");
+            compile("create table busy (x long, ts timestamp) timestamp(ts) partition by DAY WAL");
+            compile("create table hot (x long, ts timestamp) timestamp(ts) partition by DAY WAL");
+
+            executeInsert("insert into quiet values (1, '2022-07-14T00:00:00.000000Z')");
+            for (int i = 0; i < 5; i++) {
+                executeInsert("insert into hot values (" + i + ", '2022-07-14T00:00:00.000000Z')");
+            }
+            for (int i = 0; i < 3; i++) {
+                executeInsert("insert into busy values (" + i + ", '2022-07-14T00:00:00.000000Z')");
+            }
+
+            drainWalQueue(true);
+            new CheckWalTransactionsJob(engine).checkMissingWalTransactions();
+
+            final RingQueue<WalTxnNotificationTask> queue = engine.getMessageBus().getWalTxnNotificationQueue();
+            final Sequence subSeq = engine.getMessageBus().getWalTxnNotificationSubSequence();
+            final String[] expectedTables = {"hot", "busy", "quiet"};
+            final long[] expectedTxns = {5, 3, 1};
+            for (int i = 0; i < expectedTables.length; i++) {
+                final long cursor = subSeq.next();
+                assertTrue(cursor > -1);
+                final WalTxnNotificationTask task = queue.get(cursor);
+                assertEquals(expectedTables[i], task.getTableName());
+                assertEquals(expectedTxns[i], task.getTxn());
+                subSeq.done(cursor);
+            }
+            assertEquals(-1, subSeq.next());
+        });
+    }
+
     @Test
     public void testWalWriterWithExistingTable() throws Exception {
         assertMemoryLeak(() -> {
@@ -914,6 +914,86 @@ public class IODispatcherTest {
         }
     }
 
+    @Test
+    public void testIdleDisconnectIOURing() throws Exception {
+        Assume.assumeTrue(IOURingFacadeImpl.INSTANCE.isAvailable());
+
+        assertMemoryLeak(() -> {
+            HttpServerConfiguration httpServerConfiguration = new DefaultHttpServerConfiguration();
+
+            SOCountDownLatch connectLatch = new SOCountDownLatch(1);
+            SOCountDownLatch contextClosedLatch = new SOCountDownLatch(1);
+            AtomicInteger closeCount = new AtomicInteger(0);
+
+            try (IODispatcher<HttpConnectionContext> dispatcher = IODispatchers.create(
+                    new DefaultIODispatcherConfiguration() {
+                        @Override
+                        public long getTimeout() {
+                            return 100;
+                        }
+
+                        @Override
+                        public boolean isIOURingEnabled() {
+                            return true;
+                        }
+                    },
+                    new IOContextFactory<HttpConnectionContext>() {
+                        @Override
+                        public HttpConnectionContext newInstance(long fd, IODispatcher<HttpConnectionContext> dispatcher1) {
+                            connectLatch.countDown();
+                            return new HttpConnectionContext(httpServerConfiguration.getHttpContextConfiguration(), metrics) {
+                                @Override
+                                public void close() {
+                                    if (closeCount.incrementAndGet() == 1) {
+                                        super.close();
+                                        contextClosedLatch.countDown();
+                                    }
+                                }
+                            }.of(fd, dispatcher1);
+                        }
+                    }
+            )) {
+                AtomicBoolean serverRunning = new AtomicBoolean(true);
+                SOCountDownLatch serverHaltLatch = new SOCountDownLatch(1);
+
+                new Thread(() -> {
+                    while (serverRunning.get()) {
+                        dispatcher.run(0);
+                    }
+                    serverHaltLatch.countDown();
+                }).start();
+
+                long fd = Net.socketTcp(true);
+                long buf = Unsafe.malloc(1, MemoryTag.NATIVE_DEFAULT);
+                try {
+                    long sockAddr = Net.sockaddr("127.0.0.1", 9001);
+                    try {
+                        try {
+                            TestUtils.assertConnect(fd, sockAddr);
+                            connectLatch.await();
+
+                            // the server must cancel the pending poll request, otherwise
+                            // the ring keeps the socket open and recv() never sees EOF
+                            contextClosedLatch.await();
+                            Assert.assertTrue(Net.recv(fd, buf, 1) < 0);
+                        } finally {
+                            serverRunning.set(false);
+                            serverHaltLatch.await();
+                        }
+                        Assert.assertEquals(0, dispatcher.getConnectionCount());
+                    } finally {
+                        Net.freeSockAddr(sockAddr);
+                    }
+                } finally {
+                    Unsafe.free(buf, 1, MemoryTag.NATIVE_DEFAULT);
+                    Net.close(fd);
+                }
+
+                Assert.assertEquals(1, closeCount.get());
+            }
+        });
+    }
+
     public void testImport(
             String response,
             String request,
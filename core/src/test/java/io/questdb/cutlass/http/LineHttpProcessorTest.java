@@ -0,0 +1,192 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.network.NetworkFacadeImpl;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.util.concurrent.TimeUnit;
+
+public class LineHttpProcessorTest {
+    private static final String COMMITTED_RESPONSE = "HTTP/1.1 204 No Content\r\n" +
+            "Server: questDB/1.0\r\n" +
+            "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+            "Content-Type: text/html; charset=utf-8\r\n" +
+            "\r\n";
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    @Rule
+    public Timeout timeout = Timeout.builder()
+            .withTimeout(10 * 60 * 1000, TimeUnit.MILLISECONDS)
+            .withLookingForStuckThread(true)
+            .build();
+
+    @Test
+    public void testWriteBadLineRollsBackRequest() throws Exception {
+        runTest(engine -> {
+            send(
+                    "POST /write HTTP/1.1\r\n" +
+                            "Host: localhost:9000\r\n" +
+                            "Content-Length: 77\r\n" +
+                            "\r\n" +
+                            "weather,location=london temperature=12.5 1000000000\n" +
+                            "weather,location=paris x\n",
+                    "HTTP/1.1 400 Bad request\r\n" +
+                            "Server: questDB/1.0\r\n" +
+                            "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                            "Transfer-Encoding: chunked\r\n" +
+                            "Content-Type: text/plain; charset=utf-8\r\n" +
+                            "\r\n" +
+                            "39\r\n" +
+                            "could not parse measurement, INVALID_TIMESTAMP [line=2]\r\n" +
+                            "\r\n" +
+                            "00\r\n" +
+                            "\r\n"
+            );
+            assertWeather(engine, "location\ttemperature\ttimestamp\n");
+        });
+    }
+
+    @Test
+    public void testWriteChunked() throws Exception {
+        runTest(engine -> {
+            send(
+                    "POST /write HTTP/1.1\r\n" +
+                            "Host: localhost:9000\r\n" +
+                            "Transfer-Encoding: chunked\r\n" +
+                            "\r\n" +
+                            "1e\r\n" +
+                            "weather,location=london temper\r\n" +
+                            "28;ext=1\r\n" +
+                            "ature=12.5 1000000000\n" +
+                            "\n" +
+                            "weather,location=\r\n" +
+                            "21\r\n" +
+                            "paris temperature=14.0 2000000000\r\n" +
+                            "0\r\n" +
+                            "Trailer: value\r\n" +
+                            "\r\n",
+                    COMMITTED_RESPONSE
+            );
+            assertWeather(
+                    engine,
+                    "location\ttemperature\ttimestamp\n" +
+                            "london\t12.5\t1970-01-01T00:00:01.000000Z\n" +
+                            "paris\t14.0\t1970-01-01T00:00:02.000000Z\n"
+            );
+        });
+    }
+
+    @Test
+    public void testWriteContentLength() throws Exception {
+        runTest(engine -> {
+            send(
+                    "POST /write HTTP/1.1\r\n" +
+                            "Host: localhost:9000\r\n" +
+                            "Content-Length: 103\r\n" +
+                            "\r\n" +
+                            "weather,location=london temperature=12.5 1000000000\n" +
+                            "weather,location=paris temperature=14.0 2000000000\n",
+                    COMMITTED_RESPONSE
+            );
+            assertWeather(
+                    engine,
+                    "location\ttemperature\ttimestamp\n" +
+                            "london\t12.5\t1970-01-01T00:00:01.000000Z\n" +
+                            "paris\t14.0\t1970-01-01T00:00:02.000000Z\n"
+            );
+        });
+    }
+
+    @Test
+    public void testWriteKeepAlive() throws Exception {
+        runTest(engine -> {
+            new SendAndReceiveRequestBuilder()
+                    .withNetworkFacade(NetworkFacadeImpl.INSTANCE)
+                    .executeMany(executor -> {
+                        executor.execute(
+                                "POST /write HTTP/1.1\r\n" +
+                                        "Host: localhost:9000\r\n" +
+                                        "Content-Length: 52\r\n" +
+                                        "\r\n" +
+                                        "weather,location=london temperature=12.5 1000000000\n",
+                                COMMITTED_RESPONSE
+                        );
+                        executor.execute(
+                                "POST /write HTTP/1.1\r\n" +
+                                        "Host: localhost:9000\r\n" +
+                                        "Content-Length: 50\r\n" +
+                                        "\r\n" +
+                                        "weather,location=paris temperature=14.0 2000000000",
+                                COMMITTED_RESPONSE
+                        );
+                    });
+            assertWeather(
+                    engine,
+                    "location\ttemperature\ttimestamp\n" +
+                            "london\t12.5\t1970-01-01T00:00:01.000000Z\n" +
+                            "paris\t14.0\t1970-01-01T00:00:02.000000Z\n"
+            );
+        });
+    }
+
+    private static void assertWeather(CairoEngine engine, String expected) throws SqlException {
+        try (
+                SqlCompiler compiler = new SqlCompiler(engine);
+                SqlExecutionContextImpl executionContext = new SqlExecutionContextImpl(engine, 1)
+        ) {
+            TestUtils.assertSql(compiler, executionContext, "weather", new StringSink(), expected);
+        }
+    }
+
+    private static void send(String request, String response) throws InterruptedException {
+        new SendAndReceiveRequestBuilder()
+                .withNetworkFacade(NetworkFacadeImpl.INSTANCE)
+                .execute(request, response);
+    }
+
+    private void runTest(HttpQueryTestBuilder.HttpClientCode code) throws Exception {
+        new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(1)
+                .withHttpServerConfigBuilder(
+                        new HttpServerConfigurationBuilder()
+                                .withNetwork(NetworkFacadeImpl.INSTANCE)
+                                .withHttpProtocolVersion("HTTP/1.1 ")
+                                .withServerKeepAlive(true)
+                )
+                .withTelemetry(false)
+                .run(code);
+    }
+}
@@ -76,12 +76,18 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
         public int getBindPort() {
             return bindPort;
         }
+
+        @Override
+        public boolean isIOURingEnabled() {
+            return ioURingEnabled;
+        }
     };
     private final ThreadLocal<Socket> tlSocket = new ThreadLocal<>();
     protected String authKeyId = null;
     protected long commitIntervalDefault = 2000;
     protected double commitIntervalFraction = 0.5;
     protected boolean disconnectOnError = false;
+    protected boolean ioURingEnabled = false;
     protected long maintenanceInterval = 25;
     protected int maxMeasurementSize = 256;
     protected long minIdleMsBeforeWriterRelease = 30000;
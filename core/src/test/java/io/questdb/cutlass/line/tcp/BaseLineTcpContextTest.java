@@ -84,6 +84,7 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
     protected final AtomicInteger netMsgBufferSize = new AtomicInteger();
     protected boolean autoCreateNewColumns = true;
     protected boolean autoCreateNewTables = true;
+    protected long backpressureWalLag;
     protected LineTcpConnectionContext context;
     protected boolean disconnectOnError;
     protected boolean disconnected;
@@ -110,6 +111,7 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
         integerDefaultColumnType = ColumnType.LONG;
         autoCreateNewColumns = true;
         autoCreateNewTables = true;
+        backpressureWalLag = 1000;
         lineTcpConfiguration = createNoAuthReceiverConfiguration(provideLineTcpNetworkFacade());
     }
 
@@ -173,6 +175,11 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
                 return autoCreateNewTables;
             }
 
+            @Override
+            public long getBackpressureWalLag() {
+                return backpressureWalLag;
+            }
+
             @Override
             public short getDefaultColumnTypeForFloat() {
                 return floatDefaultColumnType;
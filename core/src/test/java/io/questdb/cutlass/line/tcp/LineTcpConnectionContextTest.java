@@ -33,6 +33,7 @@ import io.questdb.griffin.SqlExecutionContextImpl;
 import io.questdb.std.Chars;
 import io.questdb.std.Files;
 import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.Os;
 import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.Path;
@@ -1940,6 +1941,80 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         });
     }
 
+    @Test
+    public void testTableAssignmentMetrics() throws Exception {
+        final long assignments = metrics.lineTcp().getTableAssignmentCount();
+        final long reassignments = metrics.lineTcp().getTableReassignmentCount();
+        runInContext(() -> {
+            recvBuffer = "weather1,location=us-midwest temperature=82 1465839830100400200\n" +
+                    "weather2,location=us-midwest temperature=83 1465839830100500200\n" +
+                    "weather1,location=us-eastcoast temperature=81 1465839830101400200\n";
+            do {
+                handleContextIO();
+                Assert.assertFalse(disconnected);
+            } while (recvBuffer.length() > 0);
+            waitForIOCompletion();
+            closeContext();
+            Assert.assertEquals(assignments + 2, metrics.lineTcp().getTableAssignmentCount());
+            Assert.assertEquals(reassignments, metrics.lineTcp().getTableReassignmentCount());
+            assertTable("location\ttemperature\ttimestamp\n" +
+                    "us-midwest\t83.0\t2016-06-13T17:43:50.100500Z\n", "weather2");
+        });
+    }
+
+    @Test
+    public void testTableOverWalLagIsNotRead() throws Exception {
+        String table = "wal_lag";
+        configOverrideMaxUncommittedRows = 1;
+        backpressureWalLag = 2;
+        runInContext(() -> {
+            try (
+                    SqlCompiler compiler = new SqlCompiler(engine);
+                    SqlExecutionContext sqlExecutionContext = new SqlExecutionContextImpl(engine, 1)) {
+                compiler.compile(
+                        "create table " + table + " (location SYMBOL, temperature DOUBLE, timestamp TIMESTAMP) timestamp(timestamp) partition by DAY WAL",
+                        sqlExecutionContext);
+            } catch (SqlException ex) {
+                throw new RuntimeException(ex);
+            }
+            recvBuffer = table + ",location=us-midwest temperature=82 1465839830100400200\n" +
+                    table + ",location=us-midwest temperature=83 1465839830100500200\n" +
+                    table + ",location=us-eastcoast temperature=81 1465839830101400200\n";
+            do {
+                handleContextIO();
+                Assert.assertFalse(disconnected);
+            } while (recvBuffer.length() > 0);
+
+            // each row is a WAL transaction, none of them is applied
+            final TableUpdateDetails tab = NO_NETWORK_IO_JOB.getLocalTableDetails(table);
+            Assert.assertNotNull(tab);
+            for (int i = 0; i < 1000 && tab.getWalLag() < 2; i++) {
+                Os.sleep(10);
+            }
+            Assert.assertEquals(3, tab.getWalLag());
+
+            recvBuffer = table + ",location=us-westcost temperature=82 1465839830102500200\n";
+            for (int i = 0; i < 3; i++) {
+                Assert.assertTrue(handleContextIO());
+            }
+
+            drainWalQueue();
+            int attempts = 1000;
+            while (handleContextIO() && attempts-- > 0) {
+                Os.sleep(10);
+            }
+            Assert.assertTrue(attempts > 0);
+            waitForIOCompletion();
+            closeContext();
+            drainWalQueue();
+            assertTable("location\ttemperature\ttimestamp\n" +
+                    "us-midwest\t82.0\t2016-06-13T17:43:50.100400Z\n" +
+                    "us-midwest\t83.0\t2016-06-13T17:43:50.100500Z\n" +
+                    "us-eastcoast\t81.0\t2016-06-13T17:43:50.101400Z\n" +
+                    "us-westcost\t82.0\t2016-06-13T17:43:50.102500Z\n", table);
+        });
+    }
+
     @Test
     public void testTableParameterRetentionOnAddColumn() throws Exception {
         String table = "retention";
@@ -31,8 +31,55 @@ import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+
 public class LineTcpParserTest extends BaseLineTcpContextTest {
 
+    @Test
+    public void testBinaryFormat() throws Exception {
+        // long value bytes contain all protocol control characters
+        final long longValue = 0x2C3D0A0D205C22L;
+        final byte[] line = binaryLine(1.5, longValue, 1_000_000L, 123_456_789L);
+        assertBinaryLine(line, line.length, 1.5, longValue, 1_000_000L, 123_456_789L);
+        // parse from the same buffer as it arrives byte by byte
+        for (int i = 1; i < line.length; i++) {
+            assertBinaryLine(line, i, 1.5, longValue, 1_000_000L, 123_456_789L);
+        }
+    }
+
+    @Test
+    public void testBinaryFormatNoFields() throws Exception {
+        final byte[] line = new byte[]{'t', ',', 's', '=', 'a', ' ', '=', LineTcpParser.BINARY_TYPE_TIMESTAMP, 21, 0, 0, 0, 0, 0, 0, 0, '\n'};
+        TestUtils.assertMemoryLeak(() -> {
+            final LineTcpParser parser = new LineTcpParser(false, false, true);
+            final long mem = copyToMemory(line);
+            try {
+                parser.of(mem);
+                Assert.assertEquals(LineTcpParser.ParseResult.MEASUREMENT_COMPLETE, parser.parseMeasurement(mem + line.length));
+                Assert.assertEquals(1, parser.getEntityCount());
+                Assert.assertEquals(LineTcpParser.ENTITY_TYPE_TAG, parser.getEntity(0).getType());
+                Assert.assertEquals(21, parser.getTimestamp());
+            } finally {
+                Unsafe.free(mem, line.length, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    @Test
+    public void testBinaryFormatNotSupported() throws Exception {
+        final byte[] line = binaryLine(1.5, 42, 1_000_000L, 123_456_789L);
+        TestUtils.assertMemoryLeak(() -> {
+            final LineTcpParser parser = new LineTcpParser(false, false);
+            final long mem = copyToMemory(line);
+            try {
+                parser.of(mem);
+                Assert.assertEquals(LineTcpParser.ParseResult.ERROR, parser.parseMeasurement(mem + line.length));
+            } finally {
+                Unsafe.free(mem, line.length, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
     @Test
     public void testGetValueType() throws Exception {
         assertType(LineTcpParser.ENTITY_TYPE_TAG, "null");
@@ -101,6 +148,53 @@ public class LineTcpParserTest extends BaseLineTcpContextTest {
         assertType(LineTcpParser.ENTITY_TYPE_LONG256, "0x123a4i");
     }
 
+    private static void assertBinaryLine(
+            byte[] line,
+            int available,
+            double doubleValue,
+            long longValue,
+            long timestampValue,
+            long timestamp
+    ) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final LineTcpParser parser = new LineTcpParser(false, false, true);
+            final long mem = copyToMemory(line);
+            try {
+                parser.of(mem);
+                if (available < line.length) {
+                    Assert.assertEquals(LineTcpParser.ParseResult.BUFFER_UNDERFLOW, parser.parseMeasurement(mem + available));
+                }
+                Assert.assertEquals(LineTcpParser.ParseResult.MEASUREMENT_COMPLETE, parser.parseMeasurement(mem + line.length));
+                Assert.assertEquals("t", parser.getMeasurementName().toString());
+                Assert.assertEquals(4, parser.getEntityCount());
+
+                LineTcpParser.ProtoEntity entity = parser.getEntity(0);
+                Assert.assertEquals(LineTcpParser.ENTITY_TYPE_TAG, entity.getType());
+                Assert.assertEquals("a", entity.getValue().toString());
+
+                entity = parser.getEntity(1);
+                Assert.assertEquals("d", entity.getName().toString());
+                Assert.assertEquals(LineTcpParser.ENTITY_TYPE_FLOAT, entity.getType());
+                Assert.assertTrue(entity.isBinary());
+                Assert.assertEquals(doubleValue, entity.getFloatValue(), 0.0);
+
+                entity = parser.getEntity(2);
+                Assert.assertEquals("l", entity.getName().toString());
+                Assert.assertEquals(LineTcpParser.ENTITY_TYPE_INTEGER, entity.getType());
+                Assert.assertEquals(longValue, entity.getLongValue());
+
+                entity = parser.getEntity(3);
+                Assert.assertEquals("ts", entity.getName().toString());
+                Assert.assertEquals(LineTcpParser.ENTITY_TYPE_TIMESTAMP, entity.getType());
+                Assert.assertEquals(timestampValue, entity.getLongValue());
+
+                Assert.assertEquals(timestamp, parser.getTimestamp());
+            } finally {
+                Unsafe.free(mem, line.length, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
     private static void assertError(int type, String value) throws Exception {
         assertType(type, value, value, LineTcpParser.ParseResult.ERROR, false, false);
     }
@@ -153,4 +247,34 @@ public class LineTcpParserTest extends BaseLineTcpContextTest {
             }
         });
     }
+
+    private static byte[] binaryLine(double doubleValue, long longValue, long timestampValue, long timestamp) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes("t,s=a d=".getBytes(Files.UTF_8));
+        putBinary(out, LineTcpParser.BINARY_TYPE_DOUBLE, Double.doubleToRawLongBits(doubleValue));
+        out.writeBytes(",l=".getBytes(Files.UTF_8));
+        putBinary(out, LineTcpParser.BINARY_TYPE_LONG, longValue);
+        out.writeBytes(",ts=".getBytes(Files.UTF_8));
+        putBinary(out, LineTcpParser.BINARY_TYPE_TIMESTAMP, timestampValue);
+        out.write(' ');
+        putBinary(out, LineTcpParser.BINARY_TYPE_TIMESTAMP, timestamp);
+        out.write('\n');
+        return out.toByteArray();
+    }
+
+    private static long copyToMemory(byte[] bytes) {
+        final long mem = Unsafe.malloc(bytes.length, MemoryTag.NATIVE_DEFAULT);
+        for (int i = 0; i < bytes.length; i++) {
+            Unsafe.getUnsafe().putByte(mem + i, bytes[i]);
+        }
+        return mem;
+    }
+
+    private static void putBinary(ByteArrayOutputStream out, byte type, long value) {
+        out.write(LineTcpParser.BINARY_FORMAT_FLAG);
+        out.write(type);
+        for (int i = 0; i < Long.BYTES; i++) {
+            out.write((int) (value >>> (i * 8)));
+        }
+    }
 }
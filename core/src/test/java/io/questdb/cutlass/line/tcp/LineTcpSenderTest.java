@@ -33,10 +33,12 @@ import io.questdb.cutlass.line.LineTcpSender;
 import io.questdb.griffin.model.IntervalUtils;
 import io.questdb.network.Net;
 import io.questdb.std.Chars;
+import io.questdb.std.IOURingFacadeImpl;
 import io.questdb.std.Os;
 import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
 import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
+import org.junit.Assume;
 import org.junit.Test;
 
 import java.security.PrivateKey;
@@ -392,6 +394,79 @@ public class LineTcpSenderTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    @Test
+    public void testWriteAllTypesBinaryFormat() throws Exception {
+        runInContext(r -> {
+            try (Sender sender = Sender.builder()
+                    .address("127.0.0.1")
+                    .port(bindPort)
+                    .enableBinaryFormat()
+                    .build()) {
+
+                long tsMicros = IntervalUtils.parseFloorPartialTimestamp("2022-02-25");
+                sender.table("mytable")
+                        .symbol("sym", "a")
+                        .longColumn("int_field", 42)
+                        .boolColumn("bool_field", true)
+                        .stringColumn("string_field", "foo")
+                        .doubleColumn("double_field", 42.5)
+                        .timestampColumn("ts_field", tsMicros)
+                        .at(tsMicros * 1000);
+                // value bytes contain protocol control characters
+                sender.table("mytable")
+                        .symbol("sym", "b")
+                        .longColumn("int_field", 0x2C3D0A0D205C22L)
+                        .doubleColumn("double_field", Double.NEGATIVE_INFINITY)
+                        .at((tsMicros + 1) * 1000);
+                sender.table("mytable")
+                        .symbol("sym", "c")
+                        .at((tsMicros + 2) * 1000);
+                sender.flush();
+            }
+
+            assertTableSizeEventually(engine, "mytable", 3);
+            try (TableReader reader = engine.getReader(lineConfiguration.getCairoSecurityContext(), "mytable")) {
+                TestUtils.assertReader("sym\tint_field\tbool_field\tstring_field\tdouble_field\tts_field\ttimestamp\n" +
+                        "a\t42\ttrue\tfoo\t42.5\t2022-02-25T00:00:00.000000Z\t2022-02-25T00:00:00.000000Z\n" +
+                        "b\t12452012354460706\tfalse\t\t-Infinity\t\t2022-02-25T00:00:00.000001Z\n" +
+                        "c\tNaN\tfalse\t\tNaN\t\t2022-02-25T00:00:00.000002Z\n", reader, new StringSink());
+            }
+        });
+    }
+
+    @Test
+    public void testWriteAllTypesIOURing() throws Exception {
+        Assume.assumeTrue(IOURingFacadeImpl.INSTANCE.isAvailable());
+        ioURingEnabled = true;
+        runInContext(r -> {
+            long tsMicros = IntervalUtils.parseFloorPartialTimestamp("2022-02-25");
+            // reconnect to make sure the dispatcher re-arms the listener
+            for (int i = 0; i < 3; i++) {
+                try (Sender sender = Sender.builder()
+                        .address("127.0.0.1")
+                        .port(bindPort)
+                        .build()) {
+                    sender.table("mytable")
+                            .longColumn("int_field", 42 + i)
+                            .boolColumn("bool_field", true)
+                            .stringColumn("string_field", "foo")
+                            .doubleColumn("double_field", 42.0)
+                            .timestampColumn("ts_field", tsMicros)
+                            .at(tsMicros * 1000);
+                    sender.flush();
+                }
+            }
+
+            assertTableSizeEventually(engine, "mytable", 3);
+            try (TableReader reader = engine.getReader(lineConfiguration.getCairoSecurityContext(), "mytable")) {
+                TestUtils.assertReader("int_field\tbool_field\tstring_field\tdouble_field\tts_field\ttimestamp\n" +
+                        "42\ttrue\tfoo\t42.0\t2022-02-25T00:00:00.000000Z\t2022-02-25T00:00:00.000000Z\n" +
+                        "43\ttrue\tfoo\t42.0\t2022-02-25T00:00:00.000000Z\t2022-02-25T00:00:00.000000Z\n" +
+                        "44\ttrue\tfoo\t42.0\t2022-02-25T00:00:00.000000Z\t2022-02-25T00:00:00.000000Z\n", reader, new StringSink());
+            }
+        });
+    }
+
     private static void assertControlCharacterException(Consumer<Sender> senderAction) {
         DummyLineChannel channel = new DummyLineChannel();
         try (Sender sender = new LineTcpSender(channel, 1000)) {
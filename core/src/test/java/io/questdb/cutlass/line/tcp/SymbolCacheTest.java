@@ -26,6 +26,7 @@ package io.questdb.cutlass.line.tcp;
 
 import io.questdb.cairo.*;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.sql.TableRecordMetadata;
 import io.questdb.cairo.vm.Vm;
@@ -333,6 +334,125 @@ public class SymbolCacheTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testSharedCache() throws Exception {
+        final int N = 100;
+        final String tableName = "tb1";
+        final FilesFacade ff = new FilesFacadeImpl();
+
+        TestUtils.assertMemoryLeak(() -> {
+            final DefaultLineTcpReceiverConfiguration lineConfiguration = new DefaultLineTcpReceiverConfiguration() {
+                @Override
+                public int getSymbolCacheLocalCapacity() {
+                    return 4;
+                }
+
+                @Override
+                public long getSymbolCacheWaitUsBeforeReload() {
+                    return 0;
+                }
+            };
+            try (Path path = new Path();
+                 TableModel model = new TableModel(configuration, tableName, PartitionBy.HOUR)
+                         .col("symCol", ColumnType.SYMBOL);
+                 SharedSymbolCache sharedCache = new SharedSymbolCache(64);
+                 SymbolCache cache1 = new SymbolCache(lineConfiguration);
+                 SymbolCache cache2 = new SymbolCache(lineConfiguration)
+            ) {
+                CairoTestUtils.create(model);
+                try (
+                        TableWriter writer = new TableWriter(configuration, tableName, metrics);
+                        TxReader txReader = new TxReader(ff).ofRO(
+                                path.of(configuration.getRoot()).concat(tableName).concat(TXN_FILE_NAME).$(),
+                                PartitionBy.DAY
+                        )
+                ) {
+                    int symColIndex = writer.getColumnIndex("symCol");
+                    for (int i = 0; i < N; i++) {
+                        TableWriter.Row r = writer.newRow();
+                        r.putSym(symColIndex, "sym" + i);
+                        r.append();
+                    }
+                    writer.commit();
+
+                    cache1.of(configuration, writer, symColIndex, path.of(configuration.getRoot()).concat(tableName), "symCol", symColIndex, txReader, -1, sharedCache);
+                    cache2.of(configuration, writer, symColIndex, path.of(configuration.getRoot()).concat(tableName), "symCol", symColIndex, txReader, -1, sharedCache);
+
+                    // key of another value must not be trusted even if hashes match
+                    sharedCache.put(SharedSymbolCache.hashOf("sym5"), 6);
+
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, cache1.keyOf("sym" + i));
+                    }
+                    for (int j = 0; j < 2; j++) {
+                        for (int i = 0; i < N; i++) {
+                            Assert.assertEquals(i, cache2.keyOf("sym" + i));
+                        }
+                    }
+                    Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, cache2.keyOf("missing"));
+
+                    // local caches are bounded, the shared one keeps evicted values
+                    Assert.assertTrue(cache1.getCacheValueCount() <= 4);
+                    Assert.assertTrue(cache2.getCacheValueCount() <= 4);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testSharedCacheEviction() {
+        final ObjList<String> values = new ObjList<>();
+        values.add("a");
+        values.add("b");
+        values.add("c");
+        final StaticSymbolTable symbolTable = new StaticSymbolTable() {
+            @Override
+            public boolean containsNullValue() {
+                return false;
+            }
+
+            @Override
+            public int getSymbolCount() {
+                return values.size();
+            }
+
+            @Override
+            public int keyOf(CharSequence value) {
+                return values.indexOf(value);
+            }
+
+            @Override
+            public CharSequence valueBOf(int key) {
+                return valueOf(key);
+            }
+
+            @Override
+            public CharSequence valueOf(int key) {
+                return values.getQuiet(key);
+            }
+        };
+
+        // single set of two entries, all values compete for it
+        try (SharedSymbolCache cache = new SharedSymbolCache(2)) {
+            final int hashA = SharedSymbolCache.hashOf("a");
+            final int hashB = SharedSymbolCache.hashOf("b");
+            final int hashC = SharedSymbolCache.hashOf("c");
+            cache.put(hashA, 0);
+            cache.put(hashB, 1);
+            Assert.assertEquals(0, cache.keyOf("a", hashA, symbolTable));
+
+            // "b" was not used since it was added, "a" gets the second chance
+            cache.put(hashC, 2);
+            Assert.assertEquals(0, cache.keyOf("a", hashA, symbolTable));
+            Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, cache.keyOf("b", hashB, symbolTable));
+            Assert.assertEquals(2, cache.keyOf("c", hashC, symbolTable));
+
+            // key unknown to the symbol table is a miss
+            values.remove(2);
+            Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, cache.keyOf("c", hashC, symbolTable));
+        }
+    }
+
     @Test
     public void testSimpleInteraction() throws Exception {
         String tableName = "tb1";
@@ -447,6 +447,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getSnapshotRoot();
     }
 
+    @Override
+    public int getSortQueueCapacity() {
+        return conf.getSortQueueCapacity();
+    }
+
     @Override
     public long getSpinLockTimeout() {
         return conf.getSpinLockTimeout();
@@ -562,6 +567,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getSqlHashJoinLightValuePageSize();
     }
 
+    @Override
+    public int getSqlHashJoinSpillPartitions() {
+        return conf.getSqlHashJoinSpillPartitions();
+    }
+
     @Override
     public int getSqlHashJoinValueMaxPages() {
         return conf.getSqlHashJoinValueMaxPages();
@@ -672,6 +682,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getSqlPageFrameMinRows();
     }
 
+    @Override
+    public long getSqlQueryMemoryBudget() {
+        return conf.getSqlQueryMemoryBudget();
+    }
+
     @Override
     public int getSqlSmallMapKeyCapacity() {
         return conf.getSqlSmallMapKeyCapacity();
@@ -737,6 +752,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getVectorAggregateQueueCapacity();
     }
 
+    @Override
+    public long getWalApplyCoalesceRowCount() {
+        return conf.getWalApplyCoalesceRowCount();
+    }
+
     @Override
     public boolean getWalEnabledDefault() {
         return conf.getWalEnabledDefault();
@@ -817,6 +837,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.isParallelIndexingEnabled();
     }
 
+    @Override
+    public boolean isPartitionZoneMapsEnabled() {
+        return conf.isPartitionZoneMapsEnabled();
+    }
+
     @Override
     public boolean isSnapshotRecoveryEnabled() {
         return conf.isSnapshotRecoveryEnabled();
@@ -837,6 +862,16 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.isSqlParallelFilterPreTouchEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelGroupByEnabled() {
+        return conf.isSqlParallelGroupByEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelSortEnabled() {
+        return conf.isSqlParallelSortEnabled();
+    }
+
     @Override
     public boolean isWalSupported() {
         return conf.isWalSupported();
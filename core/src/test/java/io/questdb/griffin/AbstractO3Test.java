@@ -349,6 +349,12 @@ public class AbstractO3Test {
                     public int getO3ColumnMemorySize() {
                         return dataAppendPageSize > 0 ? dataAppendPageSize : super.getO3ColumnMemorySize();
                     }
+
+                    @Override
+                    public boolean isPartitionZoneMapsEnabled() {
+                        // zone map I/O would shift call counters of fault-injecting facades
+                        return ff == FilesFacadeImpl.INSTANCE;
+                    }
                 };
 
                 TestUtils.execute(pool, runnable, configuration, LOG);
@@ -394,6 +400,12 @@ public class AbstractO3Test {
                     public int getO3PurgeDiscoveryQueueCapacity() {
                         return 0;
                     }
+
+                    @Override
+                    public boolean isPartitionZoneMapsEnabled() {
+                        // zone map I/O would shift call counters of fault-injecting facades
+                        return ff == FilesFacadeImpl.INSTANCE;
+                    }
                 };
                 TestUtils.execute(null, runnable, configuration, LOG);
             }
@@ -0,0 +1,238 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableUtils;
+import io.questdb.std.Zip;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+
+public class AlterTableCompressPartitionTest extends AbstractGriffinTest {
+
+    private static final String QUERY = "select * from x";
+    private static final String QUERY_AGG = "select count(), sum(i), sum(l), sum(length(s)), count_distinct(sym), min(ts), max(ts) from x";
+
+    @BeforeClass
+    public static void setUpStatic() {
+        AbstractGriffinTest.setUpStatic();
+        // zlib keeps static native memory, allocate it before memory leak checks
+        Zip.init();
+    }
+
+    @Test
+    public void testAddIndexOnCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            final String expected = print("select * from x where sym = 'a' limit 10");
+
+            compile("alter table x compress partition list '2018-01-01', '2018-01-02'", sqlExecutionContext);
+            compile("alter table x alter column sym add index", sqlExecutionContext);
+
+            assertSql("select * from x where sym = 'a' limit 10", expected);
+            assertCompressed("2018-01-01", true);
+        });
+    }
+
+    @Test
+    public void testCompressActivePartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            try {
+                compile("alter table x compress partition list '2018-01-03'", sqlExecutionContext);
+                Assert.fail();
+            } catch (CairoException e) {
+                Assert.assertEquals(38, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), "cannot compress active partition");
+            }
+            assertCompressed("2018-01-03", false);
+        });
+    }
+
+    @Test
+    public void testCompressDecompress() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            final String expected = print(QUERY);
+            final String expectedAgg = print(QUERY_AGG);
+
+            compile("alter table x compress partition list '2018-01-01', '2018-01-02'", sqlExecutionContext);
+            assertCompressed("2018-01-01", true);
+            assertCompressed("2018-01-02", true);
+            assertCompressed("2018-01-03", false);
+            assertSql(QUERY, expected);
+            assertSql(QUERY_AGG, expectedAgg);
+
+            // compressing twice is a no-op
+            compile("alter table x compress partition list '2018-01-01'", sqlExecutionContext);
+            assertSql(QUERY_AGG, expectedAgg);
+
+            compile("alter table x decompress partition list '2018-01-01', '2018-01-02'", sqlExecutionContext);
+            assertCompressed("2018-01-01", false);
+            assertCompressed("2018-01-02", false);
+            assertSql(QUERY, expected);
+            assertSql(QUERY_AGG, expectedAgg);
+        });
+    }
+
+    @Test
+    public void testCompressPartitionWhere() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            final String expectedAgg = print(QUERY_AGG);
+
+            compile("alter table x compress partition where ts < '2018-01-03'", sqlExecutionContext);
+            assertCompressed("2018-01-01", true);
+            assertCompressed("2018-01-02", true);
+            assertCompressed("2018-01-03", false);
+            assertSql(QUERY_AGG, expectedAgg);
+        });
+    }
+
+    @Test
+    public void testCompressWithColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            compile("alter table x add column z long", sqlExecutionContext);
+            executeInsert("insert into x (ts, i, z) values ('2018-01-03T23:00:00.000000Z', 1, 42)");
+            final String expected = print("select * from x where ts > '2018-01-02T23:59:00.000000Z'");
+
+            compile("alter table x compress partition list '2018-01-02'", sqlExecutionContext);
+            assertSql("select * from x where ts > '2018-01-02T23:59:00.000000Z'", expected);
+        });
+    }
+
+    @Test
+    public void testDropActivePartitionDecompressesPrevious() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            compile("alter table x compress partition list '2018-01-01', '2018-01-02'", sqlExecutionContext);
+            compile("alter table x drop partition list '2018-01-03'", sqlExecutionContext);
+            assertCompressed("2018-01-01", true);
+            assertCompressed("2018-01-02", false);
+
+            executeInsert("insert into x (ts, i) values ('2018-01-02T23:59:59.000000Z', 7)");
+            assertSql(
+                    "select ts, i from x limit -1",
+                    "ts\ti\n" +
+                            "2018-01-02T23:59:59.000000Z\t7\n"
+            );
+        });
+    }
+
+    @Test
+    public void testOutOfOrderInsertIntoCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            final String expectedAgg = print(QUERY_AGG);
+            compile("alter table x compress partition list '2018-01-01'", sqlExecutionContext);
+
+            try {
+                executeInsert("insert into x (ts, i) values ('2018-01-01T12:00:00.000000Z', -7)");
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "cannot insert out-of-order data into compressed partition");
+            }
+            assertSql(QUERY_AGG, expectedAgg);
+
+            // out-of-order data into uncompressed partition is fine
+            executeInsert("insert into x (ts, i) values ('2018-01-02T12:00:00.000000Z', -7)");
+
+            compile("alter table x decompress partition list '2018-01-01'", sqlExecutionContext);
+            executeInsert("insert into x (ts, i) values ('2018-01-01T12:00:00.000000Z', -7)");
+            assertSql(
+                    "select count() from x where i = -7",
+                    "count\n" +
+                            "2\n"
+            );
+        });
+    }
+
+    @Test
+    public void testUpdateCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            final String expectedAgg = print(QUERY_AGG);
+            compile("alter table x compress partition list '2018-01-01'", sqlExecutionContext);
+
+            try {
+                executeOperation("update x set i = 0", CompiledQuery.UPDATE);
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "cannot update compressed partition");
+            }
+            assertSql(QUERY_AGG, expectedAgg);
+
+            executeOperation("update x set i = 0 where ts >= '2018-01-02'", CompiledQuery.UPDATE);
+            assertSql(
+                    "select count() from x where i = 0 and ts < '2018-01-02'",
+                    "count\n" +
+                            "0\n"
+            );
+        });
+    }
+
+    private static void assertCompressed(String partitionName, boolean expected) {
+        final File root = new File(configuration.getRoot().toString(), "x");
+        final String[] names = root.list();
+        Assert.assertNotNull(names);
+        boolean found = false;
+        for (String name : names) {
+            if (name.equals(partitionName) || name.startsWith(partitionName + '.')) {
+                Assert.assertFalse("more than one partition version: " + name, found);
+                found = true;
+                Assert.assertEquals(name, expected, new File(new File(root, name), TableUtils.PARTITION_COMPRESSED_MARKER).exists());
+            }
+        }
+        Assert.assertTrue("partition not found: " + partitionName, found);
+    }
+
+    private void createX() throws SqlException {
+        compile(
+                "create table x as (" +
+                        "select" +
+                        " cast(x as int) i," +
+                        " rnd_long() l," +
+                        " rnd_str(5, 16, 2) s," +
+                        " rnd_symbol('a', 'b', 'c', null) sym," +
+                        " rnd_double(2) d," +
+                        " timestamp_sequence('2018-01-01', 2000000) ts" +
+                        " from long_sequence(120000)" +
+                        ") timestamp(ts) partition by DAY",
+                sqlExecutionContext
+        );
+    }
+
+    private String print(String query) throws SqlException {
+        final StringSink result = new StringSink();
+        TestUtils.printSql(compiler, sqlExecutionContext, query, result);
+        return result.toString();
+    }
+}
@@ -24,6 +24,11 @@
 
 package io.questdb.griffin;
 
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.Chars;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
 import org.junit.Test;
 
 
@@ -236,6 +241,59 @@ public class AsOfJoinTest extends AbstractGriffinTest {
         );
     }
 
+    @Test
+    public void testAsOfJoinIndexed() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table quotes (sym symbol index, bid int, ts timestamp) timestamp(ts) partition by day");
+            executeInsert("insert into quotes values ('a', 1, '2022-01-01T10:00:00.000000Z')");
+            executeInsert("insert into quotes values ('b', 2, '2022-01-01T11:00:00.000000Z')");
+            executeInsert("insert into quotes values (null, 3, '2022-01-01T12:00:00.000000Z')");
+            executeInsert("insert into quotes values ('a', 4, '2022-01-02T10:00:00.000000Z')");
+            executeInsert("insert into quotes values ('c', 5, '2022-01-03T10:00:00.000000Z')");
+            compile("create table trades (sym symbol, px int, ts timestamp) timestamp(ts)");
+            executeInsert("insert into trades values ('a', 10, '2022-01-01T09:00:00.000000Z')");
+            executeInsert("insert into trades values ('a', 11, '2022-01-01T10:00:00.000000Z')");
+            executeInsert("insert into trades values ('b', 12, '2022-01-02T10:00:00.000000Z')");
+            executeInsert("insert into trades values (null, 13, '2022-01-02T10:00:00.000000Z')");
+            executeInsert("insert into trades values ('a', 14, '2022-01-02T10:00:00.000000Z')");
+            executeInsert("insert into trades values ('d', 15, '2022-01-03T00:00:00.000000Z')");
+            executeInsert("insert into trades values ('b', 16, '2022-01-04T00:00:00.000000Z')");
+
+            final String query = "select t.sym, t.px, q.bid, q.ts from trades t asof join quotes q on (sym)";
+            TestUtils.assertContains(getPlan(query).getText(), "AsOf Join Indexed");
+            assertSql(
+                    query,
+                    "sym\tpx\tbid\tts\n" +
+                            "a\t10\tNaN\t\n" +
+                            "a\t11\t1\t2022-01-01T10:00:00.000000Z\n" +
+                            "b\t12\t2\t2022-01-01T11:00:00.000000Z\n" +
+                            "\t13\t3\t2022-01-01T12:00:00.000000Z\n" +
+                            "a\t14\t4\t2022-01-02T10:00:00.000000Z\n" +
+                            "d\t15\tNaN\t\n" +
+                            "b\t16\t2\t2022-01-01T11:00:00.000000Z\n"
+            );
+            assertSql(
+                    "select t.sym, t.px, q.bid, q.ts from trades t lt join quotes q on (sym)",
+                    "sym\tpx\tbid\tts\n" +
+                            "a\t10\tNaN\t\n" +
+                            "a\t11\tNaN\t\n" +
+                            "b\t12\t2\t2022-01-01T11:00:00.000000Z\n" +
+                            "\t13\t3\t2022-01-01T12:00:00.000000Z\n" +
+                            "a\t14\t1\t2022-01-01T10:00:00.000000Z\n" +
+                            "d\t15\tNaN\t\n" +
+                            "b\t16\t2\t2022-01-01T11:00:00.000000Z\n"
+            );
+        });
+    }
+
+    @Test
+    public void testAsOfJoinIndexedMatchesMapJoin() throws Exception {
+        assertMemoryLeak(() -> {
+            createQuotesAndTrades();
+            assertIndexedJoinMatchesMapJoin("asof");
+        });
+    }
+
     @Test
     public void testAsOfJoinNoAliasDuplication() throws Exception {
         assertMemoryLeak(() -> {
@@ -511,6 +569,14 @@ public class AsOfJoinTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testLtJoinIndexedMatchesMapJoin() throws Exception {
+        assertMemoryLeak(() -> {
+            createQuotesAndTrades();
+            assertIndexedJoinMatchesMapJoin("lt");
+        });
+    }
+
     @Test
     public void testLtJoinNoAliasDuplication() throws Exception {
         assertMemoryLeak(() -> {
@@ -785,4 +851,49 @@ public class AsOfJoinTest extends AbstractGriffinTest {
             printSqlResult(ex, query, null, false, false);
         });
     }
+
+    private void assertIndexedJoinMatchesMapJoin(String joinType) throws SqlException {
+        final String indexedJoin = joinType.equals("lt") ? "Lt Join Indexed" : "AsOf Join Indexed";
+        // symbol and string master keys
+        final String[] masters = {"trades", "(select sym::string sym, px, ts from trades timestamp(ts))"};
+        for (String master : masters) {
+            final String indexedQuery = "select t.*, q.* from " + master + " t " + joinType + " join quotes q on (sym)";
+            final String mapQuery = "select t.*, q.* from " + master + " t " + joinType + " join quotes_no_index q on (sym)";
+            TestUtils.assertContains(getPlan(indexedQuery).getText(), indexedJoin);
+            Assert.assertFalse(Chars.contains(getPlan(mapQuery).getText(), indexedJoin));
+            try (
+                    RecordCursorFactory indexedFactory = compiler.compile(indexedQuery, sqlExecutionContext).getRecordCursorFactory();
+                    RecordCursorFactory mapFactory = compiler.compile(mapQuery, sqlExecutionContext).getRecordCursorFactory()
+            ) {
+                // run indexed query twice to make sure the factory is reusable
+                for (int i = 0; i < 2; i++) {
+                    try (
+                            RecordCursor mapCursor = mapFactory.getCursor(sqlExecutionContext);
+                            RecordCursor indexedCursor = indexedFactory.getCursor(sqlExecutionContext)
+                    ) {
+                        TestUtils.assertEquals(mapCursor, mapFactory.getMetadata(), indexedCursor, indexedFactory.getMetadata(), false);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void createQuotesAndTrades() throws SqlException {
+        // quotes are more frequent than trades, some symbols stop quoting after a few partitions
+        compile("create table quotes as (" +
+                "select rnd_symbol(500, 4, 4, 2) sym, " +
+                " rnd_double() bid, " +
+                " timestamp_sequence(5000000, 10000000) ts " +
+                "from long_sequence(20000)" +
+                "), index(sym) timestamp(ts) partition by hour");
+        compile("insert into quotes select rnd_symbol('AAAA','BBBB') sym, rnd_double() bid, timestamp_sequence(200005000000, 10000000) ts from long_sequence(1000)");
+        compile("create table quotes_no_index as (select * from quotes) timestamp(ts) partition by hour");
+        // trades use quoted symbols, with occasional symbol that was never quoted
+        compile("create table trades as (" +
+                "select cast(case when rnd_int(0, 49, 0) = 0 then 'ZZZZ' else sym end as symbol) sym, " +
+                " rnd_int() px, " +
+                " timestamp_sequence(0, 33000000) ts " +
+                "from (quotes limit 7000)" +
+                ") timestamp(ts) partition by day");
+    }
 }
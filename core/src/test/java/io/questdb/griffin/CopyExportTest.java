@@ -0,0 +1,204 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cutlass.text.TextImportRequestJob;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.Os;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+
+public class CopyExportTest extends AbstractGriffinTest {
+
+    @BeforeClass
+    public static void setUpStatic() {
+        try {
+            inputRoot = temp.newFolder("exports" + System.nanoTime()).getAbsolutePath();
+            inputWorkRoot = temp.newFolder("imports" + System.nanoTime()).getAbsolutePath();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        AbstractGriffinTest.setUpStatic();
+    }
+
+    @Test
+    public void testExportFailsWhenFileExists() throws Exception {
+        testExport(
+                () -> {
+                    Assert.assertTrue(new File(inputRoot, "existing.csv").createNewFile());
+                    compiler.compile("create table x as (select x from long_sequence(3))", sqlExecutionContext);
+                    runAndFetchExportId("copy (x) to 'existing.csv'");
+                },
+                () -> {
+                    assertSql(
+                            "select status, message from " + configuration.getSystemTableNamePrefix() + "text_export_log",
+                            "status\tmessage\n" +
+                                    "started\t\n" +
+                                    "failed\texport file already exists [file=" + inputRoot + File.separatorChar + "existing.csv]\n"
+                    );
+                    Assert.assertEquals(0, new File(inputRoot, "existing.csv").length());
+                }
+        );
+    }
+
+    @Test
+    public void testExportFilteredQuerySerially() throws Exception {
+        testExport(
+                () -> {
+                    compiler.compile(
+                            "create table x as (" +
+                                    "select x, cast(x as symbol) s, timestamp_sequence(0, 1000000) ts from long_sequence(10)" +
+                                    ") timestamp(ts) partition by DAY",
+                            sqlExecutionContext
+                    );
+                    runAndFetchExportId("copy (select s, ts, x * 2 d from x where x > 7 order by x desc) to 'filtered.csv' with delimiter '|' header false");
+                },
+                () -> {
+                    assertExportFile(
+                            "filtered.csv",
+                            "\"10\"|\"1970-01-01T00:00:09.000000Z\"|20\r\n" +
+                                    "\"9\"|\"1970-01-01T00:00:08.000000Z\"|18\r\n" +
+                                    "\"8\"|\"1970-01-01T00:00:07.000000Z\"|16\r\n"
+                    );
+                    assertSql(
+                            "select status, rows_exported, bytes_written from " + configuration.getSystemTableNamePrefix() + "text_export_log",
+                            "status\trows_exported\tbytes_written\n" +
+                                    "started\t0\t0\n" +
+                                    "finished\t3\t115\n"
+                    );
+                }
+        );
+    }
+
+    @Test
+    public void testExportTableInParallel() throws Exception {
+        pageFrameMaxRows = 100;
+        testExport(
+                () -> {
+                    compiler.compile(
+                            "create table x as (" +
+                                    "select x, timestamp_sequence(0, 60000000) ts from long_sequence(1000)" +
+                                    ") timestamp(ts) partition by HOUR",
+                            sqlExecutionContext
+                    );
+                    runAndFetchExportId("copy x to 'all.csv'");
+                },
+                () -> {
+                    final StringBuilder expected = new StringBuilder("\"x\",\"ts\"\r\n");
+                    sink.clear();
+                    try (RecordCursor cursor = compiler.compile("select x, ts from x", sqlExecutionContext).getRecordCursorFactory().getCursor(sqlExecutionContext)) {
+                        while (cursor.hasNext()) {
+                            expected.append(cursor.getRecord().getLong(0)).append(",\"");
+                            sink.clear();
+                            sink.putISODate(cursor.getRecord().getTimestamp(1));
+                            expected.append(sink).append("\"\r\n");
+                        }
+                    }
+                    assertExportFile("all.csv", expected);
+                    assertSql(
+                            "select status, rows_exported from " + configuration.getSystemTableNamePrefix() + "text_export_log where status = 'finished'",
+                            "status\trows_exported\n" +
+                                    "finished\t1000\n"
+                    );
+                    // chunk files are removed once appended
+                    Assert.assertArrayEquals(new String[0], new File(inputRoot).list((dir, name) -> name.startsWith("all.csv.")));
+                }
+        );
+    }
+
+    @Test
+    public void testExportUnknownOption() throws Exception {
+        assertFailure("copy (select 1 x) to 'x.csv' with partition by DAY", null, 34, "unexpected export option");
+    }
+
+    @Test
+    public void testExportWithoutFileName() throws Exception {
+        assertFailure("copy (select 1 x) to", null, 20, "Expression expected");
+    }
+
+    @Test
+    public void testExportWithoutTo() throws Exception {
+        assertFailure("copy (select 1 x) 'x.csv'", null, 18, "'to' expected");
+    }
+
+    private static void assertExportFile(String fileName, CharSequence expected) throws IOException {
+        final byte[] bytes = Files.readAllBytes(new File(inputRoot, fileName).toPath());
+        TestUtils.assertEquals(expected, new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private static Thread createJobThread(SynchronizedJob job, CountDownLatch latch) {
+        return new Thread(() -> {
+            try {
+                while (latch.getCount() > 0) {
+                    if (job.run(0)) {
+                        latch.countDown();
+                    }
+                    Os.sleep(1);
+                }
+            } finally {
+                Path.clearThreadLocals();
+            }
+        });
+    }
+
+    private static void runAndFetchExportId(String copySql) throws SqlException {
+        CompiledQuery cq = compiler.compile(copySql, sqlExecutionContext);
+        try (RecordCursor cursor = cq.getRecordCursorFactory().getCursor(sqlExecutionContext)) {
+            Assert.assertTrue(cursor.hasNext());
+            Assert.assertNotNull(cursor.getRecord().getStr(0));
+        }
+    }
+
+    private void testExport(ExportRunnable statement, ExportRunnable test) throws Exception {
+        assertMemoryLeak(() -> {
+            CountDownLatch processed = new CountDownLatch(1);
+
+            compiler.compile("drop table if exists \"" + configuration.getSystemTableNamePrefix() + "text_export_log\"", sqlExecutionContext);
+            try (TextImportRequestJob processingJob = new TextImportRequestJob(engine, 1, null)) {
+                Thread processingThread = createJobThread(processingJob, processed);
+                processingThread.start();
+                statement.run();
+                processed.await();
+                test.run();
+                processingThread.join();
+            }
+            TestUtils.drainTextImportJobQueue(engine);
+        });
+    }
+
+    interface ExportRunnable {
+        void run() throws Exception;
+    }
+}
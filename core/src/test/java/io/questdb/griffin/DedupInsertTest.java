@@ -0,0 +1,223 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.std.datetime.microtime.Timestamps;
+import org.junit.Test;
+
+public class DedupInsertTest extends AbstractGriffinTest {
+
+    @Test
+    public void testDedupKeyMissingTimestamp() throws Exception {
+        assertFailure(
+                "create table x (ts timestamp, sym symbol, v int) timestamp(ts) partition by DAY dedup upsert keys(sym)",
+                null,
+                101,
+                "deduplication keys must include the designated timestamp column"
+        );
+    }
+
+    @Test
+    public void testDedupKeyVarSize() throws Exception {
+        assertFailure(
+                "create table x (ts timestamp, s string, v int) timestamp(ts) partition by DAY dedup upsert keys(ts, s)",
+                null,
+                100,
+                "deduplication key column must be of fixed size type [column=s, type=STRING]"
+        );
+    }
+
+    @Test
+    public void testDedupNonPartitioned() throws Exception {
+        assertFailure(
+                "create table x (ts timestamp, v int) timestamp(ts) partition by NONE dedup upsert keys(ts)",
+                null,
+                69,
+                "deduplication is possible only on partitioned tables"
+        );
+    }
+
+    @Test
+    public void testDuplicatesAcrossCommits() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, sym symbol, v int) timestamp(ts) partition by DAY dedup upsert keys(ts, sym)");
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "testing")) {
+                appendRow(w, Timestamps.HOUR_MICROS, "a", 1);
+                appendRow(w, 2 * Timestamps.HOUR_MICROS, "a", 2);
+                appendRow(w, 2 * Timestamps.HOUR_MICROS, "b", 3);
+                w.commit();
+
+                // repeats max timestamp, goes into the merge rather than append
+                appendRow(w, 2 * Timestamps.HOUR_MICROS, "a", 4);
+                appendRow(w, Timestamps.HOUR_MICROS, "b", 5);
+                appendRow(w, Timestamps.HOUR_MICROS, "a", 6);
+                w.commit();
+
+                appendRow(w, 3 * Timestamps.HOUR_MICROS, "a", 7);
+                w.commit();
+            }
+
+            assertSql(
+                    "x order by ts, sym",
+                    "ts\tsym\tv\n" +
+                            "1970-01-01T01:00:00.000000Z\ta\t6\n" +
+                            "1970-01-01T01:00:00.000000Z\tb\t5\n" +
+                            "1970-01-01T02:00:00.000000Z\ta\t4\n" +
+                            "1970-01-01T02:00:00.000000Z\tb\t3\n" +
+                            "1970-01-01T03:00:00.000000Z\ta\t7\n"
+            );
+            assertSql("select count() from x", "count\n5\n");
+        });
+    }
+
+    @Test
+    public void testDuplicatesInOlderPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, sym symbol, v int) timestamp(ts) partition by DAY dedup upsert keys(ts, sym)");
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "testing")) {
+                appendRow(w, Timestamps.HOUR_MICROS, "a", 1);
+                appendRow(w, 2 * Timestamps.HOUR_MICROS, "a", 2);
+                appendRow(w, 3 * Timestamps.HOUR_MICROS, "a", 3);
+                appendRow(w, Timestamps.DAY_MICROS + Timestamps.HOUR_MICROS, "a", 4);
+                w.commit();
+
+                appendRow(w, 2 * Timestamps.HOUR_MICROS, "a", 5);
+                appendRow(w, 2 * Timestamps.HOUR_MICROS, "b", 6);
+                appendRow(w, Timestamps.DAY_MICROS + Timestamps.HOUR_MICROS, "a", 7);
+                w.commit();
+            }
+
+            assertSql(
+                    "x order by ts, sym",
+                    "ts\tsym\tv\n" +
+                            "1970-01-01T01:00:00.000000Z\ta\t1\n" +
+                            "1970-01-01T02:00:00.000000Z\ta\t5\n" +
+                            "1970-01-01T02:00:00.000000Z\tb\t6\n" +
+                            "1970-01-01T03:00:00.000000Z\ta\t3\n" +
+                            "1970-01-02T01:00:00.000000Z\ta\t7\n"
+            );
+            assertSql("select count() from x", "count\n5\n");
+        });
+    }
+
+    @Test
+    public void testDuplicatesInSameCommit() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, sym symbol, v int) timestamp(ts) partition by DAY dedup upsert keys(ts, sym)");
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "testing")) {
+                appendRow(w, Timestamps.HOUR_MICROS, "a", 1);
+                appendRow(w, Timestamps.HOUR_MICROS, "b", 2);
+                appendRow(w, Timestamps.HOUR_MICROS, "a", 3);
+                appendRow(w, 2 * Timestamps.HOUR_MICROS, "a", 4);
+                appendRow(w, 2 * Timestamps.HOUR_MICROS, "a", 5);
+                w.commit();
+            }
+
+            assertSql(
+                    "x order by ts, sym",
+                    "ts\tsym\tv\n" +
+                            "1970-01-01T01:00:00.000000Z\ta\t3\n" +
+                            "1970-01-01T01:00:00.000000Z\tb\t2\n" +
+                            "1970-01-01T02:00:00.000000Z\ta\t5\n"
+            );
+            assertSql("select count() from x", "count\n3\n");
+        });
+    }
+
+    @Test
+    public void testStringColumnMergedBeforeSuffix() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, sym symbol, s string) timestamp(ts) partition by DAY dedup upsert keys(ts, sym)");
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "testing")) {
+                for (int i = 0; i < 5; i++) {
+                    TableWriter.Row r = w.newRow((i + 1) * Timestamps.HOUR_MICROS);
+                    r.putSym(1, "a");
+                    r.putStr(2, "old" + i);
+                    r.append();
+                }
+                w.commit();
+
+                TableWriter.Row r = w.newRow(3 * Timestamps.HOUR_MICROS);
+                r.putSym(1, "a");
+                r.putStr(2, "new");
+                r.append();
+                r = w.newRow(2 * Timestamps.HOUR_MICROS);
+                r.putSym(1, "a");
+                r.putStr(2, "newer value");
+                r.append();
+                w.commit();
+            }
+
+            assertSql(
+                    "x",
+                    "ts\tsym\ts\n" +
+                            "1970-01-01T01:00:00.000000Z\ta\told0\n" +
+                            "1970-01-01T02:00:00.000000Z\ta\tnewer value\n" +
+                            "1970-01-01T03:00:00.000000Z\ta\tnew\n" +
+                            "1970-01-01T04:00:00.000000Z\ta\told3\n" +
+                            "1970-01-01T05:00:00.000000Z\ta\told4\n"
+            );
+        });
+    }
+
+    @Test
+    public void testTimestampOnlyKey() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, v int) timestamp(ts) partition by DAY dedup upsert keys(ts)");
+            try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "testing")) {
+                for (int i = 0; i < 3; i++) {
+                    TableWriter.Row r = w.newRow((i + 1) * Timestamps.HOUR_MICROS);
+                    r.putInt(1, i);
+                    r.append();
+                }
+                w.commit();
+
+                for (int i = 0; i < 3; i++) {
+                    TableWriter.Row r = w.newRow((3 - i) * Timestamps.HOUR_MICROS);
+                    r.putInt(1, 10 + i);
+                    r.append();
+                }
+                w.commit();
+            }
+
+            assertSql(
+                    "x",
+                    "ts\tv\n" +
+                            "1970-01-01T01:00:00.000000Z\t12\n" +
+                            "1970-01-01T02:00:00.000000Z\t11\n" +
+                            "1970-01-01T03:00:00.000000Z\t10\n"
+            );
+        });
+    }
+
+    private static void appendRow(TableWriter w, long timestamp, String sym, int v) {
+        TableWriter.Row r = w.newRow(timestamp);
+        r.putSym(1, sym);
+        r.putInt(2, v);
+        r.append();
+    }
+}
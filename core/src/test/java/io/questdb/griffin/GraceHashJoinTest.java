@@ -0,0 +1,121 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.join.GraceHashJoin;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+
+public class GraceHashJoinTest extends AbstractGriffinTest {
+
+    @Test
+    public void testInnerJoinMatchesInMemoryJoin() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertSpilledJoin("select * from a join b on (k)");
+        });
+    }
+
+    @Test
+    public void testJoinOnSymbolAndStringKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertSpilledJoin("select a.x, a.sym, b.y, b.s from a join b on a.sym = b.s");
+            assertSpilledJoin("select a.x, b.y, b.sym from a left join b on (sym, k)");
+        });
+    }
+
+    @Test
+    public void testLeftJoinMatchesInMemoryJoin() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertSpilledJoin("select * from a left join b on (k)");
+        });
+    }
+
+    @Test
+    public void testSmallSlaveDoesNotSpill() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            compile("create table c as (select cast(x as int) k, x z from long_sequence(10))");
+            queryMemoryBudget = 64 * 1024 * 1024;
+            assertSql(
+                    "select count(), sum(z) from a join c on (k)",
+                    "count\tsum\n" +
+                            "10\t55\n"
+            );
+            Assert.assertFalse(getSpillDir().exists());
+        });
+    }
+
+    private static void createTables() throws SqlException {
+        compiler.setFullFatJoins(true);
+        compile("create table a as (" +
+                "select x, cast(x as int) k, cast(rnd_int(0, 20000, 0) as symbol) sym, rnd_double() d " +
+                "from long_sequence(20000))");
+        compile("create table b as (" +
+                "select x y, cast(rnd_int(10000, 30000, 2) as int) k, cast(rnd_int(0, 20000, 0) as symbol) sym, cast(rnd_int(0, 20000, 0) as string) s, rnd_long() l " +
+                "from long_sequence(30000))");
+    }
+
+    private static File getSpillDir() {
+        return new File(configuration.getRoot().toString(), GraceHashJoin.SPILL_DIR_NAME);
+    }
+
+    private static String print(RecordCursorFactory factory) throws SqlException {
+        final StringSink sink = new StringSink();
+        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+            TestUtils.printCursor(cursor, factory.getMetadata(), true, sink, printer);
+            // printing twice makes sure that toTop() rewinds the spilled join
+            cursor.toTop();
+            TestUtils.printCursor(cursor, factory.getMetadata(), false, sink, printer);
+        }
+        return sink.toString();
+    }
+
+    private void assertSpilledJoin(String query) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            queryMemoryBudget = 0;
+            final String expected = print(factory);
+            Assert.assertTrue(String.valueOf(expected.length()), expected.length() > 100_000);
+            Assert.assertTrue(expected.length() < 10_000_000);
+
+            queryMemoryBudget = 64 * 1024;
+            // reuse factory to check that spill files of the previous cursor do not get in the way
+            for (int i = 0; i < 2; i++) {
+                TestUtils.assertEquals(expected, print(factory));
+                final String[] files = getSpillDir().list();
+                Assert.assertNotNull(files);
+                Assert.assertEquals(0, files.length);
+            }
+        }
+    }
+}
@@ -102,6 +102,50 @@ public class SqlParserTest extends AbstractSqlParserTest {
         );
     }
 
+    @Test
+    public void testAnalyticFrameEndBeforeStart() throws Exception {
+        assertSyntaxError(
+                "select a, f(c) over (order by ts rows between current row and 1 preceding) from xyz",
+                33,
+                "frame start is after frame end",
+                modelOf("xyz").col("a", ColumnType.INT).col("c", ColumnType.INT).timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testAnalyticFrameInvalidUnit() throws Exception {
+        assertSyntaxError(
+                "select a, f(c) over (order by ts range 2 lightyear preceding) from xyz",
+                41,
+                "'preceding', 'following' or time unit expected",
+                modelOf("xyz").col("a", ColumnType.INT).col("c", ColumnType.INT).timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testAnalyticFrameRange() throws Exception {
+        assertQuery(
+                "select-analytic a, f(c) f over (partition by a order by ts range between 2000000 preceding and current row) from (select [a, c, ts] from xyz timestamp (ts))",
+                "select a, f(c) over (partition by a order by ts range between 2 second preceding and current row) from xyz",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("c", ColumnType.INT)
+                        .timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testAnalyticFrameRows() throws Exception {
+        assertQuery(
+                "select-analytic a, f(c) f over (order by ts rows between 3 preceding and current row), g(c) g over (order by ts rows between unbounded preceding and unbounded following) from (select [a, c, ts] from xyz timestamp (ts))",
+                "select a, f(c) over (order by ts rows 3 preceding), g(c) over (order by ts rows between unbounded preceding and unbounded following) from xyz",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("c", ColumnType.INT)
+                        .timestamp("ts")
+        );
+    }
+
     @Test
     public void testAnalyticFunctionReferencesSameColumnAsVirtual() throws Exception {
         assertQuery(
@@ -4741,7 +4785,7 @@ public class SqlParserTest extends AbstractSqlParserTest {
     @Test
     public void testNonAnalyticFunctionInAnalyticContext() throws Exception {
         assertFailure(
-                "select avg(price) over (partition by symbol) from trades",
+                "select ksum(price) over (partition by symbol) from trades",
                 "create table trades " +
                         "(" +
                         " price double," +
@@ -24,6 +24,7 @@
 
 package io.questdb.griffin.engine.analytic;
 
+import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.griffin.AbstractGriffinTest;
 import io.questdb.griffin.SqlException;
 import io.questdb.test.tools.TestUtils;
@@ -432,6 +433,44 @@ public class AnalyticFunctionTest extends AbstractGriffinTest {
         );
     }
 
+    @Test
+    public void testRowNumberStreaming() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select cast(x as double) v," +
+                    " cast(case when x % 2 = 0 then 'a' else 'b' end as symbol) s," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(6)" +
+                    ") timestamp(ts)");
+            final String query = "select v, s," +
+                    " row_number() over (partition by s order by ts) rn," +
+                    " row_number() over () rn2," +
+                    " row_number() over (order by ts) rn3" +
+                    " from x";
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AnalyticRecordCursorFactory.class, factory.getClass());
+            }
+            assertQuery(
+                    "v\ts\trn\trn2\trn3\n" +
+                            "1.0\tb\t1\t1\t1\n" +
+                            "2.0\ta\t1\t2\t2\n" +
+                            "3.0\tb\t2\t3\t3\n" +
+                            "4.0\ta\t2\t4\t4\n" +
+                            "5.0\tb\t3\t5\t5\n" +
+                            "6.0\ta\t3\t6\t6\n",
+                    query,
+                    null,
+                    false,
+                    true
+            );
+
+            // records have to be sorted before they are numbered
+            try (RecordCursorFactory factory = compiler.compile("select v, row_number() over (order by v desc) from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(CachedAnalyticRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
     @Test
     public void testRowNumberWithFilter() throws Exception {
         assertQuery("author\tsym\tcommits\trk\n" +
@@ -485,9 +524,9 @@ public class AnalyticFunctionTest extends AbstractGriffinTest {
                         " from long_sequence(10)" +
                         ") timestamp(ts) partition by day",
                 null,
+                false,
                 true,
-                true,
-                false
+                true
         );
     }
 
@@ -514,9 +553,9 @@ public class AnalyticFunctionTest extends AbstractGriffinTest {
                         " from long_sequence(10)" +
                         ") timestamp(ts) partition by day",
                 null,
+                false,
                 true,
-                true,
-                false
+                true
         );
     }
 
@@ -572,9 +611,10 @@ public class AnalyticFunctionTest extends AbstractGriffinTest {
                         " from long_sequence(10)" +
                         ") timestamp(ts) partition by day",
                 null,
+                // ordered by designated timestamp, rows are numbered as they are read
+                false,
                 true,
-                true,
-                false
+                true
         );
     }
 
@@ -664,4 +704,224 @@ public class AnalyticFunctionTest extends AbstractGriffinTest {
                 false
         );
     }
+
+    @Test
+    public void testWindowAliasedColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select cast(x as double) v," +
+                    " cast(case when x % 2 = 0 then 'a' else 'b' end as symbol) s," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(6)" +
+                    ") timestamp(ts)");
+            assertSql(
+                    "select v as w, s as k, sum(v) over (partition by s order by ts) from x",
+                    "w\tk\tsum\n" +
+                            "1.0\tb\t1.0\n" +
+                            "2.0\ta\t2.0\n" +
+                            "3.0\tb\t4.0\n" +
+                            "4.0\ta\t6.0\n" +
+                            "5.0\tb\t9.0\n" +
+                            "6.0\ta\t12.0\n"
+            );
+        });
+    }
+
+    @Test
+    public void testWindowFrameErrors() throws Exception {
+        assertFailure(
+                "select sum(v) over (order by ts rows between current row and 2 following) from x",
+                "create table x as (" +
+                        "select cast(x as double) v," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts)",
+                7,
+                "frame is not supported"
+        );
+        assertFailure("select sum(v) over (order by v range 2 preceding) from x", null, 7, "RANGE frame with offset requires ORDER BY on a single ascending timestamp column");
+        assertFailure("select sum(v) over (order by ts rows between 2 following and 1 following) from x", null, 32, "frame start is after frame end");
+        assertFailure("select sum(v) over (order by ts rows between unbounded following and current row) from x", null, 32, "frame start cannot be UNBOUNDED FOLLOWING");
+        assertFailure("select sum(v) over (order by ts rows -1 preceding) from x", null, 37, "non-negative integer frame offset expected");
+        assertFailure("select lag(v) from x", null, 7, "analytic function called in non-analytic context, make sure to add OVER clause");
+        assertFailure("select lag(v, v) over () from x", null, 14, "offset must be a constant integer");
+    }
+
+    @Test
+    public void testWindowFrameRange() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select cast(x as double) v," +
+                    " cast(case when x % 2 = 0 then 'a' else 'b' end as symbol) s," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(6)" +
+                    ") timestamp(ts)");
+            assertSql(
+                    "select v, sum(v) over (partition by s order by ts range between 2 second preceding and current row) s2," +
+                            " sum(v) over (order by ts range 1 second preceding) s1," +
+                            " count() over (order by ts range 1500 milliseconds preceding) c" +
+                            " from x",
+                    "v\ts2\ts1\tc\n" +
+                            "1.0\t1.0\t1.0\t1\n" +
+                            "2.0\t2.0\t3.0\t2\n" +
+                            "3.0\t4.0\t5.0\t2\n" +
+                            "4.0\t6.0\t7.0\t2\n" +
+                            "5.0\t8.0\t9.0\t2\n" +
+                            "6.0\t10.0\t11.0\t2\n"
+            );
+        });
+    }
+
+    @Test
+    public void testWindowFrameRowsSliding() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select cast(x as double) v," +
+                    " cast(case when x % 2 = 0 then 'a' else 'b' end as symbol) s," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(6)" +
+                    ") timestamp(ts)");
+            assertSql(
+                    "select v," +
+                            " sum(v) over (order by ts rows between 2 preceding and current row) sum," +
+                            " avg(v) over (order by ts rows between 2 preceding and current row) avg," +
+                            " min(v) over (order by ts rows 2 preceding) min," +
+                            " max(v) over (order by ts rows 2 preceding) max," +
+                            " first_value(v) over (order by ts rows 2 preceding) first," +
+                            " count() over (order by ts rows 2 preceding) cnt" +
+                            " from x",
+                    "v\tsum\tavg\tmin\tmax\tfirst\tcnt\n" +
+                            "1.0\t1.0\t1.0\t1.0\t1.0\t1.0\t1\n" +
+                            "2.0\t3.0\t1.5\t1.0\t2.0\t1.0\t2\n" +
+                            "3.0\t6.0\t2.0\t1.0\t3.0\t1.0\t3\n" +
+                            "4.0\t9.0\t3.0\t2.0\t4.0\t2.0\t3\n" +
+                            "5.0\t12.0\t4.0\t3.0\t5.0\t3.0\t3\n" +
+                            "6.0\t15.0\t5.0\t4.0\t6.0\t4.0\t3\n"
+            );
+        });
+    }
+
+    @Test
+    public void testWindowLagLead() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select cast(x as double) v," +
+                    " cast(case when x % 2 = 0 then 'a' else 'b' end as symbol) s," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(6)" +
+                    ") timestamp(ts)");
+            assertSql(
+                    "select v," +
+                            " lag(v) over (partition by s order by ts) lag," +
+                            " lag(v, 0) over (order by ts) lag0," +
+                            " lead(v, 2) over (order by ts) lead," +
+                            " lead(v) over (partition by s order by ts) lead_s" +
+                            " from x",
+                    "v\tlag\tlag0\tlead\tlead_s\n" +
+                            "1.0\tNaN\t1.0\t3.0\t3.0\n" +
+                            "2.0\tNaN\t2.0\t4.0\t4.0\n" +
+                            "3.0\t1.0\t3.0\t5.0\t5.0\n" +
+                            "4.0\t2.0\t4.0\t6.0\t6.0\n" +
+                            "5.0\t3.0\t5.0\tNaN\tNaN\n" +
+                            "6.0\t4.0\t6.0\tNaN\tNaN\n"
+            );
+        });
+    }
+
+    @Test
+    public void testWindowRunningAggregates() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select cast(x as double) v," +
+                    " cast(case when x % 2 = 0 then 'a' else 'b' end as symbol) s," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(6)" +
+                    ") timestamp(ts)");
+            final String query = "select v, s," +
+                    " sum(v) over (partition by s order by ts) sum," +
+                    " avg(v) over (partition by s order by ts) avg," +
+                    " min(v) over (partition by s order by ts) min," +
+                    " max(v) over (partition by s order by ts) max," +
+                    " count() over (partition by s order by ts) cnt," +
+                    " first_value(v) over (partition by s order by ts) first," +
+                    " last_value(v) over (partition by s order by ts rows between unbounded preceding and current row) last" +
+                    " from x";
+            final String expected = "v\ts\tsum\tavg\tmin\tmax\tcnt\tfirst\tlast\n" +
+                    "1.0\tb\t1.0\t1.0\t1.0\t1.0\t1\t1.0\t1.0\n" +
+                    "2.0\ta\t2.0\t2.0\t2.0\t2.0\t1\t2.0\t2.0\n" +
+                    "3.0\tb\t4.0\t2.0\t1.0\t3.0\t2\t1.0\t3.0\n" +
+                    "4.0\ta\t6.0\t3.0\t2.0\t4.0\t2\t2.0\t4.0\n" +
+                    "5.0\tb\t9.0\t3.0\t1.0\t5.0\t3\t1.0\t5.0\n" +
+                    "6.0\ta\t12.0\t4.0\t2.0\t6.0\t3\t2.0\t6.0\n";
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                // ordered by designated timestamp, computed as records are read
+                Assert.assertEquals(AnalyticRecordCursorFactory.class, factory.getClass());
+            }
+            assertQuery(expected, query, null, false, true);
+            // lead() has to cache the result set, aggregates must produce the same values
+            assertSql(
+                    "select v, s, sum, cnt, ld from (" +
+                            "select v, s," +
+                            " sum(v) over (partition by s order by ts) sum," +
+                            " count() over (partition by s order by ts) cnt," +
+                            " lead(v) over (order by ts) ld" +
+                            " from x)",
+                    "v\ts\tsum\tcnt\tld\n" +
+                            "1.0\tb\t1.0\t1\t2.0\n" +
+                            "2.0\ta\t2.0\t1\t3.0\n" +
+                            "3.0\tb\t4.0\t2\t4.0\n" +
+                            "4.0\ta\t6.0\t2\t5.0\n" +
+                            "5.0\tb\t9.0\t3\t6.0\n" +
+                            "6.0\ta\t12.0\t3\tNaN\n"
+            );
+        });
+    }
+
+    @Test
+    public void testWindowRunningAggregatesOrderedByValue() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select cast(x as double) v," +
+                    " cast(case when x % 2 = 0 then 'a' else 'b' end as symbol) s," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(6)" +
+                    ") timestamp(ts)");
+            assertSql(
+                    "select v, sum(v) over (partition by s order by v desc) sum from x",
+                    "v\tsum\n" +
+                            "1.0\t9.0\n" +
+                            "2.0\t12.0\n" +
+                            "3.0\t8.0\n" +
+                            "4.0\t10.0\n" +
+                            "5.0\t5.0\n" +
+                            "6.0\t6.0\n"
+            );
+        });
+    }
+
+    @Test
+    public void testWindowWholePartition() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select cast(x as double) v," +
+                    " cast(case when x % 2 = 0 then 'a' else 'b' end as symbol) s," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(6)" +
+                    ") timestamp(ts)");
+            assertSql(
+                    "select v, sum(v) over (partition by s) sum," +
+                            " count() over () cnt," +
+                            " first_value(v) over (partition by s order by ts rows between unbounded preceding and unbounded following) first," +
+                            " last_value(v) over (partition by s order by ts rows between unbounded preceding and unbounded following) last" +
+                            " from x",
+                    "v\tsum\tcnt\tfirst\tlast\n" +
+                            "1.0\t9.0\t6\t1.0\t5.0\n" +
+                            "2.0\t12.0\t6\t2.0\t6.0\n" +
+                            "3.0\t9.0\t6\t1.0\t5.0\n" +
+                            "4.0\t12.0\t6\t2.0\t6.0\n" +
+                            "5.0\t9.0\t6\t1.0\t5.0\n" +
+                            "6.0\t12.0\t6\t2.0\t6.0\n"
+            );
+        });
+    }
 }
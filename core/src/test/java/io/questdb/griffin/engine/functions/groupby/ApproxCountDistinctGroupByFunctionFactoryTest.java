@@ -0,0 +1,141 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ApproxCountDistinctGroupByFunctionFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        assertQuery(
+                "approx_count_distinct\n" +
+                        "0\n",
+                "select approx_count_distinct(l) from x",
+                "create table x (l long)",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupKeyed() throws Exception {
+        assertQuery(
+                "a\tapprox_count_distinct\tcount_distinct\n" +
+                        "0\t6\t6\n" +
+                        "1\t7\t7\n" +
+                        "2\t7\t7\n",
+                "select a, approx_count_distinct(s), count_distinct(s) from x order by a",
+                "create table x as (select x % 3 a, x / 2 s from long_sequence(20))",
+                null,
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testLargeCardinalityWithinErrorBound() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x l, cast(x as int) i, cast(x as string) s from long_sequence(1000000))");
+            assertWithinErrorBound("select approx_count_distinct(l) from x", 1_000_000);
+            assertWithinErrorBound("select approx_count_distinct(i) from x", 1_000_000);
+            assertWithinErrorBound("select approx_count_distinct(s) from x", 1_000_000);
+            // duplicates don't affect the estimate
+            assertWithinErrorBound("select approx_count_distinct(l % 100000) from x", 100_000);
+        });
+    }
+
+    @Test
+    public void testNullsAreSkipped() throws Exception {
+        assertQuery(
+                "i\tl\ts\tk\n" +
+                        "3\t3\t3\t3\n",
+                "select approx_count_distinct(i) i, approx_count_distinct(l) l, approx_count_distinct(s) s, approx_count_distinct(k) k from x",
+                "create table x as (" +
+                        "select rnd_int(1, 3, 5) i, rnd_long(1, 3, 5) l, rnd_str('a','b','c',null) s, rnd_symbol('a','b','c',null) k " +
+                        "from long_sequence(100))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testSampleByFillNull() throws Exception {
+        assertQuery(
+                "ts\tapprox_count_distinct\n" +
+                        "1970-01-01T00:00:00.000000Z\t2\n" +
+                        "1970-01-01T00:00:01.000000Z\tNaN\n" +
+                        "1970-01-01T00:00:02.000000Z\t1\n",
+                "select ts, approx_count_distinct(s) from x sample by 1s fill(null)",
+                "create table x as (" +
+                        "select * from (" +
+                        "select 'a' s, 0::timestamp ts from long_sequence(1) union all " +
+                        "select 'b' s, 1::timestamp ts from long_sequence(1) union all " +
+                        "select 'c' s, 2000000::timestamp ts from long_sequence(1)" +
+                        ") timestamp(ts))",
+                "ts",
+                false,
+                false,
+                false
+        );
+    }
+
+    @Test
+    public void testSymbolAndStringAgree() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select rnd_symbol(1000, 4, 8, 0) k from long_sequence(100000))");
+            assertSql(
+                    "select approx_count_distinct(k) = approx_count_distinct(k::string) eq from x",
+                    "eq\n" +
+                            "true\n"
+            );
+        });
+    }
+
+    private static void assertWithinErrorBound(String query, long expected) throws SqlException {
+        try (
+                RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+        ) {
+            final Record record = cursor.getRecord();
+            Assert.assertTrue(cursor.hasNext());
+            final long actual = record.getLong(0);
+            // three standard errors of 2048 register sketch
+            Assert.assertEquals(query, expected, actual, expected * 0.07);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class ApproxPercentileDoubleGroupByFunctionFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAllNulls() throws Exception {
+        assertQuery(
+                "approx_percentile\tapprox_median\n" +
+                        "NaN\tNaN\n",
+                "select approx_percentile(d, 0.9), approx_median(d) from x",
+                "create table x as (select cast(null as double) d from long_sequence(10))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        assertQuery(
+                "approx_percentile\n" +
+                        "NaN\n",
+                "select approx_percentile(d, 0.5) from x",
+                "create table x (d double)",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupKeyed() throws Exception {
+        assertQuery(
+                "k\tmin\tmax\n" +
+                        "0\t1.0\t1.0\n" +
+                        "1\t2.0\t2.0\n" +
+                        "2\t3.0\t3.0\n",
+                // keys have distinct constant values, which sketch represents within 1%
+                "select k, round(approx_median(v), 0) min, round(approx_percentile(v, 1), 0) max from x order by k",
+                "create table x as (select x % 3 k, x % 3 + 1 v from long_sequence(100))",
+                null,
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testInvalidPercentile() throws Exception {
+        assertFailure(
+                "select approx_percentile(d, 1.5) from x",
+                "create table x (d double)",
+                28,
+                "percentile must be between 0.0 and 1.0"
+        );
+    }
+
+    @Test
+    public void testMixedSigns() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select (x - 5000) * 0.5 d from long_sequence(10000))");
+            assertWithinRelativeError("x", 0, 0.01, 0.25, 0.5, 0.75, 0.99, 1);
+        });
+    }
+
+    @Test
+    public void testRandomValues() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select rnd_double(5) * rnd_int(1, 1000, 0) d from long_sequence(100000))");
+            assertWithinRelativeError("x", 0.001, 0.01, 0.1, 0.5, 0.9, 0.99, 0.999, 1);
+        });
+    }
+
+    @Test
+    public void testWideRangeKeepsHigherPercentiles() throws Exception {
+        assertMemoryLeak(() -> {
+            // values span 40 orders of magnitude, while the sketch window covers about 9 of them,
+            // the lowest buckets are collapsed and only the top of the distribution stays accurate
+            compile("create table x as (select power(10.0, x % 40 - 20) * (1 + x % 7) d from long_sequence(10000))");
+            assertWithinRelativeError("x", 0.85, 0.9, 0.99, 1);
+        });
+    }
+
+    private static void assertWithinRelativeError(String table, double... percentiles) throws SqlException {
+        final ArrayList<Double> values = new ArrayList<>();
+        try (
+                RecordCursorFactory factory = compiler.compile("select d from " + table + " where d != null order by d", sqlExecutionContext).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+        ) {
+            final Record record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                values.add(record.getDouble(0));
+            }
+        }
+
+        for (double p : percentiles) {
+            final String query = "select approx_percentile(d, " + p + ") from " + table;
+            try (
+                    RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                final Record record = cursor.getRecord();
+                Assert.assertTrue(cursor.hasNext());
+                final double expected = values.get((int) (p * (values.size() - 1)));
+                Assert.assertEquals(query, expected, record.getDouble(0), Math.abs(expected) * (DDSketch.RELATIVE_ACCURACY + 1e-9));
+            }
+        }
+    }
+}
@@ -128,8 +128,12 @@ public class GroupByFunctionCaseTest extends AbstractGriffinTest {
                         keyPos = 1;
                     }
 
+                    // KSum, NSum, as well as min/max over chars can't be merged, so they're not executed in parallel
+                    boolean parallel = !vectorized && f > 1 && t != CHAR;
+
                     planSink.clear();
-                    planSink.put("GroupByRecord vectorized=").put(vectorized + "\n")
+                    planSink.put(parallel ? "AsyncGroupByRecord" : "GroupByRecord")
+                            .put(" vectorized=").put(vectorized).put(parallel ? " workers=1\n" : "\n")
                             .put("  groupByFunctions=[").put(expectedFunction).put("]\n")
                             .put("  ").put((vectorized ? "keyColumnIndex=0\n" : "recordFunctions=[IntColumn(" + keyPos + ")," + expectedFunction + "]\n"))
                             .put("    DataFrameRecordCursorFactory\n")
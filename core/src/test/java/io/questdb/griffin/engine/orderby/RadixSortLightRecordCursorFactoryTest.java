@@ -0,0 +1,217 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.mp.TestWorkerPool;
+import io.questdb.mp.WorkerPool;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class RadixSortLightRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @BeforeClass
+    public static void setUpStatic() {
+        // small chunks to make sure that large results are sorted in many chunks and merged
+        pageFrameMaxRows = 1000;
+        AbstractGriffinTest.setUpStatic();
+    }
+
+    @Test
+    public void testDescendingWithTies() throws Exception {
+        assertQuery(
+                "k\tv\n" +
+                        "3\t6\n" +
+                        "3\t3\n" +
+                        "2\t5\n" +
+                        "2\t2\n" +
+                        "1\t4\n" +
+                        "1\t1\n",
+                "select * from x order by k desc",
+                "create table x as (select cast((x - 1) % 3 + 1 as int) k, x v from long_sequence(6))",
+                null,
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        assertQuery(
+                "k\tv\n",
+                "select * from x order by k",
+                "create table x (k long, v long)",
+                null,
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testFactorySelection() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select rnd_int() i, rnd_double() d, rnd_symbol('a','b') s from long_sequence(10))");
+            assertFactory("select * from x order by i", RadixSortLightRecordCursorFactory.class);
+            assertFactory("select * from x order by i desc, d", RadixSortLightRecordCursorFactory.class);
+            // leading double and symbol keys are left to the comparator
+            assertFactory("select * from x order by d, i", SortedLightRecordCursorFactory.class);
+            assertFactory("select * from x order by s", SortedLightRecordCursorFactory.class);
+            // top-k keeps using bounded tree
+            assertFactory("select * from x order by i limit 3", LimitedSizeSortedLightRecordCursorFactory.class);
+
+            enableParallelSort = false;
+            assertFactory("select * from x order by i", SortedLightRecordCursorFactory.class);
+        });
+    }
+
+    @Test
+    public void testLeadingKeyTypesMatchTreeSort() throws Exception {
+        withPool(() -> {
+            createX(100_000);
+            assertMatchesTreeSort("select * from x order by bool, x");
+            assertMatchesTreeSort("select * from x order by b");
+            assertMatchesTreeSort("select * from x order by sh desc");
+            assertMatchesTreeSort("select * from x order by c");
+            assertMatchesTreeSort("select * from x order by i");
+            assertMatchesTreeSort("select * from x order by l desc");
+            assertMatchesTreeSort("select * from x order by dt");
+            assertMatchesTreeSort("select * from x order by ts desc, i");
+        });
+    }
+
+    @Test
+    public void testNullsFirst() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (i int, l long)");
+            executeInsert("insert into x values (2, 20)");
+            executeInsert("insert into x values (null, null)");
+            executeInsert("insert into x values (-3, -30)");
+            executeInsert("insert into x values (0, 0)");
+            assertSql(
+                    "select * from x order by i",
+                    "i\tl\n" +
+                            "NaN\tNaN\n" +
+                            "-3\t-30\n" +
+                            "0\t0\n" +
+                            "2\t20\n"
+            );
+            assertSql(
+                    "select * from x order by l desc",
+                    "i\tl\n" +
+                            "2\t20\n" +
+                            "0\t0\n" +
+                            "-3\t-30\n" +
+                            "NaN\tNaN\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSecondaryKeysMatchTreeSort() throws Exception {
+        withPool(() -> {
+            createX(100_000);
+            // double secondary keys are left out, their comparator does not order NaN consistently
+            assertMatchesTreeSort("select * from x order by b, l");
+            assertMatchesTreeSort("select * from x order by bool desc, s, i desc");
+            assertMatchesTreeSort("select * from x order by sh, sym desc");
+            assertMatchesTreeSort("select * from x where i > 0 order by b desc, ts");
+        });
+    }
+
+    @Test
+    public void testSerialExecutionMatchesTreeSort() throws Exception {
+        // no worker pool, query owner sorts and merges all chunks
+        assertMemoryLeak(() -> {
+            createX(20_000);
+            assertMatchesTreeSort("select * from x order by l");
+            assertMatchesTreeSort("select * from x order by b desc, s");
+        });
+    }
+
+    private static void assertFactory(String query, Class<?> expected) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertEquals(expected, factory.getClass());
+        }
+    }
+
+    private static void createX(int rowCount) throws SqlException {
+        compile("create table x as (" +
+                "select rnd_boolean() bool, " +
+                " rnd_byte() b, " +
+                " rnd_short(-50, 50) sh, " +
+                " rnd_char() c, " +
+                " rnd_int(-1000, 1000, 2) i, " +
+                " rnd_long(-100000, 100000, 2) l, " +
+                " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) dt, " +
+                " rnd_double(2) d, " +
+                " rnd_str(2, 4, 2) s, " +
+                " rnd_symbol('a','b','c', null) sym, " +
+                " x, " +
+                " timestamp_sequence(0, 1000000) ts " +
+                "from long_sequence(" + rowCount + ")" +
+                ") timestamp(ts) partition by hour");
+    }
+
+    private void assertMatchesTreeSort(String query) throws Exception {
+        enableParallelSort = false;
+        try (RecordCursorFactory treeFactory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertEquals(SortedLightRecordCursorFactory.class, treeFactory.getClass());
+            enableParallelSort = true;
+            try (RecordCursorFactory radixFactory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(RadixSortLightRecordCursorFactory.class, radixFactory.getClass());
+                // run the radix query a few times to make sure the factory is reusable
+                for (int i = 0; i < 3; i++) {
+                    try (
+                            RecordCursor treeCursor = treeFactory.getCursor(sqlExecutionContext);
+                            RecordCursor radixCursor = radixFactory.getCursor(sqlExecutionContext)
+                    ) {
+                        TestUtils.assertEquals(treeCursor, treeFactory.getMetadata(), radixCursor, radixFactory.getMetadata(), false);
+                    }
+                }
+            }
+        }
+    }
+
+    private void withPool(TestUtils.LeakProneCode code) throws Exception {
+        assertMemoryLeak(() -> {
+            WorkerPool pool = new TestWorkerPool(4);
+            TestUtils.setupWorkerPool(pool, engine);
+            pool.assign(new SortJob(engine.getMessageBus()));
+            pool.start();
+            try {
+                code.run();
+            } finally {
+                pool.halt();
+            }
+        });
+    }
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.engine.groupby.GroupByRecordCursorFactory;
+import io.questdb.mp.TestWorkerPool;
+import io.questdb.mp.WorkerPool;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class AsyncGroupByRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @BeforeClass
+    public static void setUpStatic() {
+        // small frames to make sure that each query is split into many page frames
+        pageFrameMaxRows = 1000;
+        pageFrameReduceShardCount = 1;
+        AbstractGriffinTest.setUpStatic();
+    }
+
+    @Test
+    public void testApproxFunctionsMatchSerialExecution() throws Exception {
+        withPool(() -> {
+            compile("create table x as (" +
+                    "select rnd_symbol('a','b','c','d','e') device, " +
+                    " rnd_str(1000, 4, 8, 2) s, " +
+                    " rnd_long(0, 100000, 2) l, " +
+                    " rnd_double(2) * 1000 - 100 d, " +
+                    " timestamp_sequence(0, 1000000) ts " +
+                    "from long_sequence(100000)" +
+                    ") timestamp(ts) partition by hour");
+
+            // sketches merge without loss, so parallel results are the same as serial ones
+            assertParallelMatchesSerial(
+                    "select device, approx_count_distinct(s), approx_count_distinct(l), approx_median(d), approx_percentile(d, 0.99) from x",
+                    "device"
+            );
+        });
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        assertQuery(
+                "s\tsum\n",
+                "select s, sum(d) from x",
+                "create table x (s symbol, d double, ts timestamp) timestamp(ts) partition by day",
+                null,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testFallbackToSerialForUnsupportedFunctions() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select rnd_str('a','b') s, rnd_double() d from long_sequence(10))");
+            // first() depends on the row order, so it can't be computed in parallel
+            try (RecordCursorFactory factory = compiler.compile("select s, first(d) from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(GroupByRecordCursorFactory.class, factory.getClass());
+            }
+            try (RecordCursorFactory factory = compiler.compile("select s, sum(d) from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AsyncGroupByRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testMultipleKeysMatchSerialExecution() throws Exception {
+        withPool(() -> {
+            compile("create table x as (" +
+                    "select rnd_symbol('a','b','c','d','e') device, " +
+                    " rnd_str('us','eu','ap', null) region, " +
+                    " rnd_int(0, 100, 2) i, " +
+                    " rnd_long(0, 10000, 2) l, " +
+                    " rnd_double(2) d, " +
+                    " rnd_float() f, " +
+                    " timestamp_sequence(0, 1000000) ts " +
+                    "from long_sequence(100000)" +
+                    ") timestamp(ts) partition by hour");
+
+            assertParallelMatchesSerial(
+                    "select device, region, count(), sum(i), sum(l), sum(d), avg(d), min(f), max(f), min(l), max(i), min(ts), max(ts) from x",
+                    "device, region"
+            );
+        });
+    }
+
+    @Test
+    public void testResultsAreStableAcrossExecutions() throws Exception {
+        withPool(() -> {
+            compile("create table x as (" +
+                    "select x % 3 k, x v, timestamp_sequence(0, 100000) ts from long_sequence(10000)" +
+                    ") timestamp(ts) partition by hour");
+
+            final String expected = "k\tcount\tsum\tmin\tmax\n" +
+                    "0\t3333\t16668333\t3\t9999\n" +
+                    "1\t3334\t16671667\t1\t10000\n" +
+                    "2\t3333\t16665000\t2\t9998\n";
+            try (RecordCursorFactory factory = compiler.compile("select * from (select k, count(), sum(v), min(v), max(v) from x) order by k", sqlExecutionContext).getRecordCursorFactory()) {
+                for (int i = 0; i < 5; i++) {
+                    assertCursor(expected, factory, true, true, true);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testSymbolKeyWithIntervalFilter() throws Exception {
+        withPool(() -> {
+            compile("create table x as (" +
+                    "select rnd_symbol('a','b','c') s, rnd_double() d, rnd_float() f, timestamp_sequence(0, 1000000) ts " +
+                    "from long_sequence(50000)" +
+                    ") timestamp(ts) partition by hour");
+            assertParallelMatchesSerial(
+                    "select s, count(), sum(d), sum(f) from x where ts in '1970-01-01T01;2h'",
+                    "s"
+            );
+        });
+    }
+
+    private void assertParallelMatchesSerial(String groupByQuery, String orderBy) throws Exception {
+        enableParallelGroupBy = true;
+        TestUtils.assertContains(getPlan(groupByQuery).getText(), "AsyncGroupByRecord");
+
+        // group by output order is not deterministic when executed in parallel
+        final String query = "select * from (" + groupByQuery + ") order by " + orderBy;
+        enableParallelGroupBy = false;
+        try (RecordCursorFactory serialFactory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            enableParallelGroupBy = true;
+            try (RecordCursorFactory parallelFactory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                // run the parallel query a few times to make sure the factory is reusable
+                for (int i = 0; i < 3; i++) {
+                    try (
+                            RecordCursor serialCursor = serialFactory.getCursor(sqlExecutionContext);
+                            RecordCursor parallelCursor = parallelFactory.getCursor(sqlExecutionContext)
+                    ) {
+                        TestUtils.assertEquals(serialCursor, serialFactory.getMetadata(), parallelCursor, parallelFactory.getMetadata(), false);
+                    }
+                }
+            }
+        }
+    }
+
+    private void withPool(TestUtils.LeakProneCode code) throws Exception {
+        assertMemoryLeak(() -> {
+            WorkerPool pool = new TestWorkerPool(4);
+            TestUtils.setupWorkerPool(pool, engine);
+            pool.start();
+            try {
+                code.run();
+            } finally {
+                pool.halt();
+            }
+        });
+    }
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.engine.groupby.SampleByFillNoneRecordCursorFactory;
+import io.questdb.mp.TestWorkerPool;
+import io.questdb.mp.WorkerPool;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class AsyncSampleByRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @BeforeClass
+    public static void setUpStatic() {
+        // small frames to make sure that each query is split into many page frames
+        pageFrameMaxRows = 1000;
+        pageFrameReduceShardCount = 1;
+        AbstractGriffinTest.setUpStatic();
+    }
+
+    @Test
+    public void testAlignToCalendarWithOffset() throws Exception {
+        withPool(() -> {
+            compile("create table x as (" +
+                    "select rnd_symbol('a','b','c') s, rnd_double() d, timestamp_sequence(17000000, 1000000) ts " +
+                    "from long_sequence(20000)" +
+                    ") timestamp(ts) partition by hour");
+            assertParallelMatchesSerial("select ts, s, count(), sum(d), max(d) from x sample by 7m align to calendar with offset '00:03'");
+        });
+    }
+
+    @Test
+    public void testAlignToFirstObservation() throws Exception {
+        withPool(() -> {
+            compile("create table x as (" +
+                    "select rnd_symbol('a','b','c','d') s, rnd_int(0, 100, 2) i, rnd_double(2) d, timestamp_sequence(123456789, 333333) ts " +
+                    "from long_sequence(50000)" +
+                    ") timestamp(ts) partition by hour");
+            assertParallelMatchesSerial("select ts, s, count(), sum(i), avg(d), min(d) from x sample by 5m");
+        });
+    }
+
+    @Test
+    public void testFallbackToSerial() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select rnd_symbol('a','b') s, rnd_double() d, timestamp_sequence(0, 1000000) ts from long_sequence(10)" +
+                    ") timestamp(ts) partition by day");
+            // time zones may shift bucket boundaries mid-scan, so they are handled serially
+            try (RecordCursorFactory factory = compiler.compile("select ts, s, sum(d) from x sample by 1h align to calendar time zone 'Europe/Berlin'", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(SampleByFillNoneRecordCursorFactory.class, factory.getClass());
+            }
+            // first() depends on the row order
+            try (RecordCursorFactory factory = compiler.compile("select ts, s, first(d) from x sample by 1h", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(SampleByFillNoneRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testMonthlyBuckets() throws Exception {
+        withPool(() -> {
+            compile("create table x as (" +
+                    "select rnd_symbol('a','b','c') s, rnd_long(0, 1000, 0) l, timestamp_sequence(0, 600000000) ts " +
+                    "from long_sequence(20000)" +
+                    ") timestamp(ts) partition by month");
+            assertParallelMatchesSerial("select ts, s, count(), sum(l) from x sample by 1M align to calendar");
+        });
+    }
+
+    @Test
+    public void testNotKeyed() throws Exception {
+        withPool(() -> {
+            compile("create table x as (" +
+                    "select x v, timestamp_sequence(0, 100000) ts from long_sequence(10000)" +
+                    ") timestamp(ts) partition by hour");
+
+            final String expected = "ts\tcount\tsum\n" +
+                    "1970-01-01T00:00:00.000000Z\t3000\t4501500\n" +
+                    "1970-01-01T00:05:00.000000Z\t3000\t13501500\n" +
+                    "1970-01-01T00:10:00.000000Z\t3000\t22501500\n" +
+                    "1970-01-01T00:15:00.000000Z\t1000\t9500500\n";
+            try (RecordCursorFactory factory = compiler.compile("select ts, count(), sum(v) from x sample by 5m", sqlExecutionContext).getRecordCursorFactory()) {
+                for (int i = 0; i < 3; i++) {
+                    assertCursor(expected, factory, true, true, true);
+                }
+            }
+        });
+    }
+
+    private void assertParallelMatchesSerial(String sampleByQuery) throws Exception {
+        enableParallelGroupBy = true;
+        TestUtils.assertContains(getPlan(sampleByQuery).getText(), "AsyncSampleByRecord");
+
+        // rows within a bucket are not ordered when executed in parallel
+        final String query = "select * from (" + sampleByQuery + ") order by ts, s";
+        enableParallelGroupBy = false;
+        try (RecordCursorFactory serialFactory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            enableParallelGroupBy = true;
+            try (RecordCursorFactory parallelFactory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                for (int i = 0; i < 3; i++) {
+                    try (
+                            RecordCursor serialCursor = serialFactory.getCursor(sqlExecutionContext);
+                            RecordCursor parallelCursor = parallelFactory.getCursor(sqlExecutionContext)
+                    ) {
+                        TestUtils.assertEquals(serialCursor, serialFactory.getMetadata(), parallelCursor, parallelFactory.getMetadata(), false);
+                    }
+                }
+            }
+        }
+    }
+
+    private void withPool(TestUtils.LeakProneCode code) throws Exception {
+        assertMemoryLeak(() -> {
+            WorkerPool pool = new TestWorkerPool(4);
+            TestUtils.setupWorkerPool(pool, engine);
+            pool.start();
+            try {
+                code.run();
+            } finally {
+                pool.halt();
+            }
+        });
+    }
+}
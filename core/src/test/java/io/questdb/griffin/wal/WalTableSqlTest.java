@@ -24,12 +24,16 @@
 
 package io.questdb.griffin.wal;
 
+import io.questdb.cairo.TableReader;
 import io.questdb.cairo.TableWriter;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.InsertMethod;
 import io.questdb.cairo.sql.InsertOperation;
+import io.questdb.cairo.wal.WalWriter;
 import io.questdb.griffin.AbstractGriffinTest;
 import io.questdb.griffin.CompiledQuery;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
 import org.junit.Test;
 
 public class WalTableSqlTest extends AbstractGriffinTest {
@@ -238,6 +242,23 @@ public class WalTableSqlTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testCoalesceWalTransactions() throws Exception {
+        // 10 transactions, 30 rows each, are applied as one table commit
+        assertCoalescedWalTransactions(-1, 1);
+    }
+
+    @Test
+    public void testCoalesceWalTransactionsDisabled() throws Exception {
+        assertCoalescedWalTransactions(0, 10);
+    }
+
+    @Test
+    public void testCoalesceWalTransactionsRowCountLimit() throws Exception {
+        // commits of 3, 3, 3 transactions and the last one applied on its own
+        assertCoalescedWalTransactions(80, 4);
+    }
+
     @Test
     public void testCreateWalDropColumnInsert() throws Exception {
         assertMemoryLeak(() -> {
@@ -417,4 +438,46 @@ public class WalTableSqlTest extends AbstractGriffinTest {
 
         });
     }
+
+    private void assertCoalescedWalTransactions(long coalesceRowCount, long expectedTxn) throws Exception {
+        walApplyCoalesceRowCount = coalesceRowCount;
+        assertMemoryLeak(() -> {
+            String tableName = "coalesced";
+            compile("create table src as (" +
+                    "select x, " +
+                    " rnd_symbol('AB', 'BC', null) sym, " +
+                    " cast(null as symbol) sym_null, " +
+                    " rnd_str(3, 5, 1) str, " +
+                    " rnd_double() d, " +
+                    " rnd_boolean() b, " +
+                    " rnd_char() c, " +
+                    " rnd_geohash(20) g, " +
+                    " rnd_long256() l256, " +
+                    " rnd_bin(2, 8, 1) bin, " +
+                    " timestamp_sequence('2022-02-24', 3600000000L) ts " +
+                    " from long_sequence(300)" +
+                    ") timestamp(ts) partition by DAY");
+            compile("create table " + tableName + " as (select * from src where 1 = 0) timestamp(ts) partition by DAY WAL");
+
+            // every transaction spans the whole timestamp range, even ones go to a different WAL
+            for (int i = 0; i < 10; i++) {
+                final String insert = "insert into " + tableName + " select * from src where x % 10 = " + i;
+                if (i % 2 == 0) {
+                    try (WalWriter ignored = engine.getWalWriter(sqlExecutionContext.getCairoSecurityContext(), tableName)) {
+                        compile(insert);
+                    }
+                } else {
+                    compile(insert);
+                }
+            }
+
+            drainWalQueue();
+
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "src", tableName, LOG);
+            try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), tableName)) {
+                Assert.assertEquals(expectedTxn, reader.getTxn());
+                Assert.assertEquals(10, reader.getTxFile().getSeqTxn());
+            }
+        });
+    }
 }